@@ -16,14 +16,16 @@
 package pl.kodujdlapolski.na4lapy;
 
 import android.content.Intent;
+import android.database.sqlite.SQLiteDatabase;
+import android.support.test.InstrumentationRegistry;
 import android.support.test.rule.ActivityTestRule;
 
+import org.junit.After;
+import org.junit.Before;
 import org.junit.Rule;
 import org.junit.Test;
 
-import java.util.ArrayList;
-
-import pl.kodujdlapolski.na4lapy.model.Photo;
+import pl.kodujdlapolski.na4lapy.service.repository.database.DatabaseHelper;
 import pl.kodujdlapolski.na4lapy.ui.details.AnimalGalleryActivity;
 
 import static android.support.test.espresso.Espresso.onView;
@@ -34,9 +36,39 @@ import static org.hamcrest.CoreMatchers.allOf;
 
 public class AnimalGalleryActivityTest {
 
+    private static final long ANIMAL_ID = 1000000000L;
+    private static final String[] PHOTO_URLS = {
+            "http://cdn23.se.smcloud.net/t/photos/t/389279/labrador-retriever-pies_23597760.jpg",
+            "http://www.dobrylekarz.info/files/images/pies-sennik-sen-tlumaczenie-interpretacja-snu-pies.jpg",
+            "http://bi.gazeta.pl/im/48/ec/f7/z16247880Q,Pies-byl-pierwszym-zwierzeciem-idomowionym-przez-c.jpg",
+            "http://schroniskopromyk.pl/wp-content/uploads/2016/02/Morus-5-150x150.jpg"
+    };
+
     @Rule
     public ActivityTestRule<AnimalGalleryActivity> activityRule = new ActivityTestRule<>(AnimalGalleryActivity.class, false, false);
 
+    private DatabaseHelper databaseHelper;
+
+    // the gallery gets only the animal id and loads the photos itself
+    @Before
+    public void setUp() throws Exception {
+        databaseHelper = new DatabaseHelper(InstrumentationRegistry.getTargetContext());
+        SQLiteDatabase database = databaseHelper.getWritableDatabase();
+        database.execSQL("INSERT OR REPLACE INTO animals (id, name, favourite) VALUES (?, ?, 0)",
+                new Object[]{ANIMAL_ID, "gallery"});
+        for (int i = 0; i < PHOTO_URLS.length; i++) {
+            database.execSQL("INSERT OR REPLACE INTO photos (id, url, animal_id) VALUES (?, ?, ?)",
+                    new Object[]{ANIMAL_ID + i, PHOTO_URLS[i], ANIMAL_ID});
+        }
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        SQLiteDatabase database = databaseHelper.getWritableDatabase();
+        database.delete("photos", "animal_id = ?", new String[]{String.valueOf(ANIMAL_ID)});
+        database.delete("animals", "id = ?", new String[]{String.valueOf(ANIMAL_ID)});
+    }
+
     @Test
     public void isFirstPhotoDisplayed() {
         activityRule.launchActivity(initiateIntent(0));
@@ -62,27 +94,10 @@ public class AnimalGalleryActivityTest {
     }
 
     private static Intent initiateIntent(int index) {
-        ArrayList<Photo> gallery = new ArrayList<>();
-        createPhotoGallery(gallery);
         Intent i = new Intent();
-        i.putExtra(AnimalGalleryActivity.EXTRA_GALLERY, gallery);
+        i.putExtra(AnimalGalleryActivity.EXTRA_ANIMAL_ID, ANIMAL_ID);
         i.putExtra(AnimalGalleryActivity.EXTRA_SELECTED_PIC, index);
         return i;
     }
 
-    private static void createPhotoGallery(ArrayList<Photo> gallery) {
-        Photo photo = new Photo();
-        photo.setUrl("http://cdn23.se.smcloud.net/t/photos/t/389279/labrador-retriever-pies_23597760.jpg");
-        gallery.add(photo);
-        photo = new Photo();
-        photo.setUrl("http://www.dobrylekarz.info/files/images/pies-sennik-sen-tlumaczenie-interpretacja-snu-pies.jpg");
-        gallery.add(photo);
-        photo = new Photo();
-        photo.setUrl("http://bi.gazeta.pl/im/48/ec/f7/z16247880Q,Pies-byl-pierwszym-zwierzeciem-idomowionym-przez-c.jpg");
-        gallery.add(photo);
-        photo = new Photo();
-        photo.setUrl("http://schroniskopromyk.pl/wp-content/uploads/2016/02/Morus-5-150x150.jpg");
-        gallery.add(photo);
-    }
-
 }
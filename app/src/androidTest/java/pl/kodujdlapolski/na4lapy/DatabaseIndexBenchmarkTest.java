@@ -0,0 +1,173 @@
+/*
+ *	Copyright 2017 Stowarzyszenie Na4Łapy
+ *
+ *	Licensed under the Apache License, Version 2.0 (the "License");
+ *	you may not use this file except in compliance with the License.
+ *	You may obtain a copy of the License at
+ *
+ *	http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *	Unless required by applicable law or agreed to in writing, software
+ *	distributed under the License is distributed on an "AS IS" BASIS,
+ *	WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *	See the License for the specific language governing permissions and
+ *	limitations under the License.
+ */
+package pl.kodujdlapolski.na4lapy;
+
+import android.database.sqlite.SQLiteDatabase;
+import android.database.sqlite.SQLiteStatement;
+import android.support.test.InstrumentationRegistry;
+import android.support.test.runner.AndroidJUnit4;
+import android.util.Log;
+
+import com.j256.ormlite.dao.Dao;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.Collections;
+import java.util.List;
+
+import pl.kodujdlapolski.na4lapy.model.Animal;
+import pl.kodujdlapolski.na4lapy.model.Photo;
+import pl.kodujdlapolski.na4lapy.model.Shelter;
+import pl.kodujdlapolski.na4lapy.model.type.Species;
+import pl.kodujdlapolski.na4lapy.service.repository.PhotoLoader;
+import pl.kodujdlapolski.na4lapy.service.repository.database.DaoRegistry;
+import pl.kodujdlapolski.na4lapy.service.repository.database.DatabaseHelper;
+import pl.kodujdlapolski.na4lapy.service.repository.database.DatabaseMigration;
+import pl.kodujdlapolski.na4lapy.service.repository.database.DatabaseMigrations;
+import pl.kodujdlapolski.na4lapy.service.repository.database.DatabaseRepositoryImpl;
+import pl.kodujdlapolski.na4lapy.service.repository.database.QueryStatistics;
+
+import static org.junit.Assert.assertEquals;
+
+@RunWith(AndroidJUnit4.class)
+public class DatabaseIndexBenchmarkTest {
+
+    private static final int ANIMALS = 50000;
+    private static final int PHOTOS_PER_ANIMAL = 5;
+    private static final int SHELTERS = 50;
+    private static final int ITERATIONS = 200;
+    private static final long FIRST_ID = 1000000000L;
+
+    private static final String[] INDEXES = {
+            DatabaseMigrations.INDEX_ANIMALS_SPECIES,
+            DatabaseMigrations.INDEX_ANIMALS_GENDER,
+            DatabaseMigrations.INDEX_ANIMALS_SIZE,
+            DatabaseMigrations.INDEX_ANIMALS_ACTIVITY,
+            DatabaseMigrations.INDEX_ANIMALS_FAVOURITE,
+            DatabaseMigrations.INDEX_ANIMALS_SHELTER_ID,
+            DatabaseMigrations.INDEX_PHOTOS_ANIMAL_ID
+    };
+
+    private DatabaseHelper databaseHelper;
+    private DatabaseRepositoryImpl databaseRepository;
+
+    @Before
+    public void setUp() throws Exception {
+        databaseHelper = new DatabaseHelper(InstrumentationRegistry.getTargetContext());
+        databaseRepository = new DatabaseRepositoryImpl(
+                new DaoRegistry(databaseHelper.getConnectionSource()), new QueryStatistics());
+        populate(databaseHelper.getWritableDatabase());
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        SQLiteDatabase database = databaseHelper.getWritableDatabase();
+        String[] args = {String.valueOf(FIRST_ID)};
+        database.delete("photos", "id >= ?", args);
+        database.delete("animals", "id >= ?", args);
+        database.delete("shelters", "id >= ?", args);
+        createIndexes(database);
+    }
+
+    @Test
+    public void testLookupsWithAndWithoutIndexes() throws Exception {
+        SQLiteDatabase database = databaseHelper.getWritableDatabase();
+
+        for (String index : INDEXES) {
+            database.execSQL("DROP INDEX IF EXISTS `" + index + "`");
+        }
+        long[] withoutIndexes = measure();
+
+        createIndexes(database);
+        long[] withIndexes = measure();
+
+        Log.i(getClass().getSimpleName(), String.format(
+                "%d animals, %d photos, x%d: animals by shelter %d -> %d ms, photos by animal %d -> %d ms, count by species %d -> %d ms",
+                ANIMALS, ANIMALS * PHOTOS_PER_ANIMAL, ITERATIONS,
+                withoutIndexes[0], withIndexes[0], withoutIndexes[1], withIndexes[1], withoutIndexes[2], withIndexes[2]));
+    }
+
+    private long[] measure() throws Exception {
+        Dao<Animal, Long> animalDao = databaseRepository.getDao(Animal.class);
+        long[] result = new long[3];
+
+        long start = System.nanoTime();
+        for (int i = 0; i < ITERATIONS; i++) {
+            List<Animal> animals = databaseRepository.findAllByForeignId(FIRST_ID + i % SHELTERS, Animal.class, Shelter.class);
+            assertEquals(ANIMALS / SHELTERS, animals.size());
+        }
+        result[0] = (System.nanoTime() - start) / 1000000;
+
+        start = System.nanoTime();
+        for (int i = 0; i < ITERATIONS; i++) {
+            List<Photo> photos = databaseRepository.findAllByForeignIds(Collections.singletonList(FIRST_ID + i * (ANIMALS / ITERATIONS)),
+                    Photo.COLUMN_NAME_ANIMAL_ID, PhotoLoader.ORDER_BY_INSERTION, Photo.class);
+            assertEquals(PHOTOS_PER_ANIMAL, photos.size());
+        }
+        result[1] = (System.nanoTime() - start) / 1000000;
+
+        start = System.nanoTime();
+        for (int i = 0; i < ITERATIONS; i++) {
+            animalDao.queryBuilder().where().eq("species", Species.values()[i % Species.values().length]).countOf();
+        }
+        result[2] = (System.nanoTime() - start) / 1000000;
+        return result;
+    }
+
+    private void createIndexes(SQLiteDatabase database) {
+        List<DatabaseMigration> migrations = DatabaseMigrations.getMigrations(2, 3);
+        for (DatabaseMigration migration : migrations) {
+            migration.migrate(database);
+        }
+    }
+
+    private void populate(SQLiteDatabase database) {
+        database.beginTransaction();
+        try {
+            SQLiteStatement shelter = database.compileStatement("INSERT OR REPLACE INTO shelters (id, name) VALUES (?, ?)");
+            for (int i = 0; i < SHELTERS; i++) {
+                shelter.bindLong(1, FIRST_ID + i);
+                shelter.bindString(2, "shelter " + i);
+                shelter.executeInsert();
+            }
+            SQLiteStatement animal = database.compileStatement(
+                    "INSERT OR REPLACE INTO animals (id, name, species, shelter_id, favourite) VALUES (?, ?, ?, ?, 0)");
+            SQLiteStatement photo = database.compileStatement(
+                    "INSERT OR REPLACE INTO photos (id, url, animal_id) VALUES (?, ?, ?)");
+            long photoId = FIRST_ID;
+            for (int i = 0; i < ANIMALS; i++) {
+                long animalId = FIRST_ID + i;
+                animal.bindLong(1, animalId);
+                animal.bindString(2, "animal " + i);
+                animal.bindString(3, Species.values()[i % Species.values().length].name());
+                animal.bindLong(4, FIRST_ID + i % SHELTERS);
+                animal.executeInsert();
+                for (int j = 0; j < PHOTOS_PER_ANIMAL; j++) {
+                    photo.bindLong(1, photoId++);
+                    photo.bindString(2, "http://example.com/" + animalId + "/" + j + ".jpg");
+                    photo.bindLong(3, animalId);
+                    photo.executeInsert();
+                }
+            }
+            database.setTransactionSuccessful();
+        } finally {
+            database.endTransaction();
+        }
+    }
+}
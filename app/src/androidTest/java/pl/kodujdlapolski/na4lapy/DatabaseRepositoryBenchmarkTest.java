@@ -0,0 +1,89 @@
+/*
+ *	Copyright 2017 Stowarzyszenie Na4Łapy
+ *
+ *	Licensed under the Apache License, Version 2.0 (the "License");
+ *	you may not use this file except in compliance with the License.
+ *	You may obtain a copy of the License at
+ *
+ *	http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *	Unless required by applicable law or agreed to in writing, software
+ *	distributed under the License is distributed on an "AS IS" BASIS,
+ *	WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *	See the License for the specific language governing permissions and
+ *	limitations under the License.
+ */
+package pl.kodujdlapolski.na4lapy;
+
+import android.support.test.InstrumentationRegistry;
+import android.support.test.runner.AndroidJUnit4;
+import android.util.Log;
+
+import com.j256.ormlite.android.AndroidConnectionSource;
+import com.j256.ormlite.dao.Dao;
+import com.j256.ormlite.dao.DaoManager;
+import com.j256.ormlite.support.ConnectionSource;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import pl.kodujdlapolski.na4lapy.model.Animal;
+import pl.kodujdlapolski.na4lapy.service.repository.database.DaoRegistry;
+import pl.kodujdlapolski.na4lapy.service.repository.database.DatabaseHelper;
+import pl.kodujdlapolski.na4lapy.service.repository.database.DatabaseRepositoryImpl;
+import pl.kodujdlapolski.na4lapy.service.repository.database.QueryStatistics;
+
+import static org.junit.Assert.assertNotNull;
+
+@RunWith(AndroidJUnit4.class)
+public class DatabaseRepositoryBenchmarkTest {
+
+    private static final int ITERATIONS = 10000;
+    private static final Long ANIMAL_ID = Long.MAX_VALUE;
+
+    private DatabaseHelper databaseHelper;
+    private DatabaseRepositoryImpl databaseRepository;
+
+    @Before
+    public void setUp() throws Exception {
+        databaseHelper = new DatabaseHelper(InstrumentationRegistry.getTargetContext());
+        databaseRepository = new DatabaseRepositoryImpl(
+                new DaoRegistry(databaseHelper.getConnectionSource()), new QueryStatistics());
+        Animal animal = new Animal();
+        animal.setId(ANIMAL_ID);
+        animal.setName("benchmark");
+        databaseRepository.save(animal);
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        Dao<Animal, Long> dao = databaseRepository.getDao(Animal.class);
+        dao.deleteById(ANIMAL_ID);
+    }
+
+    @Test
+    public void testFindOneByIdOldAndNewPath() throws Exception {
+        long start = System.nanoTime();
+        for (int i = 0; i < ITERATIONS; i++) {
+            ConnectionSource connectionSource = new AndroidConnectionSource(databaseHelper);
+            Dao<Animal, Long> dao = DaoManager.createDao(connectionSource, Animal.class);
+            assertNotNull(dao.queryForId(ANIMAL_ID));
+            connectionSource.close();
+        }
+        long oldPathNanos = System.nanoTime() - start;
+
+        start = System.nanoTime();
+        for (int i = 0; i < ITERATIONS; i++) {
+            assertNotNull(databaseRepository.findOneById(ANIMAL_ID, Animal.class));
+        }
+        long newPathNanos = System.nanoTime() - start;
+
+        QueryStatistics.Timing timing = databaseRepository.getQueryStatistics().snapshot()
+                .get(DatabaseRepositoryImpl.QUERY_FIND_ONE_BY_ID);
+        Log.i(getClass().getSimpleName(), String.format("findOneById x%d: old %d ms, new %d ms, avg %d us, max %d us",
+                ITERATIONS, oldPathNanos / 1000000, newPathNanos / 1000000,
+                timing.getAverageMicros(), timing.getMaxNanos() / 1000));
+    }
+}
@@ -0,0 +1,167 @@
+/*
+ *	Copyright 2017 Stowarzyszenie Na4Łapy
+ *
+ *	Licensed under the Apache License, Version 2.0 (the "License");
+ *	you may not use this file except in compliance with the License.
+ *	You may obtain a copy of the License at
+ *
+ *	http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *	Unless required by applicable law or agreed to in writing, software
+ *	distributed under the License is distributed on an "AS IS" BASIS,
+ *	WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *	See the License for the specific language governing permissions and
+ *	limitations under the License.
+ */
+package pl.kodujdlapolski.na4lapy;
+
+import android.content.Context;
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.graphics.Color;
+import android.support.test.InstrumentationRegistry;
+import android.support.test.runner.AndroidJUnit4;
+import android.util.Log;
+
+import com.squareup.picasso.MemoryPolicy;
+import com.squareup.picasso.Picasso;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.util.Arrays;
+import java.util.List;
+
+import jp.wasabeef.picasso.transformations.BlurTransformation;
+import jp.wasabeef.picasso.transformations.ColorFilterTransformation;
+import jp.wasabeef.picasso.transformations.CropCircleTransformation;
+import okhttp3.OkHttpClient;
+import okhttp3.mockwebserver.Dispatcher;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+import okio.Buffer;
+import pl.kodujdlapolski.na4lapy.service.image.DerivedImage;
+import pl.kodujdlapolski.na4lapy.service.image.ImageModule;
+import pl.kodujdlapolski.na4lapy.service.image.ImageService;
+import pl.kodujdlapolski.na4lapy.service.image.ImageStatistics;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Compares the header images of the details screen made the old way, two uncached Picasso
+ * requests with the transformations on the full photo, with the derived image cache, first
+ * cold, then after a restart with only the disk cache left.
+ */
+@RunWith(AndroidJUnit4.class)
+public class DetailsHeaderBenchmarkTest {
+
+    private static final int OPENS = 10;
+    private static final int PHOTO_WIDTH = 1600;
+    private static final int PHOTO_HEIGHT = 1200;
+    private static final int HEADER_WIDTH = 1080;
+    private static final int HEADER_HEIGHT = 750;
+    private static final int PROFILE_SIZE = 300;
+    private static final int MEMORY_CACHE_BYTES = 16 * 1024 * 1024;
+    private static final int OVERLAY = Color.argb(128, 0, 0, 0);
+
+    private MockWebServer server;
+    private byte[] photo;
+    private File variantDirectory;
+
+    @Before
+    public void setUp() throws Exception {
+        photo = createPhoto();
+        server = new MockWebServer();
+        server.setDispatcher(new Dispatcher() {
+            @Override
+            public MockResponse dispatch(RecordedRequest request) {
+                return new MockResponse().setBody(new Buffer().write(photo));
+            }
+        });
+        server.start();
+        variantDirectory = new File(InstrumentationRegistry.getTargetContext().getCacheDir(), "derived-images-test");
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        server.shutdown();
+        File[] files = variantDirectory.listFiles();
+        if (files != null) {
+            for (File file : files) {
+                file.delete();
+            }
+        }
+        variantDirectory.delete();
+    }
+
+    @Test
+    public void testHeaderImages() throws Exception {
+        Context context = InstrumentationRegistry.getTargetContext();
+        Picasso picasso = new Picasso.Builder(context).build();
+        long start = System.nanoTime();
+        for (int i = 0; i < OPENS; i++) {
+            picasso.load(url(i))
+                    .memoryPolicy(MemoryPolicy.NO_STORE, MemoryPolicy.NO_CACHE)
+                    .transform(new BlurTransformation(context, 2))
+                    .transform(new ColorFilterTransformation(OVERLAY))
+                    .get();
+            picasso.load(url(i))
+                    .memoryPolicy(MemoryPolicy.NO_STORE, MemoryPolicy.NO_CACHE)
+                    .transform(new CropCircleTransformation())
+                    .get();
+        }
+        long uncachedMillis = (System.nanoTime() - start) / 1000000;
+        picasso.shutdown();
+
+        OkHttpClient client = new OkHttpClient();
+        ImageService imageService = ImageModule.createImageService(context, client, variantDirectory, MEMORY_CACHE_BYTES);
+        start = System.nanoTime();
+        open(context, imageService);
+        long coldMillis = (System.nanoTime() - start) / 1000000;
+        ImageStatistics.Snapshot cold = imageService.getStatistics();
+
+        ImageService restarted = ImageModule.createImageService(context, client, variantDirectory, MEMORY_CACHE_BYTES);
+        start = System.nanoTime();
+        open(context, restarted);
+        long diskMillis = (System.nanoTime() - start) / 1000000;
+        ImageStatistics.Snapshot disk = restarted.getStatistics();
+
+        assertEquals(OPENS, cold.getNetworkRequests());
+        assertEquals(0, disk.getNetworkRequests());
+        assertEquals(2 * OPENS, disk.getDiskHits());
+
+        Log.i(getClass().getSimpleName(), String.format(
+                "%d opens of a %dx%d photo: uncached %d ms, %d downloads; derived cold %d ms, %s; after restart %d ms, %s",
+                OPENS, PHOTO_WIDTH, PHOTO_HEIGHT, uncachedMillis, 2 * OPENS, coldMillis, cold, diskMillis, disk));
+    }
+
+    private void open(Context context, ImageService imageService) {
+        for (int i = 0; i < OPENS; i++) {
+            List<Bitmap> bitmaps = imageService.loadDerived(url(i), Arrays.asList(
+                    new DerivedImage(HEADER_WIDTH, HEADER_HEIGHT, new BlurTransformation(context, 1, 2),
+                            new ColorFilterTransformation(OVERLAY)),
+                    new DerivedImage(PROFILE_SIZE, PROFILE_SIZE, new CropCircleTransformation())))
+                    .toBlocking().first();
+            assertEquals(HEADER_WIDTH / 2, bitmaps.get(0).getWidth());
+            assertEquals(PROFILE_SIZE, bitmaps.get(1).getWidth());
+        }
+    }
+
+    private String url(int index) {
+        return server.url("/photos/" + index + ".jpg").toString();
+    }
+
+    private static byte[] createPhoto() {
+        Bitmap bitmap = Bitmap.createBitmap(PHOTO_WIDTH, PHOTO_HEIGHT, Bitmap.Config.ARGB_8888);
+        new Canvas(bitmap).drawColor(Color.rgb(120, 90, 60));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        bitmap.compress(Bitmap.CompressFormat.JPEG, 90, out);
+        bitmap.recycle();
+        return out.toByteArray();
+    }
+}
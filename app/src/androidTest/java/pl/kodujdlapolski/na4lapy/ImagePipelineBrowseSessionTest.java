@@ -0,0 +1,155 @@
+/*
+ *	Copyright 2017 Stowarzyszenie Na4Łapy
+ *
+ *	Licensed under the Apache License, Version 2.0 (the "License");
+ *	you may not use this file except in compliance with the License.
+ *	You may obtain a copy of the License at
+ *
+ *	http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *	Unless required by applicable law or agreed to in writing, software
+ *	distributed under the License is distributed on an "AS IS" BASIS,
+ *	WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *	See the License for the specific language governing permissions and
+ *	limitations under the License.
+ */
+package pl.kodujdlapolski.na4lapy;
+
+import android.content.Context;
+import android.graphics.Bitmap;
+import android.graphics.BitmapFactory;
+import android.graphics.Canvas;
+import android.graphics.Color;
+import android.support.test.InstrumentationRegistry;
+import android.support.test.runner.AndroidJUnit4;
+import android.util.Log;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+
+import okhttp3.OkHttpClient;
+import okhttp3.Request;
+import okhttp3.Response;
+import okhttp3.mockwebserver.Dispatcher;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+import okio.Buffer;
+import pl.kodujdlapolski.na4lapy.service.image.ImageModule;
+import pl.kodujdlapolski.na4lapy.service.image.ImageService;
+import pl.kodujdlapolski.na4lapy.service.image.ImageStatistics;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Replays a browse session (scroll through the list, scroll back, reopen the app) against a local
+ * stand-in for the photo server and logs decode time and network bytes per session, once for
+ * full-size decoding without caches and once through the image service.
+ */
+@RunWith(AndroidJUnit4.class)
+public class ImagePipelineBrowseSessionTest {
+
+    private static final int PHOTOS = 30;
+    private static final int PHOTO_WIDTH = 1600;
+    private static final int PHOTO_HEIGHT = 1200;
+    private static final int CARD_WIDTH = 480;
+    private static final int CARD_HEIGHT = 360;
+    private static final int MEMORY_CACHE_BYTES = 8 * 1024 * 1024;
+
+    private MockWebServer server;
+    private byte[] photo;
+    private File variantDirectory;
+
+    @Before
+    public void setUp() throws Exception {
+        photo = createPhoto();
+        server = new MockWebServer();
+        server.setDispatcher(new Dispatcher() {
+            @Override
+            public MockResponse dispatch(RecordedRequest request) {
+                return new MockResponse().setBody(new Buffer().write(photo));
+            }
+        });
+        server.start();
+        variantDirectory = new File(InstrumentationRegistry.getTargetContext().getCacheDir(), "image-variants-test");
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        server.shutdown();
+        File[] files = variantDirectory.listFiles();
+        if (files != null) {
+            for (File file : files) {
+                file.delete();
+            }
+        }
+        variantDirectory.delete();
+    }
+
+    @Test
+    public void testBrowseSession() throws Exception {
+        OkHttpClient client = new OkHttpClient();
+
+        long networkBytes = 0;
+        long start = System.nanoTime();
+        for (int pass = 0; pass < 3; pass++) {
+            for (int i = 0; i < PHOTOS; i++) {
+                Response response = client.newCall(new Request.Builder().url(url(i)).build()).execute();
+                byte[] data = response.body().bytes();
+                networkBytes += data.length;
+                Bitmap bitmap = BitmapFactory.decodeByteArray(data, 0, data.length);
+                assertEquals(PHOTO_WIDTH, bitmap.getWidth());
+                bitmap.recycle();
+            }
+        }
+        long uncachedMicros = (System.nanoTime() - start) / 1000;
+
+        Context context = InstrumentationRegistry.getTargetContext();
+        ImageService imageService = ImageModule.createImageService(context, client, variantDirectory, MEMORY_CACHE_BYTES);
+        browse(imageService);
+        browse(imageService);
+        ImageStatistics.Snapshot warm = imageService.getStatistics();
+
+        // a new process starts with an empty memory cache but keeps the variants on disk
+        ImageService restarted = ImageModule.createImageService(context, client, variantDirectory, MEMORY_CACHE_BYTES);
+        browse(restarted);
+        ImageStatistics.Snapshot cold = restarted.getStatistics();
+
+        assertEquals(PHOTOS, warm.getNetworkRequests());
+        assertEquals(0, cold.getNetworkRequests());
+        assertEquals(PHOTOS, cold.getDiskHits());
+        assertEquals(PHOTOS, warm.getDiskHits());
+
+        Log.i(getClass().getSimpleName(), String.format(
+                "%d photos %dx%d into %dx%d, 3 passes: uncached %d us, %d bytes; image service %d us decoding, %d bytes; %s; after restart %s",
+                PHOTOS, PHOTO_WIDTH, PHOTO_HEIGHT, CARD_WIDTH, CARD_HEIGHT, uncachedMicros, networkBytes,
+                warm.getDecodeMicros() + cold.getDecodeMicros(), warm.getNetworkBytes() + cold.getNetworkBytes(),
+                warm, cold));
+    }
+
+    // Picasso's get() does not fill the memory cache, so repeated passes here measure the disk tier
+    private void browse(ImageService imageService) throws Exception {
+        for (int i = 0; i < PHOTOS; i++) {
+            Bitmap bitmap = imageService.load(url(i), CARD_WIDTH, CARD_HEIGHT).get();
+            assertEquals(CARD_WIDTH, bitmap.getWidth());
+        }
+    }
+
+    private String url(int index) {
+        return server.url("/photos/" + index + ".jpg").toString();
+    }
+
+    private static byte[] createPhoto() {
+        Bitmap bitmap = Bitmap.createBitmap(PHOTO_WIDTH, PHOTO_HEIGHT, Bitmap.Config.ARGB_8888);
+        new Canvas(bitmap).drawColor(Color.rgb(120, 90, 60));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        bitmap.compress(Bitmap.CompressFormat.JPEG, 90, out);
+        bitmap.recycle();
+        return out.toByteArray();
+    }
+}
@@ -0,0 +1,92 @@
+/*
+ *	Copyright 2017 Stowarzyszenie Na4Łapy
+ *
+ *	Licensed under the Apache License, Version 2.0 (the "License");
+ *	you may not use this file except in compliance with the License.
+ *	You may obtain a copy of the License at
+ *
+ *	http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *	Unless required by applicable law or agreed to in writing, software
+ *	distributed under the License is distributed on an "AS IS" BASIS,
+ *	WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *	See the License for the specific language governing permissions and
+ *	limitations under the License.
+ */
+package pl.kodujdlapolski.na4lapy.ui.browse.single;
+
+import android.os.StrictMode;
+import android.support.test.InstrumentationRegistry;
+import android.support.test.rule.ActivityTestRule;
+import android.support.test.runner.AndroidJUnit4;
+import android.support.v7.widget.RecyclerView;
+
+import org.joda.time.LocalDate;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import pl.kodujdlapolski.na4lapy.R;
+import pl.kodujdlapolski.na4lapy.model.AnimalSummary;
+import pl.kodujdlapolski.na4lapy.model.type.ActivityAnimal;
+import pl.kodujdlapolski.na4lapy.model.type.Gender;
+import pl.kodujdlapolski.na4lapy.model.type.Size;
+import pl.kodujdlapolski.na4lapy.model.type.Species;
+
+/**
+ * Binds a page of animals on the main thread with a StrictMode policy that kills the process
+ * on any disk read, so a bind that goes back to the database fails the run.
+ */
+@RunWith(AndroidJUnit4.class)
+public class SingleBrowseBindStrictModeTest {
+
+    private static final int ANIMALS = 30;
+
+    @Rule
+    public ActivityTestRule<SingleBrowseActivity> activityRule = new ActivityTestRule<>(SingleBrowseActivity.class);
+
+    @Test
+    public void testBindShouldNotReadFromDisk() {
+        InstrumentationRegistry.getInstrumentation().runOnMainSync(new Runnable() {
+            @Override
+            public void run() {
+                RecyclerView recyclerView = (RecyclerView) activityRule.getActivity().findViewById(R.id.list);
+                SingleBrowseAdapter liveAdapter = (SingleBrowseAdapter) recyclerView.getAdapter();
+                SingleBrowseAdapter adapter = new SingleBrowseAdapter(createSummaries(),
+                        liveAdapter.onBrowseElementClickedAction, liveAdapter.userService);
+                List<SingleBrowseViewHolder> holders = new ArrayList<>();
+                for (int i = 0; i < ANIMALS; i++) {
+                    holders.add(adapter.onCreateViewHolder(recyclerView, 0));
+                }
+                // the first bind sets up Picasso and its disk cache, which is not part of the bind path
+                adapter.onBindViewHolder(holders.get(0), 0);
+
+                StrictMode.ThreadPolicy previous = StrictMode.getThreadPolicy();
+                StrictMode.setThreadPolicy(new StrictMode.ThreadPolicy.Builder()
+                        .detectDiskReads()
+                        .penaltyLog()
+                        .penaltyDeath()
+                        .build());
+                try {
+                    for (int i = 0; i < ANIMALS; i++) {
+                        adapter.onBindViewHolder(holders.get(i), i);
+                    }
+                } finally {
+                    StrictMode.setThreadPolicy(previous);
+                }
+            }
+        });
+    }
+
+    private static List<AnimalSummary> createSummaries() {
+        List<AnimalSummary> summaries = new ArrayList<>();
+        for (int i = 0; i < ANIMALS; i++) {
+            summaries.add(new AnimalSummary((long) i, "Burek " + i, new LocalDate(2012, 3, 4), Species.DOG,
+                    Gender.MALE, Size.LARGE, ActivityAnimal.HIGH, i % 5, "http://na4lapy.org/photos/" + i + ".jpg"));
+        }
+        return summaries;
+    }
+}
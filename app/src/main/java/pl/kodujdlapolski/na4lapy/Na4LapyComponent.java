@@ -19,17 +19,22 @@ import javax.inject.Singleton;
 
 import dagger.Component;
 import pl.kodujdlapolski.na4lapy.presenter.about_shelter.AboutShelterPresenter;
+import pl.kodujdlapolski.na4lapy.presenter.details.AnimalGalleryPresenter;
 import pl.kodujdlapolski.na4lapy.presenter.payment.PaymentPresenter;
 import pl.kodujdlapolski.na4lapy.presenter.preferences.PreferencesPresenter;
 import pl.kodujdlapolski.na4lapy.service.api.ApiModule;
+import pl.kodujdlapolski.na4lapy.service.image.ImageModule;
+import pl.kodujdlapolski.na4lapy.service.network.NetworkModule;
 import pl.kodujdlapolski.na4lapy.service.payments.PaymentsModule;
 import pl.kodujdlapolski.na4lapy.service.preferences.PreferencesModule;
 import pl.kodujdlapolski.na4lapy.service.repository.RepositoryModule;
 import pl.kodujdlapolski.na4lapy.service.repository.database.DatabaseModule;
+import pl.kodujdlapolski.na4lapy.service.scheduler.SchedulerModule;
 import pl.kodujdlapolski.na4lapy.service.system.SystemModule;
 import pl.kodujdlapolski.na4lapy.service.user.UserModule;
 import pl.kodujdlapolski.na4lapy.ui.browse.BrowsePresenter;
 import pl.kodujdlapolski.na4lapy.ui.browse.list.ListBrowseFragment;
+import pl.kodujdlapolski.na4lapy.ui.details.AnimalGalleryPlaceholderFragment;
 import pl.kodujdlapolski.na4lapy.ui.details.DetailsActivity;
 import pl.kodujdlapolski.na4lapy.ui.drawer.DrawerActivityHandler;
 import pl.kodujdlapolski.na4lapy.ui.settings.SettingsFragment;
@@ -39,12 +44,15 @@ import pl.kodujdlapolski.na4lapy.ui.splash.SplashActivity;
 @Component(modules = {
         Na4LapyModule.class,
         RepositoryModule.class,
+        SchedulerModule.class,
         ApiModule.class,
         DatabaseModule.class,
         PaymentsModule.class,
         PreferencesModule.class,
         SystemModule.class,
-        UserModule.class
+        UserModule.class,
+        ImageModule.class,
+        NetworkModule.class
 })
 public interface Na4LapyComponent {
 
@@ -57,4 +65,6 @@ public interface Na4LapyComponent {
     void inject(DrawerActivityHandler handler);
     void inject(SettingsFragment fragment);
     void inject(PaymentPresenter presenter);
+    void inject(AnimalGalleryPresenter presenter);
+    void inject(AnimalGalleryPlaceholderFragment fragment);
 }
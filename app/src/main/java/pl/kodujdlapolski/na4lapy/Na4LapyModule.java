@@ -27,9 +27,8 @@ import javax.inject.Singleton;
 
 import dagger.Module;
 import dagger.Provides;
-import pl.kodujdlapolski.na4lapy.model.Animal;
-import pl.kodujdlapolski.na4lapy.service.api.AnimalDeserializer;
-import pl.kodujdlapolski.na4lapy.service.api.LocalDateDeserializer;
+import pl.kodujdlapolski.na4lapy.service.api.AnimalTypeAdapterFactory;
+import pl.kodujdlapolski.na4lapy.service.api.LocalDateTypeAdapter;
 
 @Module
 public class Na4LapyModule {
@@ -50,8 +49,8 @@ public class Na4LapyModule {
     @Provides
     public Gson provideGson() {
         return new GsonBuilder()
-                .registerTypeAdapter(LocalDate.class, new LocalDateDeserializer())
-                .registerTypeAdapter(Animal.class, new AnimalDeserializer(mApplication))
+                .registerTypeAdapter(LocalDate.class, new LocalDateTypeAdapter())
+                .registerTypeAdapterFactory(new AnimalTypeAdapterFactory())
                 .create();
     }
 }
@@ -15,18 +15,20 @@
  */
 package pl.kodujdlapolski.na4lapy.model;
 
-import com.j256.ormlite.dao.ForeignCollection;
 import com.j256.ormlite.field.DatabaseField;
-import com.j256.ormlite.field.ForeignCollectionField;
 import com.j256.ormlite.table.DatabaseTable;
 
 import org.joda.time.LocalDate;
 
 import java.io.Serializable;
+import java.util.List;
 
+import lombok.AccessLevel;
 import lombok.Data;
 import lombok.EqualsAndHashCode;
+import lombok.Getter;
 import lombok.NoArgsConstructor;
+import lombok.Setter;
 import pl.kodujdlapolski.na4lapy.model.type.ActivityAnimal;
 import pl.kodujdlapolski.na4lapy.model.type.Gender;
 import pl.kodujdlapolski.na4lapy.model.type.Size;
@@ -35,6 +37,7 @@ import pl.kodujdlapolski.na4lapy.model.type.Sterilization;
 import pl.kodujdlapolski.na4lapy.model.type.Training;
 import pl.kodujdlapolski.na4lapy.model.type.Vaccination;
 import pl.kodujdlapolski.na4lapy.service.repository.database.LocalDatePersister;
+import pl.kodujdlapolski.na4lapy.utils.ScoringKey;
 
 @DatabaseTable(tableName = "animals")
 @Data
@@ -42,9 +45,18 @@ import pl.kodujdlapolski.na4lapy.service.repository.database.LocalDatePersister;
 @NoArgsConstructor //for ormlite
 public class Animal extends BaseEntity implements Serializable {
 
-    public final static String COLUMN_NAME_FAVOURITE = "favourite";
+    public final static String COLUMN_NAME_CONTENT_HASH = "contentHash";
+    public final static String COLUMN_NAME_BIRTH_DATE = "birthEpochDay";
+    public final static String COLUMN_NAME_ADMITTANCE_DATE = "admittanceEpochDay";
+    public final static String COLUMN_NAME_SPECIES = "species";
+    public final static String COLUMN_NAME_GENDER = "gender";
+    public final static String COLUMN_NAME_SIZE = "size";
+    public final static String COLUMN_NAME_ACTIVITY = "activity";
+    public final static String COLUMN_NAME_COMPLIANCE_LEVEL = "complianceLevel";
+    public final static String COLUMN_NAME_FIRST_PHOTO_URL = "firstPhotoUrl";
+    public final static String COLUMN_NAME_NAME = "name";
 
-    @DatabaseField(foreign = true)
+    @DatabaseField(foreign = true, indexName = "animals_shelter_id_idx")
     private Shelter shelter;
 
     @DatabaseField private String name;
@@ -52,23 +64,68 @@ public class Animal extends BaseEntity implements Serializable {
     @DatabaseField private String description;
     @DatabaseField private String chipId;
 
-    @DatabaseField(persisterClass = LocalDatePersister.class)
+    @DatabaseField(columnName = Animal.COLUMN_NAME_BIRTH_DATE, persisterClass = LocalDatePersister.class)
     private LocalDate birthDate;
 
-    @DatabaseField(persisterClass = LocalDatePersister.class)
+    @DatabaseField(columnName = Animal.COLUMN_NAME_ADMITTANCE_DATE, persisterClass = LocalDatePersister.class)
     private LocalDate admittanceDate;
 
     @DatabaseField private Sterilization sterilization;
-    @DatabaseField private Species species;
-    @DatabaseField private Gender gender;
-    @DatabaseField private Size size;
-    @DatabaseField private ActivityAnimal activity;
+    @DatabaseField(indexName = "animals_species_idx") private Species species;
+    @DatabaseField(indexName = "animals_gender_idx") private Gender gender;
+    @DatabaseField(indexName = "animals_size_idx") private Size size;
+    @DatabaseField(indexName = "animals_activity_idx") private ActivityAnimal activity;
     @DatabaseField private Vaccination vaccination;
     @DatabaseField private Training training;
 
-    @ForeignCollectionField(eager = false)
-    private transient ForeignCollection<Photo> photos;
+    //filled by the api parser or by PhotoLoader, not persisted with the animal row
+    private transient List<Photo> photoList;
 
-    @DatabaseField(columnName = Animal.COLUMN_NAME_FAVOURITE)
-    private Boolean favourite;
+    @DatabaseField(columnName = Animal.COLUMN_NAME_CONTENT_HASH)
+    private Long contentHash;
+
+    //recomputed by the repository whenever user preferences change or new rows arrive
+    @DatabaseField(columnName = Animal.COLUMN_NAME_COMPLIANCE_LEVEL, indexName = "animals_compliance_level_idx")
+    private Integer complianceLevel;
+
+    //copy of the first photo url, so list screens can show it without touching the photos table
+    @DatabaseField(columnName = Animal.COLUMN_NAME_FIRST_PHOTO_URL)
+    private String firstPhotoUrl;
+
+    //species, gender, size, activity and birth date packed for scoring on first use, 0 until then
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    private transient long scoringKey;
+
+    public long getScoringKey() {
+        if (scoringKey == 0) {
+            scoringKey = ScoringKey.pack(species, gender, size, activity, birthDate);
+        }
+        return scoringKey;
+    }
+
+    public void setBirthDate(LocalDate birthDate) {
+        this.birthDate = birthDate;
+        scoringKey = 0;
+    }
+
+    public void setSpecies(Species species) {
+        this.species = species;
+        scoringKey = 0;
+    }
+
+    public void setGender(Gender gender) {
+        this.gender = gender;
+        scoringKey = 0;
+    }
+
+    public void setSize(Size size) {
+        this.size = size;
+        scoringKey = 0;
+    }
+
+    public void setActivity(ActivityAnimal activity) {
+        this.activity = activity;
+        scoringKey = 0;
+    }
 }
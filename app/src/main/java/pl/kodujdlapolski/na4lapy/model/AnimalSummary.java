@@ -0,0 +1,55 @@
+/*
+ *	Copyright 2017 Stowarzyszenie Na4Łapy
+ *
+ *	Licensed under the Apache License, Version 2.0 (the "License");
+ *	you may not use this file except in compliance with the License.
+ *	You may obtain a copy of the License at
+ *
+ *	http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *	Unless required by applicable law or agreed to in writing, software
+ *	distributed under the License is distributed on an "AS IS" BASIS,
+ *	WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *	See the License for the specific language governing permissions and
+ *	limitations under the License.
+ */
+package pl.kodujdlapolski.na4lapy.model;
+
+import org.joda.time.LocalDate;
+
+import java.io.Serializable;
+import java.util.List;
+
+import lombok.Value;
+import pl.kodujdlapolski.na4lapy.model.type.ActivityAnimal;
+import pl.kodujdlapolski.na4lapy.model.type.Gender;
+import pl.kodujdlapolski.na4lapy.model.type.Size;
+import pl.kodujdlapolski.na4lapy.model.type.Species;
+
+/**
+ * The part of an animal the browse screens render. Loaded with a projection query, so the
+ * description, chip id and photo collection never leave the database for list screens.
+ */
+@Value
+public class AnimalSummary implements Serializable {
+
+    Long id;
+    String name;
+    LocalDate birthDate;
+    Species species;
+    Gender gender;
+    Size size;
+    ActivityAnimal activity;
+    int complianceLevel;
+    String firstPhotoUrl;
+
+    public static AnimalSummary of(Animal animal, int complianceLevel) {
+        String firstPhotoUrl = animal.getFirstPhotoUrl();
+        List<Photo> photos = animal.getPhotoList();
+        if (firstPhotoUrl == null && photos != null && !photos.isEmpty()) {
+            firstPhotoUrl = photos.get(0).getUrl();
+        }
+        return new AnimalSummary(animal.getId(), animal.getName(), animal.getBirthDate(), animal.getSpecies(),
+                animal.getGender(), animal.getSize(), animal.getActivity(), complianceLevel, firstPhotoUrl);
+    }
+}
@@ -30,12 +30,14 @@ import lombok.NoArgsConstructor;
 @NoArgsConstructor //for ormlite
 public class Photo extends BaseEntity implements Serializable{
 
+    public final static String COLUMN_NAME_ANIMAL_ID = "animal_id";
+
     @DatabaseField
     private String url;
 
     @DatabaseField
     private String author;
 
-    @DatabaseField(foreign = true)
+    @DatabaseField(foreign = true, columnName = Photo.COLUMN_NAME_ANIMAL_ID, indexName = "photos_animal_id_idx")
     private Animal animal;
 }
@@ -22,14 +22,15 @@ import javax.inject.Inject;
 import pl.kodujdlapolski.na4lapy.Na4LapyApp;
 import pl.kodujdlapolski.na4lapy.model.Shelter;
 import pl.kodujdlapolski.na4lapy.service.repository.RepositoryService;
+import pl.kodujdlapolski.na4lapy.service.scheduler.SchedulerProvider;
 import pl.kodujdlapolski.na4lapy.ui.about_shelter.AboutShelterContract;
-import rx.android.schedulers.AndroidSchedulers;
-import rx.schedulers.Schedulers;
 
 public class AboutShelterPresenter {
 
     @Inject
     RepositoryService repositoryService;
+    @Inject
+    SchedulerProvider schedulerProvider;
     private AboutShelterContract.View view;
     private final Long shelterId;
 
@@ -65,7 +66,7 @@ public class AboutShelterPresenter {
 
     private void getData() {
         repositoryService.getShelter(shelterId)
-                .subscribeOn(Schedulers.newThread()).observeOn(AndroidSchedulers.mainThread())
+                .subscribeOn(schedulerProvider.databaseRead()).observeOn(schedulerProvider.mainThread())
                 .subscribe(this::onShelterAvailable,
                         view::showStateError);
     }
@@ -20,6 +20,7 @@ import android.os.Bundle;
 import java.util.List;
 
 import pl.kodujdlapolski.na4lapy.model.Photo;
+import rx.Observable;
 
 public interface AnimalGalleryContract {
 
@@ -30,7 +31,7 @@ public interface AnimalGalleryContract {
     }
 
     interface UserActionListener {
-        List<Photo> getAnimalGallery();
+        Observable<List<Photo>> getAnimalGallery();
         Integer getSelectedPhotoNumber();
         void setNextPhoto();
         void setPreviousPhoto();
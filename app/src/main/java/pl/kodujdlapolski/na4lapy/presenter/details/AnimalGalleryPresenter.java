@@ -15,34 +15,46 @@
  */
 package pl.kodujdlapolski.na4lapy.presenter.details;
 
-import java.util.ArrayList;
 import java.util.List;
 
+import javax.inject.Inject;
+
+import pl.kodujdlapolski.na4lapy.Na4LapyApp;
 import pl.kodujdlapolski.na4lapy.model.Photo;
+import pl.kodujdlapolski.na4lapy.service.repository.RepositoryService;
+import pl.kodujdlapolski.na4lapy.service.scheduler.SchedulerProvider;
 import pl.kodujdlapolski.na4lapy.ui.details.AnimalGalleryActivity;
 import pl.kodujdlapolski.na4lapy.ui.details.GalleryViewPager;
+import rx.Observable;
 
 public class AnimalGalleryPresenter implements AnimalGalleryContract.UserActionListener{
 
-    public static final String EXTRA_GALLERY = AnimalGalleryActivity.EXTRA_GALLERY;
+    public static final String EXTRA_ANIMAL_ID = AnimalGalleryActivity.EXTRA_ANIMAL_ID;
     public static final String EXTRA_SELECTED_PIC = AnimalGalleryActivity.EXTRA_SELECTED_PIC;
 
     private AnimalGalleryActivity activity;
     private GalleryViewPager galleryViewPager;
+    @Inject
+    RepositoryService repositoryService;
+    @Inject
+    SchedulerProvider schedulerProvider;
 
     public AnimalGalleryPresenter (AnimalGalleryActivity activity) {
         this.activity = activity;
         galleryViewPager = this.activity.getMViewPager();
+        ((Na4LapyApp) activity.getApplication()).getComponent().inject(this);
     }
 
-    @SuppressWarnings("unchecked")
-    public List<Photo> getAnimalGallery() {
-        List<Photo> gallery = (ArrayList<Photo>) activity.getIntent().getExtras().getSerializable(EXTRA_GALLERY);
-
-        if (gallery == null || gallery.isEmpty()) {
-            setOnBackPressed();
-        }
-        return gallery;
+    @Override
+    public Observable<List<Photo>> getAnimalGallery() {
+        long animalId = activity.getIntent().getLongExtra(EXTRA_ANIMAL_ID, -1);
+        return repositoryService.getPhotos(animalId)
+                .subscribeOn(schedulerProvider.databaseRead()).observeOn(schedulerProvider.mainThread())
+                .doOnNext(gallery -> {
+                    if (gallery.isEmpty()) {
+                        setOnBackPressed();
+                    }
+                });
     }
 
     @Override
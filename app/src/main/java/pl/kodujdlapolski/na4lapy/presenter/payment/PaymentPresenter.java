@@ -39,11 +39,10 @@ import pl.kodujdlapolski.na4lapy.service.payments.model.Sale;
 import pl.kodujdlapolski.na4lapy.service.payments.model.type.PaymentType;
 import pl.kodujdlapolski.na4lapy.service.preferences.PreferencesService;
 import pl.kodujdlapolski.na4lapy.service.repository.RepositoryService;
+import pl.kodujdlapolski.na4lapy.service.scheduler.SchedulerProvider;
 import pl.kodujdlapolski.na4lapy.service.system.SystemService;
 import pl.kodujdlapolski.na4lapy.utils.formvalidator.FormValidator;
 import pl.kodujdlapolski.na4lapy.utils.formvalidator.ValidationError;
-import rx.android.schedulers.AndroidSchedulers;
-import rx.schedulers.Schedulers;
 
 public class PaymentPresenter implements PaymentContract.UserActionListener {
 
@@ -59,6 +58,9 @@ public class PaymentPresenter implements PaymentContract.UserActionListener {
     @Inject
     RepositoryService repositoryService;
 
+    @Inject
+    SchedulerProvider schedulerProvider;
+
     private Shelter shelter;
     private PaymentContract.View mView;
     private Payment payment;
@@ -71,7 +73,7 @@ public class PaymentPresenter implements PaymentContract.UserActionListener {
         mView = view;
         payment = create();
         repositoryService.getShelter(parent.getIntent().getLongExtra(PaymentContract.KEY_SHELTER_ID, -1))
-                .subscribeOn(Schedulers.newThread()).observeOn(AndroidSchedulers.mainThread())
+                .subscribeOn(schedulerProvider.databaseRead()).observeOn(schedulerProvider.mainThread())
                 .subscribe(s -> {
                     setShelter(s);
                     view.setPage(PaymentContract.PAGE_AMOUNT_CHOOSER, this);
@@ -0,0 +1,351 @@
+/*
+ *	Copyright 2017 Stowarzyszenie Na4Łapy
+ *
+ *	Licensed under the Apache License, Version 2.0 (the "License");
+ *	you may not use this file except in compliance with the License.
+ *	You may obtain a copy of the License at
+ *
+ *	http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *	Unless required by applicable law or agreed to in writing, software
+ *	distributed under the License is distributed on an "AS IS" BASIS,
+ *	WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *	See the License for the specific language governing permissions and
+ *	limitations under the License.
+ */
+package pl.kodujdlapolski.na4lapy.service.api;
+
+import com.google.gson.Gson;
+import com.google.gson.TypeAdapter;
+import com.google.gson.TypeAdapterFactory;
+import com.google.gson.reflect.TypeToken;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+
+import org.joda.time.LocalDate;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import pl.kodujdlapolski.na4lapy.model.Animal;
+import pl.kodujdlapolski.na4lapy.model.Photo;
+import pl.kodujdlapolski.na4lapy.model.Shelter;
+import pl.kodujdlapolski.na4lapy.model.type.ActivityAnimal;
+import pl.kodujdlapolski.na4lapy.model.type.Gender;
+import pl.kodujdlapolski.na4lapy.model.type.Size;
+import pl.kodujdlapolski.na4lapy.model.type.Species;
+import pl.kodujdlapolski.na4lapy.model.type.Sterilization;
+import pl.kodujdlapolski.na4lapy.model.type.Training;
+import pl.kodujdlapolski.na4lapy.model.type.Vaccination;
+import pl.kodujdlapolski.na4lapy.service.api.model.PagedAnimalListDto;
+
+/**
+ * Streaming adapters for the animal payloads. Nothing here touches the database: photos are
+ * collected into {@link Animal#getPhotoList()} and stored later by the repository in one batch.
+ */
+public class AnimalTypeAdapterFactory implements TypeAdapterFactory {
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> TypeAdapter<T> create(Gson gson, TypeToken<T> type) {
+        Class<? super T> rawType = type.getRawType();
+        if (rawType == Animal.class) {
+            return (TypeAdapter<T>) new AnimalAdapter(gson);
+        }
+        if (rawType == Photo.class) {
+            return (TypeAdapter<T>) new PhotoAdapter();
+        }
+        if (rawType == PagedAnimalListDto.class) {
+            return (TypeAdapter<T>) new PagedAnimalListAdapter(gson.getAdapter(Animal.class));
+        }
+        return null;
+    }
+
+    private static Long nextLongOrNull(JsonReader in) throws IOException {
+        if (in.peek() == JsonToken.NULL) {
+            in.nextNull();
+            return null;
+        }
+        return in.nextLong();
+    }
+
+    private static String nextStringOrNull(JsonReader in) throws IOException {
+        if (in.peek() == JsonToken.NULL) {
+            in.nextNull();
+            return null;
+        }
+        return in.nextString();
+    }
+
+    private static class AnimalAdapter extends TypeAdapter<Animal> {
+
+        private final TypeAdapter<Shelter> mShelterAdapter;
+        private final TypeAdapter<Photo> mPhotoAdapter;
+        private final TypeAdapter<LocalDate> mLocalDateAdapter;
+        private final TypeAdapter<Sterilization> mSterilizationAdapter;
+        private final TypeAdapter<Species> mSpeciesAdapter;
+        private final TypeAdapter<Gender> mGenderAdapter;
+        private final TypeAdapter<Size> mSizeAdapter;
+        private final TypeAdapter<ActivityAnimal> mActivityAdapter;
+        private final TypeAdapter<Vaccination> mVaccinationAdapter;
+        private final TypeAdapter<Training> mTrainingAdapter;
+
+        AnimalAdapter(Gson gson) {
+            mShelterAdapter = gson.getAdapter(Shelter.class);
+            mPhotoAdapter = gson.getAdapter(Photo.class);
+            mLocalDateAdapter = gson.getAdapter(LocalDate.class);
+            mSterilizationAdapter = gson.getAdapter(Sterilization.class);
+            mSpeciesAdapter = gson.getAdapter(Species.class);
+            mGenderAdapter = gson.getAdapter(Gender.class);
+            mSizeAdapter = gson.getAdapter(Size.class);
+            mActivityAdapter = gson.getAdapter(ActivityAnimal.class);
+            mVaccinationAdapter = gson.getAdapter(Vaccination.class);
+            mTrainingAdapter = gson.getAdapter(Training.class);
+        }
+
+        @Override
+        public Animal read(JsonReader in) throws IOException {
+            if (in.peek() == JsonToken.NULL) {
+                in.nextNull();
+                return null;
+            }
+            Animal animal = new Animal();
+            in.beginObject();
+            while (in.hasNext()) {
+                switch (in.nextName()) {
+                    case "id":
+                        animal.setId(nextLongOrNull(in));
+                        break;
+                    case "shelter":
+                        animal.setShelter(mShelterAdapter.read(in));
+                        break;
+                    case "name":
+                        animal.setName(nextStringOrNull(in));
+                        break;
+                    case "race":
+                        animal.setRace(nextStringOrNull(in));
+                        break;
+                    case "description":
+                        animal.setDescription(nextStringOrNull(in));
+                        break;
+                    case "chipId":
+                        animal.setChipId(nextStringOrNull(in));
+                        break;
+                    case "birthDate":
+                        animal.setBirthDate(mLocalDateAdapter.read(in));
+                        break;
+                    case "admittanceDate":
+                        animal.setAdmittanceDate(mLocalDateAdapter.read(in));
+                        break;
+                    case "sterilization":
+                        animal.setSterilization(mSterilizationAdapter.read(in));
+                        break;
+                    case "species":
+                        animal.setSpecies(mSpeciesAdapter.read(in));
+                        break;
+                    case "gender":
+                        animal.setGender(mGenderAdapter.read(in));
+                        break;
+                    case "size":
+                        animal.setSize(mSizeAdapter.read(in));
+                        break;
+                    case "activity":
+                        animal.setActivity(mActivityAdapter.read(in));
+                        break;
+                    case "vaccination":
+                        animal.setVaccination(mVaccinationAdapter.read(in));
+                        break;
+                    case "training":
+                        animal.setTraining(mTrainingAdapter.read(in));
+                        break;
+                    case "photos":
+                        animal.setPhotoList(readPhotos(in, animal));
+                        break;
+                    default:
+                        in.skipValue();
+                        break;
+                }
+            }
+            in.endObject();
+            return animal;
+        }
+
+        private List<Photo> readPhotos(JsonReader in, Animal animal) throws IOException {
+            if (in.peek() == JsonToken.NULL) {
+                in.nextNull();
+                return null;
+            }
+            List<Photo> photos = new ArrayList<>();
+            in.beginArray();
+            while (in.hasNext()) {
+                Photo photo = mPhotoAdapter.read(in);
+                if (photo != null) {
+                    photo.setAnimal(animal);
+                    photos.add(photo);
+                }
+            }
+            in.endArray();
+            return photos;
+        }
+
+        @Override
+        public void write(JsonWriter out, Animal animal) throws IOException {
+            if (animal == null) {
+                out.nullValue();
+                return;
+            }
+            out.beginObject();
+            out.name("id").value(animal.getId());
+            out.name("shelter");
+            mShelterAdapter.write(out, animal.getShelter());
+            out.name("name").value(animal.getName());
+            out.name("race").value(animal.getRace());
+            out.name("description").value(animal.getDescription());
+            out.name("chipId").value(animal.getChipId());
+            out.name("birthDate");
+            mLocalDateAdapter.write(out, animal.getBirthDate());
+            out.name("admittanceDate");
+            mLocalDateAdapter.write(out, animal.getAdmittanceDate());
+            out.name("sterilization");
+            mSterilizationAdapter.write(out, animal.getSterilization());
+            out.name("species");
+            mSpeciesAdapter.write(out, animal.getSpecies());
+            out.name("gender");
+            mGenderAdapter.write(out, animal.getGender());
+            out.name("size");
+            mSizeAdapter.write(out, animal.getSize());
+            out.name("activity");
+            mActivityAdapter.write(out, animal.getActivity());
+            out.name("vaccination");
+            mVaccinationAdapter.write(out, animal.getVaccination());
+            out.name("training");
+            mTrainingAdapter.write(out, animal.getTraining());
+            if (animal.getPhotoList() != null) {
+                out.name("photos").beginArray();
+                for (Photo photo : animal.getPhotoList()) {
+                    mPhotoAdapter.write(out, photo);
+                }
+                out.endArray();
+            }
+            out.endObject();
+        }
+    }
+
+    private static class PhotoAdapter extends TypeAdapter<Photo> {
+
+        @Override
+        public Photo read(JsonReader in) throws IOException {
+            if (in.peek() == JsonToken.NULL) {
+                in.nextNull();
+                return null;
+            }
+            Photo photo = new Photo();
+            in.beginObject();
+            while (in.hasNext()) {
+                switch (in.nextName()) {
+                    case "id":
+                        photo.setId(nextLongOrNull(in));
+                        break;
+                    case "url":
+                        photo.setUrl(nextStringOrNull(in));
+                        break;
+                    case "author":
+                        photo.setAuthor(nextStringOrNull(in));
+                        break;
+                    default:
+                        in.skipValue();
+                        break;
+                }
+            }
+            in.endObject();
+            return photo;
+        }
+
+        @Override
+        public void write(JsonWriter out, Photo photo) throws IOException {
+            if (photo == null) {
+                out.nullValue();
+                return;
+            }
+            out.beginObject();
+            out.name("id").value(photo.getId());
+            out.name("url").value(photo.getUrl());
+            out.name("author").value(photo.getAuthor());
+            out.endObject();
+        }
+    }
+
+    private static class PagedAnimalListAdapter extends TypeAdapter<PagedAnimalListDto> {
+
+        private final TypeAdapter<Animal> mAnimalAdapter;
+
+        PagedAnimalListAdapter(TypeAdapter<Animal> animalAdapter) {
+            mAnimalAdapter = animalAdapter;
+        }
+
+        @Override
+        public PagedAnimalListDto read(JsonReader in) throws IOException {
+            if (in.peek() == JsonToken.NULL) {
+                in.nextNull();
+                return null;
+            }
+            PagedAnimalListDto dto = new PagedAnimalListDto();
+            in.beginObject();
+            while (in.hasNext()) {
+                switch (in.nextName()) {
+                    case "total":
+                        dto.setTotal(in.nextInt());
+                        break;
+                    case "data":
+                        dto.setData(readAnimals(in));
+                        break;
+                    default:
+                        in.skipValue();
+                        break;
+                }
+            }
+            in.endObject();
+            return dto;
+        }
+
+        private List<Animal> readAnimals(JsonReader in) throws IOException {
+            if (in.peek() == JsonToken.NULL) {
+                in.nextNull();
+                return null;
+            }
+            List<Animal> animals = new ArrayList<>();
+            in.beginArray();
+            while (in.hasNext()) {
+                Animal animal = mAnimalAdapter.read(in);
+                if (animal != null) {
+                    animals.add(animal);
+                }
+            }
+            in.endArray();
+            return animals;
+        }
+
+        @Override
+        public void write(JsonWriter out, PagedAnimalListDto dto) throws IOException {
+            if (dto == null) {
+                out.nullValue();
+                return;
+            }
+            out.beginObject();
+            out.name("total").value(dto.getTotal());
+            out.name("data");
+            if (dto.getData() == null) {
+                out.nullValue();
+            } else {
+                out.beginArray();
+                for (Animal animal : dto.getData()) {
+                    mAnimalAdapter.write(out, animal);
+                }
+                out.endArray();
+            }
+            out.endObject();
+        }
+    }
+}
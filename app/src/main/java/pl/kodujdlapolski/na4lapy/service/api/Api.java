@@ -17,25 +17,49 @@ package pl.kodujdlapolski.na4lapy.service.api;
 
 import java.util.List;
 
+import okhttp3.ResponseBody;
 import pl.kodujdlapolski.na4lapy.model.Animal;
 import pl.kodujdlapolski.na4lapy.model.Shelter;
-import pl.kodujdlapolski.na4lapy.service.api.model.PagedAnimalListDto;
+import pl.kodujdlapolski.na4lapy.service.network.CacheInterceptor;
+import retrofit2.Response;
 import retrofit2.http.GET;
+import retrofit2.http.Header;
+import retrofit2.http.Headers;
 import retrofit2.http.Path;
 import retrofit2.http.Query;
 import rx.Observable;
 
 public interface Api {
 
+    String HEADER_ETAG = "ETag";
+    String HEADER_LAST_MODIFIED = "Last-Modified";
+    String HEADER_IF_NONE_MATCH = "If-None-Match";
+    String HEADER_IF_MODIFIED_SINCE = "If-Modified-Since";
+
     @GET("shelters/1")
+    @Headers(CacheInterceptor.CACHE_PREFERRED)
     Observable<Shelter> getShelter();
 
     @GET("animals")
+    @Headers(CacheInterceptor.NO_STORE)
     Observable<List<Animal>> getAnimalList();
 
+    // synchronization keeps its own validators, a cached copy would only duplicate the database
+    @GET("shelters/1")
+    @Headers(CacheInterceptor.NO_STORE)
+    Observable<Response<ResponseBody>> getShelter(
+            @Header(HEADER_IF_NONE_MATCH) String etag,
+            @Header(HEADER_IF_MODIFIED_SINCE) String lastModified);
+
     @GET("animals")
-    Observable<PagedAnimalListDto> getAnimalList(@Query("page") int page, @Query("size") int size);
+    @Headers(CacheInterceptor.NO_STORE)
+    Observable<Response<ResponseBody>> getAnimalList(
+            @Query("page") int page,
+            @Query("size") int size,
+            @Header(HEADER_IF_NONE_MATCH) String etag,
+            @Header(HEADER_IF_MODIFIED_SINCE) String lastModified);
 
     @GET("animals/{id}")
+    @Headers(CacheInterceptor.CACHE_PREFERRED)
     Observable<Animal> getAnimal(@Path("id") Long id);
 }
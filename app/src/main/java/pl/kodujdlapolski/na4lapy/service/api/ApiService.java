@@ -15,17 +15,23 @@
  */
 package pl.kodujdlapolski.na4lapy.service.api;
 
+import android.support.annotation.Nullable;
+
 import java.util.List;
 
 import pl.kodujdlapolski.na4lapy.model.Animal;
 import pl.kodujdlapolski.na4lapy.model.Shelter;
+import pl.kodujdlapolski.na4lapy.service.api.model.ConditionalResponse;
 import pl.kodujdlapolski.na4lapy.service.api.model.PagedAnimalListDto;
+import pl.kodujdlapolski.na4lapy.service.network.HttpCacheStatistics;
 import rx.Observable;
 
 public interface ApiService {
 
     Observable<Shelter> getShelter();
+    Observable<ConditionalResponse<Shelter>> getShelter(@Nullable String etag, @Nullable String lastModified);
     Observable<List<Animal>> getAnimalList();
-    Observable<PagedAnimalListDto> getAnimalList(int page, int size);
+    Observable<ConditionalResponse<PagedAnimalListDto>> getAnimalList(int page, int size, @Nullable String etag, @Nullable String lastModified);
     Observable<Animal> getAnimal(Long id);
+    HttpCacheStatistics.Snapshot getCacheStatistics();
 }
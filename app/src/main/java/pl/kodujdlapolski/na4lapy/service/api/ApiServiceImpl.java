@@ -15,22 +15,45 @@
  */
 package pl.kodujdlapolski.na4lapy.service.api;
 
+import android.support.annotation.Nullable;
+
+import com.google.gson.Gson;
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.net.HttpURLConnection;
 import java.util.List;
 
 import javax.inject.Inject;
 
+import okhttp3.ResponseBody;
+import okio.Buffer;
+import okio.ForwardingSource;
+import okio.Okio;
 import pl.kodujdlapolski.na4lapy.model.Animal;
 import pl.kodujdlapolski.na4lapy.model.Shelter;
+import pl.kodujdlapolski.na4lapy.service.api.model.ConditionalResponse;
 import pl.kodujdlapolski.na4lapy.service.api.model.PagedAnimalListDto;
+import pl.kodujdlapolski.na4lapy.service.network.HttpCacheStatistics;
+import pl.kodujdlapolski.na4lapy.service.network.NetworkStatistics;
+import retrofit2.Response;
+import retrofit2.adapter.rxjava.HttpException;
 import rx.Observable;
+import rx.exceptions.Exceptions;
 
 public class ApiServiceImpl implements ApiService {
 
     private Api mApi;
+    private Gson mGson;
+    private NetworkStatistics mNetworkStatistics;
 
     @Inject
-    public ApiServiceImpl(Api api) {
+    public ApiServiceImpl(Api api, Gson gson, NetworkStatistics networkStatistics) {
         mApi = api;
+        mGson = gson;
+        mNetworkStatistics = networkStatistics;
     }
 
     @Override
@@ -38,18 +61,68 @@ public class ApiServiceImpl implements ApiService {
         return mApi.getShelter();
     }
 
+    @Override
+    public Observable<ConditionalResponse<Shelter>> getShelter(@Nullable String etag, @Nullable String lastModified) {
+        return mApi.getShelter(etag, lastModified).map(response -> toConditionalResponse(response, Shelter.class));
+    }
+
     @Override
     public Observable<List<Animal>> getAnimalList() {
         return mApi.getAnimalList();
     }
 
     @Override
-    public Observable<PagedAnimalListDto> getAnimalList(int page, int size) {
-        return mApi.getAnimalList(page, size);
+    public Observable<ConditionalResponse<PagedAnimalListDto>> getAnimalList(int page, int size, @Nullable String etag, @Nullable String lastModified) {
+        return mApi.getAnimalList(page, size, etag, lastModified).map(response -> toConditionalResponse(response, PagedAnimalListDto.class));
     }
 
     @Override
     public Observable<Animal> getAnimal(Long id) {
         return mApi.getAnimal(id);
     }
+
+    @Override
+    public HttpCacheStatistics.Snapshot getCacheStatistics() {
+        return mNetworkStatistics.getCacheStatistics();
+    }
+
+    private <T> ConditionalResponse<T> toConditionalResponse(Response<ResponseBody> response, Class<T> clazz) {
+        String etag = response.headers().get(Api.HEADER_ETAG);
+        String lastModified = response.headers().get(Api.HEADER_LAST_MODIFIED);
+        if (response.code() == HttpURLConnection.HTTP_NOT_MODIFIED) {
+            return ConditionalResponse.notModified(etag, lastModified);
+        }
+        if (!response.isSuccessful()) {
+            throw Exceptions.propagate(new HttpException(response));
+        }
+        ResponseBody body = response.body();
+        try {
+            CountingSource source = new CountingSource(body);
+            TypeAdapter<T> adapter = mGson.getAdapter(clazz);
+            T result = adapter.read(new JsonReader(new InputStreamReader(Okio.buffer(source).inputStream(), "UTF-8")));
+            return ConditionalResponse.modified(result, etag, lastModified, source.mByteCount);
+        } catch (IOException e) {
+            throw Exceptions.propagate(e);
+        } finally {
+            body.close();
+        }
+    }
+
+    private static class CountingSource extends ForwardingSource {
+
+        private long mByteCount;
+
+        CountingSource(ResponseBody body) {
+            super(body.source());
+        }
+
+        @Override
+        public long read(Buffer sink, long byteCount) throws IOException {
+            long read = super.read(sink, byteCount);
+            if (read > 0) {
+                mByteCount += read;
+            }
+            return read;
+        }
+    }
 }
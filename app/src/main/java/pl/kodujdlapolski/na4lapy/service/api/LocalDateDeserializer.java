@@ -1,33 +0,0 @@
-/*
- *	Copyright 2017 Stowarzyszenie Na4Łapy
- *
- *	Licensed under the Apache License, Version 2.0 (the "License");
- *	you may not use this file except in compliance with the License.
- *	You may obtain a copy of the License at
- *
- *	http://www.apache.org/licenses/LICENSE-2.0
- *
- *	Unless required by applicable law or agreed to in writing, software
- *	distributed under the License is distributed on an "AS IS" BASIS,
- *	WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
- *	See the License for the specific language governing permissions and
- *	limitations under the License.
- */
-package pl.kodujdlapolski.na4lapy.service.api;
-
-import com.google.gson.JsonDeserializationContext;
-import com.google.gson.JsonDeserializer;
-import com.google.gson.JsonElement;
-import com.google.gson.JsonParseException;
-
-import org.joda.time.LocalDate;
-import org.joda.time.format.DateTimeFormat;
-
-import java.lang.reflect.Type;
-
-public class LocalDateDeserializer implements JsonDeserializer<LocalDate> {
-    @Override
-    public LocalDate deserialize(JsonElement json, Type typeOfT, JsonDeserializationContext context) throws JsonParseException {
-        return DateTimeFormat.forPattern("yyyy-MM-dd").parseLocalDate(json.getAsString());
-    }
-}
@@ -0,0 +1,104 @@
+/*
+ *	Copyright 2017 Stowarzyszenie Na4Łapy
+ *
+ *	Licensed under the Apache License, Version 2.0 (the "License");
+ *	you may not use this file except in compliance with the License.
+ *	You may obtain a copy of the License at
+ *
+ *	http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *	Unless required by applicable law or agreed to in writing, software
+ *	distributed under the License is distributed on an "AS IS" BASIS,
+ *	WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *	See the License for the specific language governing permissions and
+ *	limitations under the License.
+ */
+package pl.kodujdlapolski.na4lapy.service.api;
+
+import com.google.gson.JsonSyntaxException;
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+
+import org.joda.time.LocalDate;
+
+import java.io.IOException;
+
+/**
+ * Reads and writes yyyy-MM-dd dates by hand. The api sends two dates per animal, and going through a
+ * Joda formatter costs a parser bucket and chronology lookups for each of them.
+ */
+public class LocalDateTypeAdapter extends TypeAdapter<LocalDate> {
+
+    @Override
+    public void write(JsonWriter out, LocalDate value) throws IOException {
+        if (value == null) {
+            out.nullValue();
+        } else {
+            out.value(format(value));
+        }
+    }
+
+    @Override
+    public LocalDate read(JsonReader in) throws IOException {
+        if (in.peek() == JsonToken.NULL) {
+            in.nextNull();
+            return null;
+        }
+        return parse(in.nextString());
+    }
+
+    static LocalDate parse(String value) {
+        int length = value.length();
+        int firstDash = value.indexOf('-', 1);
+        int secondDash = firstDash == -1 ? -1 : value.indexOf('-', firstDash + 1);
+        if (secondDash == -1) {
+            throw new JsonSyntaxException("Invalid date: " + value);
+        }
+        int year = parseNumber(value, 0, firstDash);
+        int month = parseNumber(value, firstDash + 1, secondDash);
+        int day = parseNumber(value, secondDash + 1, length);
+        try {
+            return new LocalDate(year, month, day);
+        } catch (IllegalArgumentException e) {
+            throw new JsonSyntaxException("Invalid date: " + value, e);
+        }
+    }
+
+    static String format(LocalDate value) {
+        char[] chars = new char[10];
+        int year = value.getYear();
+        if (year < 0 || year > 9999) {
+            return value.toString();
+        }
+        writeDigits(chars, 0, year, 4);
+        chars[4] = '-';
+        writeDigits(chars, 5, value.getMonthOfYear(), 2);
+        chars[7] = '-';
+        writeDigits(chars, 8, value.getDayOfMonth(), 2);
+        return new String(chars);
+    }
+
+    private static int parseNumber(String value, int start, int end) {
+        if (start >= end || end - start > 4) {
+            throw new JsonSyntaxException("Invalid date: " + value);
+        }
+        int number = 0;
+        for (int i = start; i < end; i++) {
+            char c = value.charAt(i);
+            if (c < '0' || c > '9') {
+                throw new JsonSyntaxException("Invalid date: " + value);
+            }
+            number = number * 10 + c - '0';
+        }
+        return number;
+    }
+
+    private static void writeDigits(char[] chars, int offset, int number, int width) {
+        for (int i = offset + width - 1; i >= offset; i--) {
+            chars[i] = (char) ('0' + number % 10);
+            number /= 10;
+        }
+    }
+}
@@ -0,0 +1,45 @@
+/*
+ *	Copyright 2017 Stowarzyszenie Na4Łapy
+ *
+ *	Licensed under the Apache License, Version 2.0 (the "License");
+ *	you may not use this file except in compliance with the License.
+ *	You may obtain a copy of the License at
+ *
+ *	http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *	Unless required by applicable law or agreed to in writing, software
+ *	distributed under the License is distributed on an "AS IS" BASIS,
+ *	WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *	See the License for the specific language governing permissions and
+ *	limitations under the License.
+ */
+package pl.kodujdlapolski.na4lapy.service.api.model;
+
+import android.support.annotation.Nullable;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * Result of a conditional GET. When {@link #isNotModified()} is true the body was not sent
+ * and the previously stored copy is still current.
+ */
+@Getter
+@AllArgsConstructor
+public class ConditionalResponse<T> {
+
+    @Nullable private final T body;
+    private final boolean notModified;
+    @Nullable private final String etag;
+    @Nullable private final String lastModified;
+    // bytes of the body as read, after OkHttp decompressed it
+    private final long bodyBytes;
+
+    public static <T> ConditionalResponse<T> modified(T body, @Nullable String etag, @Nullable String lastModified, long bodyBytes) {
+        return new ConditionalResponse<>(body, false, etag, lastModified, bodyBytes);
+    }
+
+    public static <T> ConditionalResponse<T> notModified(@Nullable String etag, @Nullable String lastModified) {
+        return new ConditionalResponse<>(null, true, etag, lastModified, 0);
+    }
+}
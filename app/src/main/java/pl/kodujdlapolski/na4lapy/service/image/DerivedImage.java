@@ -0,0 +1,81 @@
+/*
+ *	Copyright 2017 Stowarzyszenie Na4Łapy
+ *
+ *	Licensed under the Apache License, Version 2.0 (the "License");
+ *	you may not use this file except in compliance with the License.
+ *	You may obtain a copy of the License at
+ *
+ *	http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *	Unless required by applicable law or agreed to in writing, software
+ *	distributed under the License is distributed on an "AS IS" BASIS,
+ *	WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *	See the License for the specific language governing permissions and
+ *	limitations under the License.
+ */
+package pl.kodujdlapolski.na4lapy.service.image;
+
+import android.graphics.Bitmap;
+import android.graphics.Matrix;
+
+import com.squareup.picasso.Transformation;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * An image derived from a photo: the photo center-cropped to a size, then run through a chain of
+ * transformations. Cached under the photo url, the size and the keys of the transformations.
+ */
+public class DerivedImage {
+
+    private final int mWidth;
+    private final int mHeight;
+    private final List<Transformation> mTransformations;
+
+    public DerivedImage(int width, int height, Transformation... transformations) {
+        mWidth = width;
+        mHeight = height;
+        mTransformations = Arrays.asList(transformations);
+    }
+
+    public int getWidth() {
+        return mWidth;
+    }
+
+    public int getHeight() {
+        return mHeight;
+    }
+
+    String key(String url) {
+        StringBuilder key = new StringBuilder(VariantDiskCache.key(url, mWidth, mHeight));
+        for (Transformation transformation : mTransformations) {
+            key.append('|').append(transformation.key());
+        }
+        return key.toString();
+    }
+
+    /**
+     * Leaves the source untouched, so several derived images can be made from one decode.
+     */
+    Bitmap apply(Bitmap source) {
+        Bitmap bitmap = centerCrop(source, mWidth, mHeight);
+        for (Transformation transformation : mTransformations) {
+            bitmap = transformation.transform(bitmap);
+        }
+        return bitmap;
+    }
+
+    private static Bitmap centerCrop(Bitmap source, int width, int height) {
+        float scale = Math.max((float) width / source.getWidth(), (float) height / source.getHeight());
+        int cropWidth = Math.min(source.getWidth(), Math.round(width / scale));
+        int cropHeight = Math.min(source.getHeight(), Math.round(height / scale));
+        Matrix matrix = new Matrix();
+        matrix.setScale(scale, scale);
+        Bitmap cropped = Bitmap.createBitmap(source, (source.getWidth() - cropWidth) / 2,
+                (source.getHeight() - cropHeight) / 2, cropWidth, cropHeight, matrix, true);
+        // createBitmap hands back the source itself when there is nothing to do, and the
+        // transformations recycle their input
+        return cropped != source ? cropped : source.copy(source.getConfig(), true);
+    }
+}
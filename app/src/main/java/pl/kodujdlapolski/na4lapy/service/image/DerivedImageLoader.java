@@ -0,0 +1,103 @@
+/*
+ *	Copyright 2017 Stowarzyszenie Na4Łapy
+ *
+ *	Licensed under the Apache License, Version 2.0 (the "License");
+ *	you may not use this file except in compliance with the License.
+ *	You may obtain a copy of the License at
+ *
+ *	http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *	Unless required by applicable law or agreed to in writing, software
+ *	distributed under the License is distributed on an "AS IS" BASIS,
+ *	WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *	See the License for the specific language governing permissions and
+ *	limitations under the License.
+ */
+package pl.kodujdlapolski.na4lapy.service.image;
+
+import android.graphics.Bitmap;
+import android.util.Log;
+
+import com.squareup.picasso.Cache;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Loads derived images of a photo from the memory cache, then from the disk cache. The ones found
+ * in neither are made from a single download and decode of the photo and written to both caches.
+ */
+public class DerivedImageLoader {
+
+    private final Cache mMemoryCache;
+    private final VariantDiskCache mDiskCache;
+    private final ImageDownloader mDownloader;
+    private final ImageStatistics mStatistics;
+
+    public DerivedImageLoader(Cache memoryCache, VariantDiskCache diskCache, ImageDownloader downloader,
+                              ImageStatistics statistics) {
+        mMemoryCache = memoryCache;
+        mDiskCache = diskCache;
+        mDownloader = downloader;
+        mStatistics = statistics;
+    }
+
+    /**
+     * @return the derived images in the order they were asked for
+     */
+    public List<Bitmap> load(String url, List<DerivedImage> images) throws IOException {
+        Bitmap[] result = new Bitmap[images.size()];
+        List<Integer> missing = new ArrayList<>();
+        int sourceWidth = 0;
+        int sourceHeight = 0;
+        for (int i = 0; i < images.size(); i++) {
+            DerivedImage image = images.get(i);
+            String key = image.key(url);
+            result[i] = mMemoryCache.get(key);
+            if (result[i] == null) {
+                byte[] cached = readDisk(key);
+                if (cached != null) {
+                    mStatistics.recordDiskHit();
+                    result[i] = ImageCodec.decode(cached, 0, 0, mStatistics);
+                    mMemoryCache.set(key, result[i]);
+                } else {
+                    mStatistics.recordDiskMiss();
+                    missing.add(i);
+                    sourceWidth = Math.max(sourceWidth, image.getWidth());
+                    sourceHeight = Math.max(sourceHeight, image.getHeight());
+                }
+            }
+        }
+        if (!missing.isEmpty()) {
+            Bitmap source = ImageCodec.decode(mDownloader.download(url), sourceWidth, sourceHeight, mStatistics);
+            for (int i : missing) {
+                DerivedImage image = images.get(i);
+                String key = image.key(url);
+                result[i] = image.apply(source);
+                mMemoryCache.set(key, result[i]);
+                writeDisk(key, ImageCodec.encode(result[i]));
+            }
+            source.recycle();
+        }
+        return Arrays.asList(result);
+    }
+
+    private byte[] readDisk(String key) {
+        try {
+            return mDiskCache.get(key);
+        } catch (IOException e) {
+            Log.w(getClass().getSimpleName(), "Cannot read cached image", e);
+            return null;
+        }
+    }
+
+    private void writeDisk(String key, byte[] data) {
+        try {
+            mDiskCache.put(key, data);
+        } catch (IOException e) {
+            Log.w(getClass().getSimpleName(), "Cannot cache image", e);
+        }
+    }
+}
@@ -0,0 +1,76 @@
+/*
+ *	Copyright 2017 Stowarzyszenie Na4Łapy
+ *
+ *	Licensed under the Apache License, Version 2.0 (the "License");
+ *	you may not use this file except in compliance with the License.
+ *	You may obtain a copy of the License at
+ *
+ *	http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *	Unless required by applicable law or agreed to in writing, software
+ *	distributed under the License is distributed on an "AS IS" BASIS,
+ *	WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *	See the License for the specific language governing permissions and
+ *	limitations under the License.
+ */
+package pl.kodujdlapolski.na4lapy.service.image;
+
+import android.graphics.Bitmap;
+import android.graphics.BitmapFactory;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+
+/**
+ * Sized decoding and encoding of the variants the image pipeline keeps on disk.
+ */
+class ImageCodec {
+
+    private static final int VARIANT_QUALITY = 85;
+
+    private ImageCodec() {
+    }
+
+    /**
+     * Decodes at the smallest power-of-two sample size that still covers the target, or at full
+     * size when neither side is given.
+     */
+    static Bitmap decode(byte[] data, int targetWidth, int targetHeight, ImageStatistics statistics) throws IOException {
+        long start = System.nanoTime();
+        BitmapFactory.Options options = new BitmapFactory.Options();
+        if (targetWidth > 0 || targetHeight > 0) {
+            options.inJustDecodeBounds = true;
+            BitmapFactory.decodeByteArray(data, 0, data.length, options);
+            options.inSampleSize = sampleSize(options.outWidth, options.outHeight, targetWidth, targetHeight);
+            options.inJustDecodeBounds = false;
+        }
+        Bitmap bitmap = BitmapFactory.decodeByteArray(data, 0, data.length, options);
+        if (bitmap == null) {
+            throw new IOException("Cannot decode image");
+        }
+        statistics.recordDecode(start, bitmap.getByteCount());
+        return bitmap;
+    }
+
+    /**
+     * @return the largest power of two that keeps both sides at least as big as the target
+     */
+    static int sampleSize(int width, int height, int targetWidth, int targetHeight) {
+        int sampleSize = 1;
+        while ((targetWidth <= 0 || width / (sampleSize * 2) >= targetWidth)
+                && (targetHeight <= 0 || height / (sampleSize * 2) >= targetHeight)
+                && (targetWidth > 0 || targetHeight > 0)) {
+            sampleSize *= 2;
+        }
+        return sampleSize;
+    }
+
+    /**
+     * @return PNG for bitmaps with transparency, which JPEG would fill with black, JPEG otherwise
+     */
+    static byte[] encode(Bitmap bitmap) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        bitmap.compress(bitmap.hasAlpha() ? Bitmap.CompressFormat.PNG : Bitmap.CompressFormat.JPEG, VARIANT_QUALITY, out);
+        return out.toByteArray();
+    }
+}
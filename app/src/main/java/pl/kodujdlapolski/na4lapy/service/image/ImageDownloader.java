@@ -0,0 +1,47 @@
+/*
+ *	Copyright 2017 Stowarzyszenie Na4Łapy
+ *
+ *	Licensed under the Apache License, Version 2.0 (the "License");
+ *	you may not use this file except in compliance with the License.
+ *	You may obtain a copy of the License at
+ *
+ *	http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *	Unless required by applicable law or agreed to in writing, software
+ *	distributed under the License is distributed on an "AS IS" BASIS,
+ *	WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *	See the License for the specific language governing permissions and
+ *	limitations under the License.
+ */
+package pl.kodujdlapolski.na4lapy.service.image;
+
+import java.io.IOException;
+
+import okhttp3.OkHttpClient;
+import okhttp3.Request;
+import okhttp3.Response;
+
+public class ImageDownloader {
+
+    private final OkHttpClient mClient;
+    private final ImageStatistics mStatistics;
+
+    public ImageDownloader(OkHttpClient client, ImageStatistics statistics) {
+        mClient = client;
+        mStatistics = statistics;
+    }
+
+    public byte[] download(String url) throws IOException {
+        Response response = mClient.newCall(new Request.Builder().url(url).build()).execute();
+        try {
+            if (!response.isSuccessful()) {
+                throw new IOException("HTTP " + response.code() + " for " + url);
+            }
+            byte[] data = response.body().bytes();
+            mStatistics.recordNetwork(data.length);
+            return data;
+        } finally {
+            response.body().close();
+        }
+    }
+}
@@ -0,0 +1,64 @@
+/*
+ *	Copyright 2017 Stowarzyszenie Na4Łapy
+ *
+ *	Licensed under the Apache License, Version 2.0 (the "License");
+ *	you may not use this file except in compliance with the License.
+ *	You may obtain a copy of the License at
+ *
+ *	http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *	Unless required by applicable law or agreed to in writing, software
+ *	distributed under the License is distributed on an "AS IS" BASIS,
+ *	WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *	See the License for the specific language governing permissions and
+ *	limitations under the License.
+ */
+package pl.kodujdlapolski.na4lapy.service.image;
+
+import android.app.ActivityManager;
+import android.app.Application;
+import android.content.Context;
+
+import com.squareup.picasso.LruCache;
+import com.squareup.picasso.Picasso;
+
+import java.io.File;
+
+import javax.inject.Singleton;
+
+import dagger.Module;
+import dagger.Provides;
+import okhttp3.OkHttpClient;
+
+@Module
+public class ImageModule {
+
+    public static final String VARIANT_CACHE_DIRECTORY = "image-variants";
+    public static final long VARIANT_CACHE_BYTES = 20 * 1024 * 1024;
+    // share of the app's memory class given to decoded photos
+    public static final int MEMORY_CACHE_DIVISOR = 8;
+
+    @Singleton
+    @Provides
+    public ImageService provideImageService(Application application, OkHttpClient client) {
+        ActivityManager activityManager = (ActivityManager) application.getSystemService(Context.ACTIVITY_SERVICE);
+        // photos have their own disk cache of decoded variants, so they stay out of the http cache
+        return createImageService(application, client.newBuilder().cache(null).build(),
+                new File(application.getCacheDir(), VARIANT_CACHE_DIRECTORY),
+                activityManager.getMemoryClass() * 1024 * 1024 / MEMORY_CACHE_DIVISOR);
+    }
+
+    public static ImageService createImageService(Context context, OkHttpClient client, File variantDirectory,
+                                                  int memoryCacheBytes) {
+        ImageStatistics statistics = new ImageStatistics();
+        LruCache memoryCache = new LruCache(memoryCacheBytes);
+        VariantDiskCache diskCache = new VariantDiskCache(variantDirectory, VARIANT_CACHE_BYTES);
+        ImageDownloader downloader = new ImageDownloader(client, statistics);
+        Picasso picasso = new Picasso.Builder(context)
+                .memoryCache(memoryCache)
+                .addRequestHandler(new VariantRequestHandler(diskCache, downloader, statistics))
+                .build();
+        return new ImageServiceImpl(picasso, memoryCache,
+                new DerivedImageLoader(memoryCache, diskCache, downloader, statistics), statistics);
+    }
+}
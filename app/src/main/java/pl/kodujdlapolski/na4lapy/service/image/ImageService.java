@@ -0,0 +1,70 @@
+/*
+ *	Copyright 2017 Stowarzyszenie Na4Łapy
+ *
+ *	Licensed under the Apache License, Version 2.0 (the "License");
+ *	you may not use this file except in compliance with the License.
+ *	You may obtain a copy of the License at
+ *
+ *	http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *	Unless required by applicable law or agreed to in writing, software
+ *	distributed under the License is distributed on an "AS IS" BASIS,
+ *	WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *	See the License for the specific language governing permissions and
+ *	limitations under the License.
+ */
+package pl.kodujdlapolski.na4lapy.service.image;
+
+import android.graphics.Bitmap;
+import android.support.annotation.Nullable;
+import android.widget.ImageView;
+
+import com.squareup.picasso.Callback;
+import com.squareup.picasso.RequestCreator;
+
+import java.util.List;
+
+import rx.Observable;
+
+public interface ImageService {
+
+    /**
+     * @return a request decoded at the bounds of its target view and cropped to fill it
+     */
+    RequestCreator loadCropped(@Nullable String url);
+
+    /**
+     * @return a request decoded at the bounds of its target view and scaled to fit inside it
+     */
+    RequestCreator loadInside(@Nullable String url);
+
+    /**
+     * @return a request decoded at the given size, for views of a size known up front, prefetches and synchronous gets
+     */
+    RequestCreator load(@Nullable String url, int targetWidth, int targetHeight);
+
+    void cancel(ImageView view);
+
+    /**
+     * Warms the caches for a later {@link #load} or {@link #loadCropped} of a view of the given size,
+     * at low priority. Cancel with {@link #cancelPrefetch} and the same tag.
+     */
+    void prefetch(String url, int targetWidth, int targetHeight, Object tag, Callback callback);
+
+    void cancelPrefetch(Object tag);
+
+    /**
+     * @return the derived images of the photo, in the order asked for; the ones not cached yet
+     * share one download and decode of the photo
+     */
+    Observable<List<Bitmap>> loadDerived(String url, List<DerivedImage> images);
+
+    /**
+     * Records how long the details screen took until its header images were shown.
+     */
+    void recordDetailsOpen(long openMillis, long animalLoadMillis);
+
+    ImageStatistics.Snapshot getStatistics();
+
+    void resetStatistics();
+}
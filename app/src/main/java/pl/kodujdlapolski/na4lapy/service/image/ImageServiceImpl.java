@@ -0,0 +1,105 @@
+/*
+ *	Copyright 2017 Stowarzyszenie Na4Łapy
+ *
+ *	Licensed under the Apache License, Version 2.0 (the "License");
+ *	you may not use this file except in compliance with the License.
+ *	You may obtain a copy of the License at
+ *
+ *	http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *	Unless required by applicable law or agreed to in writing, software
+ *	distributed under the License is distributed on an "AS IS" BASIS,
+ *	WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *	See the License for the specific language governing permissions and
+ *	limitations under the License.
+ */
+package pl.kodujdlapolski.na4lapy.service.image;
+
+import android.graphics.Bitmap;
+import android.support.annotation.Nullable;
+import android.widget.ImageView;
+
+import com.squareup.picasso.Callback;
+import com.squareup.picasso.LruCache;
+import com.squareup.picasso.Picasso;
+import com.squareup.picasso.RequestCreator;
+import com.squareup.picasso.StatsSnapshot;
+
+import java.util.List;
+
+import rx.Observable;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+public class ImageServiceImpl implements ImageService {
+
+    private Picasso mPicasso;
+    private LruCache mMemoryCache;
+    private DerivedImageLoader mDerivedImageLoader;
+    private ImageStatistics mStatistics;
+    private long mMemoryHitsAtReset;
+    private long mMemoryMissesAtReset;
+
+    public ImageServiceImpl(Picasso picasso, LruCache memoryCache, DerivedImageLoader derivedImageLoader,
+                            ImageStatistics statistics) {
+        mPicasso = checkNotNull(picasso, "Picasso cannot be null");
+        mMemoryCache = checkNotNull(memoryCache, "LruCache cannot be null");
+        mDerivedImageLoader = checkNotNull(derivedImageLoader, "DerivedImageLoader cannot be null");
+        mStatistics = checkNotNull(statistics, "ImageStatistics cannot be null");
+    }
+
+    @Override
+    public RequestCreator loadCropped(@Nullable String url) {
+        return mPicasso.load(url).fit().centerCrop();
+    }
+
+    @Override
+    public RequestCreator loadInside(@Nullable String url) {
+        return mPicasso.load(url).fit().centerInside();
+    }
+
+    @Override
+    public RequestCreator load(@Nullable String url, int targetWidth, int targetHeight) {
+        return mPicasso.load(url).resize(targetWidth, targetHeight).centerCrop();
+    }
+
+    @Override
+    public void cancel(ImageView view) {
+        mPicasso.cancelRequest(view);
+    }
+
+    @Override
+    public void prefetch(String url, int targetWidth, int targetHeight, Object tag, Callback callback) {
+        load(url, targetWidth, targetHeight).tag(tag).priority(Picasso.Priority.LOW).fetch(callback);
+    }
+
+    @Override
+    public void cancelPrefetch(Object tag) {
+        mPicasso.cancelTag(tag);
+    }
+
+    @Override
+    public Observable<List<Bitmap>> loadDerived(String url, List<DerivedImage> images) {
+        return Observable.fromCallable(() -> mDerivedImageLoader.load(url, images));
+    }
+
+    @Override
+    public void recordDetailsOpen(long openMillis, long animalLoadMillis) {
+        mStatistics.recordDetailsOpen(openMillis, animalLoadMillis);
+    }
+
+    @Override
+    public synchronized ImageStatistics.Snapshot getStatistics() {
+        StatsSnapshot memory = mPicasso.getSnapshot();
+        return mStatistics.snapshot(memory.cacheHits - mMemoryHitsAtReset, memory.cacheMisses - mMemoryMissesAtReset,
+                mMemoryCache.size());
+    }
+
+    @Override
+    public synchronized void resetStatistics() {
+        StatsSnapshot memory = mPicasso.getSnapshot();
+        mMemoryHitsAtReset = memory.cacheHits;
+        mMemoryMissesAtReset = memory.cacheMisses;
+        mStatistics.reset();
+    }
+}
@@ -0,0 +1,105 @@
+/*
+ *	Copyright 2017 Stowarzyszenie Na4Łapy
+ *
+ *	Licensed under the Apache License, Version 2.0 (the "License");
+ *	you may not use this file except in compliance with the License.
+ *	You may obtain a copy of the License at
+ *
+ *	http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *	Unless required by applicable law or agreed to in writing, software
+ *	distributed under the License is distributed on an "AS IS" BASIS,
+ *	WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *	See the License for the specific language governing permissions and
+ *	limitations under the License.
+ */
+package pl.kodujdlapolski.na4lapy.service.image;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+import pl.kodujdlapolski.na4lapy.service.network.Histogram;
+
+/**
+ * Disk, network and decode counters of the image pipeline. Memory cache counters come from
+ * the memory cache itself and are added when taking a snapshot. The open times of the details
+ * screen are kept here as well, since its header images are what it waits for.
+ */
+public class ImageStatistics {
+
+    private final AtomicLong mDiskHits = new AtomicLong();
+    private final AtomicLong mDiskMisses = new AtomicLong();
+    private final AtomicLong mNetworkRequests = new AtomicLong();
+    private final AtomicLong mNetworkBytes = new AtomicLong();
+    private final AtomicLong mDecodes = new AtomicLong();
+    private final AtomicLong mDecodeNanos = new AtomicLong();
+    private final AtomicLong mDecodedBytes = new AtomicLong();
+    private final Histogram mDetailsOpenMillis = new Histogram();
+    private final Histogram mDetailsAnimalLoadMillis = new Histogram();
+
+    public void recordDiskHit() {
+        mDiskHits.incrementAndGet();
+    }
+
+    public void recordDiskMiss() {
+        mDiskMisses.incrementAndGet();
+    }
+
+    public void recordNetwork(long bytes) {
+        mNetworkRequests.incrementAndGet();
+        mNetworkBytes.addAndGet(bytes);
+    }
+
+    public void recordDecode(long startNanos, long bitmapBytes) {
+        mDecodes.incrementAndGet();
+        mDecodeNanos.addAndGet(System.nanoTime() - startNanos);
+        mDecodedBytes.addAndGet(bitmapBytes);
+    }
+
+    public void recordDetailsOpen(long openMillis, long animalLoadMillis) {
+        mDetailsOpenMillis.record(openMillis);
+        mDetailsAnimalLoadMillis.record(animalLoadMillis);
+    }
+
+    public Snapshot snapshot(long memoryHits, long memoryMisses, long memoryBytes) {
+        return new Snapshot(memoryHits, memoryMisses, memoryBytes, mDiskHits.get(), mDiskMisses.get(),
+                mNetworkRequests.get(), mNetworkBytes.get(), mDecodes.get(),
+                TimeUnit.NANOSECONDS.toMicros(mDecodeNanos.get()), mDecodedBytes.get(),
+                mDetailsOpenMillis.snapshot(), mDetailsAnimalLoadMillis.snapshot());
+    }
+
+    public void reset() {
+        mDiskHits.set(0);
+        mDiskMisses.set(0);
+        mNetworkRequests.set(0);
+        mNetworkBytes.set(0);
+        mDecodes.set(0);
+        mDecodeNanos.set(0);
+        mDecodedBytes.set(0);
+        mDetailsOpenMillis.reset();
+        mDetailsAnimalLoadMillis.reset();
+    }
+
+    @Getter
+    @ToString
+    @AllArgsConstructor
+    public static class Snapshot {
+        private final long memoryHits;
+        private final long memoryMisses;
+        private final long memoryBytes;
+        private final long diskHits;
+        private final long diskMisses;
+        private final long networkRequests;
+        private final long networkBytes;
+        private final long decodes;
+        private final long decodeMicros;
+        private final long decodedBytes;
+        // from the start of the details screen until its header images are shown
+        private final Histogram.Snapshot detailsOpenMillis;
+        // the part of it spent reading the animal
+        private final Histogram.Snapshot detailsAnimalLoadMillis;
+    }
+}
@@ -0,0 +1,172 @@
+/*
+ *	Copyright 2017 Stowarzyszenie Na4Łapy
+ *
+ *	Licensed under the Apache License, Version 2.0 (the "License");
+ *	you may not use this file except in compliance with the License.
+ *	You may obtain a copy of the License at
+ *
+ *	http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *	Unless required by applicable law or agreed to in writing, software
+ *	distributed under the License is distributed on an "AS IS" BASIS,
+ *	WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *	See the License for the specific language governing permissions and
+ *	limitations under the License.
+ */
+package pl.kodujdlapolski.na4lapy.service.image;
+
+import android.support.annotation.Nullable;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.Charset;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Size-bounded directory of encoded image variants, one file per url and target size, evicted
+ * least recently used first. The index is rebuilt from file modification times on first use.
+ */
+public class VariantDiskCache {
+
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+    private static final String TEMP_SUFFIX = ".tmp";
+
+    private final File mDirectory;
+    private final long mMaxBytes;
+    // file name -> size, in access order
+    private final LinkedHashMap<String, Long> mEntries = new LinkedHashMap<>(64, 0.75f, true);
+    private long mSize;
+    private boolean mLoaded;
+
+    public VariantDiskCache(File directory, long maxBytes) {
+        mDirectory = directory;
+        mMaxBytes = maxBytes;
+    }
+
+    public static String key(String url, int targetWidth, int targetHeight) {
+        return url + '#' + targetWidth + 'x' + targetHeight;
+    }
+
+    @Nullable
+    public synchronized byte[] get(String key) throws IOException {
+        load();
+        String name = fileName(key);
+        if (mEntries.get(name) == null) {
+            return null;
+        }
+        File file = new File(mDirectory, name);
+        if (!file.isFile()) {
+            mSize -= mEntries.remove(name);
+            return null;
+        }
+        byte[] data = new byte[(int) file.length()];
+        try (InputStream in = new FileInputStream(file)) {
+            int read = 0;
+            while (read < data.length) {
+                int count = in.read(data, read, data.length - read);
+                if (count < 0) {
+                    throw new IOException("Unexpected end of " + file);
+                }
+                read += count;
+            }
+        }
+        file.setLastModified(System.currentTimeMillis());
+        return data;
+    }
+
+    public synchronized void put(String key, byte[] data) throws IOException {
+        load();
+        if (data.length > mMaxBytes) {
+            return;
+        }
+        String name = fileName(key);
+        File temp = new File(mDirectory, name + TEMP_SUFFIX);
+        try (OutputStream out = new FileOutputStream(temp)) {
+            out.write(data);
+        }
+        File file = new File(mDirectory, name);
+        if (!temp.renameTo(file)) {
+            temp.delete();
+            throw new IOException("Cannot write " + file);
+        }
+        Long previous = mEntries.put(name, (long) data.length);
+        mSize += data.length - (previous != null ? previous : 0);
+        trim();
+    }
+
+    public synchronized long size() {
+        return mSize;
+    }
+
+    public synchronized void clear() {
+        File[] files = mDirectory.listFiles();
+        if (files != null) {
+            for (File file : files) {
+                file.delete();
+            }
+        }
+        mEntries.clear();
+        mSize = 0;
+    }
+
+    private void trim() {
+        Iterator<Map.Entry<String, Long>> iterator = mEntries.entrySet().iterator();
+        while (mSize > mMaxBytes && iterator.hasNext()) {
+            Map.Entry<String, Long> eldest = iterator.next();
+            new File(mDirectory, eldest.getKey()).delete();
+            mSize -= eldest.getValue();
+            iterator.remove();
+        }
+    }
+
+    private void load() throws IOException {
+        if (mLoaded) {
+            return;
+        }
+        if (!mDirectory.isDirectory() && !mDirectory.mkdirs()) {
+            throw new IOException("Cannot create " + mDirectory);
+        }
+        File[] files = mDirectory.listFiles();
+        if (files != null) {
+            Arrays.sort(files, new Comparator<File>() {
+                @Override
+                public int compare(File first, File second) {
+                    return Long.compare(first.lastModified(), second.lastModified());
+                }
+            });
+            for (File file : files) {
+                if (file.getName().endsWith(TEMP_SUFFIX)) {
+                    file.delete();
+                } else {
+                    mEntries.put(file.getName(), file.length());
+                    mSize += file.length();
+                }
+            }
+        }
+        mLoaded = true;
+        trim();
+    }
+
+    private static String fileName(String key) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-1").digest(key.getBytes(UTF_8));
+            StringBuilder name = new StringBuilder(digest.length * 2);
+            for (byte b : digest) {
+                name.append(Character.forDigit((b >> 4) & 0xf, 16)).append(Character.forDigit(b & 0xf, 16));
+            }
+            return name.toString();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
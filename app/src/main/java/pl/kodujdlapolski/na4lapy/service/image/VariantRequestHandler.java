@@ -0,0 +1,81 @@
+/*
+ *	Copyright 2017 Stowarzyszenie Na4Łapy
+ *
+ *	Licensed under the Apache License, Version 2.0 (the "License");
+ *	you may not use this file except in compliance with the License.
+ *	You may obtain a copy of the License at
+ *
+ *	http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *	Unless required by applicable law or agreed to in writing, software
+ *	distributed under the License is distributed on an "AS IS" BASIS,
+ *	WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *	See the License for the specific language governing permissions and
+ *	limitations under the License.
+ */
+package pl.kodujdlapolski.na4lapy.service.image;
+
+import android.graphics.Bitmap;
+import android.util.Log;
+
+import com.squareup.picasso.Picasso;
+import com.squareup.picasso.Request;
+import com.squareup.picasso.RequestHandler;
+
+import java.io.IOException;
+
+/**
+ * Serves http photos decoded at the size of the view they go into. The downsampled variant is
+ * kept on disk, so the next time only the small file is read and decoded.
+ */
+public class VariantRequestHandler extends RequestHandler {
+
+    private final VariantDiskCache mDiskCache;
+    private final ImageDownloader mDownloader;
+    private final ImageStatistics mStatistics;
+
+    public VariantRequestHandler(VariantDiskCache diskCache, ImageDownloader downloader, ImageStatistics statistics) {
+        mDiskCache = diskCache;
+        mDownloader = downloader;
+        mStatistics = statistics;
+    }
+
+    @Override
+    public boolean canHandleRequest(Request data) {
+        String scheme = data.uri.getScheme();
+        return "http".equals(scheme) || "https".equals(scheme);
+    }
+
+    @Override
+    public Result load(Request request, int networkPolicy) throws IOException {
+        String url = request.uri.toString();
+        String key = VariantDiskCache.key(url, request.targetWidth, request.targetHeight);
+        byte[] cached = readDisk(key);
+        if (cached != null) {
+            mStatistics.recordDiskHit();
+            return new Result(ImageCodec.decode(cached, 0, 0, mStatistics), Picasso.LoadedFrom.DISK);
+        }
+        mStatistics.recordDiskMiss();
+        byte[] data = mDownloader.download(url);
+        Bitmap bitmap = ImageCodec.decode(data, request.targetWidth, request.targetHeight, mStatistics);
+        writeDisk(key, request.hasSize() ? ImageCodec.encode(bitmap) : data);
+        return new Result(bitmap, Picasso.LoadedFrom.NETWORK);
+    }
+
+    private byte[] readDisk(String key) {
+        try {
+            return mDiskCache.get(key);
+        } catch (IOException e) {
+            Log.w(getClass().getSimpleName(), "Cannot read cached image", e);
+            return null;
+        }
+    }
+
+    private void writeDisk(String key, byte[] data) {
+        try {
+            mDiskCache.put(key, data);
+        } catch (IOException e) {
+            Log.w(getClass().getSimpleName(), "Cannot cache image", e);
+        }
+    }
+}
@@ -0,0 +1,96 @@
+/*
+ *	Copyright 2017 Stowarzyszenie Na4Łapy
+ *
+ *	Licensed under the Apache License, Version 2.0 (the "License");
+ *	you may not use this file except in compliance with the License.
+ *	You may obtain a copy of the License at
+ *
+ *	http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *	Unless required by applicable law or agreed to in writing, software
+ *	distributed under the License is distributed on an "AS IS" BASIS,
+ *	WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *	See the License for the specific language governing permissions and
+ *	limitations under the License.
+ */
+package pl.kodujdlapolski.na4lapy.service.network;
+
+import java.io.IOException;
+import java.net.HttpURLConnection;
+import java.util.concurrent.TimeUnit;
+
+import okhttp3.CacheControl;
+import okhttp3.Interceptor;
+import okhttp3.OkHttpClient;
+import okhttp3.Request;
+import okhttp3.Response;
+import pl.kodujdlapolski.na4lapy.service.system.SystemService;
+
+/**
+ * Serves requests marked with {@link #CACHE_PREFERRED} from the HTTP cache while the cached copy is
+ * at most {@link #MAX_AGE_SECONDS} old, or at any age when offline. The api sends no caching headers,
+ * so their successful responses are made cacheable for that long on the way in. Records how each of
+ * these requests was served with the rest of its endpoint's {@link NetworkStatistics}; other
+ * requests are left alone.
+ */
+public class CacheInterceptor implements Interceptor {
+
+    public static final String HEADER_CACHE_PREFERRED = "X-Cache-Preferred";
+    // for Retrofit's @Headers, the marker never leaves the app
+    public static final String CACHE_PREFERRED = HEADER_CACHE_PREFERRED + ": true";
+    public static final String NO_STORE = "Cache-Control: no-store";
+    public static final int MAX_AGE_SECONDS = 15 * 60;
+
+    private final SystemService mSystemService;
+    private final NetworkStatistics mStatistics;
+    private final Interceptor mNetworkInterceptor = CacheInterceptor::interceptNetwork;
+
+    public CacheInterceptor(SystemService systemService, NetworkStatistics statistics) {
+        mSystemService = systemService;
+        mStatistics = statistics;
+    }
+
+    public OkHttpClient.Builder install(OkHttpClient.Builder builder) {
+        return builder
+                .addInterceptor(this)
+                .addNetworkInterceptor(mNetworkInterceptor);
+    }
+
+    @Override
+    public Response intercept(Chain chain) throws IOException {
+        Request request = chain.request();
+        if (request.header(HEADER_CACHE_PREFERRED) == null) {
+            return chain.proceed(request);
+        }
+        HttpCacheStatistics statistics = mStatistics.forRequest(request).getCacheStatistics();
+        boolean online = mSystemService.isOnline();
+        request = request.newBuilder()
+                .cacheControl(online
+                        ? new CacheControl.Builder().maxAge(MAX_AGE_SECONDS, TimeUnit.SECONDS).build()
+                        : CacheControl.FORCE_CACHE)
+                .build();
+        Response response = chain.proceed(request);
+        statistics.record(response);
+        if (!online && response.code() == HttpURLConnection.HTTP_GATEWAY_TIMEOUT && response.cacheResponse() == null) {
+            // nothing cached: fail the way the request would have failed without the cache
+            response.close();
+            throw new IOException("Offline and " + request.url() + " is not cached");
+        }
+        return response;
+    }
+
+    private static Response interceptNetwork(Chain chain) throws IOException {
+        Request request = chain.request();
+        if (request.header(HEADER_CACHE_PREFERRED) == null) {
+            return chain.proceed(request);
+        }
+        Response response = chain.proceed(request.newBuilder().removeHeader(HEADER_CACHE_PREFERRED).build());
+        if (!response.isSuccessful()) {
+            return response;
+        }
+        return response.newBuilder()
+                .removeHeader("Pragma")
+                .header("Cache-Control", new CacheControl.Builder().maxAge(MAX_AGE_SECONDS, TimeUnit.SECONDS).build().toString())
+                .build();
+    }
+}
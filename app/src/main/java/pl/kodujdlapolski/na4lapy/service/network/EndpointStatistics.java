@@ -0,0 +1,123 @@
+/*
+ *	Copyright 2017 Stowarzyszenie Na4Łapy
+ *
+ *	Licensed under the Apache License, Version 2.0 (the "License");
+ *	you may not use this file except in compliance with the License.
+ *	You may obtain a copy of the License at
+ *
+ *	http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *	Unless required by applicable law or agreed to in writing, software
+ *	distributed under the License is distributed on an "AS IS" BASIS,
+ *	WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *	See the License for the specific language governing permissions and
+ *	limitations under the License.
+ */
+package pl.kodujdlapolski.na4lapy.service.network;
+
+import com.google.gson.stream.JsonWriter;
+
+import java.io.IOException;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Phase latencies in microseconds, response sizes and cache status of the calls to one endpoint
+ * template. DNS and connect are only recorded for calls that had to open a new connection, cache
+ * status only for requests that prefer the cache.
+ */
+public class EndpointStatistics {
+
+    private final Histogram mDnsMicros = new Histogram();
+    // TCP and TLS handshakes together, OkHttp 3.3 has no hook between the two
+    private final Histogram mConnectMicros = new Histogram();
+    private final Histogram mTimeToFirstByteMicros = new Histogram();
+    private final Histogram mBodyReadMicros = new Histogram();
+    private final Histogram mTotalMicros = new Histogram();
+    private final Histogram mResponseBytes = new Histogram();
+    private final HttpCacheStatistics mCacheStatistics = new HttpCacheStatistics();
+    private final AtomicLong mReusedConnections = new AtomicLong();
+    private final AtomicLong mFailures = new AtomicLong();
+
+    void recordReusedConnection() {
+        mReusedConnections.incrementAndGet();
+    }
+
+    void recordFailure() {
+        mFailures.incrementAndGet();
+    }
+
+    public Histogram getDnsMicros() {
+        return mDnsMicros;
+    }
+
+    public Histogram getConnectMicros() {
+        return mConnectMicros;
+    }
+
+    public Histogram getTimeToFirstByteMicros() {
+        return mTimeToFirstByteMicros;
+    }
+
+    public Histogram getBodyReadMicros() {
+        return mBodyReadMicros;
+    }
+
+    public Histogram getTotalMicros() {
+        return mTotalMicros;
+    }
+
+    public Histogram getResponseBytes() {
+        return mResponseBytes;
+    }
+
+    public HttpCacheStatistics getCacheStatistics() {
+        return mCacheStatistics;
+    }
+
+    public long getReusedConnections() {
+        return mReusedConnections.get();
+    }
+
+    public long getFailures() {
+        return mFailures.get();
+    }
+
+    public void reset() {
+        mDnsMicros.reset();
+        mConnectMicros.reset();
+        mTimeToFirstByteMicros.reset();
+        mBodyReadMicros.reset();
+        mTotalMicros.reset();
+        mResponseBytes.reset();
+        mCacheStatistics.reset();
+        mReusedConnections.set(0);
+        mFailures.set(0);
+    }
+
+    void writeJson(JsonWriter writer) throws IOException {
+        writer.beginObject();
+        HttpCacheStatistics.Snapshot cache = mCacheStatistics.snapshot();
+        writer.name("cache").beginObject()
+                .name("hits").value(cache.getCacheHits())
+                .name("conditionalHits").value(cache.getConditionalHits())
+                .name("network").value(cache.getNetworkResponses())
+                .name("unsatisfied").value(cache.getUnsatisfied())
+                .name("hitRatio").value(cache.getHitRatio())
+                .endObject();
+        writer.name("reusedConnections").value(getReusedConnections());
+        writer.name("failures").value(getFailures());
+        writer.name("dnsMicros");
+        mDnsMicros.snapshot().writeJson(writer);
+        writer.name("connectMicros");
+        mConnectMicros.snapshot().writeJson(writer);
+        writer.name("timeToFirstByteMicros");
+        mTimeToFirstByteMicros.snapshot().writeJson(writer);
+        writer.name("bodyReadMicros");
+        mBodyReadMicros.snapshot().writeJson(writer);
+        writer.name("totalMicros");
+        mTotalMicros.snapshot().writeJson(writer);
+        writer.name("responseBytes");
+        mResponseBytes.snapshot().writeJson(writer);
+        writer.endObject();
+    }
+}
@@ -0,0 +1,146 @@
+/*
+ *	Copyright 2017 Stowarzyszenie Na4Łapy
+ *
+ *	Licensed under the Apache License, Version 2.0 (the "License");
+ *	you may not use this file except in compliance with the License.
+ *	You may obtain a copy of the License at
+ *
+ *	http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *	Unless required by applicable law or agreed to in writing, software
+ *	distributed under the License is distributed on an "AS IS" BASIS,
+ *	WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *	See the License for the specific language governing permissions and
+ *	limitations under the License.
+ */
+package pl.kodujdlapolski.na4lapy.service.network;
+
+import com.google.gson.stream.JsonWriter;
+
+import java.io.IOException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * Lock-free histogram of non-negative values. Every power of two is split into
+ * {@link #SUB_BUCKETS} buckets, so a percentile read from it is at most a quarter off.
+ */
+public class Histogram {
+
+    static final int SUB_BUCKETS = 4;
+    static final int BUCKETS = 256;
+
+    private final AtomicLongArray mCounts = new AtomicLongArray(BUCKETS);
+    private final AtomicLong mCount = new AtomicLong();
+    private final AtomicLong mSum = new AtomicLong();
+    private final AtomicLong mMax = new AtomicLong();
+
+    public void record(long value) {
+        if (value < 0) {
+            value = 0;
+        }
+        mCounts.incrementAndGet(bucketOf(value));
+        mCount.incrementAndGet();
+        mSum.addAndGet(value);
+        long max = mMax.get();
+        while (value > max && !mMax.compareAndSet(max, value)) {
+            max = mMax.get();
+        }
+    }
+
+    public Snapshot snapshot() {
+        long[] counts = new long[BUCKETS];
+        for (int i = 0; i < BUCKETS; i++) {
+            counts[i] = mCounts.get(i);
+        }
+        return new Snapshot(mCount.get(), mSum.get(), mMax.get(), counts);
+    }
+
+    public void reset() {
+        for (int i = 0; i < BUCKETS; i++) {
+            mCounts.set(i, 0);
+        }
+        mCount.set(0);
+        mSum.set(0);
+        mMax.set(0);
+    }
+
+    static int bucketOf(long value) {
+        if (value < SUB_BUCKETS) {
+            return (int) value;
+        }
+        int exponent = 63 - Long.numberOfLeadingZeros(value);
+        int sub = (int) (value >>> (exponent - 2)) & (SUB_BUCKETS - 1);
+        return SUB_BUCKETS + (exponent - 2) * SUB_BUCKETS + sub;
+    }
+
+    static long lowerBoundOf(int bucket) {
+        if (bucket < SUB_BUCKETS) {
+            return bucket;
+        }
+        int exponent = (bucket - SUB_BUCKETS) / SUB_BUCKETS + 2;
+        long sub = (bucket - SUB_BUCKETS) % SUB_BUCKETS;
+        return (SUB_BUCKETS + sub) << (exponent - 2);
+    }
+
+    @Getter
+    @AllArgsConstructor(access = AccessLevel.PRIVATE)
+    public static class Snapshot {
+        private final long count;
+        private final long sum;
+        private final long max;
+        @Getter(AccessLevel.NONE)
+        private final long[] counts;
+
+        public double getMean() {
+            return count == 0 ? 0 : (double) sum / count;
+        }
+
+        /**
+         * @param percentile between 0 and 100
+         * @return the upper bound of the bucket holding the value at that percentile, never above the maximum
+         */
+        public long getPercentile(double percentile) {
+            long total = 0;
+            for (long bucketCount : counts) {
+                total += bucketCount;
+            }
+            if (total == 0) {
+                return 0;
+            }
+            long rank = Math.max(1, (long) Math.ceil(total * percentile / 100));
+            long seen = 0;
+            for (int i = 0; i < BUCKETS; i++) {
+                seen += counts[i];
+                if (seen >= rank) {
+                    long upperBound = i + 1 < BUCKETS ? lowerBoundOf(i + 1) - 1 : Long.MAX_VALUE;
+                    return Math.min(upperBound, max);
+                }
+            }
+            return max;
+        }
+
+        void writeJson(JsonWriter writer) throws IOException {
+            writer.beginObject();
+            writer.name("count").value(count);
+            writer.name("mean").value(getMean());
+            writer.name("p50").value(getPercentile(50));
+            writer.name("p90").value(getPercentile(90));
+            writer.name("p99").value(getPercentile(99));
+            writer.name("max").value(max);
+            // [lower bound, count] of the buckets that are not empty
+            writer.name("buckets").beginArray();
+            for (int i = 0; i < BUCKETS; i++) {
+                if (counts[i] > 0) {
+                    writer.beginArray().value(lowerBoundOf(i)).value(counts[i]).endArray();
+                }
+            }
+            writer.endArray();
+            writer.endObject();
+        }
+    }
+}
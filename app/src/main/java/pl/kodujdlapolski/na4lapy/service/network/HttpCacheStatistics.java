@@ -0,0 +1,81 @@
+/*
+ *	Copyright 2017 Stowarzyszenie Na4Łapy
+ *
+ *	Licensed under the Apache License, Version 2.0 (the "License");
+ *	you may not use this file except in compliance with the License.
+ *	You may obtain a copy of the License at
+ *
+ *	http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *	Unless required by applicable law or agreed to in writing, software
+ *	distributed under the License is distributed on an "AS IS" BASIS,
+ *	WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *	See the License for the specific language governing permissions and
+ *	limitations under the License.
+ */
+package pl.kodujdlapolski.na4lapy.service.network;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+import okhttp3.Response;
+
+/**
+ * How the responses passing through {@link CacheInterceptor} were served.
+ */
+public class HttpCacheStatistics {
+
+    private final AtomicLong mCacheHits = new AtomicLong();
+    private final AtomicLong mConditionalHits = new AtomicLong();
+    private final AtomicLong mNetworkResponses = new AtomicLong();
+    private final AtomicLong mUnsatisfied = new AtomicLong();
+
+    public void record(Response response) {
+        boolean cached = response.cacheResponse() != null;
+        if (response.networkResponse() != null) {
+            (cached ? mConditionalHits : mNetworkResponses).incrementAndGet();
+        } else if (cached) {
+            mCacheHits.incrementAndGet();
+        } else {
+            // an only-if-cached request that found nothing in the cache
+            mUnsatisfied.incrementAndGet();
+        }
+    }
+
+    public Snapshot snapshot() {
+        return new Snapshot(mCacheHits.get(), mConditionalHits.get(), mNetworkResponses.get(), mUnsatisfied.get());
+    }
+
+    public void reset() {
+        mCacheHits.set(0);
+        mConditionalHits.set(0);
+        mNetworkResponses.set(0);
+        mUnsatisfied.set(0);
+    }
+
+    @Getter
+    @ToString
+    @AllArgsConstructor
+    public static class Snapshot {
+        // served from the cache without touching the network
+        private final long cacheHits;
+        // cached body revalidated by a 304 from the server
+        private final long conditionalHits;
+        private final long networkResponses;
+        private final long unsatisfied;
+
+        public long getRequests() {
+            return cacheHits + conditionalHits + networkResponses + unsatisfied;
+        }
+
+        /**
+         * @return share of requests whose body came from the cache, revalidated or not
+         */
+        public double getHitRatio() {
+            long requests = getRequests();
+            return requests == 0 ? 0 : (double) (cacheHits + conditionalHits) / requests;
+        }
+    }
+}
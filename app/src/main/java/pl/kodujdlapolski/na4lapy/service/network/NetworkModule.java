@@ -0,0 +1,76 @@
+/*
+ *	Copyright 2017 Stowarzyszenie Na4Łapy
+ *
+ *	Licensed under the Apache License, Version 2.0 (the "License");
+ *	you may not use this file except in compliance with the License.
+ *	You may obtain a copy of the License at
+ *
+ *	http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *	Unless required by applicable law or agreed to in writing, software
+ *	distributed under the License is distributed on an "AS IS" BASIS,
+ *	WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *	See the License for the specific language governing permissions and
+ *	limitations under the License.
+ */
+package pl.kodujdlapolski.na4lapy.service.network;
+
+import android.app.Application;
+
+import java.io.File;
+import java.util.concurrent.TimeUnit;
+
+import javax.inject.Singleton;
+
+import dagger.Module;
+import dagger.Provides;
+import okhttp3.Cache;
+import okhttp3.ConnectionPool;
+import okhttp3.OkHttpClient;
+
+@Module
+public class NetworkModule {
+
+    public static final String HTTP_CACHE_DIRECTORY = "http";
+    public static final long HTTP_CACHE_BYTES = 10 * 1024 * 1024;
+    public static final int MAX_IDLE_CONNECTIONS = 5;
+    public static final int KEEP_ALIVE_MINUTES = 5;
+    public static final int CONNECT_TIMEOUT_SECONDS = 15;
+    public static final int READ_TIMEOUT_SECONDS = 30;
+
+    @Singleton
+    @Provides
+    public Cache provideHttpCache(Application application) {
+        return new Cache(new File(application.getCacheDir(), HTTP_CACHE_DIRECTORY), HTTP_CACHE_BYTES);
+    }
+
+    /**
+     * The client every other one is derived from with newBuilder(), so they all share one connection
+     * pool and dispatcher. OkHttp asks for gzip and decompresses responses on its own.
+     */
+    @Singleton
+    @Provides
+    public OkHttpClient provideOkHttpClient(Cache cache) {
+        return new OkHttpClient.Builder()
+                .cache(cache)
+                .connectionPool(new ConnectionPool(MAX_IDLE_CONNECTIONS, KEEP_ALIVE_MINUTES, TimeUnit.MINUTES))
+                .connectTimeout(CONNECT_TIMEOUT_SECONDS, TimeUnit.SECONDS)
+                .readTimeout(READ_TIMEOUT_SECONDS, TimeUnit.SECONDS)
+                .build();
+    }
+
+    @Singleton
+    @Provides
+    public NetworkStatistics provideNetworkStatistics() {
+        return new NetworkStatistics();
+    }
+
+    /**
+     * Installed on the api and payments clients only, images are measured by the image service.
+     */
+    @Singleton
+    @Provides
+    public NetworkTimingInterceptor provideNetworkTimingInterceptor(NetworkStatistics statistics) {
+        return new NetworkTimingInterceptor(statistics);
+    }
+}
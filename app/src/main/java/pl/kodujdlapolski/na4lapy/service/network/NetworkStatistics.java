@@ -0,0 +1,140 @@
+/*
+ *	Copyright 2017 Stowarzyszenie Na4Łapy
+ *
+ *	Licensed under the Apache License, Version 2.0 (the "License");
+ *	you may not use this file except in compliance with the License.
+ *	You may obtain a copy of the License at
+ *
+ *	http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *	Unless required by applicable law or agreed to in writing, software
+ *	distributed under the License is distributed on an "AS IS" BASIS,
+ *	WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *	See the License for the specific language governing permissions and
+ *	limitations under the License.
+ */
+package pl.kodujdlapolski.na4lapy.service.network;
+
+import com.google.gson.stream.JsonWriter;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import okhttp3.HttpUrl;
+import okhttp3.Request;
+
+/**
+ * {@link EndpointStatistics} per endpoint template, filled by {@link NetworkTimingInterceptor}, and
+ * by {@link CacheInterceptor} for the requests that prefer the cache.
+ * The template is the method, host and path with numeric path segments replaced by {@code {id}},
+ * so all animals share one entry.
+ */
+public class NetworkStatistics {
+
+    static final int MAX_ENDPOINTS = 64;
+    // collects whatever comes after MAX_ENDPOINTS templates, so the map cannot grow without bound
+    static final String OTHER_ENDPOINTS = "*";
+    static final String ID_SEGMENT = "{id}";
+
+    private final ConcurrentMap<String, EndpointStatistics> mEndpoints = new ConcurrentHashMap<>();
+    private volatile long mSinceMillis = System.currentTimeMillis();
+
+    public EndpointStatistics forRequest(Request request) {
+        return forEndpoint(templateOf(request));
+    }
+
+    public EndpointStatistics forEndpoint(String endpoint) {
+        EndpointStatistics statistics = mEndpoints.get(endpoint);
+        if (statistics == null) {
+            if (mEndpoints.size() >= MAX_ENDPOINTS && !OTHER_ENDPOINTS.equals(endpoint)) {
+                return forEndpoint(OTHER_ENDPOINTS);
+            }
+            EndpointStatistics created = new EndpointStatistics();
+            statistics = mEndpoints.putIfAbsent(endpoint, created);
+            if (statistics == null) {
+                statistics = created;
+            }
+        }
+        return statistics;
+    }
+
+    public Map<String, EndpointStatistics> getEndpoints() {
+        return new TreeMap<>(mEndpoints);
+    }
+
+    /**
+     * @return the cache statistics of all endpoints together
+     */
+    public HttpCacheStatistics.Snapshot getCacheStatistics() {
+        long cacheHits = 0;
+        long conditionalHits = 0;
+        long networkResponses = 0;
+        long unsatisfied = 0;
+        for (EndpointStatistics statistics : mEndpoints.values()) {
+            HttpCacheStatistics.Snapshot snapshot = statistics.getCacheStatistics().snapshot();
+            cacheHits += snapshot.getCacheHits();
+            conditionalHits += snapshot.getConditionalHits();
+            networkResponses += snapshot.getNetworkResponses();
+            unsatisfied += snapshot.getUnsatisfied();
+        }
+        return new HttpCacheStatistics.Snapshot(cacheHits, conditionalHits, networkResponses, unsatisfied);
+    }
+
+    public void reset() {
+        for (EndpointStatistics statistics : mEndpoints.values()) {
+            statistics.reset();
+        }
+        mSinceMillis = System.currentTimeMillis();
+    }
+
+    /**
+     * Writes every endpoint in template order, so dumps of two builds can be diffed.
+     *
+     * @param context free form description of the build and network the numbers were taken on
+     */
+    public void writeJson(Writer out, Map<String, String> context) throws IOException {
+        JsonWriter writer = new JsonWriter(out);
+        writer.setIndent("  ");
+        writer.beginObject();
+        writer.name("sinceMillis").value(mSinceMillis);
+        writer.name("untilMillis").value(System.currentTimeMillis());
+        writer.name("context").beginObject();
+        for (Map.Entry<String, String> entry : new TreeMap<>(context).entrySet()) {
+            writer.name(entry.getKey()).value(entry.getValue());
+        }
+        writer.endObject();
+        writer.name("endpoints").beginObject();
+        for (Map.Entry<String, EndpointStatistics> entry : getEndpoints().entrySet()) {
+            writer.name(entry.getKey());
+            entry.getValue().writeJson(writer);
+        }
+        writer.endObject();
+        writer.endObject();
+        writer.flush();
+    }
+
+    static String templateOf(Request request) {
+        HttpUrl url = request.url();
+        StringBuilder template = new StringBuilder(request.method()).append(' ').append(url.host());
+        for (String segment : url.pathSegments()) {
+            template.append('/').append(isNumeric(segment) ? ID_SEGMENT : segment);
+        }
+        return template.toString();
+    }
+
+    private static boolean isNumeric(String segment) {
+        if (segment.isEmpty()) {
+            return false;
+        }
+        for (int i = 0; i < segment.length(); i++) {
+            if (!Character.isDigit(segment.charAt(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
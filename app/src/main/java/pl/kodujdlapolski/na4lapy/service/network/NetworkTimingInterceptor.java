@@ -0,0 +1,204 @@
+/*
+ *	Copyright 2017 Stowarzyszenie Na4Łapy
+ *
+ *	Licensed under the Apache License, Version 2.0 (the "License");
+ *	you may not use this file except in compliance with the License.
+ *	You may obtain a copy of the License at
+ *
+ *	http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *	Unless required by applicable law or agreed to in writing, software
+ *	distributed under the License is distributed on an "AS IS" BASIS,
+ *	WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *	See the License for the specific language governing permissions and
+ *	limitations under the License.
+ */
+package pl.kodujdlapolski.na4lapy.service.network;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import okhttp3.Dns;
+import okhttp3.Interceptor;
+import okhttp3.OkHttpClient;
+import okhttp3.Request;
+import okhttp3.Response;
+import okhttp3.ResponseBody;
+import okio.Buffer;
+import okio.ForwardingSource;
+import okio.Okio;
+import okio.Source;
+
+/**
+ * Times the phases of every call into {@link NetworkStatistics}. OkHttp 3.3 has no event listener,
+ * so the phases are cut at the points it does expose: the {@link Dns} lookup, the network
+ * interceptor, which runs once a connection is ready, and the response body, which is wrapped to
+ * see when the caller has read it to the end.
+ * <p>
+ * The whole chain of a call runs on one thread, which is how the three hooks find the call they
+ * belong to.
+ */
+public class NetworkTimingInterceptor implements Interceptor {
+
+    private final NetworkStatistics mStatistics;
+    private final Dns mDns;
+    private final ThreadLocal<CallTiming> mCurrentCall = new ThreadLocal<>();
+    private final Interceptor mNetworkInterceptor = this::interceptNetwork;
+
+    public NetworkTimingInterceptor(NetworkStatistics statistics) {
+        this(statistics, Dns.SYSTEM);
+    }
+
+    public NetworkTimingInterceptor(NetworkStatistics statistics, Dns dns) {
+        mStatistics = statistics;
+        mDns = dns;
+    }
+
+    /**
+     * Call before adding any other interceptor, so the total covers them as well.
+     */
+    public OkHttpClient.Builder install(OkHttpClient.Builder builder) {
+        return builder
+                .dns(this::lookup)
+                .addInterceptor(this)
+                .addNetworkInterceptor(mNetworkInterceptor);
+    }
+
+    @Override
+    public Response intercept(Chain chain) throws IOException {
+        Request request = chain.request();
+        CallTiming timing = new CallTiming(mStatistics.forRequest(request), System.nanoTime());
+        CallTiming outer = mCurrentCall.get();
+        mCurrentCall.set(timing);
+        Response response;
+        try {
+            response = chain.proceed(request);
+        } catch (IOException e) {
+            timing.statistics.recordFailure();
+            throw e;
+        } finally {
+            mCurrentCall.set(outer);
+        }
+        ResponseBody body = response.body();
+        if (body == null) {
+            timing.finish(System.nanoTime(), 0);
+            return response;
+        }
+        TimingSource source = new TimingSource(body.source(), timing, System.nanoTime());
+        return response.newBuilder()
+                .body(ResponseBody.create(body.contentType(), body.contentLength(), Okio.buffer(source)))
+                .build();
+    }
+
+    private Response interceptNetwork(Chain chain) throws IOException {
+        CallTiming timing = mCurrentCall.get();
+        if (timing == null) {
+            return chain.proceed(chain.request());
+        }
+        long connectedNanos = System.nanoTime();
+        // a lookup only happens when no pooled connection could be reused
+        if (timing.lookedUp) {
+            timing.statistics.getDnsMicros().record(micros(timing.dnsNanos));
+            timing.statistics.getConnectMicros().record(micros(connectedNanos - timing.dnsEndNanos));
+            timing.lookedUp = false;
+            timing.dnsNanos = 0;
+        } else {
+            timing.statistics.recordReusedConnection();
+        }
+        Response response = chain.proceed(chain.request());
+        timing.statistics.getTimeToFirstByteMicros().record(micros(System.nanoTime() - connectedNanos));
+        return response;
+    }
+
+    private List<InetAddress> lookup(String hostname) throws UnknownHostException {
+        long startNanos = System.nanoTime();
+        try {
+            return mDns.lookup(hostname);
+        } finally {
+            CallTiming timing = mCurrentCall.get();
+            if (timing != null) {
+                timing.dnsEndNanos = System.nanoTime();
+                timing.dnsNanos += timing.dnsEndNanos - startNanos;
+                timing.lookedUp = true;
+            }
+        }
+    }
+
+    private static long micros(long nanos) {
+        return TimeUnit.NANOSECONDS.toMicros(nanos);
+    }
+
+    private static class CallTiming {
+        final EndpointStatistics statistics;
+        final long startNanos;
+        boolean lookedUp;
+        long dnsNanos;
+        long dnsEndNanos;
+
+        CallTiming(EndpointStatistics statistics, long startNanos) {
+            this.statistics = statistics;
+            this.startNanos = startNanos;
+        }
+
+        void finish(long endNanos, long bytes) {
+            statistics.getTotalMicros().record(micros(endNanos - startNanos));
+            statistics.getResponseBytes().record(bytes);
+        }
+    }
+
+    /**
+     * Counts the body bytes and records the call once the body is exhausted or closed, whichever
+     * comes first. Bytes are counted after OkHttp has unzipped them.
+     */
+    private static class TimingSource extends ForwardingSource {
+        private final CallTiming mTiming;
+        private final long mHeadersNanos;
+        private long mBytes;
+        private boolean mFinished;
+
+        TimingSource(Source delegate, CallTiming timing, long headersNanos) {
+            super(delegate);
+            mTiming = timing;
+            mHeadersNanos = headersNanos;
+        }
+
+        @Override
+        public long read(Buffer sink, long byteCount) throws IOException {
+            long read;
+            try {
+                read = super.read(sink, byteCount);
+            } catch (IOException e) {
+                if (!mFinished) {
+                    mFinished = true;
+                    mTiming.statistics.recordFailure();
+                }
+                throw e;
+            }
+            if (read == -1) {
+                finish();
+            } else {
+                mBytes += read;
+            }
+            return read;
+        }
+
+        @Override
+        public void close() throws IOException {
+            finish();
+            super.close();
+        }
+
+        private void finish() {
+            if (mFinished) {
+                return;
+            }
+            mFinished = true;
+            long endNanos = System.nanoTime();
+            mTiming.statistics.getBodyReadMicros().record(micros(endNanos - mHeadersNanos));
+            mTiming.finish(endNanos, mBytes);
+        }
+    }
+}
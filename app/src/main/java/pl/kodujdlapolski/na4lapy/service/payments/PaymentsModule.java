@@ -24,8 +24,10 @@ import dagger.Module;
 import dagger.Provides;
 import okhttp3.HttpUrl;
 import okhttp3.OkHttpClient;
+import pl.kodujdlapolski.na4lapy.service.network.NetworkTimingInterceptor;
 import pl.kodujdlapolski.na4lapy.service.payments.api.PayLaneApi;
 import pl.kodujdlapolski.na4lapy.service.payments.api.PayLaneApiRequestInterceptor;
+import pl.kodujdlapolski.na4lapy.service.scheduler.SchedulerProvider;
 import retrofit2.Retrofit;
 import retrofit2.adapter.rxjava.RxJavaCallAdapterFactory;
 import retrofit2.converter.gson.GsonConverterFactory;
@@ -35,8 +37,8 @@ public class PaymentsModule {
 
     @Provides
     @Singleton
-    public PaymentsService providePaymentService(PayLaneApi payLaneApi) {
-        return new PaymentsServiceImpl(payLaneApi);
+    public PaymentsService providePaymentService(PayLaneApi payLaneApi, SchedulerProvider schedulerProvider) {
+        return new PaymentsServiceImpl(payLaneApi, schedulerProvider);
     }
 
     @Singleton
@@ -48,11 +50,13 @@ public class PaymentsModule {
     @Singleton
     @Provides
     @Named("paylane")
-    public Retrofit provideRetrofit(Gson gson) {
-        OkHttpClient client = new OkHttpClient.Builder().addInterceptor(new PayLaneApiRequestInterceptor()).build();
+    public Retrofit provideRetrofit(Gson gson, OkHttpClient client, NetworkTimingInterceptor timingInterceptor) {
         return new Retrofit.Builder()
                 .baseUrl(HttpUrl.parse("https://direct.paylane.com/rest/"))
-                .client(client)
+                .client(timingInterceptor.install(client.newBuilder())
+                        .cache(null)
+                        .addInterceptor(new PayLaneApiRequestInterceptor())
+                        .build())
                 .addConverterFactory(GsonConverterFactory.create(gson))
                 .addCallAdapterFactory(RxJavaCallAdapterFactory.create())
                 .build();
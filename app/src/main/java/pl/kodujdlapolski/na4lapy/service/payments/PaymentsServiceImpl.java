@@ -18,16 +18,17 @@ package pl.kodujdlapolski.na4lapy.service.payments;
 import pl.kodujdlapolski.na4lapy.service.payments.api.PayLaneApi;
 import pl.kodujdlapolski.na4lapy.service.payments.model.Payment;
 import pl.kodujdlapolski.na4lapy.service.payments.model.PaymentResponse;
+import pl.kodujdlapolski.na4lapy.service.scheduler.SchedulerProvider;
 import rx.Observable;
-import rx.android.schedulers.AndroidSchedulers;
-import rx.schedulers.Schedulers;
 
 public class PaymentsServiceImpl implements PaymentsService {
 
     private PayLaneApi mPayLaneApi;
+    private SchedulerProvider mSchedulerProvider;
 
-    public PaymentsServiceImpl(PayLaneApi payLaneApi) {
+    public PaymentsServiceImpl(PayLaneApi payLaneApi, SchedulerProvider schedulerProvider) {
         mPayLaneApi = payLaneApi;
+        mSchedulerProvider = schedulerProvider;
     }
 
     @Override
@@ -37,6 +38,6 @@ public class PaymentsServiceImpl implements PaymentsService {
         payment.getCustomer().getAddress().setCountryCode(COUNTRY_CODE);
         payment.setBackUrl(BACK_URL);
         payment.getSale().setCurrency(CURRENCY);
-        return mPayLaneApi.bankTransfer(payment).subscribeOn(Schedulers.newThread()).observeOn(AndroidSchedulers.mainThread());
+        return mPayLaneApi.bankTransfer(payment).subscribeOn(mSchedulerProvider.network()).observeOn(mSchedulerProvider.mainThread());
     }
 }
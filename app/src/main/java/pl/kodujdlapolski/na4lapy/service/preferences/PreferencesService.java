@@ -21,6 +21,7 @@ import java.util.List;
 
 import pl.kodujdlapolski.na4lapy.model.UserPreferences;
 import pl.kodujdlapolski.na4lapy.service.payments.model.Customer;
+import pl.kodujdlapolski.na4lapy.service.repository.model.SyncState;
 
 public interface PreferencesService {
 
@@ -28,16 +29,26 @@ public interface PreferencesService {
     String KEY_USER_FAVOURITES = "PreferencesService.KEY_USER_FAVOURITES";
     String KEY_PAYMENT_CUSTOMER = "PreferencesService.KEY_PAYMENT_CUSTOMER";
     String KEY_WAS_INTRODUCTION_SHOWN = "PreferencesService.KEY_WAS_INTRODUCTION_SHOWN";
+    String KEY_SYNC_STATE_PREFIX = "PreferencesService.KEY_SYNC_STATE.";
+    String KEY_COMPLIANCE_LEVEL_SQL = "PreferencesService.KEY_COMPLIANCE_LEVEL_SQL";
 
     void setUserPreferences(UserPreferences userPreferences);
     @Nullable UserPreferences getUserPreferences();
 
-    void addToFavourite(@Nullable Long animalId);
-    void removeFromFavourite(@Nullable Long animalId);
-    List<Long> getFavouriteList();
+    /**
+     * Favourites kept here before they moved to their own table; read once by FavouriteStore.
+     */
+    List<Long> getLegacyFavouriteList();
+    void removeLegacyFavouriteList();
 
     void setCustomer(Customer customer);
     @Nullable Customer getCustomer();
 
     boolean shouldIntroductionBeShown();
+
+    @Nullable SyncState getSyncState(String resource);
+    void setSyncState(String resource, @Nullable SyncState syncState);
+
+    @Nullable String getComplianceLevelSql();
+    void setComplianceLevelSql(@Nullable String complianceLevelSql);
 }
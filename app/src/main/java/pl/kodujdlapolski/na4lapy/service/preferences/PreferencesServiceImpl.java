@@ -28,6 +28,7 @@ import java.util.List;
 
 import pl.kodujdlapolski.na4lapy.model.UserPreferences;
 import pl.kodujdlapolski.na4lapy.service.payments.model.Customer;
+import pl.kodujdlapolski.na4lapy.service.repository.model.SyncState;
 
 
 public class PreferencesServiceImpl implements PreferencesService {
@@ -54,50 +55,19 @@ public class PreferencesServiceImpl implements PreferencesService {
     }
 
     @Override
-    public void addToFavourite(@Nullable Long animalId) {
-        if (animalId == null) {
-            return;
-        }
+    public List<Long> getLegacyFavouriteList() {
         Type listType = new TypeToken<ArrayList<Long>>(){}.getType();
         String json = mSharedPreferences.getString(KEY_USER_FAVOURITES, null);
         List<Long> favourites = mGson.fromJson(json, listType);
-
         if (favourites == null) {
             favourites = new ArrayList<>();
         }
-
-        favourites.add(animalId);
-        json = mGson.toJson(favourites, listType);
-        mSharedPreferences.edit().putString(KEY_USER_FAVOURITES, json).apply();
-    }
-
-    @Override
-    public void removeFromFavourite(Long animalId) {
-        if (animalId == null) {
-            return;
-        }
-        Type listType = new TypeToken<ArrayList<Long>>(){}.getType();
-        String json = mSharedPreferences.getString(KEY_USER_FAVOURITES, null);
-        List<Long> favourites = mGson.fromJson(json, listType);
-        if (favourites == null) {
-            return;
-        }
-        if (favourites.contains(animalId)) {
-            favourites.remove(favourites.indexOf(animalId));
-            json = mGson.toJson(favourites, listType);
-            mSharedPreferences.edit().putString(KEY_USER_FAVOURITES, json).apply();
-        }
+        return favourites;
     }
 
     @Override
-    public List<Long> getFavouriteList() {
-        Type listType = new TypeToken<ArrayList<Long>>(){}.getType();
-        String json = mSharedPreferences.getString(KEY_USER_FAVOURITES, null);
-        List<Long> favourites = mGson.fromJson(json, listType);
-        if (favourites == null) {
-            favourites = new ArrayList<>();
-        }
-        return favourites;
+    public void removeLegacyFavouriteList() {
+        mSharedPreferences.edit().remove(KEY_USER_FAVOURITES).apply();
     }
 
     @Override
@@ -124,4 +94,31 @@ public class PreferencesServiceImpl implements PreferencesService {
         mSharedPreferences.edit().putBoolean(KEY_WAS_INTRODUCTION_SHOWN, true).apply();
         return true;
     }
+
+    @Override
+    @Nullable
+    public SyncState getSyncState(String resource) {
+        String json = mSharedPreferences.getString(KEY_SYNC_STATE_PREFIX + resource, null);
+        return mGson.fromJson(json, SyncState.class);
+    }
+
+    @Override
+    public void setSyncState(String resource, @Nullable SyncState syncState) {
+        if (syncState == null) {
+            mSharedPreferences.edit().remove(KEY_SYNC_STATE_PREFIX + resource).apply();
+        } else {
+            mSharedPreferences.edit().putString(KEY_SYNC_STATE_PREFIX + resource, mGson.toJson(syncState)).apply();
+        }
+    }
+
+    @Override
+    @Nullable
+    public String getComplianceLevelSql() {
+        return mSharedPreferences.getString(KEY_COMPLIANCE_LEVEL_SQL, null);
+    }
+
+    @Override
+    public void setComplianceLevelSql(@Nullable String complianceLevelSql) {
+        mSharedPreferences.edit().putString(KEY_COMPLIANCE_LEVEL_SQL, complianceLevelSql).apply();
+    }
 }
@@ -0,0 +1,69 @@
+/*
+ *	Copyright 2017 Stowarzyszenie Na4Łapy
+ *
+ *	Licensed under the Apache License, Version 2.0 (the "License");
+ *	you may not use this file except in compliance with the License.
+ *	You may obtain a copy of the License at
+ *
+ *	http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *	Unless required by applicable law or agreed to in writing, software
+ *	distributed under the License is distributed on an "AS IS" BASIS,
+ *	WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *	See the License for the specific language governing permissions and
+ *	limitations under the License.
+ */
+package pl.kodujdlapolski.na4lapy.service.repository;
+
+import com.j256.ormlite.dao.RawRowMapper;
+
+import org.joda.time.LocalDate;
+
+import pl.kodujdlapolski.na4lapy.model.Animal;
+import pl.kodujdlapolski.na4lapy.model.AnimalSummary;
+import pl.kodujdlapolski.na4lapy.model.BaseEntity;
+import pl.kodujdlapolski.na4lapy.model.type.ActivityAnimal;
+import pl.kodujdlapolski.na4lapy.model.type.Gender;
+import pl.kodujdlapolski.na4lapy.model.type.Size;
+import pl.kodujdlapolski.na4lapy.model.type.Species;
+import pl.kodujdlapolski.na4lapy.service.repository.database.LocalDatePersister;
+
+/**
+ * Maps rows of the animals table, selected with {@link #COLUMNS} in that order, to summaries.
+ */
+public class AnimalSummaryMapper implements RawRowMapper<AnimalSummary> {
+
+    public static final String[] COLUMNS = {
+            BaseEntity.COLUMN_NAME_ID,
+            Animal.COLUMN_NAME_NAME,
+            Animal.COLUMN_NAME_BIRTH_DATE,
+            Animal.COLUMN_NAME_SPECIES,
+            Animal.COLUMN_NAME_GENDER,
+            Animal.COLUMN_NAME_SIZE,
+            Animal.COLUMN_NAME_ACTIVITY,
+            Animal.COLUMN_NAME_COMPLIANCE_LEVEL,
+            Animal.COLUMN_NAME_FIRST_PHOTO_URL
+    };
+
+    @Override
+    public AnimalSummary mapRow(String[] columnNames, String[] resultColumns) {
+        return new AnimalSummary(
+                Long.valueOf(resultColumns[0]),
+                resultColumns[1],
+                toLocalDate(resultColumns[2]),
+                toEnum(Species.class, resultColumns[3]),
+                toEnum(Gender.class, resultColumns[4]),
+                toEnum(Size.class, resultColumns[5]),
+                toEnum(ActivityAnimal.class, resultColumns[6]),
+                resultColumns[7] != null ? Integer.parseInt(resultColumns[7]) : 0,
+                resultColumns[8]);
+    }
+
+    private static LocalDate toLocalDate(String value) {
+        return value != null ? (LocalDate) LocalDatePersister.getSingleton().sqlArgToJava(null, Integer.valueOf(value), 0) : null;
+    }
+
+    private static <E extends Enum<E>> E toEnum(Class<E> type, String value) {
+        return value != null ? Enum.valueOf(type, value) : null;
+    }
+}
@@ -0,0 +1,218 @@
+/*
+ *	Copyright 2017 Stowarzyszenie Na4Łapy
+ *
+ *	Licensed under the Apache License, Version 2.0 (the "License");
+ *	you may not use this file except in compliance with the License.
+ *	You may obtain a copy of the License at
+ *
+ *	http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *	Unless required by applicable law or agreed to in writing, software
+ *	distributed under the License is distributed on an "AS IS" BASIS,
+ *	WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *	See the License for the specific language governing permissions and
+ *	limitations under the License.
+ */
+package pl.kodujdlapolski.na4lapy.service.repository;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import pl.kodujdlapolski.na4lapy.model.Animal;
+import pl.kodujdlapolski.na4lapy.model.Photo;
+import pl.kodujdlapolski.na4lapy.service.api.model.ConditionalResponse;
+import pl.kodujdlapolski.na4lapy.service.api.model.PagedAnimalListDto;
+import pl.kodujdlapolski.na4lapy.service.preferences.PreferencesService;
+import pl.kodujdlapolski.na4lapy.service.repository.database.DatabaseRepository;
+import pl.kodujdlapolski.na4lapy.service.repository.model.AnimalSyncProgress;
+import pl.kodujdlapolski.na4lapy.service.repository.model.SyncReport;
+import pl.kodujdlapolski.na4lapy.service.repository.model.SyncState;
+
+/**
+ * State of a single incremental animal sync. Pages may arrive concurrently, so every
+ * entry point is synchronized; SQLite serializes the writes anyway.
+ */
+class AnimalSync {
+
+    static final String RESOURCE = "animals";
+
+    private final DatabaseRepository mDatabaseRepository;
+    private final PreferencesService mPreferencesService;
+    private final SyncIdStore mSyncIdStore;
+    private final int mPageSize;
+    private final long mStartNanos = System.nanoTime();
+    private final Set<Long> mSnapshotIds = new HashSet<>();
+
+    private int mPageCount = 1;
+    private int mSynchronizedCount;
+    private int mRequests;
+    private int mNotModified;
+    private long mBodyBytes;
+    private int mRowsWritten;
+    private int mRowsDeleted;
+    private boolean mFailed;
+
+    AnimalSync(DatabaseRepository databaseRepository, PreferencesService preferencesService, SyncIdStore syncIdStore,
+               int pageSize) {
+        mDatabaseRepository = databaseRepository;
+        mPreferencesService = preferencesService;
+        mSyncIdStore = syncIdStore;
+        mPageSize = pageSize;
+    }
+
+    static String getPageResource(int page, int pageSize) {
+        return RESOURCE + "?page=" + page + "&size=" + pageSize;
+    }
+
+    synchronized AnimalSyncProgress savePage(int page, ConditionalResponse<PagedAnimalListDto> response) {
+        mRequests++;
+        mBodyBytes += response.getBodyBytes();
+        String resource = getPageResource(page, mPageSize);
+        List<Animal> animals = Collections.emptyList();
+        int total = 0;
+        if (response.isNotModified()) {
+            mNotModified++;
+            SyncState state = mPreferencesService.getSyncState(resource);
+            List<Long> ids = readIds(resource);
+            if (state == null || ids == null) {
+                mFailed = true;
+            } else {
+                mSnapshotIds.addAll(ids);
+                mSynchronizedCount += ids.size();
+                total = state.getTotal();
+            }
+        } else if (response.getBody() != null) {
+            PagedAnimalListDto dto = response.getBody();
+            if (dto.getData() != null) {
+                animals = dto.getData();
+            }
+            total = dto.getTotal();
+            List<Long> ids = getIds(animals);
+            List<Animal> pageAnimals = animals;
+            try {
+                // the rows of a page and its ids commit together, a failure leaves nothing of the page behind
+                int[] rows = mDatabaseRepository.callInTransaction(() -> {
+                    int[] changedRows = saveChanged(pageAnimals, ids);
+                    mSyncIdStore.write(resource, ids);
+                    return changedRows;
+                });
+                mRowsWritten += rows[0];
+                mRowsDeleted += rows[1];
+                mPreferencesService.setSyncState(resource, new SyncState(response.getEtag(), response.getLastModified(), total));
+            } catch (Exception e) {
+                mFailed = true;
+                e.printStackTrace();
+            }
+            mSnapshotIds.addAll(ids);
+            mSynchronizedCount += animals.size();
+        }
+        int pageCount = getPageCount(total);
+        if (page == 1) {
+            mPageCount = pageCount;
+        }
+        return new AnimalSyncProgress(page, pageCount, mSynchronizedCount, total, animals);
+    }
+
+    /**
+     * Deletes local animals that are no longer in the server snapshot. Skipped when any page
+     * failed, because the snapshot is incomplete then.
+     */
+    synchronized SyncReport finish() {
+        if (!mFailed) {
+            try {
+                List<Long> removedIds = new ArrayList<>();
+                for (Long id : mDatabaseRepository.findAllIds(Animal.class)) {
+                    if (!mSnapshotIds.contains(id)) {
+                        removedIds.add(id);
+                    }
+                }
+                mRowsDeleted += mDatabaseRepository.callInTransaction(() ->
+                        mDatabaseRepository.deleteByForeignIds(removedIds, Photo.COLUMN_NAME_ANIMAL_ID, Photo.class)
+                                + mDatabaseRepository.deleteByIds(removedIds, Animal.class));
+                forgetPagesAfter(mPageCount);
+            } catch (Exception e) {
+                e.printStackTrace();
+            }
+        }
+        long durationMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - mStartNanos);
+        return new SyncReport(RESOURCE, mRequests, mNotModified, mBodyBytes, mRowsWritten, mRowsDeleted, durationMillis);
+    }
+
+    /**
+     * Called inside the page transaction.
+     *
+     * @return the rows written and the rows deleted
+     */
+    private int[] saveChanged(List<Animal> animals, List<Long> ids) throws Exception {
+        if (animals.isEmpty()) {
+            return new int[2];
+        }
+        Map<Long, Animal> stored = new HashMap<>();
+        for (Animal animal : mDatabaseRepository.<Animal>findAllByIdList(ids, Animal.class)) {
+            stored.put(animal.getId(), animal);
+        }
+        List<Animal> changed = new ArrayList<>();
+        List<Long> changedIds = new ArrayList<>();
+        List<Photo> photos = new ArrayList<>();
+        for (Animal animal : animals) {
+            long hash = ContentHash.of(animal);
+            Animal storedAnimal = stored.get(animal.getId());
+            if (storedAnimal != null && storedAnimal.getContentHash() != null && storedAnimal.getContentHash() == hash) {
+                continue;
+            }
+            animal.setContentHash(hash);
+            animal.setFirstPhotoUrl(animal.getPhotoList() != null && !animal.getPhotoList().isEmpty()
+                    ? animal.getPhotoList().get(0).getUrl() : null);
+            changed.add(animal);
+            changedIds.add(animal.getId());
+            if (animal.getPhotoList() != null) {
+                photos.addAll(animal.getPhotoList());
+            }
+        }
+        if (changed.isEmpty()) {
+            return new int[2];
+        }
+        // an animal stored with its new hash but without its photos would be skipped by every later sync
+        int deleted = mDatabaseRepository.deleteByForeignIds(changedIds, Photo.COLUMN_NAME_ANIMAL_ID, Photo.class);
+        int written = mDatabaseRepository.saveAll(changed) + mDatabaseRepository.saveAll(photos);
+        return new int[]{written, deleted};
+    }
+
+    private void forgetPagesAfter(int pageCount) {
+        SyncState previous = mPreferencesService.getSyncState(RESOURCE);
+        int previousPageCount = previous != null ? getPageCount(previous.getTotal()) : pageCount;
+        for (int page = pageCount + 1; page <= previousPageCount; page++) {
+            mPreferencesService.setSyncState(getPageResource(page, mPageSize), null);
+            mSyncIdStore.remove(getPageResource(page, mPageSize));
+        }
+        mPreferencesService.setSyncState(RESOURCE, new SyncState(null, null, mSynchronizedCount));
+    }
+
+    private List<Long> readIds(String resource) {
+        try {
+            return mSyncIdStore.read(resource);
+        } catch (IOException e) {
+            e.printStackTrace();
+            return null;
+        }
+    }
+
+    private int getPageCount(int total) {
+        return total <= 0 ? 1 : (total + mPageSize - 1) / mPageSize;
+    }
+
+    private static List<Long> getIds(List<Animal> animals) {
+        List<Long> ids = new ArrayList<>(animals.size());
+        for (Animal animal : animals) {
+            ids.add(animal.getId());
+        }
+        return ids;
+    }
+}
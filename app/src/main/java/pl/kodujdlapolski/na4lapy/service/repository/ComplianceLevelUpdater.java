@@ -0,0 +1,86 @@
+/*
+ *	Copyright 2017 Stowarzyszenie Na4Łapy
+ *
+ *	Licensed under the Apache License, Version 2.0 (the "License");
+ *	you may not use this file except in compliance with the License.
+ *	You may obtain a copy of the License at
+ *
+ *	http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *	Unless required by applicable law or agreed to in writing, software
+ *	distributed under the License is distributed on an "AS IS" BASIS,
+ *	WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *	See the License for the specific language governing permissions and
+ *	limitations under the License.
+ */
+package pl.kodujdlapolski.na4lapy.service.repository;
+
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.TimeUnit;
+
+import pl.kodujdlapolski.na4lapy.model.Animal;
+import pl.kodujdlapolski.na4lapy.service.preferences.PreferencesService;
+import pl.kodujdlapolski.na4lapy.service.repository.database.DatabaseRepository;
+import pl.kodujdlapolski.na4lapy.service.repository.model.ComplianceLevelReport;
+import pl.kodujdlapolski.na4lapy.service.user.UserService;
+import rx.Subscription;
+
+/**
+ * Keeps the persisted Animal.complianceLevel column in line with the current user preferences.
+ * Rows with a NULL level (new or changed by a sync) are scored in chunks; when the scoring
+ * expression differs from the last one applied, every row is reset first. Everything runs in
+ * one transaction, so a cancelled update leaves the previous levels untouched.
+ */
+class ComplianceLevelUpdater {
+
+    static final int CHUNK_SIZE = 500;
+
+    static final String CLEAR_LEVELS = "UPDATE `animals` SET `" + Animal.COLUMN_NAME_COMPLIANCE_LEVEL + "` = NULL";
+
+    private final DatabaseRepository mDatabaseRepository;
+    private final PreferencesService mPreferencesService;
+    private final UserService mUserService;
+
+    ComplianceLevelUpdater(DatabaseRepository databaseRepository, PreferencesService preferencesService, UserService userService) {
+        mDatabaseRepository = databaseRepository;
+        mPreferencesService = preferencesService;
+        mUserService = userService;
+    }
+
+    static String getUpdateChunkStatement(String complianceLevelSql) {
+        return "UPDATE `animals` SET `" + Animal.COLUMN_NAME_COMPLIANCE_LEVEL + "` = " + complianceLevelSql
+                + " WHERE `id` IN (SELECT `id` FROM `animals` WHERE `" + Animal.COLUMN_NAME_COMPLIANCE_LEVEL
+                + "` IS NULL LIMIT " + CHUNK_SIZE + ")";
+    }
+
+    /**
+     * @throws CancellationException when the subscription is unsubscribed between chunks
+     */
+    synchronized ComplianceLevelReport update(Subscription subscription) throws Exception {
+        long start = System.nanoTime();
+        String complianceLevelSql = mUserService.getPreferencesComplianceLevelSql();
+        boolean fullRecompute = !complianceLevelSql.equals(mPreferencesService.getComplianceLevelSql());
+        String updateChunk = getUpdateChunkStatement(complianceLevelSql);
+
+        int rowsUpdated = mDatabaseRepository.callInTransaction(() -> {
+            if (fullRecompute) {
+                mDatabaseRepository.updateRaw(CLEAR_LEVELS, Animal.class);
+            }
+            int total = 0;
+            int updated;
+            do {
+                if (subscription.isUnsubscribed()) {
+                    throw new CancellationException();
+                }
+                updated = mDatabaseRepository.updateRaw(updateChunk, Animal.class);
+                total += updated;
+            } while (updated >= CHUNK_SIZE);
+            return total;
+        });
+
+        if (fullRecompute) {
+            mPreferencesService.setComplianceLevelSql(complianceLevelSql);
+        }
+        return new ComplianceLevelReport(fullRecompute, rowsUpdated, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+    }
+}
@@ -0,0 +1,80 @@
+/*
+ *	Copyright 2017 Stowarzyszenie Na4Łapy
+ *
+ *	Licensed under the Apache License, Version 2.0 (the "License");
+ *	you may not use this file except in compliance with the License.
+ *	You may obtain a copy of the License at
+ *
+ *	http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *	Unless required by applicable law or agreed to in writing, software
+ *	distributed under the License is distributed on an "AS IS" BASIS,
+ *	WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *	See the License for the specific language governing permissions and
+ *	limitations under the License.
+ */
+package pl.kodujdlapolski.na4lapy.service.repository;
+
+import pl.kodujdlapolski.na4lapy.model.Animal;
+import pl.kodujdlapolski.na4lapy.model.Photo;
+
+/**
+ * 64-bit FNV-1a hash over the fields of an animal that come from the server. Local state
+ * such as the stored hash itself is left out so it never forces a rewrite.
+ */
+public final class ContentHash {
+
+    private static final long OFFSET_BASIS = 0xcbf29ce484222325L;
+    private static final long PRIME = 0x100000001b3L;
+
+    private long mHash = OFFSET_BASIS;
+
+    private ContentHash() {
+    }
+
+    public static long of(Animal animal) {
+        ContentHash hash = new ContentHash()
+                .add(animal.getId())
+                .add(animal.getShelter() != null ? animal.getShelter().getId() : null)
+                .add(animal.getName())
+                .add(animal.getRace())
+                .add(animal.getDescription())
+                .add(animal.getChipId())
+                .add(animal.getBirthDate())
+                .add(animal.getAdmittanceDate())
+                .add(animal.getSterilization())
+                .add(animal.getSpecies())
+                .add(animal.getGender())
+                .add(animal.getSize())
+                .add(animal.getActivity())
+                .add(animal.getVaccination())
+                .add(animal.getTraining());
+        if (animal.getPhotoList() != null) {
+            for (Photo photo : animal.getPhotoList()) {
+                hash.add(photo.getId()).add(photo.getUrl()).add(photo.getAuthor());
+            }
+        }
+        return hash.mHash;
+    }
+
+    private ContentHash add(Object value) {
+        if (value == null) {
+            mix(0);
+        } else {
+            String string = value.toString();
+            for (int i = 0; i < string.length(); i++) {
+                char c = string.charAt(i);
+                mix(c & 0xff);
+                mix(c >>> 8);
+            }
+        }
+        // field separator, so ("ab", "c") and ("a", "bc") differ
+        mix(0xff);
+        return this;
+    }
+
+    private void mix(int octet) {
+        mHash ^= octet;
+        mHash *= PRIME;
+    }
+}
@@ -0,0 +1,80 @@
+/*
+ *	Copyright 2017 Stowarzyszenie Na4Łapy
+ *
+ *	Licensed under the Apache License, Version 2.0 (the "License");
+ *	you may not use this file except in compliance with the License.
+ *	You may obtain a copy of the License at
+ *
+ *	http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *	Unless required by applicable law or agreed to in writing, software
+ *	distributed under the License is distributed on an "AS IS" BASIS,
+ *	WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *	See the License for the specific language governing permissions and
+ *	limitations under the License.
+ */
+package pl.kodujdlapolski.na4lapy.service.repository;
+
+import android.support.annotation.Nullable;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import pl.kodujdlapolski.na4lapy.model.Animal;
+import pl.kodujdlapolski.na4lapy.model.Photo;
+import pl.kodujdlapolski.na4lapy.service.repository.database.DatabaseRepository;
+
+/**
+ * Resolves the photos of a batch of animals with one IN query and attaches them as plain
+ * lists, so the views never touch the photos table themselves.
+ */
+public class PhotoLoader {
+
+    //photos are stored in the order the api returns them
+    public static final String ORDER_BY_INSERTION = "`rowid` ASC";
+
+    private DatabaseRepository mDatabaseRepository;
+
+    public PhotoLoader(DatabaseRepository databaseRepository) {
+        mDatabaseRepository = databaseRepository;
+    }
+
+    public void attachPhotos(@Nullable Animal animal) throws SQLException {
+        if (animal != null) {
+            List<Animal> animals = new ArrayList<>();
+            animals.add(animal);
+            attachPhotos(animals);
+        }
+    }
+
+    public List<Photo> loadPhotos(Long animalId) throws SQLException {
+        return mDatabaseRepository.findAllByForeignIds(
+                Collections.singletonList(animalId), Photo.COLUMN_NAME_ANIMAL_ID, ORDER_BY_INSERTION, Photo.class);
+    }
+
+    public void attachPhotos(@Nullable List<Animal> animals) throws SQLException {
+        if (animals == null || animals.isEmpty()) {
+            return;
+        }
+        Map<Long, List<Photo>> photosByAnimalId = new HashMap<>();
+        for (Animal animal : animals) {
+            if (animal.getId() != null) {
+                List<Photo> photos = new ArrayList<>();
+                photosByAnimalId.put(animal.getId(), photos);
+                animal.setPhotoList(photos);
+            }
+        }
+        List<Photo> photos = mDatabaseRepository.findAllByForeignIds(
+                photosByAnimalId.keySet(), Photo.COLUMN_NAME_ANIMAL_ID, ORDER_BY_INSERTION, Photo.class);
+        for (Photo photo : photos) {
+            List<Photo> animalPhotos = photo.getAnimal() != null ? photosByAnimalId.get(photo.getAnimal().getId()) : null;
+            if (animalPhotos != null) {
+                animalPhotos.add(photo);
+            }
+        }
+    }
+}
@@ -15,6 +15,10 @@
  */
 package pl.kodujdlapolski.na4lapy.service.repository;
 
+import android.app.Application;
+
+import java.io.File;
+
 import javax.inject.Singleton;
 
 import dagger.Module;
@@ -22,17 +26,31 @@ import dagger.Provides;
 import pl.kodujdlapolski.na4lapy.service.api.ApiService;
 import pl.kodujdlapolski.na4lapy.service.preferences.PreferencesService;
 import pl.kodujdlapolski.na4lapy.service.repository.database.DatabaseRepository;
+import pl.kodujdlapolski.na4lapy.service.scheduler.SchedulerProvider;
 import pl.kodujdlapolski.na4lapy.service.user.UserService;
 
 @Module
 public class RepositoryModule {
 
+    public static final String SYNC_IDS_DIRECTORY = "sync";
+
+    @Singleton
+    @Provides
+    public SyncIdStore provideSyncIdStore(Application application) {
+        return new SyncIdStore(new File(application.getFilesDir(), SYNC_IDS_DIRECTORY));
+    }
+
     @Singleton
     @Provides
     public RepositoryService provideRepositoryService(
             ApiService apiService, DatabaseRepository databaseRepository,
-            PreferencesService preferencesService, UserService userService
+            PreferencesService preferencesService, SyncIdStore syncIdStore, UserService userService,
+            SchedulerProvider schedulerProvider
     ) {
-        return new RepositoryServiceImpl(apiService, databaseRepository, preferencesService, userService);
+        RepositoryServiceImpl repositoryService = new RepositoryServiceImpl(apiService, databaseRepository,
+                preferencesService, syncIdStore, userService, schedulerProvider);
+        // the service lives as long as the application, so the subscription is never released
+        repositoryService.refreshComplianceLevelsOnPreferenceChange();
+        return repositoryService;
     }
 }
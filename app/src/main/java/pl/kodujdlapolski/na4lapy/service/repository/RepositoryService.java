@@ -18,19 +18,32 @@ package pl.kodujdlapolski.na4lapy.service.repository;
 import android.support.annotation.NonNull;
 
 import java.util.List;
+import java.util.Map;
 
 import pl.kodujdlapolski.na4lapy.model.Animal;
+import pl.kodujdlapolski.na4lapy.model.AnimalSummary;
+import pl.kodujdlapolski.na4lapy.model.Photo;
 import pl.kodujdlapolski.na4lapy.model.Shelter;
+import pl.kodujdlapolski.na4lapy.service.repository.model.AnimalSyncProgress;
+import pl.kodujdlapolski.na4lapy.service.repository.model.ComplianceLevelReport;
+import pl.kodujdlapolski.na4lapy.service.repository.model.SyncReport;
 import rx.Observable;
 
 public interface RepositoryService {
+    int BROWSE_PAGE_SIZE = 30;
+
     Observable<Animal> getAnimal(@NonNull Long id);
-    Observable<List<Animal>> getAnimals();
+    Observable<AnimalSummary> getAnimalSummary(@NonNull Long id);
+    Observable<List<Photo>> getPhotos(@NonNull Long animalId);
+    Observable<List<AnimalSummary>> getAnimalSummaries();
+    Observable<List<AnimalSummary>> getAnimalSummaries(int offset, int limit);
+    Observable<AnimalSyncProgress> getAnimalsSyncProgress();
+    Observable<SyncReport> getSyncReports();
+    Observable<ComplianceLevelReport> getComplianceLevelReports();
+    Map<String, RequestCoalescer.Counts> getRequestCoalescingStatistics();
 
     Observable<List<Animal>> getAnimalsByShelterId(@NonNull Long shelterId);
-    Observable<List<Animal>> getAnimalsByFavourite();
-
-    Observable<Long> setFavourite(@NonNull Long id, boolean favourite);
+    Observable<List<AnimalSummary>> getFavouriteAnimalSummaries();
 
     Observable<Shelter> getShelter(@NonNull Long id);
     Observable<List<Shelter>> getShelters();
@@ -19,35 +19,88 @@ import android.support.annotation.NonNull;
 
 import java.sql.SQLException;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.TimeUnit;
 
 import javax.inject.Inject;
 
 import pl.kodujdlapolski.na4lapy.model.Animal;
+import pl.kodujdlapolski.na4lapy.model.AnimalSummary;
+import pl.kodujdlapolski.na4lapy.model.BaseEntity;
+import pl.kodujdlapolski.na4lapy.model.Favourite;
+import pl.kodujdlapolski.na4lapy.model.Photo;
 import pl.kodujdlapolski.na4lapy.model.Shelter;
 import pl.kodujdlapolski.na4lapy.service.api.ApiService;
+import pl.kodujdlapolski.na4lapy.service.api.model.ConditionalResponse;
+import pl.kodujdlapolski.na4lapy.service.api.model.PagedAnimalListDto;
 import pl.kodujdlapolski.na4lapy.service.preferences.PreferencesService;
 import pl.kodujdlapolski.na4lapy.service.repository.database.DatabaseRepository;
+import pl.kodujdlapolski.na4lapy.service.repository.model.AnimalSyncProgress;
+import pl.kodujdlapolski.na4lapy.service.repository.model.ComplianceLevelReport;
+import pl.kodujdlapolski.na4lapy.service.repository.model.SyncReport;
+import pl.kodujdlapolski.na4lapy.service.repository.model.SyncState;
+import pl.kodujdlapolski.na4lapy.service.scheduler.SchedulerProvider;
 import pl.kodujdlapolski.na4lapy.service.user.UserService;
 import rx.Observable;
 import rx.Subscriber;
+import rx.Subscription;
+import rx.subjects.PublishSubject;
+import rx.subjects.Subject;
+import rx.subscriptions.Subscriptions;
 
 import static com.google.common.base.Preconditions.checkNotNull;
 
 public class RepositoryServiceImpl implements RepositoryService {
 
+    public static final int FIRST_PAGE = 1;
+    public static final int PAGE_SIZE = 50;
+    public static final int MAX_CONCURRENT_PAGES = 2;
+    public static final String RESOURCE_SHELTER = "shelter";
+    public static final String RESOURCE_ANIMALS = "animals";
+    public static final String ORDER_BY_COMPLIANCE_LEVEL =
+            "`" + Animal.COLUMN_NAME_COMPLIANCE_LEVEL + "` DESC, `" + BaseEntity.COLUMN_NAME_ID + "` ASC";
+
     private ApiService mApiService;
     private DatabaseRepository mDatabaseRepository;
     private PreferencesService mPreferencesService;
+    private SyncIdStore mSyncIdStore;
     private UserService mUserService;
+    private SchedulerProvider mSchedulerProvider;
+    private PublishSubject<AnimalSyncProgress> mAnimalsSyncProgressPublisher = PublishSubject.create();
+    private PublishSubject<SyncReport> mSyncReportPublisher = PublishSubject.create();
+    // reports are published from whichever thread the update ran on, and updates may overlap
+    private Subject<ComplianceLevelReport, ComplianceLevelReport> mComplianceLevelReportPublisher =
+            PublishSubject.<ComplianceLevelReport>create().toSerialized();
+    private ComplianceLevelUpdater mComplianceLevelUpdater;
+    private PhotoLoader mPhotoLoader;
+    private RequestCoalescer mRequestCoalescer = new RequestCoalescer();
+    private AnimalSummaryMapper mAnimalSummaryMapper = new AnimalSummaryMapper();
+    private Subscription mComplianceLevelSubscription;
 
     @Inject
     public RepositoryServiceImpl(
             ApiService apiService, DatabaseRepository databaseRepository,
-            PreferencesService preferencesService, UserService userService) {
+            PreferencesService preferencesService, SyncIdStore syncIdStore, UserService userService,
+            SchedulerProvider schedulerProvider) {
         mApiService = checkNotNull(apiService, "ApiService cannot be null");
         mDatabaseRepository = checkNotNull(databaseRepository, "DatabaseRepository cannot be null");
         mPreferencesService = checkNotNull(preferencesService, "PreferencesService cannot be null");
+        mSyncIdStore = checkNotNull(syncIdStore, "SyncIdStore cannot be null");
         mUserService = checkNotNull(userService, "UserService cannot be null");
+        mSchedulerProvider = checkNotNull(schedulerProvider, "SchedulerProvider cannot be null");
+        mComplianceLevelUpdater = new ComplianceLevelUpdater(mDatabaseRepository, mPreferencesService, mUserService);
+        mPhotoLoader = new PhotoLoader(mDatabaseRepository);
+    }
+
+    /**
+     * Recomputes the compliance levels every time the user preferences change. Unsubscribing the returned
+     * subscription stops listening and cancels a recompute that is still running.
+     */
+    public Subscription refreshComplianceLevelsOnPreferenceChange() {
+        return Subscriptions.from(
+                mUserService.getUserPreferencesPublisher().subscribe(userPreferences -> refreshComplianceLevels()),
+                Subscriptions.create(this::cancelComplianceLevelRefresh));
     }
 
     @Override
@@ -58,46 +111,73 @@ public class RepositoryServiceImpl implements RepositoryService {
             public void call(Subscriber<? super Animal> subscriber) {
                 try {
                     Animal animal = mDatabaseRepository.findOneById(id, Animal.class);
+                    mPhotoLoader.attachPhotos(animal);
                     subscriber.onNext(animal);
                     subscriber.onCompleted();
                 } catch (SQLException e) {
                     subscriber.onError(e);
                 }
             }
-        });
+        })
+        // not synchronized yet: the HTTP cache can still answer, also offline
+        .flatMap(animal -> animal != null ? Observable.just(animal)
+                : mApiService.getAnimal(id).subscribeOn(mSchedulerProvider.network()));
     }
 
     @Override
-    public Observable<List<Animal>> getAnimals() {
-        return Observable.create(new Observable.OnSubscribe<List<Animal>>() {
+    public Observable<AnimalSummary> getAnimalSummary(@NonNull Long id) {
+        checkNotNull(id, "id cannot be null");
+        return Observable.create(new Observable.OnSubscribe<AnimalSummary>() {
             @Override
-            public void call(Subscriber<? super List<Animal>> subscriber) {
+            public void call(Subscriber<? super AnimalSummary> subscriber) {
                 try {
-                    List<Animal> animals = mUserService.sortByUserPreferences(mDatabaseRepository.findAll(Animal.class));
-                    subscriber.onNext(animals);
+                    AnimalSummary summary = mDatabaseRepository.findColumnsById(
+                            id, AnimalSummaryMapper.COLUMNS, mAnimalSummaryMapper, Animal.class);
+                    subscriber.onNext(summary);
                     subscriber.onCompleted();
                 } catch (SQLException e) {
                     subscriber.onError(e);
                 }
             }
-        })
-        .concatWith(mApiService.getAnimalList().doOnNext(animals -> {
-            try {
-                mDatabaseRepository.saveAll(animals);
-            } catch (Exception e) {
-                e.printStackTrace();
+        });
+    }
+
+    @Override
+    public Observable<List<Photo>> getPhotos(@NonNull Long animalId) {
+        checkNotNull(animalId, "animalId cannot be null");
+        return Observable.create(new Observable.OnSubscribe<List<Photo>>() {
+            @Override
+            public void call(Subscriber<? super List<Photo>> subscriber) {
+                try {
+                    subscriber.onNext(mPhotoLoader.loadPhotos(animalId));
+                    subscriber.onCompleted();
+                } catch (SQLException e) {
+                    subscriber.onError(e);
+                }
             }
-        }));
+        });
     }
 
     @Override
-    public Observable<List<Animal>> getAnimalsByShelterId(@NonNull Long shelterId) {
-        checkNotNull(shelterId, "shelterId cannot be null");
-        return Observable.create(new Observable.OnSubscribe<List<Animal>>() {
+    public Observable<List<AnimalSummary>> getAnimalSummaries() {
+        return updateComplianceLevels()
+                .observeOn(mSchedulerProvider.databaseRead())
+                .flatMap(levels -> getAnimalSummaries(0, BROWSE_PAGE_SIZE))
+                .concatWith(mRequestCoalescer.coalesce(RESOURCE_ANIMALS, this::synchronizeAnimals)
+                        .filter(report -> report.getRowsWritten() > 0 || report.getRowsDeleted() > 0)
+                        .flatMap(report -> updateComplianceLevels())
+                        .observeOn(mSchedulerProvider.databaseRead())
+                        .flatMap(levels -> getAnimalSummaries(0, BROWSE_PAGE_SIZE)));
+    }
+
+    @Override
+    public Observable<List<AnimalSummary>> getAnimalSummaries(int offset, int limit) {
+        return Observable.create(new Observable.OnSubscribe<List<AnimalSummary>>() {
             @Override
-            public void call(Subscriber<? super List<Animal>> subscriber) {
+            public void call(Subscriber<? super List<AnimalSummary>> subscriber) {
                 try {
-                    List<Animal> animals = mDatabaseRepository.findAllByForeignId(shelterId, Animal.class, Shelter.class);
+                    List<AnimalSummary> animals = mDatabaseRepository.findColumnsPageOrderedBy(AnimalSummaryMapper.COLUMNS,
+                            mAnimalSummaryMapper, ORDER_BY_COMPLIANCE_LEVEL, offset, limit, Animal.class);
                     subscriber.onNext(animals);
                     subscriber.onCompleted();
                 } catch (SQLException e) {
@@ -108,15 +188,96 @@ public class RepositoryServiceImpl implements RepositoryService {
     }
 
     @Override
-    public Observable<List<Animal>> getAnimalsByFavourite() {
+    public Observable<AnimalSyncProgress> getAnimalsSyncProgress() {
+        return mAnimalsSyncProgressPublisher;
+    }
+
+    @Override
+    public Observable<SyncReport> getSyncReports() {
+        return mSyncReportPublisher;
+    }
+
+    @Override
+    public Observable<ComplianceLevelReport> getComplianceLevelReports() {
+        return mComplianceLevelReportPublisher;
+    }
+
+    @Override
+    public Map<String, RequestCoalescer.Counts> getRequestCoalescingStatistics() {
+        return mRequestCoalescer.snapshot();
+    }
+
+    /**
+     * Restarts the background recompute, cancelling one that is still running for older preferences.
+     */
+    private synchronized void refreshComplianceLevels() {
+        cancelComplianceLevelRefresh();
+        mComplianceLevelSubscription = updateComplianceLevels()
+                .subscribe(report -> {}, Throwable::printStackTrace);
+    }
+
+    private synchronized void cancelComplianceLevelRefresh() {
+        if (mComplianceLevelSubscription != null) {
+            mComplianceLevelSubscription.unsubscribe();
+        }
+    }
+
+    private Observable<ComplianceLevelReport> updateComplianceLevels() {
+        return Observable.create(new Observable.OnSubscribe<ComplianceLevelReport>() {
+            @Override
+            public void call(Subscriber<? super ComplianceLevelReport> subscriber) {
+                try {
+                    ComplianceLevelReport report = mComplianceLevelUpdater.update(subscriber);
+                    mComplianceLevelReportPublisher.onNext(report);
+                    subscriber.onNext(report);
+                    subscriber.onCompleted();
+                } catch (CancellationException e) {
+                    subscriber.onCompleted();
+                } catch (Exception e) {
+                    subscriber.onError(e);
+                }
+            }
+        }).subscribeOn(mSchedulerProvider.databaseWrite());
+    }
+
+    private Observable<SyncReport> synchronizeAnimals() {
+        return Observable.defer(() -> {
+            AnimalSync sync = new AnimalSync(mDatabaseRepository, mPreferencesService, mSyncIdStore, PAGE_SIZE);
+            return getAnimalPage(FIRST_PAGE).observeOn(mSchedulerProvider.databaseWrite()).flatMap(firstPage -> {
+                AnimalSyncProgress firstProgress = sync.savePage(FIRST_PAGE, firstPage);
+                Observable<AnimalSyncProgress> nextPages = Observable.range(FIRST_PAGE + 1, firstProgress.getPageCount() - 1)
+                        .flatMap(page -> getAnimalPage(page)
+                                .observeOn(mSchedulerProvider.databaseWrite())
+                                .map(response -> sync.savePage(page, response)), MAX_CONCURRENT_PAGES);
+                return Observable.just(firstProgress).concatWith(nextPages);
+            })
+            .doOnNext(mAnimalsSyncProgressPublisher::onNext)
+            .lastOrDefault(null)
+            .filter(progress -> progress != null)
+            .map(progress -> sync.finish())
+            .doOnNext(mSyncReportPublisher::onNext);
+        });
+    }
+
+    private Observable<ConditionalResponse<PagedAnimalListDto>> getAnimalPage(int page) {
+        String resource = AnimalSync.getPageResource(page, PAGE_SIZE);
+        SyncState state = mPreferencesService.getSyncState(resource);
+        // validators without the ids of the page would turn a 304 into a failed sync
+        return (state == null || !mSyncIdStore.contains(resource)
+                ? mApiService.getAnimalList(page, PAGE_SIZE, null, null)
+                : mApiService.getAnimalList(page, PAGE_SIZE, state.getEtag(), state.getLastModified()))
+                .subscribeOn(mSchedulerProvider.network());
+    }
+
+    @Override
+    public Observable<List<Animal>> getAnimalsByShelterId(@NonNull Long shelterId) {
+        checkNotNull(shelterId, "shelterId cannot be null");
         return Observable.create(new Observable.OnSubscribe<List<Animal>>() {
             @Override
             public void call(Subscriber<? super List<Animal>> subscriber) {
                 try {
-                    List<Animal> animals = mUserService.sortByUserPreferences(mDatabaseRepository.findAllByIdList(mPreferencesService.getFavouriteList(), Animal.class));
-                    for (Animal a : animals) {
-                        a.setFavourite(true);
-                    }
+                    List<Animal> animals = mDatabaseRepository.findAllByForeignId(shelterId, Animal.class, Shelter.class);
+                    mPhotoLoader.attachPhotos(animals);
                     subscriber.onNext(animals);
                     subscriber.onCompleted();
                 } catch (SQLException e) {
@@ -127,22 +288,24 @@ public class RepositoryServiceImpl implements RepositoryService {
     }
 
     @Override
-    public Observable<Long> setFavourite(@NonNull Long id, boolean favourite) {
-        checkNotNull(id, "id cannot be null");
-        return Observable.create(new Observable.OnSubscribe<Long>() {
+    public Observable<List<AnimalSummary>> getFavouriteAnimalSummaries() {
+        return Observable.zip(
+                updateComplianceLevels().lastOrDefault(null), mUserService.flushFavourites().lastOrDefault(null),
+                (levels, flushed) -> levels)
+                .observeOn(mSchedulerProvider.databaseRead())
+                .flatMap(levels -> Observable.create(new Observable.OnSubscribe<List<AnimalSummary>>() {
             @Override
-            public void call(Subscriber<? super Long> subscriber) {
+            public void call(Subscriber<? super List<AnimalSummary>> subscriber) {
                 try {
-                    Animal animal = mDatabaseRepository.findOneById(id, Animal.class);
-                    animal.setFavourite(favourite);
-                    mDatabaseRepository.save(animal);
-                    subscriber.onNext(animal.getId());
+                    List<AnimalSummary> animals = mDatabaseRepository.findColumnsWithIdIn(Favourite.class,
+                            AnimalSummaryMapper.COLUMNS, mAnimalSummaryMapper, ORDER_BY_COMPLIANCE_LEVEL, Animal.class);
+                    subscriber.onNext(animals);
                     subscriber.onCompleted();
                 } catch (SQLException e) {
                     subscriber.onError(e);
                 }
             }
-        });
+        }));
     }
 
     @Override
@@ -161,13 +324,36 @@ public class RepositoryServiceImpl implements RepositoryService {
                     }
                 }
             })
-            .concatWith(mApiService.getShelter().doOnNext(shelter -> {
-                try {
-                    mDatabaseRepository.save(shelter);
-                } catch (SQLException e) {
-                    e.printStackTrace();
-                }
-            }));
+            // not synchronized yet: the HTTP cache can still answer, also offline, and the sync has the last word
+            .flatMap(shelter -> shelter != null ? Observable.just(shelter)
+                    : mApiService.getShelter().subscribeOn(mSchedulerProvider.network()).onErrorResumeNext(Observable.empty()))
+            .concatWith(mRequestCoalescer.coalesce(RESOURCE_SHELTER, this::synchronizeShelter));
+    }
+
+    private Observable<Shelter> synchronizeShelter() {
+        return Observable.defer(() -> {
+            long start = System.nanoTime();
+            SyncState state = mPreferencesService.getSyncState(RESOURCE_SHELTER);
+            return mApiService.getShelter(state != null ? state.getEtag() : null, state != null ? state.getLastModified() : null)
+                    .subscribeOn(mSchedulerProvider.network())
+                    .observeOn(mSchedulerProvider.databaseWrite())
+                    .flatMap(response -> {
+                        int rowsWritten = 0;
+                        Shelter shelter = response.getBody();
+                        if (!response.isNotModified() && shelter != null) {
+                            try {
+                                rowsWritten = mDatabaseRepository.save(shelter);
+                                mPreferencesService.setSyncState(RESOURCE_SHELTER, new SyncState(response.getEtag(), response.getLastModified(), 1));
+                            } catch (SQLException e) {
+                                e.printStackTrace();
+                            }
+                        }
+                        long durationMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+                        mSyncReportPublisher.onNext(new SyncReport(RESOURCE_SHELTER, 1, response.isNotModified() ? 1 : 0,
+                                response.getBodyBytes(), rowsWritten, 0, durationMillis));
+                        return shelter != null ? Observable.just(shelter) : Observable.<Shelter>empty();
+                    });
+        });
     }
 
     @Override
@@ -0,0 +1,88 @@
+/*
+ *	Copyright 2017 Stowarzyszenie Na4Łapy
+ *
+ *	Licensed under the Apache License, Version 2.0 (the "License");
+ *	you may not use this file except in compliance with the License.
+ *	You may obtain a copy of the License at
+ *
+ *	http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *	Unless required by applicable law or agreed to in writing, software
+ *	distributed under the License is distributed on an "AS IS" BASIS,
+ *	WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *	See the License for the specific language governing permissions and
+ *	limitations under the License.
+ */
+package pl.kodujdlapolski.na4lapy.service.repository;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import lombok.Getter;
+import rx.Observable;
+import rx.functions.Func0;
+
+/**
+ * Lets concurrent subscribers to the same resource share one upstream call. The upstream is
+ * subscribed by the first subscriber, and everyone who subscribes before it terminates gets
+ * its full output replayed. Once it terminates, the next subscriber starts a new call.
+ */
+public class RequestCoalescer {
+
+    private final Map<String, Flight<?>> mInFlight = new HashMap<>();
+    private final Map<String, Counts> mCounts = new HashMap<>();
+
+    public <T> Observable<T> coalesce(String key, Func0<Observable<T>> upstream) {
+        return Observable.defer(() -> join(key, upstream));
+    }
+
+    public synchronized Map<String, Counts> snapshot() {
+        Map<String, Counts> result = new HashMap<>();
+        for (Map.Entry<String, Counts> entry : mCounts.entrySet()) {
+            result.put(entry.getKey(), new Counts(entry.getValue().started, entry.getValue().coalesced));
+        }
+        return result;
+    }
+
+    @SuppressWarnings("unchecked")
+    private synchronized <T> Observable<T> join(String key, Func0<Observable<T>> upstream) {
+        Counts counts = mCounts.get(key);
+        if (counts == null) {
+            counts = new Counts(0, 0);
+            mCounts.put(key, counts);
+        }
+        Flight<T> flight = (Flight<T>) mInFlight.get(key);
+        if (flight != null) {
+            counts.coalesced++;
+            return flight.observable;
+        }
+        counts.started++;
+        Flight<T> created = new Flight<>();
+        created.observable = upstream.call()
+                .doAfterTerminate(() -> land(key, created))
+                .cache();
+        mInFlight.put(key, created);
+        return created.observable;
+    }
+
+    private synchronized void land(String key, Flight<?> flight) {
+        if (mInFlight.get(key) == flight) {
+            mInFlight.remove(key);
+        }
+    }
+
+    private static class Flight<T> {
+        Observable<T> observable;
+    }
+
+    @Getter
+    public static class Counts {
+        private long started;
+        private long coalesced;
+
+        public Counts(long started, long coalesced) {
+            this.started = started;
+            this.coalesced = coalesced;
+        }
+    }
+}
@@ -0,0 +1,99 @@
+/*
+ *	Copyright 2017 Stowarzyszenie Na4Łapy
+ *
+ *	Licensed under the Apache License, Version 2.0 (the "License");
+ *	you may not use this file except in compliance with the License.
+ *	You may obtain a copy of the License at
+ *
+ *	http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *	Unless required by applicable law or agreed to in writing, software
+ *	distributed under the License is distributed on an "AS IS" BASIS,
+ *	WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *	See the License for the specific language governing permissions and
+ *	limitations under the License.
+ */
+package pl.kodujdlapolski.na4lapy.service.repository;
+
+import android.support.annotation.Nullable;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Row ids of every synchronized page, one small file per page, so a 304 response can be resolved
+ * without downloading the page again. Kept out of the preferences, which are rewritten as a whole
+ * on every change and would grow with the catalogue.
+ */
+public class SyncIdStore {
+
+    private static final String TEMP_SUFFIX = ".tmp";
+
+    private final File mDirectory;
+
+    public SyncIdStore(File directory) {
+        mDirectory = directory;
+    }
+
+    public boolean contains(String resource) {
+        return fileOf(resource).isFile();
+    }
+
+    /**
+     * @return the ids in the order they were written, or null when there are none for the resource
+     */
+    @Nullable
+    public List<Long> read(String resource) throws IOException {
+        File file = fileOf(resource);
+        if (!file.isFile()) {
+            return null;
+        }
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)))) {
+            int count = in.readInt();
+            List<Long> ids = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                ids.add(in.readLong());
+            }
+            return ids;
+        }
+    }
+
+    public void write(String resource, List<Long> ids) throws IOException {
+        if (!mDirectory.isDirectory() && !mDirectory.mkdirs()) {
+            throw new IOException("Cannot create " + mDirectory);
+        }
+        File file = fileOf(resource);
+        File temp = new File(mDirectory, file.getName() + TEMP_SUFFIX);
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(temp)))) {
+            out.writeInt(ids.size());
+            for (Long id : ids) {
+                out.writeLong(id);
+            }
+        }
+        if (!temp.renameTo(file)) {
+            temp.delete();
+            throw new IOException("Cannot write " + file);
+        }
+    }
+
+    public void remove(String resource) {
+        fileOf(resource).delete();
+    }
+
+    private File fileOf(String resource) {
+        StringBuilder name = new StringBuilder(resource.length());
+        for (int i = 0; i < resource.length(); i++) {
+            char c = resource.charAt(i);
+            name.append(Character.isLetterOrDigit(c) ? c : '_');
+        }
+        return new File(mDirectory, name.toString());
+    }
+}
@@ -0,0 +1,54 @@
+/*
+ *	Copyright 2017 Stowarzyszenie Na4Łapy
+ *
+ *	Licensed under the Apache License, Version 2.0 (the "License");
+ *	you may not use this file except in compliance with the License.
+ *	You may obtain a copy of the License at
+ *
+ *	http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *	Unless required by applicable law or agreed to in writing, software
+ *	distributed under the License is distributed on an "AS IS" BASIS,
+ *	WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *	See the License for the specific language governing permissions and
+ *	limitations under the License.
+ */
+package pl.kodujdlapolski.na4lapy.service.repository.database;
+
+import com.j256.ormlite.dao.Dao;
+import com.j256.ormlite.dao.DaoManager;
+import com.j256.ormlite.support.ConnectionSource;
+
+import java.sql.SQLException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Keeps one DAO per entity class, all bound to the single connection source owned by DatabaseModule.
+ */
+public class DaoRegistry {
+
+    private final ConnectionSource mConnectionSource;
+    private final ConcurrentMap<Class<?>, Dao<?, Long>> mDaos = new ConcurrentHashMap<>();
+
+    public DaoRegistry(ConnectionSource connectionSource) {
+        mConnectionSource = connectionSource;
+    }
+
+    @SuppressWarnings("unchecked")
+    public <T> Dao<T, Long> getDao(Class clazz) throws SQLException {
+        Dao<?, Long> dao = mDaos.get(clazz);
+        if (dao == null) {
+            Dao<?, Long> created = DaoManager.createDao(mConnectionSource, clazz);
+            dao = mDaos.putIfAbsent(clazz, created);
+            if (dao == null) {
+                dao = created;
+            }
+        }
+        return (Dao<T, Long>) dao;
+    }
+
+    public ConnectionSource getConnectionSource() {
+        return mConnectionSource;
+    }
+}
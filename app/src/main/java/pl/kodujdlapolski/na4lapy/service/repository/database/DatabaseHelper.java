@@ -23,16 +23,18 @@ import com.j256.ormlite.support.ConnectionSource;
 import com.j256.ormlite.table.TableUtils;
 
 import java.sql.SQLException;
+import java.util.List;
 
 import pl.kodujdlapolski.na4lapy.R;
 import pl.kodujdlapolski.na4lapy.model.Animal;
+import pl.kodujdlapolski.na4lapy.model.Favourite;
 import pl.kodujdlapolski.na4lapy.model.Photo;
 import pl.kodujdlapolski.na4lapy.model.Shelter;
 
 public class DatabaseHelper extends OrmLiteSqliteOpenHelper {
 
     private static final String DATABASE_NAME = "n4l.db";
-    private static final int DATABASE_VERSION = 1;
+    private static final int DATABASE_VERSION = 8;
 
     public DatabaseHelper(Context context) {
         super(context, DATABASE_NAME, null, DATABASE_VERSION, R.raw.ormlite_config);
@@ -44,6 +46,7 @@ public class DatabaseHelper extends OrmLiteSqliteOpenHelper {
             TableUtils.createTable(connectionSource, Shelter.class);
             TableUtils.createTable(connectionSource, Animal.class);
             TableUtils.createTable(connectionSource, Photo.class);
+            TableUtils.createTable(connectionSource, Favourite.class);
         } catch (SQLException e) {
             throw new RuntimeException(e);
         }
@@ -51,13 +54,25 @@ public class DatabaseHelper extends OrmLiteSqliteOpenHelper {
 
     @Override
     public void onUpgrade(SQLiteDatabase db, ConnectionSource connectionSource, int oldVersion, int newVersion) {
+        List<DatabaseMigration> migrations = DatabaseMigrations.getMigrations(oldVersion, newVersion);
+        if (migrations == null) {
+            recreateTables(db, connectionSource);
+            return;
+        }
+        for (DatabaseMigration migration : migrations) {
+            migration.migrate(db);
+        }
+    }
+
+    private void recreateTables(SQLiteDatabase db, ConnectionSource connectionSource) {
         try {
             TableUtils.dropTable(connectionSource, Shelter.class, true);
             TableUtils.dropTable(connectionSource, Animal.class, true);
             TableUtils.dropTable(connectionSource, Photo.class, true);
+            TableUtils.dropTable(connectionSource, Favourite.class, true);
             onCreate(db, connectionSource);
         } catch (SQLException e) {
             throw new RuntimeException(e);
         }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,47 @@
+/*
+ *	Copyright 2017 Stowarzyszenie Na4Łapy
+ *
+ *	Licensed under the Apache License, Version 2.0 (the "License");
+ *	you may not use this file except in compliance with the License.
+ *	You may obtain a copy of the License at
+ *
+ *	http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *	Unless required by applicable law or agreed to in writing, software
+ *	distributed under the License is distributed on an "AS IS" BASIS,
+ *	WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *	See the License for the specific language governing permissions and
+ *	limitations under the License.
+ */
+package pl.kodujdlapolski.na4lapy.service.repository.database;
+
+import android.database.sqlite.SQLiteDatabase;
+
+/**
+ * One schema step, run by DatabaseHelper.onUpgrade inside the upgrade transaction. The default
+ * implementation executes the given statements in order; migrations that move data can override
+ * {@link #migrate(SQLiteDatabase)}.
+ */
+public class DatabaseMigration {
+
+    private final int mVersion;
+    private final String[] mStatements;
+
+    public DatabaseMigration(int version, String... statements) {
+        mVersion = version;
+        mStatements = statements;
+    }
+
+    /**
+     * @return schema version this migration upgrades to
+     */
+    public int getVersion() {
+        return mVersion;
+    }
+
+    public void migrate(SQLiteDatabase database) {
+        for (String statement : mStatements) {
+            database.execSQL(statement);
+        }
+    }
+}
@@ -0,0 +1,132 @@
+/*
+ *	Copyright 2017 Stowarzyszenie Na4Łapy
+ *
+ *	Licensed under the Apache License, Version 2.0 (the "License");
+ *	you may not use this file except in compliance with the License.
+ *	You may obtain a copy of the License at
+ *
+ *	http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *	Unless required by applicable law or agreed to in writing, software
+ *	distributed under the License is distributed on an "AS IS" BASIS,
+ *	WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *	See the License for the specific language governing permissions and
+ *	limitations under the License.
+ */
+package pl.kodujdlapolski.na4lapy.service.repository.database;
+
+import android.support.annotation.Nullable;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+public final class DatabaseMigrations {
+
+    public static final String INDEX_ANIMALS_SPECIES = "animals_species_idx";
+    public static final String INDEX_ANIMALS_GENDER = "animals_gender_idx";
+    public static final String INDEX_ANIMALS_SIZE = "animals_size_idx";
+    public static final String INDEX_ANIMALS_ACTIVITY = "animals_activity_idx";
+    public static final String INDEX_ANIMALS_FAVOURITE = "animals_favourite_idx";
+    public static final String INDEX_ANIMALS_SHELTER_ID = "animals_shelter_id_idx";
+    public static final String INDEX_PHOTOS_ANIMAL_ID = "photos_animal_id_idx";
+    public static final String INDEX_ANIMALS_COMPLIANCE_LEVEL = "animals_compliance_level_idx";
+
+    // the animals table as version 8 creates it, in the column order ORMLite uses
+    private static final String ANIMALS_COLUMNS_DDL = "`shelter_id` BIGINT , `name` VARCHAR , `race` VARCHAR ,"
+            + " `description` VARCHAR , `chipId` VARCHAR , `birthEpochDay` INTEGER , `admittanceEpochDay` INTEGER ,"
+            + " `sterilization` VARCHAR , `species` VARCHAR , `gender` VARCHAR , `size` VARCHAR , `activity` VARCHAR ,"
+            + " `vaccination` VARCHAR , `training` VARCHAR , `contentHash` BIGINT , `complianceLevel` INTEGER ,"
+            + " `firstPhotoUrl` VARCHAR , `id` BIGINT ";
+    private static final String ANIMALS_COLUMNS = "`shelter_id`, `name`, `race`, `description`, `chipId`,"
+            + " `birthEpochDay`, `admittanceEpochDay`, `sterilization`, `species`, `gender`, `size`, `activity`,"
+            + " `vaccination`, `training`, `contentHash`, `complianceLevel`, `firstPhotoUrl`, `id`";
+
+    private static final List<DatabaseMigration> MIGRATIONS = Collections.unmodifiableList(Arrays.asList(
+            new DatabaseMigration(2,
+                    "ALTER TABLE `animals` ADD COLUMN `contentHash` BIGINT"),
+            new DatabaseMigration(3,
+                    createIndex(INDEX_ANIMALS_SPECIES, "animals", "species"),
+                    createIndex(INDEX_ANIMALS_GENDER, "animals", "gender"),
+                    createIndex(INDEX_ANIMALS_SIZE, "animals", "size"),
+                    createIndex(INDEX_ANIMALS_ACTIVITY, "animals", "activity"),
+                    createIndex(INDEX_ANIMALS_FAVOURITE, "animals", "favourite"),
+                    createIndex(INDEX_ANIMALS_SHELTER_ID, "animals", "shelter_id"),
+                    createIndex(INDEX_PHOTOS_ANIMAL_ID, "photos", "animal_id")),
+            new DatabaseMigration(4,
+                    "ALTER TABLE `animals` ADD COLUMN `complianceLevel` INTEGER",
+                    createIndex(INDEX_ANIMALS_COMPLIANCE_LEVEL, "animals", "complianceLevel")),
+            new DatabaseMigration(5,
+                    "CREATE TABLE IF NOT EXISTS `favourites` (`id` BIGINT , PRIMARY KEY (`id`) )"),
+            new DatabaseMigration(6,
+                    "ALTER TABLE `animals` ADD COLUMN `firstPhotoUrl` VARCHAR",
+                    "UPDATE `animals` SET `firstPhotoUrl` = (SELECT `url` FROM `photos`"
+                            + " WHERE `photos`.`animal_id` = `animals`.`id` ORDER BY `photos`.`rowid` LIMIT 1)"),
+            // the old text columns cannot be dropped, they are emptied and left unused
+            new DatabaseMigration(7,
+                    "ALTER TABLE `animals` ADD COLUMN `birthEpochDay` INTEGER",
+                    "ALTER TABLE `animals` ADD COLUMN `admittanceEpochDay` INTEGER",
+                    "UPDATE `animals` SET `birthEpochDay` = " + toEpochDay("birthDate")
+                            + ", `admittanceEpochDay` = " + toEpochDay("admittanceDate")
+                            + ", `birthDate` = NULL, `admittanceDate` = NULL"),
+            // favourites live in their own table, SQLite cannot drop a column so the table is rebuilt,
+            // which also gets rid of the text date columns emptied by version 7
+            new DatabaseMigration(8,
+                    "DROP INDEX IF EXISTS `" + INDEX_ANIMALS_FAVOURITE + "`",
+                    "CREATE TABLE `animals_new` (" + ANIMALS_COLUMNS_DDL + ", PRIMARY KEY (`id`) )",
+                    "INSERT INTO `animals_new` (" + ANIMALS_COLUMNS + ") SELECT " + ANIMALS_COLUMNS + " FROM `animals`",
+                    "DROP TABLE `animals`",
+                    "ALTER TABLE `animals_new` RENAME TO `animals`",
+                    createIndex(INDEX_ANIMALS_SPECIES, "animals", "species"),
+                    createIndex(INDEX_ANIMALS_GENDER, "animals", "gender"),
+                    createIndex(INDEX_ANIMALS_SIZE, "animals", "size"),
+                    createIndex(INDEX_ANIMALS_ACTIVITY, "animals", "activity"),
+                    createIndex(INDEX_ANIMALS_SHELTER_ID, "animals", "shelter_id"),
+                    createIndex(INDEX_ANIMALS_COMPLIANCE_LEVEL, "animals", "complianceLevel"))
+    ));
+
+    private DatabaseMigrations() {
+    }
+
+    public static List<DatabaseMigration> getAll() {
+        return MIGRATIONS;
+    }
+
+    /**
+     * @return migrations to run in order, or null when there is no continuous path from
+     * oldVersion to newVersion and the schema has to be recreated
+     */
+    @Nullable
+    public static List<DatabaseMigration> getMigrations(int oldVersion, int newVersion) {
+        return getMigrations(MIGRATIONS, oldVersion, newVersion);
+    }
+
+    @Nullable
+    static List<DatabaseMigration> getMigrations(List<DatabaseMigration> migrations, int oldVersion, int newVersion) {
+        List<DatabaseMigration> result = new ArrayList<>();
+        int version = oldVersion;
+        for (DatabaseMigration migration : migrations) {
+            if (migration.getVersion() <= oldVersion || migration.getVersion() > newVersion) {
+                continue;
+            }
+            if (migration.getVersion() != version + 1) {
+                return null;
+            }
+            result.add(migration);
+            version = migration.getVersion();
+        }
+        return version == newVersion ? result : null;
+    }
+
+    /**
+     * @return expression converting a yyyy-MM-dd text column to epoch days, null for null or malformed dates
+     */
+    private static String toEpochDay(String columnName) {
+        return "CAST(julianday(`" + columnName + "`) - julianday('1970-01-01') AS INTEGER)";
+    }
+
+    private static String createIndex(String indexName, String tableName, String columnName) {
+        return "CREATE INDEX IF NOT EXISTS `" + indexName + "` ON `" + tableName + "` ( `" + columnName + "` )";
+    }
+}
@@ -17,6 +17,8 @@ package pl.kodujdlapolski.na4lapy.service.repository.database;
 
 import android.app.Application;
 
+import com.j256.ormlite.support.ConnectionSource;
+
 import javax.inject.Singleton;
 
 import dagger.Module;
@@ -27,8 +29,26 @@ public class DatabaseModule {
 
     @Singleton
     @Provides
-    public DatabaseRepository provideDatabaseRepository(DatabaseHelper databaseHelper) {
-        return new DatabaseRepositoryImpl(databaseHelper);
+    public DatabaseRepository provideDatabaseRepository(DaoRegistry daoRegistry, QueryStatistics queryStatistics) {
+        return new DatabaseRepositoryImpl(daoRegistry, queryStatistics);
+    }
+
+    @Singleton
+    @Provides
+    public DaoRegistry provideDaoRegistry(ConnectionSource connectionSource) {
+        return new DaoRegistry(connectionSource);
+    }
+
+    @Singleton
+    @Provides
+    public ConnectionSource provideConnectionSource(DatabaseHelper databaseHelper) {
+        return databaseHelper.getConnectionSource();
+    }
+
+    @Singleton
+    @Provides
+    public QueryStatistics provideQueryStatistics() {
+        return new QueryStatistics();
     }
 
     @Singleton
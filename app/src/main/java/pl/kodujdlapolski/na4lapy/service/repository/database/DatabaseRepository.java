@@ -15,9 +15,13 @@
  */
 package pl.kodujdlapolski.na4lapy.service.repository.database;
 
+import com.j256.ormlite.dao.RawRowMapper;
+
 import java.sql.SQLException;
+import java.util.Collection;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.Callable;
 
 public interface DatabaseRepository {
     <T> T findOneById(Long id, Class clazz) throws SQLException;
@@ -25,6 +29,16 @@ public interface DatabaseRepository {
     <T1, T2> List<T1> findAllByForeignId(Long id, Class sourceClass, Class foreignClass) throws SQLException;
     <T> List<T> findAllByFields(Map<String, Object> fieldValues, Class clazz) throws SQLException;
     <T> List<T> findAllByIdList(List<Long> idList, Class clazz) throws SQLException;
+    <T> List<T> findAllByForeignIds(Collection<Long> foreignIds, String foreignColumnName, String orderByRaw, Class clazz) throws SQLException;
+    <R> R findColumnsById(Long id, String[] columns, RawRowMapper<R> mapper, Class clazz) throws SQLException;
+    <R> List<R> findColumnsWithIdIn(Class idSourceClass, String[] columns, RawRowMapper<R> mapper, String orderByRaw, Class clazz) throws SQLException;
+    <R> List<R> findColumnsPageOrderedBy(String[] columns, RawRowMapper<R> mapper, String orderByRaw, long offset, long limit, Class clazz) throws SQLException;
     <T> int save(T entity) throws SQLException;
     <T> int saveAll(List<T> entities) throws Exception;
+    List<Long> findAllIds(Class clazz) throws SQLException;
+    int deleteByIds(Collection<Long> ids, Class clazz) throws SQLException;
+    int deleteByForeignIds(Collection<Long> foreignIds, String foreignColumnName, Class clazz) throws SQLException;
+    int updateRaw(String statement, Class clazz, String... arguments) throws SQLException;
+    <V> V callInTransaction(Callable<V> callable) throws SQLException;
+    QueryStatistics getQueryStatistics();
 }
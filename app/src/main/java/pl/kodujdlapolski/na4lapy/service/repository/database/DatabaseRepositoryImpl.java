@@ -17,13 +17,15 @@ package pl.kodujdlapolski.na4lapy.service.repository.database;
 
 import android.support.annotation.Nullable;
 
-import com.j256.ormlite.android.AndroidConnectionSource;
 import com.j256.ormlite.dao.Dao;
-import com.j256.ormlite.dao.DaoManager;
+import com.j256.ormlite.dao.RawRowMapper;
+import com.j256.ormlite.misc.TransactionManager;
+import com.j256.ormlite.stmt.DeleteBuilder;
 import com.j256.ormlite.stmt.QueryBuilder;
-import com.j256.ormlite.support.ConnectionSource;
 
 import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.Callable;
@@ -34,61 +36,139 @@ import pl.kodujdlapolski.na4lapy.model.BaseEntity;
 
 public class DatabaseRepositoryImpl implements DatabaseRepository {
 
-    private DatabaseHelper mDatabaseHelper;
+    public static final String QUERY_FIND_ONE_BY_ID = "findOneById";
+    public static final String QUERY_FIND_ALL = "findAll";
+    public static final String QUERY_FIND_ALL_BY_FOREIGN_ID = "findAllByForeignId";
+    public static final String QUERY_FIND_ALL_BY_FIELDS = "findAllByFields";
+    public static final String QUERY_FIND_ALL_BY_ID_LIST = "findAllByIdList";
+    public static final String QUERY_FIND_ALL_BY_FOREIGN_IDS = "findAllByForeignIds";
+    public static final String QUERY_FIND_COLUMNS_BY_ID = "findColumnsById";
+    public static final String QUERY_FIND_COLUMNS_WITH_ID_IN = "findColumnsWithIdIn";
+    public static final String QUERY_FIND_COLUMNS_PAGE_ORDERED_BY = "findColumnsPageOrderedBy";
+    public static final String QUERY_SAVE = "save";
+    public static final String QUERY_SAVE_ALL = "saveAll";
+    public static final String QUERY_FIND_ALL_IDS = "findAllIds";
+    public static final String QUERY_DELETE_BY_IDS = "deleteByIds";
+    public static final String QUERY_DELETE_BY_FOREIGN_IDS = "deleteByForeignIds";
+    public static final String QUERY_UPDATE_RAW = "updateRaw";
+
+    // stays below SQLITE_MAX_VARIABLE_NUMBER (999) for IN (...) arguments
+    private static final int MAX_IN_ARGUMENTS = 500;
+
+    private DaoRegistry mDaoRegistry;
+    private QueryStatistics mQueryStatistics;
 
     @Inject
-    public DatabaseRepositoryImpl(DatabaseHelper databaseHelper) {
-        mDatabaseHelper = databaseHelper;
+    public DatabaseRepositoryImpl(DaoRegistry daoRegistry, QueryStatistics queryStatistics) {
+        mDaoRegistry = daoRegistry;
+        mQueryStatistics = queryStatistics;
     }
 
     @Override
     public <T> T findOneById(Long id, Class clazz) throws SQLException {
-        ConnectionSource connectionSource = new AndroidConnectionSource(mDatabaseHelper);
-        Dao<T, Long> dao = getDao(clazz, connectionSource);
+        long start = System.nanoTime();
+        Dao<T, Long> dao = getDao(clazz);
         T entity = dao.queryForId(id);
-        connectionSource.close();
+        mQueryStatistics.record(QUERY_FIND_ONE_BY_ID, start);
         return entity;
     }
 
     @Override
     public <T> List<T> findAll(Class clazz) throws SQLException {
-        ConnectionSource connectionSource = new AndroidConnectionSource(mDatabaseHelper);
-        Dao<T, Long> dao = getDao(clazz, connectionSource);
+        long start = System.nanoTime();
+        Dao<T, Long> dao = getDao(clazz);
         List<T> list = dao.queryForAll();
-        connectionSource.close();
+        mQueryStatistics.record(QUERY_FIND_ALL, start);
         return list;
     }
 
     @Override
     public <T1, T2> List<T1> findAllByForeignId(Long id, Class sourceClass, Class foreignClass) throws SQLException {
-        ConnectionSource connectionSource = new AndroidConnectionSource(mDatabaseHelper);
-        Dao<T1, Long> sourceDao = getDao(sourceClass, connectionSource);
-        Dao<T2, Long> foreignDao = getDao(foreignClass, connectionSource);
+        long start = System.nanoTime();
+        Dao<T1, Long> sourceDao = getDao(sourceClass);
+        Dao<T2, Long> foreignDao = getDao(foreignClass);
 
         QueryBuilder<T2, Long> foreignQb = foreignDao.queryBuilder();
         foreignQb.where().eq(BaseEntity.COLUMN_NAME_ID, id);
         QueryBuilder<T1, Long> sourceQb = sourceDao.queryBuilder();
         List<T1> list = sourceQb.join(foreignQb).query();
-        connectionSource.close();
+        mQueryStatistics.record(QUERY_FIND_ALL_BY_FOREIGN_ID, start);
         return list;
     }
 
     @Override
     public <T> List<T> findAllByFields(Map<String, Object> fieldValues, Class clazz) throws SQLException {
-        ConnectionSource connectionSource = new AndroidConnectionSource(mDatabaseHelper);
-        Dao<T, Long> dao = getDao(clazz, connectionSource);
+        long start = System.nanoTime();
+        Dao<T, Long> dao = getDao(clazz);
         List<T> list = dao.queryForFieldValues(fieldValues);
-        connectionSource.close();
+        mQueryStatistics.record(QUERY_FIND_ALL_BY_FIELDS, start);
         return list;
     }
 
     public <T> List<T> findAllByIdList(List<Long> idList, Class clazz) throws SQLException {
-        ConnectionSource connectionSource = new AndroidConnectionSource(mDatabaseHelper);
-        Dao<T, Long> dao = getDao(clazz, connectionSource);
+        long start = System.nanoTime();
+        Dao<T, Long> dao = getDao(clazz);
         QueryBuilder<T, Long> qb = dao.queryBuilder();
         qb.where().in(BaseEntity.COLUMN_NAME_ID, idList);
         List<T> list = qb.query();
-        connectionSource.close();
+        mQueryStatistics.record(QUERY_FIND_ALL_BY_ID_LIST, start);
+        return list;
+    }
+
+    @Override
+    public <T> List<T> findAllByForeignIds(@Nullable Collection<Long> foreignIds, String foreignColumnName,
+                                           String orderByRaw, Class clazz) throws SQLException {
+        if (foreignIds == null || foreignIds.isEmpty()) {
+            return new ArrayList<>();
+        }
+        long start = System.nanoTime();
+        Dao<T, Long> dao = getDao(clazz);
+        List<Long> idList = new ArrayList<>(foreignIds);
+        List<T> list = new ArrayList<>();
+        for (int from = 0; from < idList.size(); from += MAX_IN_ARGUMENTS) {
+            QueryBuilder<T, Long> qb = dao.queryBuilder();
+            qb.orderByRaw(orderByRaw).where().in(foreignColumnName, idList.subList(from, Math.min(from + MAX_IN_ARGUMENTS, idList.size())));
+            list.addAll(qb.query());
+        }
+        mQueryStatistics.record(QUERY_FIND_ALL_BY_FOREIGN_IDS, start);
+        return list;
+    }
+
+    @Override
+    @Nullable
+    public <R> R findColumnsById(Long id, String[] columns, RawRowMapper<R> mapper, Class clazz) throws SQLException {
+        long start = System.nanoTime();
+        Dao<Object, Long> dao = getDao(clazz);
+        QueryBuilder<Object, Long> qb = dao.queryBuilder().selectColumns(columns);
+        qb.where().eq(BaseEntity.COLUMN_NAME_ID, id);
+        R result = dao.queryRaw(qb.prepareStatementString(), mapper).getFirstResult();
+        mQueryStatistics.record(QUERY_FIND_COLUMNS_BY_ID, start);
+        return result;
+    }
+
+    @Override
+    public <R> List<R> findColumnsWithIdIn(Class idSourceClass, String[] columns, RawRowMapper<R> mapper,
+                                           String orderByRaw, Class clazz) throws SQLException {
+        long start = System.nanoTime();
+        Dao<Object, Long> dao = getDao(clazz);
+        Dao<Object, Long> idSourceDao = getDao(idSourceClass);
+        QueryBuilder<Object, Long> idQb = idSourceDao.queryBuilder().selectColumns(BaseEntity.COLUMN_NAME_ID);
+        QueryBuilder<Object, Long> qb = dao.queryBuilder().selectColumns(columns);
+        qb.orderByRaw(orderByRaw).where().in(BaseEntity.COLUMN_NAME_ID, idQb);
+        List<R> list = dao.queryRaw(qb.prepareStatementString(), mapper).getResults();
+        mQueryStatistics.record(QUERY_FIND_COLUMNS_WITH_ID_IN, start);
+        return list;
+    }
+
+    @Override
+    public <R> List<R> findColumnsPageOrderedBy(String[] columns, RawRowMapper<R> mapper, String orderByRaw,
+                                                long offset, long limit, Class clazz) throws SQLException {
+        long start = System.nanoTime();
+        Dao<Object, Long> dao = getDao(clazz);
+        QueryBuilder<Object, Long> qb = dao.queryBuilder().selectColumns(columns);
+        qb.orderByRaw(orderByRaw).offset(offset).limit(limit);
+        List<R> list = dao.queryRaw(qb.prepareStatementString(), mapper).getResults();
+        mQueryStatistics.record(QUERY_FIND_COLUMNS_PAGE_ORDERED_BY, start);
         return list;
     }
 
@@ -97,10 +177,10 @@ public class DatabaseRepositoryImpl implements DatabaseRepository {
         if (entity == null) {
             return 0;
         }
-        ConnectionSource connectionSource = new AndroidConnectionSource(mDatabaseHelper);
-        Dao<T, Long> dao = getDao(entity.getClass(), connectionSource);
+        long start = System.nanoTime();
+        Dao<T, Long> dao = getDao(entity.getClass());
         int count = dao.createOrUpdate(entity).getNumLinesChanged();
-        connectionSource.close();
+        mQueryStatistics.record(QUERY_SAVE, start);
         return count;
     }
 
@@ -109,8 +189,8 @@ public class DatabaseRepositoryImpl implements DatabaseRepository {
         if (entities == null || entities.isEmpty()) {
             return 0;
         }
-        ConnectionSource connectionSource = new AndroidConnectionSource(mDatabaseHelper);
-        final Dao<T, Long> dao = getDao(entities.get(0).getClass(), connectionSource);
+        long start = System.nanoTime();
+        final Dao<T, Long> dao = getDao(entities.get(0).getClass());
         final int[] count = {0};
         dao.callBatchTasks(new Callable<Void>() {
             @Override
@@ -121,11 +201,69 @@ public class DatabaseRepositoryImpl implements DatabaseRepository {
                 return null;
             }
         });
-        connectionSource.close();
+        mQueryStatistics.record(QUERY_SAVE_ALL, start);
         return count[0];
     }
 
-    public <T> Dao<T, Long> getDao(Class clazz, ConnectionSource connectionSource) throws SQLException {
-        return DaoManager.createDao(connectionSource, clazz);
+    @Override
+    public List<Long> findAllIds(Class clazz) throws SQLException {
+        long start = System.nanoTime();
+        Dao<BaseEntity, Long> dao = getDao(clazz);
+        List<Long> ids = new ArrayList<>();
+        for (BaseEntity entity : dao.queryBuilder().selectColumns(BaseEntity.COLUMN_NAME_ID).query()) {
+            ids.add(entity.getId());
+        }
+        mQueryStatistics.record(QUERY_FIND_ALL_IDS, start);
+        return ids;
+    }
+
+    @Override
+    public int deleteByIds(@Nullable Collection<Long> ids, Class clazz) throws SQLException {
+        return deleteByColumnValues(ids, BaseEntity.COLUMN_NAME_ID, clazz, QUERY_DELETE_BY_IDS);
+    }
+
+    @Override
+    public int deleteByForeignIds(@Nullable Collection<Long> foreignIds, String foreignColumnName, Class clazz) throws SQLException {
+        return deleteByColumnValues(foreignIds, foreignColumnName, clazz, QUERY_DELETE_BY_FOREIGN_IDS);
+    }
+
+    private <T> int deleteByColumnValues(@Nullable Collection<Long> values, String columnName, Class clazz, String operation) throws SQLException {
+        if (values == null || values.isEmpty()) {
+            return 0;
+        }
+        long start = System.nanoTime();
+        Dao<T, Long> dao = getDao(clazz);
+        List<Long> valueList = new ArrayList<>(values);
+        int count = 0;
+        for (int from = 0; from < valueList.size(); from += MAX_IN_ARGUMENTS) {
+            DeleteBuilder<T, Long> deleteBuilder = dao.deleteBuilder();
+            deleteBuilder.where().in(columnName, valueList.subList(from, Math.min(from + MAX_IN_ARGUMENTS, valueList.size())));
+            count += deleteBuilder.delete();
+        }
+        mQueryStatistics.record(operation, start);
+        return count;
+    }
+
+    @Override
+    public int updateRaw(String statement, Class clazz, String... arguments) throws SQLException {
+        long start = System.nanoTime();
+        Dao<Object, Long> dao = getDao(clazz);
+        int count = dao.updateRaw(statement, arguments);
+        mQueryStatistics.record(QUERY_UPDATE_RAW, start);
+        return count;
+    }
+
+    @Override
+    public <V> V callInTransaction(Callable<V> callable) throws SQLException {
+        return TransactionManager.callInTransaction(mDaoRegistry.getConnectionSource(), callable);
+    }
+
+    @Override
+    public QueryStatistics getQueryStatistics() {
+        return mQueryStatistics;
+    }
+
+    public <T> Dao<T, Long> getDao(Class clazz) throws SQLException {
+        return mDaoRegistry.getDao(clazz);
     }
 }
@@ -17,23 +17,39 @@ package pl.kodujdlapolski.na4lapy.service.repository.database;
 
 import com.j256.ormlite.field.FieldType;
 import com.j256.ormlite.field.SqlType;
-import com.j256.ormlite.field.types.DateStringType;
+import com.j256.ormlite.field.types.BaseDataType;
+import com.j256.ormlite.support.DatabaseResults;
 
 import org.joda.time.LocalDate;
-import org.joda.time.format.DateTimeFormat;
-import org.joda.time.format.DateTimeFormatter;
 
-public class LocalDatePersister extends DateStringType {
+import java.sql.SQLException;
+
+import pl.kodujdlapolski.na4lapy.utils.EpochDays;
+
+/**
+ * Stores dates as integer epoch days, so reading a row does not parse a string and date ranges
+ * are plain integer comparisons in SQL.
+ */
+public class LocalDatePersister extends BaseDataType {
 
     private static final LocalDatePersister singleton = new LocalDatePersister();
-    private static final DateTimeFormatter formatter = DateTimeFormat.forPattern("yyyy-MM-dd");
 
     public static LocalDatePersister getSingleton() {
         return singleton;
     }
 
     protected LocalDatePersister() {
-        super(SqlType.STRING, new Class<?>[] { LocalDate.class });
+        super(SqlType.INTEGER, new Class<?>[] { LocalDate.class });
+    }
+
+    @Override
+    public Object parseDefaultString(FieldType fieldType, String defaultStr) {
+        return Integer.parseInt(defaultStr);
+    }
+
+    @Override
+    public Object resultToSqlArg(FieldType fieldType, DatabaseResults results, int columnPos) throws SQLException {
+        return results.getInt(columnPos);
     }
 
     @Override
@@ -42,12 +58,17 @@ public class LocalDatePersister extends DateStringType {
         if (localDate == null) {
             return null;
         } else {
-            return localDate.toString(formatter);
+            return EpochDays.of(localDate);
         }
     }
 
     @Override
     public Object sqlArgToJava(FieldType fieldType, Object sqlArg, int columnPos) {
-        return LocalDate.parse((String)sqlArg, formatter);
+        return EpochDays.toLocalDate(((Number) sqlArg).intValue());
+    }
+
+    @Override
+    public boolean isEscapedValue() {
+        return false;
     }
 }
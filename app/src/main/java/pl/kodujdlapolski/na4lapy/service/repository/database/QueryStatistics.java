@@ -0,0 +1,91 @@
+/*
+ *	Copyright 2017 Stowarzyszenie Na4Łapy
+ *
+ *	Licensed under the Apache License, Version 2.0 (the "License");
+ *	you may not use this file except in compliance with the License.
+ *	You may obtain a copy of the License at
+ *
+ *	http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *	Unless required by applicable law or agreed to in writing, software
+ *	distributed under the License is distributed on an "AS IS" BASIS,
+ *	WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *	See the License for the specific language governing permissions and
+ *	limitations under the License.
+ */
+package pl.kodujdlapolski.na4lapy.service.repository.database;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import lombok.Getter;
+
+/**
+ * Per-operation query timings collected by DatabaseRepositoryImpl.
+ */
+public class QueryStatistics {
+
+    private final ConcurrentMap<String, Counter> mCounters = new ConcurrentHashMap<>();
+
+    public void record(String operation, long startNanos) {
+        long elapsed = System.nanoTime() - startNanos;
+        Counter counter = mCounters.get(operation);
+        if (counter == null) {
+            Counter created = new Counter();
+            counter = mCounters.putIfAbsent(operation, created);
+            if (counter == null) {
+                counter = created;
+            }
+        }
+        counter.add(elapsed);
+    }
+
+    public Map<String, Timing> snapshot() {
+        Map<String, Timing> result = new HashMap<>();
+        for (Map.Entry<String, Counter> entry : mCounters.entrySet()) {
+            Counter counter = entry.getValue();
+            result.put(entry.getKey(), new Timing(counter.count.get(), counter.totalNanos.get(), counter.maxNanos.get()));
+        }
+        return result;
+    }
+
+    public void reset() {
+        mCounters.clear();
+    }
+
+    private static class Counter {
+        final AtomicLong count = new AtomicLong();
+        final AtomicLong totalNanos = new AtomicLong();
+        final AtomicLong maxNanos = new AtomicLong();
+
+        void add(long nanos) {
+            count.incrementAndGet();
+            totalNanos.addAndGet(nanos);
+            long max = maxNanos.get();
+            while (nanos > max && !maxNanos.compareAndSet(max, nanos)) {
+                max = maxNanos.get();
+            }
+        }
+    }
+
+    @Getter
+    public static class Timing {
+        private final long count;
+        private final long totalNanos;
+        private final long maxNanos;
+
+        public Timing(long count, long totalNanos, long maxNanos) {
+            this.count = count;
+            this.totalNanos = totalNanos;
+            this.maxNanos = maxNanos;
+        }
+
+        public long getAverageMicros() {
+            return count == 0 ? 0 : TimeUnit.NANOSECONDS.toMicros(totalNanos / count);
+        }
+    }
+}
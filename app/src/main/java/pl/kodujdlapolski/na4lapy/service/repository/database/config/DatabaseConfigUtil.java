@@ -18,6 +18,8 @@ package pl.kodujdlapolski.na4lapy.service.repository.database.config;
 import com.j256.ormlite.android.apptools.OrmLiteConfigUtil;
 
 import pl.kodujdlapolski.na4lapy.model.Animal;
+import pl.kodujdlapolski.na4lapy.model.Favourite;
+import pl.kodujdlapolski.na4lapy.model.Photo;
 import pl.kodujdlapolski.na4lapy.model.Shelter;
 
 /**
@@ -26,7 +28,7 @@ import pl.kodujdlapolski.na4lapy.model.Shelter;
  */
 public class DatabaseConfigUtil extends OrmLiteConfigUtil {
     private static final Class<?>[] classes = new Class[] {
-            Animal.class, Shelter.class
+            Animal.class, Shelter.class, Photo.class, Favourite.class
     };
     public static void main(String[] args) throws Exception {
         writeConfigFile("ormlite_config.txt", classes);
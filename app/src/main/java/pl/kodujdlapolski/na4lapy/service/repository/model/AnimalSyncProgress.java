@@ -0,0 +1,37 @@
+/*
+ *	Copyright 2017 Stowarzyszenie Na4Łapy
+ *
+ *	Licensed under the Apache License, Version 2.0 (the "License");
+ *	you may not use this file except in compliance with the License.
+ *	You may obtain a copy of the License at
+ *
+ *	http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *	Unless required by applicable law or agreed to in writing, software
+ *	distributed under the License is distributed on an "AS IS" BASIS,
+ *	WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *	See the License for the specific language governing permissions and
+ *	limitations under the License.
+ */
+package pl.kodujdlapolski.na4lapy.service.repository.model;
+
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import pl.kodujdlapolski.na4lapy.model.Animal;
+
+@Getter
+@AllArgsConstructor
+public class AnimalSyncProgress {
+
+    private final int page;
+    private final int pageCount;
+    private final int synchronizedCount;
+    private final int total;
+    private final List<Animal> animals;
+
+    public boolean isCompleted() {
+        return synchronizedCount >= total;
+    }
+}
@@ -0,0 +1,34 @@
+/*
+ *	Copyright 2017 Stowarzyszenie Na4Łapy
+ *
+ *	Licensed under the Apache License, Version 2.0 (the "License");
+ *	you may not use this file except in compliance with the License.
+ *	You may obtain a copy of the License at
+ *
+ *	http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *	Unless required by applicable law or agreed to in writing, software
+ *	distributed under the License is distributed on an "AS IS" BASIS,
+ *	WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *	See the License for the specific language governing permissions and
+ *	limitations under the License.
+ */
+package pl.kodujdlapolski.na4lapy.service.repository.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+/**
+ * Validators remembered for one synchronized resource. The row ids of a page are kept in the
+ * {@link pl.kodujdlapolski.na4lapy.service.repository.SyncIdStore}.
+ */
+@Getter
+@AllArgsConstructor
+@NoArgsConstructor //for gson
+public class SyncState {
+
+    private String etag;
+    private String lastModified;
+    private int total;
+}
@@ -0,0 +1,108 @@
+/*
+ *	Copyright 2017 Stowarzyszenie Na4Łapy
+ *
+ *	Licensed under the Apache License, Version 2.0 (the "License");
+ *	you may not use this file except in compliance with the License.
+ *	You may obtain a copy of the License at
+ *
+ *	http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *	Unless required by applicable law or agreed to in writing, software
+ *	distributed under the License is distributed on an "AS IS" BASIS,
+ *	WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *	See the License for the specific language governing permissions and
+ *	limitations under the License.
+ */
+package pl.kodujdlapolski.na4lapy.service.scheduler;
+
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Fixed size pool that records queue depth, how long tasks wait in the queue and how long they run.
+ */
+public class InstrumentedExecutor extends ThreadPoolExecutor {
+
+    private final String mName;
+    private final AtomicInteger mMaxQueueDepth = new AtomicInteger();
+    private final AtomicLong mCompletedTasks = new AtomicLong();
+    private final AtomicLong mTotalWaitNanos = new AtomicLong();
+    private final AtomicLong mMaxWaitNanos = new AtomicLong();
+    private final AtomicLong mTotalRunNanos = new AtomicLong();
+    private final AtomicLong mMaxRunNanos = new AtomicLong();
+
+    public InstrumentedExecutor(String name, int threads) {
+        super(threads, threads, 0L, TimeUnit.MILLISECONDS, new LinkedBlockingQueue<>(), new NamedThreadFactory(name));
+        mName = name;
+    }
+
+    @Override
+    public void execute(Runnable command) {
+        super.execute(new TimedRunnable(command));
+        int depth = getQueue().size();
+        int max = mMaxQueueDepth.get();
+        while (depth > max && !mMaxQueueDepth.compareAndSet(max, depth)) {
+            max = mMaxQueueDepth.get();
+        }
+    }
+
+    public SchedulerStatistics getStatistics() {
+        long completed = mCompletedTasks.get();
+        return new SchedulerStatistics(mName, getMaximumPoolSize(), getQueue().size(), mMaxQueueDepth.get(), completed,
+                toAverageMicros(mTotalWaitNanos.get(), completed), TimeUnit.NANOSECONDS.toMicros(mMaxWaitNanos.get()),
+                toAverageMicros(mTotalRunNanos.get(), completed), TimeUnit.NANOSECONDS.toMicros(mMaxRunNanos.get()));
+    }
+
+    private static long toAverageMicros(long totalNanos, long count) {
+        return count == 0 ? 0 : TimeUnit.NANOSECONDS.toMicros(totalNanos / count);
+    }
+
+    private static void add(AtomicLong total, AtomicLong max, long nanos) {
+        total.addAndGet(nanos);
+        long current = max.get();
+        while (nanos > current && !max.compareAndSet(current, nanos)) {
+            current = max.get();
+        }
+    }
+
+    private class TimedRunnable implements Runnable {
+        private final Runnable mCommand;
+        private final long mEnqueuedNanos = System.nanoTime();
+
+        TimedRunnable(Runnable command) {
+            mCommand = command;
+        }
+
+        @Override
+        public void run() {
+            long start = System.nanoTime();
+            add(mTotalWaitNanos, mMaxWaitNanos, start - mEnqueuedNanos);
+            try {
+                mCommand.run();
+            } finally {
+                add(mTotalRunNanos, mMaxRunNanos, System.nanoTime() - start);
+                mCompletedTasks.incrementAndGet();
+            }
+        }
+    }
+
+    private static class NamedThreadFactory implements ThreadFactory {
+        private final String mPrefix;
+        private final AtomicInteger mCount = new AtomicInteger();
+
+        NamedThreadFactory(String name) {
+            mPrefix = "na4lapy-" + name + "-";
+        }
+
+        @Override
+        public Thread newThread(Runnable runnable) {
+            Thread thread = new Thread(runnable, mPrefix + mCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+}
@@ -0,0 +1,35 @@
+/*
+ *	Copyright 2017 Stowarzyszenie Na4Łapy
+ *
+ *	Licensed under the Apache License, Version 2.0 (the "License");
+ *	you may not use this file except in compliance with the License.
+ *	You may obtain a copy of the License at
+ *
+ *	http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *	Unless required by applicable law or agreed to in writing, software
+ *	distributed under the License is distributed on an "AS IS" BASIS,
+ *	WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *	See the License for the specific language governing permissions and
+ *	limitations under the License.
+ */
+package pl.kodujdlapolski.na4lapy.service.scheduler;
+
+import javax.inject.Singleton;
+
+import dagger.Module;
+import dagger.Provides;
+
+@Module
+public class SchedulerModule {
+
+    public static final int NETWORK_THREADS = 4;
+    public static final int DATABASE_READ_THREADS = 2;
+
+    @Singleton
+    @Provides
+    public SchedulerProvider provideSchedulerProvider() {
+        int computationThreads = Math.max(1, Runtime.getRuntime().availableProcessors() - 1);
+        return new SchedulerProviderImpl(NETWORK_THREADS, DATABASE_READ_THREADS, computationThreads);
+    }
+}
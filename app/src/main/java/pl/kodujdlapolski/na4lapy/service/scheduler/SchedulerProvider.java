@@ -0,0 +1,44 @@
+/*
+ *	Copyright 2017 Stowarzyszenie Na4Łapy
+ *
+ *	Licensed under the Apache License, Version 2.0 (the "License");
+ *	you may not use this file except in compliance with the License.
+ *	You may obtain a copy of the License at
+ *
+ *	http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *	Unless required by applicable law or agreed to in writing, software
+ *	distributed under the License is distributed on an "AS IS" BASIS,
+ *	WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *	See the License for the specific language governing permissions and
+ *	limitations under the License.
+ */
+package pl.kodujdlapolski.na4lapy.service.scheduler;
+
+import java.util.List;
+
+import rx.Scheduler;
+
+public interface SchedulerProvider {
+
+    /**
+     * Bounded pool for blocking network calls.
+     */
+    Scheduler network();
+
+    /**
+     * Single thread, so writes and transactions never contend with each other.
+     */
+    Scheduler databaseWrite();
+
+    Scheduler databaseRead();
+
+    /**
+     * CPU bound work such as scoring and diffing lists.
+     */
+    Scheduler computation();
+
+    Scheduler mainThread();
+
+    List<SchedulerStatistics> getStatistics();
+}
@@ -0,0 +1,81 @@
+/*
+ *	Copyright 2017 Stowarzyszenie Na4Łapy
+ *
+ *	Licensed under the Apache License, Version 2.0 (the "License");
+ *	you may not use this file except in compliance with the License.
+ *	You may obtain a copy of the License at
+ *
+ *	http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *	Unless required by applicable law or agreed to in writing, software
+ *	distributed under the License is distributed on an "AS IS" BASIS,
+ *	WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *	See the License for the specific language governing permissions and
+ *	limitations under the License.
+ */
+package pl.kodujdlapolski.na4lapy.service.scheduler;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import rx.Scheduler;
+import rx.android.schedulers.AndroidSchedulers;
+import rx.schedulers.Schedulers;
+
+public class SchedulerProviderImpl implements SchedulerProvider {
+
+    private final InstrumentedExecutor mNetworkExecutor;
+    private final InstrumentedExecutor mDatabaseWriteExecutor;
+    private final InstrumentedExecutor mDatabaseReadExecutor;
+    private final InstrumentedExecutor mComputationExecutor;
+    private final Scheduler mNetwork;
+    private final Scheduler mDatabaseWrite;
+    private final Scheduler mDatabaseRead;
+    private final Scheduler mComputation;
+
+    public SchedulerProviderImpl(int networkThreads, int databaseReadThreads, int computationThreads) {
+        mNetworkExecutor = new InstrumentedExecutor("network", networkThreads);
+        mDatabaseWriteExecutor = new InstrumentedExecutor("db-write", 1);
+        mDatabaseReadExecutor = new InstrumentedExecutor("db-read", databaseReadThreads);
+        mComputationExecutor = new InstrumentedExecutor("computation", computationThreads);
+        mNetwork = Schedulers.from(mNetworkExecutor);
+        mDatabaseWrite = Schedulers.from(mDatabaseWriteExecutor);
+        mDatabaseRead = Schedulers.from(mDatabaseReadExecutor);
+        mComputation = Schedulers.from(mComputationExecutor);
+    }
+
+    @Override
+    public Scheduler network() {
+        return mNetwork;
+    }
+
+    @Override
+    public Scheduler databaseWrite() {
+        return mDatabaseWrite;
+    }
+
+    @Override
+    public Scheduler databaseRead() {
+        return mDatabaseRead;
+    }
+
+    @Override
+    public Scheduler computation() {
+        return mComputation;
+    }
+
+    @Override
+    public Scheduler mainThread() {
+        return AndroidSchedulers.mainThread();
+    }
+
+    @Override
+    public List<SchedulerStatistics> getStatistics() {
+        List<SchedulerStatistics> result = new ArrayList<>();
+        result.add(mNetworkExecutor.getStatistics());
+        result.add(mDatabaseWriteExecutor.getStatistics());
+        result.add(mDatabaseReadExecutor.getStatistics());
+        result.add(mComputationExecutor.getStatistics());
+        return result;
+    }
+}
@@ -22,6 +22,12 @@ import rx.subjects.PublishSubject;
 public interface SystemService {
 
     boolean isOnline();
+
+    /**
+     * @return true when the active network may charge by the byte, e.g. mobile data or a metered hotspot
+     */
+    boolean isMetered();
+
     PublishSubject<Boolean> getNetworkStatusPublisher();
 
     <T> Intent getShareIntent(T shareItem);
@@ -41,6 +41,12 @@ public class SystemServiceImpl implements SystemService {
         return activeNetwork != null && activeNetwork.isConnected();
     }
 
+    @Override
+    public boolean isMetered() {
+        ConnectivityManager cm = (ConnectivityManager) mContext.getSystemService(Context.CONNECTIVITY_SERVICE);
+        return cm.isActiveNetworkMetered();
+    }
+
     @Override
     public PublishSubject<Boolean> getNetworkStatusPublisher() {
         return networkStatusPublisher;
@@ -59,8 +65,8 @@ public class SystemServiceImpl implements SystemService {
         Intent sharingIntent = new Intent(Intent.ACTION_SEND);
         sharingIntent.setType("text/plain");
         sharingIntent.putExtra(Intent.EXTRA_SUBJECT, animal.getName() + " " + animal.getChipId());
-        if (animal.getPhotos() != null && animal.getPhotos().iterator().hasNext()) {
-            sharingIntent.putExtra(Intent.EXTRA_TEXT, animal.getPhotos().iterator().next().getUrl());
+        if (animal.getPhotoList() != null && !animal.getPhotoList().isEmpty()) {
+            sharingIntent.putExtra(Intent.EXTRA_TEXT, animal.getPhotoList().get(0).getUrl());
         }
         return sharingIntent;
     }
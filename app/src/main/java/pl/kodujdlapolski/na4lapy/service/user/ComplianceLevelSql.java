@@ -0,0 +1,174 @@
+/*
+ *	Copyright 2017 Stowarzyszenie Na4Łapy
+ *
+ *	Licensed under the Apache License, Version 2.0 (the "License");
+ *	you may not use this file except in compliance with the License.
+ *	You may obtain a copy of the License at
+ *
+ *	http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *	Unless required by applicable law or agreed to in writing, software
+ *	distributed under the License is distributed on an "AS IS" BASIS,
+ *	WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *	See the License for the specific language governing permissions and
+ *	limitations under the License.
+ */
+package pl.kodujdlapolski.na4lapy.service.user;
+
+import android.support.annotation.Nullable;
+
+import org.joda.time.LocalDate;
+import org.joda.time.Years;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import pl.kodujdlapolski.na4lapy.model.Animal;
+import pl.kodujdlapolski.na4lapy.model.UserPreferences;
+import pl.kodujdlapolski.na4lapy.model.type.ActivityAnimal;
+import pl.kodujdlapolski.na4lapy.model.type.Gender;
+import pl.kodujdlapolski.na4lapy.model.type.Size;
+import pl.kodujdlapolski.na4lapy.model.type.Species;
+import pl.kodujdlapolski.na4lapy.service.repository.database.LocalDatePersister;
+
+/**
+ * Builds an SQL expression over the animals table that evaluates to the same value as
+ * {@link UserServiceImpl#getPreferencesComplianceLevel(Animal)}, so ranking can happen in ORDER BY.
+ */
+public final class ComplianceLevelSql {
+
+    private static final String NONE = "0";
+    // a bare integer in ORDER BY would be read as a result column index
+    private static final String NO_SCORE = "CAST(0 AS INTEGER)";
+
+    private ComplianceLevelSql() {
+    }
+
+    public static String build(@Nullable UserPreferences preferences, LocalDate today) {
+        if (preferences == null) {
+            return NO_SCORE;
+        }
+
+        List<String> species = new ArrayList<>();
+        if (preferences.isTypeDog()) {
+            species.add(is(Animal.COLUMN_NAME_SPECIES, Species.DOG));
+        }
+        if (preferences.isTypeCat()) {
+            species.add(is(Animal.COLUMN_NAME_SPECIES, Species.CAT));
+        }
+        if (preferences.isTypeOther()) {
+            species.add(is(Animal.COLUMN_NAME_SPECIES, Species.OTHER));
+        }
+        if (species.isEmpty()) {
+            return NO_SCORE;
+        }
+
+        List<String> gender = new ArrayList<>();
+        if (preferences.isGenderMan() && preferences.isGenderWoman()) {
+            gender.add(is(Animal.COLUMN_NAME_GENDER, Gender.UNKNOWN));
+        }
+        if (preferences.isGenderMan()) {
+            gender.add(is(Animal.COLUMN_NAME_GENDER, Gender.MALE));
+        }
+        if (preferences.isGenderWoman()) {
+            gender.add(is(Animal.COLUMN_NAME_GENDER, Gender.FEMALE));
+        }
+
+        List<String> size = new ArrayList<>();
+        if (preferences.isSizeSmall() && preferences.isSizeMedium() && preferences.isSizeLarge()) {
+            size.add(is(Animal.COLUMN_NAME_SIZE, Size.UNKNOWN));
+        }
+        if (preferences.isSizeSmall()) {
+            size.add(is(Animal.COLUMN_NAME_SIZE, Size.SMALL));
+        }
+        if (preferences.isSizeMedium()) {
+            size.add(is(Animal.COLUMN_NAME_SIZE, Size.MEDIUM));
+        }
+        if (preferences.isSizeLarge()) {
+            size.add(is(Animal.COLUMN_NAME_SIZE, Size.LARGE));
+        }
+
+        List<String> activity = new ArrayList<>();
+        if (preferences.isActivityLow() && preferences.isActivityHigh()) {
+            activity.add(is(Animal.COLUMN_NAME_ACTIVITY, ActivityAnimal.UNKNOWN));
+        }
+        if (preferences.isActivityLow()) {
+            activity.add(is(Animal.COLUMN_NAME_ACTIVITY, ActivityAnimal.LOW));
+        }
+        if (preferences.isActivityHigh()) {
+            activity.add(is(Animal.COLUMN_NAME_ACTIVITY, ActivityAnimal.HIGH));
+        }
+
+        String birthDate = column(Animal.COLUMN_NAME_BIRTH_DATE);
+        String age = birthDate + " IS NOT NULL AND "
+                + birthDate + " <= " + literal(getLatestBirthDate(today, preferences.getAgeMin())) + " AND "
+                + birthDate + " >= " + literal(getEarliestBirthDate(today, preferences.getAgeMax()));
+
+        return "(CASE WHEN " + or(species) + " THEN 1"
+                + " + " + point(or(gender))
+                + " + " + point(age)
+                + " + " + point(or(size))
+                + " + " + point(or(activity))
+                + " ELSE 0 END)";
+    }
+
+    /**
+     * @return the latest birth date for which Years.yearsBetween(birthDate, today) >= age
+     */
+    static LocalDate getLatestBirthDate(LocalDate today, int age) {
+        LocalDate date = today.minusYears(age);
+        while (Years.yearsBetween(date.plusDays(1), today).getYears() >= age) {
+            date = date.plusDays(1);
+        }
+        while (Years.yearsBetween(date, today).getYears() < age) {
+            date = date.minusDays(1);
+        }
+        return date;
+    }
+
+    /**
+     * @return the earliest birth date for which Years.yearsBetween(birthDate, today) <= age
+     */
+    static LocalDate getEarliestBirthDate(LocalDate today, int age) {
+        LocalDate date = today.minusYears(age + 1);
+        while (Years.yearsBetween(date, today).getYears() > age) {
+            date = date.plusDays(1);
+        }
+        while (Years.yearsBetween(date.minusDays(1), today).getYears() <= age) {
+            date = date.minusDays(1);
+        }
+        return date;
+    }
+
+    private static String point(@Nullable String condition) {
+        return condition == null ? NONE : "(CASE WHEN " + condition + " THEN 1 ELSE 0 END)";
+    }
+
+    @Nullable
+    private static String or(List<String> conditions) {
+        if (conditions.isEmpty()) {
+            return null;
+        }
+        StringBuilder sb = new StringBuilder("(");
+        for (int i = 0; i < conditions.size(); i++) {
+            if (i > 0) {
+                sb.append(" OR ");
+            }
+            sb.append(conditions.get(i));
+        }
+        return sb.append(")").toString();
+    }
+
+    private static String is(String columnName, Enum<?> value) {
+        return column(columnName) + " = '" + value.name() + "'";
+    }
+
+    private static String column(String columnName) {
+        return "`" + columnName + "`";
+    }
+
+    private static String literal(LocalDate date) {
+        Object value = LocalDatePersister.getSingleton().javaToSqlArg(null, date);
+        return value instanceof Number ? value.toString() : "'" + value + "'";
+    }
+}
@@ -0,0 +1,158 @@
+/*
+ *	Copyright 2017 Stowarzyszenie Na4Łapy
+ *
+ *	Licensed under the Apache License, Version 2.0 (the "License");
+ *	you may not use this file except in compliance with the License.
+ *	You may obtain a copy of the License at
+ *
+ *	http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *	Unless required by applicable law or agreed to in writing, software
+ *	distributed under the License is distributed on an "AS IS" BASIS,
+ *	WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *	See the License for the specific language governing permissions and
+ *	limitations under the License.
+ */
+package pl.kodujdlapolski.na4lapy.service.user;
+
+import android.util.Log;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import pl.kodujdlapolski.na4lapy.model.Favourite;
+import pl.kodujdlapolski.na4lapy.service.preferences.PreferencesService;
+import pl.kodujdlapolski.na4lapy.service.repository.database.DatabaseRepository;
+import pl.kodujdlapolski.na4lapy.utils.LongHashSet;
+import rx.Observable;
+import rx.Scheduler;
+import rx.subjects.BehaviorSubject;
+
+/**
+ * Favourite animal ids kept in memory for lookups from the bind path and written behind to the favourites table.
+ * All writes go through one worker of the write scheduler, so they reach the database in the order they were made.
+ * <p>
+ * The ids are loaded on that worker as well. Until they are, lookups only see the changes made since start and
+ * never touch the database; {@link #whenLoaded()} tells the screens to rebind once the full set is in.
+ */
+public class FavouriteStore {
+
+    private final DatabaseRepository mDatabaseRepository;
+    private final PreferencesService mPreferencesService;
+    private final Scheduler mWriteScheduler;
+    private final Scheduler.Worker mWriter;
+    private final BehaviorSubject<Boolean> mLoaded = BehaviorSubject.create(false);
+    private LongHashSet mFavourites = new LongHashSet();
+    // removals made before the load finished, applied on top of what it reads
+    private LongHashSet mRemovedBeforeLoad = new LongHashSet();
+
+    public FavouriteStore(DatabaseRepository databaseRepository, PreferencesService preferencesService,
+                          Scheduler writeScheduler) {
+        mDatabaseRepository = databaseRepository;
+        mPreferencesService = preferencesService;
+        mWriteScheduler = writeScheduler;
+        mWriter = writeScheduler.createWorker();
+        mWriter.schedule(this::finishLoading);
+    }
+
+    public synchronized boolean contains(long animalId) {
+        return mFavourites.contains(animalId);
+    }
+
+    public void add(long animalId) {
+        synchronized (this) {
+            if (!mFavourites.add(animalId)) {
+                return;
+            }
+            if (mRemovedBeforeLoad != null) {
+                mRemovedBeforeLoad.remove(animalId);
+            }
+        }
+        mWriter.schedule(() -> {
+            try {
+                mDatabaseRepository.save(new Favourite(animalId));
+            } catch (Exception e) {
+                Log.e(getClass().getSimpleName(), "Error when saving favourite " + animalId, e);
+            }
+        });
+    }
+
+    public void remove(long animalId) {
+        synchronized (this) {
+            boolean removed = mFavourites.remove(animalId);
+            if (mRemovedBeforeLoad != null) {
+                // the id may only be in the database, which has not been read yet
+                mRemovedBeforeLoad.add(animalId);
+            } else if (!removed) {
+                return;
+            }
+        }
+        mWriter.schedule(() -> {
+            try {
+                mDatabaseRepository.deleteByIds(Collections.singletonList(animalId), Favourite.class);
+            } catch (Exception e) {
+                Log.e(getClass().getSimpleName(), "Error when removing favourite " + animalId, e);
+            }
+        });
+    }
+
+    /**
+     * Completes once every write made before the subscription has reached the database.
+     */
+    public Observable<Void> flush() {
+        return Observable.<Void>just(null).subscribeOn(mWriteScheduler);
+    }
+
+    /**
+     * Emits once the favourites have been read from the database, right away when they already are.
+     */
+    public Observable<Void> whenLoaded() {
+        return mLoaded.filter(loaded -> loaded).first().map(loaded -> null);
+    }
+
+    private void finishLoading() {
+        LongHashSet favourites = load();
+        synchronized (this) {
+            for (long id : mFavourites.toArray()) {
+                favourites.add(id);
+            }
+            for (long id : mRemovedBeforeLoad.toArray()) {
+                favourites.remove(id);
+            }
+            mFavourites = favourites;
+            mRemovedBeforeLoad = null;
+        }
+        mLoaded.onNext(true);
+    }
+
+    private LongHashSet load() {
+        try {
+            migrateLegacyFavourites();
+            List<Long> ids = mDatabaseRepository.findAllIds(Favourite.class);
+            LongHashSet favourites = new LongHashSet(ids.size());
+            for (Long id : ids) {
+                favourites.add(id);
+            }
+            return favourites;
+        } catch (Exception e) {
+            Log.e(getClass().getSimpleName(), "Error when loading favourites", e);
+            return new LongHashSet();
+        }
+    }
+
+    private void migrateLegacyFavourites() throws Exception {
+        List<Long> legacyFavourites = mPreferencesService.getLegacyFavouriteList();
+        if (legacyFavourites.isEmpty()) {
+            return;
+        }
+        List<Favourite> favourites = new ArrayList<>(legacyFavourites.size());
+        for (Long id : legacyFavourites) {
+            if (id != null) {
+                favourites.add(new Favourite(id));
+            }
+        }
+        mDatabaseRepository.saveAll(favourites);
+        mPreferencesService.removeLegacyFavouriteList();
+    }
+}
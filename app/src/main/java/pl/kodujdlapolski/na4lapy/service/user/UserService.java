@@ -21,6 +21,7 @@ import java.util.List;
 
 import pl.kodujdlapolski.na4lapy.model.Animal;
 import pl.kodujdlapolski.na4lapy.model.UserPreferences;
+import rx.Observable;
 
 public interface UserService {
 
@@ -30,11 +31,24 @@ public interface UserService {
 
     int getPreferencesComplianceLevel(Animal animal);
 
+    /**
+     * @return SQL expression over the animals table equal to {@link #getPreferencesComplianceLevel(Animal)}
+     */
+    String getPreferencesComplianceLevelSql();
+
     boolean isComplianceLevelAvailable();
 
-    void addToFavourite(Animal animal);
-    void removeFromFavourite(Animal animal);
-    boolean isFavourite(Animal animal);
+    Observable<UserPreferences> getUserPreferencesPublisher();
+
+    void addToFavourite(Long animalId);
+    void removeFromFavourite(Long animalId);
+    boolean isFavourite(Long animalId);
+
+    /**
+     * Emits once {@link #isFavourite(Long)} answers from the stored favourites instead of only this session's changes.
+     */
+    Observable<Void> whenFavouritesLoaded();
+    Observable<Void> flushFavourites();
     List<Animal> sortByUserPreferences(List<Animal> animals);
 
 }
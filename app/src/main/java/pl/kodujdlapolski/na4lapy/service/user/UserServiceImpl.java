@@ -18,7 +18,6 @@ package pl.kodujdlapolski.na4lapy.service.user;
 import android.support.annotation.NonNull;
 
 import org.joda.time.LocalDate;
-import org.joda.time.Years;
 
 import java.util.Collections;
 import java.util.List;
@@ -27,23 +26,27 @@ import javax.inject.Inject;
 
 import pl.kodujdlapolski.na4lapy.model.Animal;
 import pl.kodujdlapolski.na4lapy.model.UserPreferences;
-import pl.kodujdlapolski.na4lapy.model.type.ActivityAnimal;
-import pl.kodujdlapolski.na4lapy.model.type.Gender;
-import pl.kodujdlapolski.na4lapy.model.type.Size;
-import pl.kodujdlapolski.na4lapy.model.type.Species;
 import pl.kodujdlapolski.na4lapy.service.preferences.PreferencesService;
+import rx.Observable;
+import rx.subjects.PublishSubject;
 
 import static com.google.common.base.Preconditions.checkNotNull;
 
 public class UserServiceImpl implements UserService {
 
     private PreferencesService mPreferencesService;
+    private FavouriteStore mFavouriteStore;
     private UserPreferences mUserPreferences;
+    // compiled from mUserPreferences for the current day, null without preferences
+    private volatile ComplianceScorer mComplianceScorer;
+    private PublishSubject<UserPreferences> mUserPreferencesPublisher = PublishSubject.create();
 
     @Inject
-    public UserServiceImpl(PreferencesService preferencesService) {
+    public UserServiceImpl(PreferencesService preferencesService, FavouriteStore favouriteStore) {
         mPreferencesService = preferencesService;
+        mFavouriteStore = favouriteStore;
         mUserPreferences = mPreferencesService.getUserPreferences();
+        mComplianceScorer = compileScorer(mUserPreferences);
     }
 
     @Override
@@ -51,6 +54,8 @@ public class UserServiceImpl implements UserService {
         UserPreferences newUserPreferences = checkNotNull(userPreferences, "UserPreferences cannot be null");
         mPreferencesService.setUserPreferences(newUserPreferences);
         mUserPreferences = userPreferences;
+        mComplianceScorer = compileScorer(userPreferences);
+        mUserPreferencesPublisher.onNext(userPreferences);
     }
 
     @Override
@@ -62,47 +67,24 @@ public class UserServiceImpl implements UserService {
 
     @Override
     public int getPreferencesComplianceLevel(Animal animal) {
-        if (mUserPreferences == null) {
+        ComplianceScorer complianceScorer = mComplianceScorer;
+        if (complianceScorer == null) {
             return 0;
         }
-
-        int result = 0;
-
-        if ((mUserPreferences.isTypeDog() && Species.DOG.equals(animal.getSpecies())) ||
-                (mUserPreferences.isTypeCat() && Species.CAT.equals(animal.getSpecies())) ||
-                (mUserPreferences.isTypeOther() && Species.OTHER.equals(animal.getSpecies()))) {
-                    ++result;
-        } else {
-            return 0;
-        }
-
-        if ((mUserPreferences.isGenderMan() && mUserPreferences.isGenderWoman() && Gender.UNKNOWN.equals(animal.getGender())) ||
-                (mUserPreferences.isGenderMan() && Gender.MALE.equals(animal.getGender())) ||
-                (mUserPreferences.isGenderWoman() && Gender.FEMALE.equals(animal.getGender()))) {
-                    ++result;
-        }
-
-        if (animal.getBirthDate() != null) {
-            int age = Years.yearsBetween(animal.getBirthDate(), LocalDate.now()).getYears();
-            if (age >= mUserPreferences.getAgeMin() && age <= mUserPreferences.getAgeMax()) {
-                ++result;
-            }
-        }
-
-        if ((mUserPreferences.isSizeSmall() && mUserPreferences.isSizeMedium() && mUserPreferences.isSizeLarge() && Size.UNKNOWN.equals(animal.getSize())) ||
-                (mUserPreferences.isSizeSmall() && Size.SMALL.equals(animal.getSize())) ||
-                (mUserPreferences.isSizeMedium() && Size.MEDIUM.equals(animal.getSize())) ||
-                (mUserPreferences.isSizeLarge() && Size.LARGE.equals(animal.getSize()))) {
-                    ++result;
+        if (!complianceScorer.isValidAt(System.currentTimeMillis())) {
+            complianceScorer = compileScorer(mUserPreferences);
+            mComplianceScorer = complianceScorer;
         }
+        return complianceScorer.score(animal.getScoringKey());
+    }
 
-        if ((mUserPreferences.isActivityLow() && mUserPreferences.isActivityHigh() && ActivityAnimal.UNKNOWN.equals(animal.getActivity())) ||
-                (mUserPreferences.isActivityLow() && ActivityAnimal.LOW.equals(animal.getActivity())) ||
-                (mUserPreferences.isActivityHigh() && ActivityAnimal.HIGH.equals(animal.getActivity()))) {
-                    ++result;
-        }
+    private static ComplianceScorer compileScorer(UserPreferences userPreferences) {
+        return userPreferences != null ? ComplianceScorer.compile(userPreferences, LocalDate.now()) : null;
+    }
 
-        return result;
+    @Override
+    public String getPreferencesComplianceLevelSql() {
+        return ComplianceLevelSql.build(mUserPreferences, LocalDate.now());
     }
 
     @Override
@@ -111,35 +93,39 @@ public class UserServiceImpl implements UserService {
     }
 
     @Override
-    public void addToFavourite(Animal animal) {
-        if (animal == null || animal.getId() == null) {
+    public Observable<UserPreferences> getUserPreferencesPublisher() {
+        return mUserPreferencesPublisher;
+    }
+
+    @Override
+    public void addToFavourite(Long animalId) {
+        if (animalId == null) {
             return;
         }
-        mPreferencesService.addToFavourite(animal.getId());
+        mFavouriteStore.add(animalId);
     }
 
     @Override
-    public void removeFromFavourite(Animal animal) {
-        if (animal == null || animal.getId() == null) {
+    public void removeFromFavourite(Long animalId) {
+        if (animalId == null) {
             return;
         }
-        mPreferencesService.removeFromFavourite(animal.getId());
+        mFavouriteStore.remove(animalId);
     }
 
     @Override
-    public boolean isFavourite(Animal animal) {
-        List<Long> favourites = mPreferencesService.getFavouriteList();
-        if (favourites == null || favourites.isEmpty() || animal == null || animal.getId() == null) {
-            return false;
-        }
+    public boolean isFavourite(Long animalId) {
+        return animalId != null && mFavouriteStore.contains(animalId);
+    }
 
-        for (Long l : favourites) {
-            if (l.equals(animal.getId())) {
-                return true;
-            }
-        }
+    @Override
+    public Observable<Void> whenFavouritesLoaded() {
+        return mFavouriteStore.whenLoaded();
+    }
 
-        return false;
+    @Override
+    public Observable<Void> flushFavourites() {
+        return mFavouriteStore.flush();
     }
 
     @Override
@@ -23,15 +23,11 @@ import android.widget.ImageButton;
 import android.widget.ImageView;
 import android.widget.TextView;
 
-import com.squareup.picasso.MemoryPolicy;
-import com.squareup.picasso.Picasso;
-
 import butterknife.BindView;
 import butterknife.ButterKnife;
 import pl.kodujdlapolski.na4lapy.R;
-import pl.kodujdlapolski.na4lapy.model.Animal;
-import pl.kodujdlapolski.na4lapy.model.Photo;
-import pl.kodujdlapolski.na4lapy.service.user.UserService;
+import pl.kodujdlapolski.na4lapy.model.AnimalSummary;
+import pl.kodujdlapolski.na4lapy.service.image.ImageService;
 import pl.kodujdlapolski.na4lapy.ui.details.DetailsActivity;
 
 public abstract class AbstractBrowseViewHolder extends RecyclerView.ViewHolder {
@@ -44,28 +40,24 @@ public abstract class AbstractBrowseViewHolder extends RecyclerView.ViewHolder {
     public ImageView profilePic;
 
     private Context mContext;
-    private UserService mUserService;
+    private ImageService mImageService;
 
-    public AbstractBrowseViewHolder(View itemView, UserService userService) {
+    public AbstractBrowseViewHolder(View itemView, ImageService imageService) {
         super(itemView);
         ButterKnife.bind(this, itemView);
-        mUserService = userService;
         mContext = itemView.getContext();
+        mImageService = imageService;
     }
 
-    public void init(Animal animal, OnBrowseElementClickedAction onBrowseElementClickedAction) {
-        if (animal.getPhotos() != null && animal.getPhotos().iterator().hasNext()) {
-            Photo pic = animal.getPhotos().iterator().next();
-            Picasso.with(itemView.getContext())
-                    .load(pic.getUrl())
-                    .memoryPolicy(MemoryPolicy.NO_STORE , MemoryPolicy.NO_CACHE)
-                    .into(profilePic);
+    public void init(AnimalSummary animal, OnBrowseElementClickedAction onBrowseElementClickedAction) {
+        if (animal.getFirstPhotoUrl() != null) {
+            mImageService.loadCropped(animal.getFirstPhotoUrl()).into(profilePic);
         }
         String nameText = animal.getBirthDate() != null ? mContext.getString(R.string.animal_details_title,
                 animal.getName(), DetailsActivity.getAgeTextShort(mContext, animal.getBirthDate())) :
                 animal.getName();
         name.setText(nameText);
-        matchLevelImage.setImageLevel(mUserService.getPreferencesComplianceLevel(animal));
+        matchLevelImage.setImageLevel(animal.getComplianceLevel());
         matchLevelImage.setOnClickListener(v -> onBrowseElementClickedAction.complianceLevel());
     }
 }
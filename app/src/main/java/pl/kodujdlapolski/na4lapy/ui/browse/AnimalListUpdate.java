@@ -0,0 +1,54 @@
+/*
+ *	Copyright 2017 Stowarzyszenie Na4Łapy
+ *
+ *	Licensed under the Apache License, Version 2.0 (the "License");
+ *	you may not use this file except in compliance with the License.
+ *	You may obtain a copy of the License at
+ *
+ *	http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *	Unless required by applicable law or agreed to in writing, software
+ *	distributed under the License is distributed on an "AS IS" BASIS,
+ *	WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *	See the License for the specific language governing permissions and
+ *	limitations under the License.
+ */
+package pl.kodujdlapolski.na4lapy.ui.browse;
+
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+import lombok.Value;
+import pl.kodujdlapolski.na4lapy.model.AnimalSummary;
+import pl.kodujdlapolski.na4lapy.utils.ListDiff;
+
+/**
+ * The operations that turn the displayed browse list into a new one, for the whole list and for every
+ * species page. Calculated off the main thread; adapters only apply it.
+ */
+@Value
+public class AnimalListUpdate {
+
+    List<AnimalSummary> animals;
+    ListDiff.Result diff;
+    Map<PageTypes, ListDiff.Result> pageDiffs;
+
+    public static AnimalListUpdate calculate(List<AnimalSummary> oldAnimals, List<AnimalSummary> newAnimals) {
+        ListDiff.Result diff = ListDiff.calculate(oldAnimals, newAnimals, AnimalSummary::getId);
+        SpeciesPartitionedList oldPages = partition(oldAnimals);
+        SpeciesPartitionedList newPages = partition(newAnimals);
+        Map<PageTypes, ListDiff.Result> pageDiffs = new EnumMap<>(PageTypes.class);
+        for (PageTypes type : PageTypes.values()) {
+            pageDiffs.put(type, type.specie == null ? diff
+                    : ListDiff.calculate(oldPages.getPage(type), newPages.getPage(type), AnimalSummary::getId));
+        }
+        return new AnimalListUpdate(newAnimals, diff, pageDiffs);
+    }
+
+    private static SpeciesPartitionedList partition(List<AnimalSummary> animals) {
+        SpeciesPartitionedList partitioned = new SpeciesPartitionedList();
+        partitioned.addAll(animals);
+        return partitioned;
+    }
+}
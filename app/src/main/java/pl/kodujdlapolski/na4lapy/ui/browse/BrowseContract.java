@@ -18,9 +18,9 @@ package pl.kodujdlapolski.na4lapy.ui.browse;
 
 import android.app.Activity;
 
-import java.util.List;
-
-import pl.kodujdlapolski.na4lapy.model.Animal;
+import pl.kodujdlapolski.na4lapy.model.AnimalSummary;
+import pl.kodujdlapolski.na4lapy.service.image.ImageService;
+import pl.kodujdlapolski.na4lapy.service.system.SystemService;
 import pl.kodujdlapolski.na4lapy.service.user.UserService;
 import pl.kodujdlapolski.na4lapy.ui.DataSynchronization;
 
@@ -35,22 +35,38 @@ public interface BrowseContract {
 
     interface Presenter extends OnBrowseElementClickedAction {
 
-        List<Animal> getAnimals();
+        SpeciesPartitionedList getAnimals();
+
+        void loadMoreAnimals();
 
         void onChangedAnimalAvailable(Long changedAnimalId);
 
-        void handleUndoAnimal(Animal animalToUndo);
+        void handleUndoAnimal(AnimalSummary animalToUndo);
 
         UserService getUserService();
+
+        ImageService getImageService();
+
+        SystemService getSystemService();
+
+        /**
+         * Stops every subscription made for the view, call when the view is destroyed.
+         */
+        void onDestroy();
     }
 
     interface Adapter {
 
-        void notifyItemChanged(Animal animal);
+        void notifyItemChanged(AnimalSummary animal);
 
-        void notifyItemRemoved(Animal animal);
+        /**
+         * @param position the position the animal had in the presenter's list, which no longer holds it
+         */
+        void notifyItemRemoved(AnimalSummary animal, int position);
 
         void notifyDataSetChanged();
+
+        void notifyListUpdated(AnimalListUpdate update);
     }
 
 }
@@ -25,13 +25,17 @@ import javax.inject.Inject;
 
 import pl.kodujdlapolski.na4lapy.Na4LapyApp;
 import pl.kodujdlapolski.na4lapy.model.Animal;
+import pl.kodujdlapolski.na4lapy.model.AnimalSummary;
+import pl.kodujdlapolski.na4lapy.service.image.ImageService;
 import pl.kodujdlapolski.na4lapy.service.repository.RepositoryService;
+import pl.kodujdlapolski.na4lapy.service.repository.model.AnimalSyncProgress;
+import pl.kodujdlapolski.na4lapy.service.scheduler.SchedulerProvider;
 import pl.kodujdlapolski.na4lapy.service.system.SystemService;
 import pl.kodujdlapolski.na4lapy.service.user.UserService;
 import pl.kodujdlapolski.na4lapy.ui.compliance_level.ComplianceLevelDialog;
 import pl.kodujdlapolski.na4lapy.ui.details.DetailsActivity;
-import rx.android.schedulers.AndroidSchedulers;
-import rx.schedulers.Schedulers;
+import rx.Observable;
+import rx.subscriptions.CompositeSubscription;
 
 public class BrowsePresenter implements BrowseContract.Presenter {
 
@@ -42,19 +46,51 @@ public class BrowsePresenter implements BrowseContract.Presenter {
     UserService userService;
     @Inject
     SystemService systemService;
-    private List<Animal> animals;
+    @Inject
+    SchedulerProvider schedulerProvider;
+    @Inject
+    ImageService imageService;
+    private SpeciesPartitionedList animals;
+    // everything subscribed on behalf of the view, released in onDestroy
+    private final CompositeSubscription subscriptions = new CompositeSubscription();
     private boolean isFavList;
     private boolean shouldReloadDataAfterConnectionLost = false;
+    private boolean isShowingPartialResults = false;
+    private boolean isLoadingMore = false;
+    private boolean hasMoreAnimals = false;
+    // bumped whenever the displayed list changes, so diffs against an outdated list are dropped
+    private long listGeneration = 0;
+    private List<AnimalSummary> pendingAnimals;
 
     public BrowsePresenter(BrowseContract.View view, boolean isFavList) {
         this.view = view;
         this.isFavList = isFavList;
         ((Na4LapyApp) view.getActivity().getApplication()).getComponent().inject(this);
 
-        animals = new ArrayList<>();
+        animals = new SpeciesPartitionedList();
         startDownloadingData();
 
-        systemService.getNetworkStatusPublisher().subscribe(this::checkIsOnline);
+        subscriptions.add(systemService.getNetworkStatusPublisher().subscribe(this::checkIsOnline));
+        subscriptions.add(userService.whenFavouritesLoaded()
+                .observeOn(schedulerProvider.mainThread())
+                .subscribe(loaded -> onFavouritesLoaded()));
+        if (!isFavList) {
+            subscriptions.add(repositoryService.getAnimalsSyncProgress()
+                    .observeOn(schedulerProvider.mainThread())
+                    .subscribe(this::onAnimalsSyncProgress));
+        }
+    }
+
+    @Override
+    public void onDestroy() {
+        subscriptions.unsubscribe();
+    }
+
+    private void onFavouritesLoaded() {
+        // rows bound before the load showed only this session's favourites
+        if (!animals.isEmpty()) {
+            view.getAdapter().notifyDataSetChanged();
+        }
     }
 
     private void startDownloadingData() {
@@ -75,20 +111,19 @@ public class BrowsePresenter implements BrowseContract.Presenter {
     }
 
     @Override
-    public void favourite(Animal animal) {
-        if (Boolean.TRUE.equals(animal.getFavourite())) {
-            userService.removeFromFavourite(animal);
+    public void favourite(AnimalSummary animal) {
+        if (userService.isFavourite(animal.getId())) {
+            userService.removeFromFavourite(animal.getId());
         } else {
-            userService.addToFavourite(animal);
+            userService.addToFavourite(animal.getId());
         }
-        animal.setFavourite(userService.isFavourite(animal));
         if (isFavList)
             onChangedAnimalAvailable(animal);
 
     }
 
     @Override
-    public void details(Animal animal) {
+    public void details(AnimalSummary animal) {
         Intent i = new Intent(view.getActivity(), DetailsActivity.class);
         i.putExtra(DetailsActivity.EXTRA_ANIMAL_ID, animal.getId());
         view.getActivity().startActivityForResult(i, DetailsActivity.REQUEST_CODE_ANIMAL);
@@ -103,31 +138,33 @@ public class BrowsePresenter implements BrowseContract.Presenter {
     }
 
     @Override
-    public List<Animal> getAnimals() {
+    public SpeciesPartitionedList getAnimals() {
         return animals;
     }
 
     @Override
-    public void onChangedAnimalAvailable(Long changedAnimalId) {
-        repositoryService.getAnimal(changedAnimalId)
-                .subscribeOn(Schedulers.newThread()).observeOn(AndroidSchedulers.mainThread())
-                .subscribe((changedAnimal) -> {
-                    changedAnimal.setFavourite(userService.isFavourite(changedAnimal));
-                    onChangedAnimalAvailable(changedAnimal);
-                });
-    }
-
-    public static int getIndexOfAnimalOnList(List<Animal> animals, Animal toFind) {
-        int indexOfChangedAnimal = -1;
-        for (int i = 0; i < animals.size(); i++) {
-            if (animals.get(i).getId().equals(toFind.getId()))
-                indexOfChangedAnimal = i;
+    public void loadMoreAnimals() {
+        if (isFavList || isShowingPartialResults || isLoadingMore || !hasMoreAnimals) {
+            return;
         }
-        return indexOfChangedAnimal;
+        isLoadingMore = true;
+        subscriptions.add(repositoryService.getAnimalSummaries(animals.size(), RepositoryService.BROWSE_PAGE_SIZE)
+                .subscribeOn(schedulerProvider.databaseRead()).observeOn(schedulerProvider.mainThread())
+                .subscribe(this::onMoreAnimalsAvailable, t -> {
+                    isLoadingMore = false;
+                    view.showStateError(t);
+                }));
+    }
+
+    @Override
+    public void onChangedAnimalAvailable(Long changedAnimalId) {
+        subscriptions.add(repositoryService.getAnimalSummary(changedAnimalId)
+                .subscribeOn(schedulerProvider.databaseRead()).observeOn(schedulerProvider.mainThread())
+                .subscribe(this::onChangedAnimalAvailable));
     }
 
     @Override
-    public void handleUndoAnimal(Animal animalToUndo) {
+    public void handleUndoAnimal(AnimalSummary animalToUndo) {
         favourite(animalToUndo);
     }
 
@@ -136,26 +173,23 @@ public class BrowsePresenter implements BrowseContract.Presenter {
         return userService;
     }
 
-    public static List<Animal> getAnimalsByType(List<Animal> animals, PageTypes type) {
-        ArrayList<Animal> result = new ArrayList<>();
-        if (type.specie == null) {
-            result.addAll(animals);
-        } else {
-            for (Animal a : animals) {
-                if (a.getSpecies() != null && a.getSpecies().equals(type.specie)) {
-                    result.add(a);
-                }
-            }
-        }
-        return result;
+    @Override
+    public ImageService getImageService() {
+        return imageService;
     }
 
-    private void onChangedAnimalAvailable(Animal changedAnimal) {
-        int indexWhichShouldBeReplaced = getIndexOfAnimalOnList(animals, changedAnimal);
+    @Override
+    public SystemService getSystemService() {
+        return systemService;
+    }
+
+    private void onChangedAnimalAvailable(AnimalSummary changedAnimal) {
+        listGeneration++;
+        int indexWhichShouldBeReplaced = animals.indexOfId(changedAnimal.getId());
         if (indexWhichShouldBeReplaced != -1) {
-            if (isFavList && !Boolean.TRUE.equals(changedAnimal.getFavourite())) {
+            if (isFavList && !userService.isFavourite(changedAnimal.getId())) {
                 animals.remove(indexWhichShouldBeReplaced);
-                view.getAdapter().notifyItemRemoved(changedAnimal);
+                view.getAdapter().notifyItemRemoved(changedAnimal, indexWhichShouldBeReplaced);
             } else {
                 animals.set(indexWhichShouldBeReplaced, changedAnimal);
                 view.getAdapter().notifyItemChanged(changedAnimal);
@@ -164,29 +198,79 @@ public class BrowsePresenter implements BrowseContract.Presenter {
             animals.add(changedAnimal);
             view.getAdapter().notifyDataSetChanged();
         }
+        if (pendingAnimals != null) {
+            submitAnimals(pendingAnimals, false);
+        }
+    }
+
+    private void onAnimalsSyncProgress(AnimalSyncProgress progress) {
+        if (!animals.isEmpty() && !isShowingPartialResults) {
+            return;
+        }
+        if (progress.getAnimals() != null && !progress.getAnimals().isEmpty()) {
+            isShowingPartialResults = true;
+            List<AnimalSummary> partialAnimals = new ArrayList<>(pendingAnimals != null ? pendingAnimals : animals);
+            for (Animal animal : progress.getAnimals()) {
+                partialAnimals.add(AnimalSummary.of(animal, userService.getPreferencesComplianceLevel(animal)));
+            }
+            submitAnimals(partialAnimals, false);
+        }
     }
 
-    private void onAnimalsAvailable(List<Animal> animalsFromServer) {
+    private void onMoreAnimalsAvailable(List<AnimalSummary> nextAnimals) {
+        isLoadingMore = false;
+        hasMoreAnimals = nextAnimals.size() >= RepositoryService.BROWSE_PAGE_SIZE;
+        if (!nextAnimals.isEmpty()) {
+            List<AnimalSummary> moreAnimals = new ArrayList<>(animals);
+            moreAnimals.addAll(nextAnimals);
+            submitAnimals(moreAnimals, false);
+        }
+    }
+
+    private void onAnimalsAvailable(List<AnimalSummary> animalsFromServer) {
+        isShowingPartialResults = false;
+        isLoadingMore = false;
+        hasMoreAnimals = !isFavList && animalsFromServer != null && animalsFromServer.size() >= RepositoryService.BROWSE_PAGE_SIZE;
+        submitAnimals(animalsFromServer != null ? animalsFromServer : new ArrayList<>(), true);
+    }
+
+    /**
+     * Diffs the new list against the displayed one on the computation scheduler and applies only the
+     * resulting operations. A diff that finishes after a newer list was submitted is dropped.
+     */
+    private void submitAnimals(List<AnimalSummary> newAnimals, boolean showEmptyState) {
+        long generation = ++listGeneration;
+        List<AnimalSummary> oldAnimals = new ArrayList<>(animals);
+        pendingAnimals = newAnimals;
+        subscriptions.add(Observable.fromCallable(() -> AnimalListUpdate.calculate(oldAnimals, newAnimals))
+                .subscribeOn(schedulerProvider.computation()).observeOn(schedulerProvider.mainThread())
+                .subscribe(update -> applyUpdate(generation, update, showEmptyState), view::showStateError));
+    }
+
+    private void applyUpdate(long generation, AnimalListUpdate update, boolean showEmptyState) {
+        if (generation != listGeneration) {
+            return;
+        }
+        pendingAnimals = null;
         animals.clear();
-        view.getAdapter().notifyDataSetChanged();
-        if (animalsFromServer != null && !animalsFromServer.isEmpty()) {
-            animals.addAll(animalsFromServer);
-            view.getAdapter().notifyDataSetChanged();
+        animals.addAll(update.getAnimals());
+        view.getAdapter().notifyListUpdated(update);
+        if (!animals.isEmpty()) {
             view.showStateDataIsAvailable();
-        } else {
+        } else if (showEmptyState) {
             view.showStateDataIsEmpty();
         }
     }
 
     private void getData() {
         if (isFavList) {
-            repositoryService.getAnimalsByFavourite()
-                    .subscribeOn(Schedulers.newThread()).observeOn(AndroidSchedulers.mainThread())
-                    .subscribe(this::onAnimalsAvailable);
+            subscriptions.add(repositoryService.getFavouriteAnimalSummaries()
+                    .subscribeOn(schedulerProvider.databaseRead()).observeOn(schedulerProvider.mainThread())
+                    .subscribe(this::onAnimalsAvailable));
         } else {
-            repositoryService.getAnimals()
-                    .subscribeOn(Schedulers.newThread()).observeOn(AndroidSchedulers.mainThread())
-                    .subscribe(this::onAnimalsAvailable, view::showStateError);
+            subscriptions.add(repositoryService.getAnimalSummaries()
+                    .subscribeOn(schedulerProvider.databaseRead()).observeOn(schedulerProvider.mainThread())
+                    .subscribe(this::onAnimalsAvailable, view::showStateError));
 
         }
     }
@@ -16,10 +16,10 @@
 
 package pl.kodujdlapolski.na4lapy.ui.browse;
 
-import pl.kodujdlapolski.na4lapy.model.Animal;
+import pl.kodujdlapolski.na4lapy.model.AnimalSummary;
 
 public interface OnBrowseElementClickedAction {
-    void favourite(Animal animal);
-    void details(Animal animal);
+    void favourite(AnimalSummary animal);
+    void details(AnimalSummary animal);
     void complianceLevel();
 }
\ No newline at end of file
@@ -0,0 +1,196 @@
+/*
+ *	Copyright 2017 Stowarzyszenie Na4Łapy
+ *
+ *	Licensed under the Apache License, Version 2.0 (the "License");
+ *	you may not use this file except in compliance with the License.
+ *	You may obtain a copy of the License at
+ *
+ *	http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *	Unless required by applicable law or agreed to in writing, software
+ *	distributed under the License is distributed on an "AS IS" BASIS,
+ *	WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *	See the License for the specific language governing permissions and
+ *	limitations under the License.
+ */
+package pl.kodujdlapolski.na4lapy.ui.browse;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.RandomAccess;
+
+import pl.kodujdlapolski.na4lapy.model.AnimalSummary;
+import pl.kodujdlapolski.na4lapy.model.type.Species;
+import pl.kodujdlapolski.na4lapy.utils.IdIndexedList;
+
+/**
+ * Browse list that keeps, for every species, the sorted positions of its animals, so each species
+ * page is a read-only view instead of a filtered copy. Positions are updated as animals are added,
+ * removed or changed. Not thread safe.
+ */
+public class SpeciesPartitionedList extends IdIndexedList<AnimalSummary> {
+
+    private final Map<Species, Positions> mPartitions = new EnumMap<>(Species.class);
+    private final Map<PageTypes, List<AnimalSummary>> mPages = new EnumMap<>(PageTypes.class);
+
+    public SpeciesPartitionedList() {
+        super(AnimalSummary::getId);
+        for (Species species : Species.values()) {
+            mPartitions.put(species, new Positions());
+        }
+        for (PageTypes type : PageTypes.values()) {
+            mPages.put(type, type.specie == null
+                    ? Collections.unmodifiableList(this)
+                    : new PageView(mPartitions.get(type.specie)));
+        }
+    }
+
+    /**
+     * @return a read-only view of the animals shown on the page, which follows changes of this list
+     */
+    public List<AnimalSummary> getPage(PageTypes type) {
+        return mPages.get(type);
+    }
+
+    /**
+     * @param index position in this list of an animal that belongs on the page, or of one that was just
+     *              removed from it
+     * @return the position of that animal on the page
+     */
+    public int pagePositionOf(int index, PageTypes type) {
+        return type.specie == null ? index : mPartitions.get(type.specie).rank(index);
+    }
+
+    /**
+     * @return whether the animal belongs on the page, regardless of whether it is in this list
+     */
+    public static boolean isOnPage(AnimalSummary animal, PageTypes type) {
+        return type.specie == null || type.specie == animal.getSpecies();
+    }
+
+    @Override
+    public void add(int index, AnimalSummary element) {
+        super.add(index, element);
+        if (index != size() - 1) {
+            for (Positions positions : mPartitions.values()) {
+                positions.shiftFrom(index, 1);
+            }
+        }
+        Positions positions = partitionOf(element);
+        if (positions != null) {
+            positions.insert(index);
+        }
+    }
+
+    @Override
+    public AnimalSummary remove(int index) {
+        AnimalSummary removed = super.remove(index);
+        Positions positions = partitionOf(removed);
+        if (positions != null) {
+            positions.delete(index);
+        }
+        if (index != size()) {
+            for (Positions partition : mPartitions.values()) {
+                partition.shiftFrom(index, -1);
+            }
+        }
+        return removed;
+    }
+
+    @Override
+    public AnimalSummary set(int index, AnimalSummary element) {
+        AnimalSummary previous = super.set(index, element);
+        Positions previousPositions = partitionOf(previous);
+        Positions positions = partitionOf(element);
+        if (previousPositions != positions) {
+            if (previousPositions != null) {
+                previousPositions.delete(index);
+            }
+            if (positions != null) {
+                positions.insert(index);
+            }
+        }
+        return previous;
+    }
+
+    @Override
+    public void move(int fromPosition, int toPosition) {
+        add(toPosition, remove(fromPosition));
+    }
+
+    @Override
+    public void clear() {
+        super.clear();
+        for (Positions positions : mPartitions.values()) {
+            positions.size = 0;
+        }
+    }
+
+    private Positions partitionOf(AnimalSummary animal) {
+        return animal.getSpecies() != null ? mPartitions.get(animal.getSpecies()) : null;
+    }
+
+    private static class Positions {
+        int[] values = new int[16];
+        int size;
+
+        void insert(int position) {
+            int index = Arrays.binarySearch(values, 0, size, position);
+            if (index < 0) {
+                index = -index - 1;
+            }
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            System.arraycopy(values, index, values, index + 1, size - index);
+            values[index] = position;
+            size++;
+        }
+
+        void delete(int position) {
+            int index = Arrays.binarySearch(values, 0, size, position);
+            if (index >= 0) {
+                System.arraycopy(values, index + 1, values, index, size - index - 1);
+                size--;
+            }
+        }
+
+        int rank(int position) {
+            int index = Arrays.binarySearch(values, 0, size, position);
+            return index < 0 ? -index - 1 : index;
+        }
+
+        void shiftFrom(int position, int delta) {
+            int index = Arrays.binarySearch(values, 0, size, position);
+            for (int i = index < 0 ? -index - 1 : index; i < size; i++) {
+                values[i] += delta;
+            }
+        }
+    }
+
+    private class PageView extends AbstractList<AnimalSummary> implements RandomAccess {
+
+        private final Positions mPositions;
+
+        PageView(Positions positions) {
+            mPositions = positions;
+        }
+
+        @Override
+        public AnimalSummary get(int index) {
+            if (index >= mPositions.size) {
+                throw new IndexOutOfBoundsException("Index: " + index + ", size: " + mPositions.size);
+            }
+            return SpeciesPartitionedList.this.get(mPositions.values[index]);
+        }
+
+        @Override
+        public int size() {
+            return mPositions.size;
+        }
+    }
+}
@@ -132,6 +132,12 @@ public class ListBrowseActivity extends AbstractDrawerActivity implements Browse
         handler.onResume();
     }
 
+    @Override
+    protected void onDestroy() {
+        browsePresenter.onDestroy();
+        super.onDestroy();
+    }
+
     @Override
     protected void onActivityResult(int requestCode, int resultCode, Intent data) {
         if (requestCode == DetailsActivity.REQUEST_CODE_ANIMAL && resultCode == Activity.RESULT_OK) {
@@ -24,25 +24,25 @@ import android.view.LayoutInflater;
 import android.view.View;
 import android.view.ViewGroup;
 
-import java.util.ArrayList;
-import java.util.List;
-
 import javax.inject.Inject;
 
 import butterknife.BindView;
 import butterknife.ButterKnife;
 import pl.kodujdlapolski.na4lapy.Na4LapyApp;
 import pl.kodujdlapolski.na4lapy.R;
-import pl.kodujdlapolski.na4lapy.model.Animal;
+import pl.kodujdlapolski.na4lapy.model.AnimalSummary;
+import pl.kodujdlapolski.na4lapy.service.image.ImageService;
 import pl.kodujdlapolski.na4lapy.service.user.UserService;
-import pl.kodujdlapolski.na4lapy.ui.browse.BrowsePresenter;
+import pl.kodujdlapolski.na4lapy.ui.browse.AdapterListUpdateCallback;
+import pl.kodujdlapolski.na4lapy.ui.browse.BrowseContract;
+import pl.kodujdlapolski.na4lapy.ui.browse.PageTypes;
+import pl.kodujdlapolski.na4lapy.utils.ListDiff;
 
 public class ListBrowseFragment extends Fragment {
-    private static final String ARG_ANIMALS_LIST = "animals_list";
+    private static final String ARG_PAGE_TYPE = "page_type";
 
     @Inject UserService userService;
-
-    private ArrayList<Animal> animals;
+    @Inject ImageService imageService;
 
     @BindView(R.id.animals_recycle)
     RecyclerView recycler;
@@ -51,10 +51,10 @@ public class ListBrowseFragment extends Fragment {
     public ListBrowseFragment() {
     }
 
-    public static ListBrowseFragment newInstance(List<Animal> animals) {
+    public static ListBrowseFragment newInstance(PageTypes type) {
         ListBrowseFragment fragment = new ListBrowseFragment();
         Bundle args = new Bundle();
-        args.putSerializable(ARG_ANIMALS_LIST, (ArrayList<Animal>) animals);
+        args.putSerializable(ARG_PAGE_TYPE, type);
 
         fragment.setArguments(args);
         return fragment;
@@ -72,63 +72,44 @@ public class ListBrowseFragment extends Fragment {
     public void onActivityCreated(Bundle savedInstanceState) {
         super.onActivityCreated(savedInstanceState);
         ((Na4LapyApp) getActivity().getApplication()).getComponent().inject(this);
-        initAnimals(savedInstanceState);
         recycler.setHasFixedSize(true);
         RecyclerView.LayoutManager layoutManager = new LinearLayoutManager(getActivity());
         recycler.setLayoutManager(layoutManager);
         recycler.setItemAnimator(null);
-        adapter = new ListBrowseRecyclerAdapter(animals, ((ListBrowseActivity) getActivity()).getPresenter(), userService);
+        // the page is a view of the presenter's list, every change reaches it through the methods below;
+        // after the process was killed the presenter starts empty and the page is filled by its next update
+        BrowseContract.Presenter presenter = ((ListBrowseActivity) getActivity()).getPresenter();
+        PageTypes type = (PageTypes) getArguments().getSerializable(ARG_PAGE_TYPE);
+        adapter = new ListBrowseRecyclerAdapter(presenter.getAnimals().getPage(type), presenter, userService, imageService);
         recycler.setAdapter(adapter);
     }
 
-    private void initAnimals(Bundle savedInstanceState) {
-        if (getArguments() != null && (animals == null || animals.isEmpty())) {
-            if (getArguments().getSerializable(ARG_ANIMALS_LIST) instanceof ArrayList<?>) {
-                animals = (ArrayList<Animal>) (getArguments().getSerializable(ARG_ANIMALS_LIST));
-            }
-        }
-        if (animals == null && savedInstanceState != null && savedInstanceState.getSerializable(ARG_ANIMALS_LIST) instanceof ArrayList<?>) {
-            animals = (ArrayList<Animal>) savedInstanceState.getSerializable(ARG_ANIMALS_LIST);
+    public void updateList() {
+        if (adapter != null) {
+            adapter.notifyDataSetChanged();
         }
     }
 
-    @Override
-    public void onSaveInstanceState(Bundle outState) {
-        outState.putSerializable(ARG_ANIMALS_LIST, animals);
-
-        super.onSaveInstanceState(outState);
-    }
-
-    public void updateList(final List<Animal> animalsByType) {
-        if (animals != null) {
-            animals.clear();
-            animals.addAll(animalsByType);
-            adapter.notifyDataSetChanged();
+    public void applyUpdate(ListDiff.Result diff) {
+        if (adapter != null) {
+            diff.dispatchTo(new AdapterListUpdateCallback(adapter));
         }
     }
 
-    public void updateElement(final Animal changedAnimal) {
-        if (animals != null) {
-            int index = BrowsePresenter.getIndexOfAnimalOnList(animals, changedAnimal);
-            if (index != -1) {
-                animals.set(index, changedAnimal);
-                adapter.notifyItemChanged(index);
-            }
+    public void updateElement(int position) {
+        if (adapter != null) {
+            adapter.notifyItemChanged(position);
         }
     }
 
-    public void removeElement(Animal animalToRemove) {
-        if (animals != null) {
-            int index = BrowsePresenter.getIndexOfAnimalOnList(animals, animalToRemove);
-            if (index != -1) {
-                animals.remove(index);
-                adapter.notifyItemRemoved(index);
-                showUndoSnack(animalToRemove);
-            }
+    public void removeElement(AnimalSummary removedAnimal, int position) {
+        if (adapter != null) {
+            adapter.notifyItemRemoved(position);
+            showUndoSnack(removedAnimal);
         }
     }
 
-    private void showUndoSnack(Animal animalToUndo) {
+    private void showUndoSnack(AnimalSummary animalToUndo) {
         if (getView() != null) {
             Snackbar.make(getView(), String.format(getString(R.string.removed_from_fav_undo_mess), animalToUndo.getName()), Snackbar.LENGTH_LONG)
                     .setAction(R.string.removed_from_fav_undo_option, v -> {
@@ -22,21 +22,21 @@ import android.support.v4.app.FragmentPagerAdapter;
 import android.view.ViewGroup;
 
 import java.util.HashMap;
-import java.util.List;
 import java.util.Map;
 
-import pl.kodujdlapolski.na4lapy.model.Animal;
+import pl.kodujdlapolski.na4lapy.model.AnimalSummary;
+import pl.kodujdlapolski.na4lapy.ui.browse.AnimalListUpdate;
 import pl.kodujdlapolski.na4lapy.ui.browse.BrowseContract;
-import pl.kodujdlapolski.na4lapy.ui.browse.BrowsePresenter;
 import pl.kodujdlapolski.na4lapy.ui.browse.PageTypes;
+import pl.kodujdlapolski.na4lapy.ui.browse.SpeciesPartitionedList;
 
 public class ListBrowsePagerAdapter extends FragmentPagerAdapter implements BrowseContract.Adapter {
 
     private Context ctx;
-    private List<Animal> animals;
+    private SpeciesPartitionedList animals;
     private HashMap<PageTypes, ListBrowseFragment> fragments = new HashMap<>();
 
-    public ListBrowsePagerAdapter(Context ctx, List<Animal> animals, FragmentManager fm) {
+    public ListBrowsePagerAdapter(Context ctx, SpeciesPartitionedList animals, FragmentManager fm) {
         super(fm);
         this.ctx = ctx;
         this.animals = animals;
@@ -44,9 +44,7 @@ public class ListBrowsePagerAdapter extends FragmentPagerAdapter implements Brow
 
     @Override
     public Fragment getItem(int position) {
-        PageTypes type = PageTypes.values()[position];
-        return ListBrowseFragment.newInstance(BrowsePresenter.getAnimalsByType(animals,
-                type));
+        return ListBrowseFragment.newInstance(PageTypes.values()[position]);
     }
 
     @Override
@@ -61,20 +59,35 @@ public class ListBrowsePagerAdapter extends FragmentPagerAdapter implements Brow
 
     @Override
     public void notifyDataSetChanged() {
-        for (Map.Entry<PageTypes, ListBrowseFragment> set : fragments.entrySet()) {
-            set.getValue().updateList(BrowsePresenter.getAnimalsByType(animals, set.getKey()));
+        for (ListBrowseFragment fragment : fragments.values()) {
+            fragment.updateList();
         }
         super.notifyDataSetChanged();
     }
 
-    public void notifyItemChanged(Animal animal){
+    @Override
+    public void notifyListUpdated(AnimalListUpdate update) {
+        for (Map.Entry<PageTypes, ListBrowseFragment> set : fragments.entrySet()) {
+            set.getValue().applyUpdate(update.getPageDiffs().get(set.getKey()));
+        }
+    }
+
+    public void notifyItemChanged(AnimalSummary animal){
+        int index = animals.indexOfId(animal.getId());
+        if (index == -1) {
+            return;
+        }
         for (Map.Entry<PageTypes, ListBrowseFragment> set : fragments.entrySet()) {
-            set.getValue().updateElement(animal);
+            if (SpeciesPartitionedList.isOnPage(animal, set.getKey())) {
+                set.getValue().updateElement(animals.pagePositionOf(index, set.getKey()));
+            }
         }
     }
-    public  void notifyItemRemoved(Animal animal){
+    public  void notifyItemRemoved(AnimalSummary animal, int position){
         for (Map.Entry<PageTypes, ListBrowseFragment> set : fragments.entrySet()) {
-            set.getValue().removeElement(animal);
+            if (SpeciesPartitionedList.isOnPage(animal, set.getKey())) {
+                set.getValue().removeElement(animal, animals.pagePositionOf(position, set.getKey()));
+            }
         }
     }
 
@@ -20,23 +20,27 @@ import android.support.v7.widget.RecyclerView;
 import android.view.LayoutInflater;
 import android.view.ViewGroup;
 
-import java.util.ArrayList;
+import java.util.List;
 
 import pl.kodujdlapolski.na4lapy.R;
-import pl.kodujdlapolski.na4lapy.model.Animal;
+import pl.kodujdlapolski.na4lapy.model.AnimalSummary;
+import pl.kodujdlapolski.na4lapy.service.image.ImageService;
 import pl.kodujdlapolski.na4lapy.service.user.UserService;
 import pl.kodujdlapolski.na4lapy.ui.browse.OnBrowseElementClickedAction;
 
 public class ListBrowseRecyclerAdapter extends RecyclerView.Adapter<ListBrowseViewHolder> {
 
-    private ArrayList<Animal> animals;
+    private List<AnimalSummary> animals;
     private OnBrowseElementClickedAction onBrowseElementClickedAction;
     private UserService userService;
+    private ImageService imageService;
 
-    public ListBrowseRecyclerAdapter(ArrayList<Animal> animals, OnBrowseElementClickedAction onBrowseElementClickedAction, UserService userService) {
+    public ListBrowseRecyclerAdapter(List<AnimalSummary> animals, OnBrowseElementClickedAction onBrowseElementClickedAction,
+                                     UserService userService, ImageService imageService) {
         this.animals = animals;
         this.onBrowseElementClickedAction = onBrowseElementClickedAction;
         this.userService = userService;
+        this.imageService = imageService;
     }
 
     @Override
@@ -44,7 +48,7 @@ public class ListBrowseRecyclerAdapter extends RecyclerView.Adapter<ListBrowseVi
 
         return new ListBrowseViewHolder(
                 LayoutInflater.from(parent.getContext())
-                        .inflate(R.layout.view_holder_list_browse, parent, false), userService);
+                        .inflate(R.layout.view_holder_list_browse, parent, false), userService, imageService);
     }
 
     @Override
@@ -20,7 +20,8 @@ import android.widget.ImageButton;
 
 import butterknife.BindView;
 import pl.kodujdlapolski.na4lapy.R;
-import pl.kodujdlapolski.na4lapy.model.Animal;
+import pl.kodujdlapolski.na4lapy.model.AnimalSummary;
+import pl.kodujdlapolski.na4lapy.service.image.ImageService;
 import pl.kodujdlapolski.na4lapy.service.user.UserService;
 import pl.kodujdlapolski.na4lapy.ui.browse.AbstractBrowseViewHolder;
 import pl.kodujdlapolski.na4lapy.ui.browse.OnBrowseElementClickedAction;
@@ -30,15 +31,18 @@ public class ListBrowseViewHolder extends AbstractBrowseViewHolder {
     @BindView(R.id.add_to_fav_btn)
     ImageButton addToFavBtn;
 
-    public ListBrowseViewHolder(View itemView, UserService userService) {
-        super(itemView, userService);
+    private UserService userService;
+
+    public ListBrowseViewHolder(View itemView, UserService userService, ImageService imageService) {
+        super(itemView, imageService);
+        this.userService = userService;
     }
 
     @Override
-    public void init(Animal animal, OnBrowseElementClickedAction onBrowseElementClickedAction) {
+    public void init(AnimalSummary animal, OnBrowseElementClickedAction onBrowseElementClickedAction) {
         super.init(animal, onBrowseElementClickedAction);
 
-        addToFavBtn.setImageResource(Boolean.TRUE.equals(animal.getFavourite()) ? R.drawable.ic_favorite_accent_24dp : R.drawable.ic_favorite_border_accent_24dp);
+        addToFavBtn.setImageResource(userService.isFavourite(animal.getId()) ? R.drawable.ic_favorite_accent_24dp : R.drawable.ic_favorite_border_accent_24dp);
         addToFavBtn.setOnClickListener(v -> {
             onBrowseElementClickedAction.favourite(animal);
         });
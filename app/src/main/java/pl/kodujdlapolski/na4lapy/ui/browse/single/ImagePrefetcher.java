@@ -0,0 +1,203 @@
+/*
+ *	Copyright 2017 Stowarzyszenie Na4Łapy
+ *
+ *	Licensed under the Apache License, Version 2.0 (the "License");
+ *	you may not use this file except in compliance with the License.
+ *	You may obtain a copy of the License at
+ *
+ *	http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *	Unless required by applicable law or agreed to in writing, software
+ *	distributed under the License is distributed on an "AS IS" BASIS,
+ *	WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *	See the License for the specific language governing permissions and
+ *	limitations under the License.
+ */
+package pl.kodujdlapolski.na4lapy.ui.browse.single;
+
+import com.squareup.picasso.Callback;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import pl.kodujdlapolski.na4lapy.model.AnimalSummary;
+import pl.kodujdlapolski.na4lapy.service.image.ImageService;
+import pl.kodujdlapolski.na4lapy.service.system.SystemService;
+import rx.Subscription;
+
+/**
+ * Warms the image caches for the cards ahead of the one in view, so a swipe lands on a card whose
+ * photo is already decoded at card size. The window grows with the swipe speed and shrinks to a
+ * single card on metered networks, where prefetching also stops once the session has used up
+ * {@link #METERED_BUDGET_BYTES} of image traffic; the budget starts over whenever the network
+ * changes. Prefetches that leave the window are cancelled, failed ones are issued again the next
+ * time their card is in the window.
+ * <p>
+ * Called on the main thread only.
+ */
+public class ImagePrefetcher {
+
+    static final int MIN_LOOK_AHEAD = 2;
+    static final int MAX_LOOK_AHEAD = 6;
+    static final int METERED_LOOK_AHEAD = 1;
+    static final long METERED_BUDGET_BYTES = 4 * 1024 * 1024;
+    // swipe speed that widens the window by one more card
+    static final float CARDS_PER_SECOND_PER_STEP = 2f;
+
+    private final ImageService mImageService;
+    private final SystemService mSystemService;
+    private final List<AnimalSummary> mAnimals;
+    // url -> tag of the prefetch in flight, or null once it has finished
+    private final Map<String, Object> mWindow = new HashMap<>();
+    private int mTargetWidth;
+    private int mTargetHeight;
+    private int mPosition = -1;
+    private int mDirection;
+    private int mLookAhead;
+    private final Subscription mNetworkStatusSubscription;
+    private long mNetworkBytesAtStart = -1;
+    private int mIssued;
+    private int mCancelled;
+
+    public ImagePrefetcher(ImageService imageService, SystemService systemService, List<AnimalSummary> animals) {
+        mImageService = imageService;
+        mSystemService = systemService;
+        mAnimals = animals;
+        mNetworkStatusSubscription = systemService.getNetworkStatusPublisher().subscribe(online -> onNetworkChanged());
+    }
+
+    public void setTargetSize(int width, int height) {
+        mTargetWidth = width;
+        mTargetHeight = height;
+    }
+
+    /**
+     * @param position       the card in view
+     * @param direction      1 when swiping towards later cards, -1 towards earlier ones, 0 when settled
+     * @param cardsPerSecond the current swipe speed
+     */
+    public void update(int position, int direction, float cardsPerSecond) {
+        if (mTargetWidth <= 0 || mTargetHeight <= 0 || position < 0) {
+            return;
+        }
+        int lookAhead = lookAhead(cardsPerSecond);
+        if (position == mPosition && direction == mDirection && lookAhead <= mLookAhead) {
+            return;
+        }
+        mPosition = position;
+        mDirection = direction;
+        mLookAhead = lookAhead;
+
+        boolean online = mSystemService.isOnline();
+        boolean metered = online && mSystemService.isMetered();
+        if (metered) {
+            lookAhead = METERED_LOOK_AHEAD;
+        }
+        Set<String> window = new HashSet<>();
+        if (online && !(metered && isBudgetSpent())) {
+            for (int i = 1; i <= lookAhead; i++) {
+                addToWindow(window, direction >= 0 ? position + i : position - i);
+            }
+            // a settled card keeps its neighbour on the other side warm as well
+            if (direction == 0) {
+                addToWindow(window, position - 1);
+            }
+        }
+
+        Iterator<Map.Entry<String, Object>> iterator = mWindow.entrySet().iterator();
+        while (iterator.hasNext()) {
+            Map.Entry<String, Object> entry = iterator.next();
+            if (!window.remove(entry.getKey())) {
+                if (entry.getValue() != null) {
+                    mImageService.cancelPrefetch(entry.getValue());
+                    mCancelled++;
+                }
+                iterator.remove();
+            }
+        }
+        for (String url : window) {
+            prefetch(url);
+        }
+    }
+
+    public void cancelAll() {
+        for (Object tag : mWindow.values()) {
+            if (tag != null) {
+                mImageService.cancelPrefetch(tag);
+                mCancelled++;
+            }
+        }
+        mWindow.clear();
+        mPosition = -1;
+    }
+
+    /**
+     * Cancels everything and stops following the network status; the prefetcher is not used afterwards.
+     */
+    public void release() {
+        cancelAll();
+        mNetworkStatusSubscription.unsubscribe();
+    }
+
+    int getIssued() {
+        return mIssued;
+    }
+
+    int getCancelled() {
+        return mCancelled;
+    }
+
+    static int lookAhead(float cardsPerSecond) {
+        return Math.min(MAX_LOOK_AHEAD, MIN_LOOK_AHEAD + (int) (Math.abs(cardsPerSecond) / CARDS_PER_SECOND_PER_STEP));
+    }
+
+    private void onNetworkChanged() {
+        mNetworkBytesAtStart = -1;
+        // the window may differ on the new network, so the next update recomputes it
+        mPosition = -1;
+    }
+
+    private boolean isBudgetSpent() {
+        long networkBytes = mImageService.getStatistics().getNetworkBytes();
+        // the statistics were reset in the meantime
+        if (mNetworkBytesAtStart < 0 || networkBytes < mNetworkBytesAtStart) {
+            mNetworkBytesAtStart = networkBytes;
+        }
+        return networkBytes - mNetworkBytesAtStart >= METERED_BUDGET_BYTES;
+    }
+
+    private void addToWindow(Set<String> window, int position) {
+        if (position >= 0 && position < mAnimals.size()) {
+            String url = mAnimals.get(position).getFirstPhotoUrl();
+            if (url != null) {
+                window.add(url);
+            }
+        }
+    }
+
+    private void prefetch(String url) {
+        Object tag = new Object();
+        mWindow.put(url, tag);
+        mIssued++;
+        mImageService.prefetch(url, mTargetWidth, mTargetHeight, tag, new Callback() {
+            @Override
+            public void onSuccess() {
+                if (mWindow.get(url) == tag) {
+                    mWindow.put(url, null);
+                }
+            }
+
+            @Override
+            public void onError() {
+                // forgotten rather than finished, so the next update issues it again
+                if (mWindow.get(url) == tag) {
+                    mWindow.remove(url);
+                }
+            }
+        });
+    }
+}
@@ -20,6 +20,7 @@ import android.app.Activity;
 import android.content.Intent;
 import android.os.Bundle;
 import android.support.v7.widget.LinearLayoutManager;
+import android.support.v7.widget.RecyclerView;
 import android.util.Log;
 import android.view.View;
 import android.view.ViewGroup;
@@ -43,6 +44,8 @@ import pl.kodujdlapolski.na4lapy.ui.drawer.AbstractDrawerActivity;
 
 public class SingleBrowseActivity extends AbstractDrawerActivity implements BrowseContract.View {
 
+    private static final int LOAD_MORE_THRESHOLD = 5;
+
     @BindView(R.id.animals_list_progress)
     ProgressBar progressBar;
     @BindView(R.id.list)
@@ -53,6 +56,7 @@ public class SingleBrowseActivity extends AbstractDrawerActivity implements Brow
     ViewGroup errorContainer;
     private BrowseContract.Presenter browsePresenter;
     private SingleBrowseAdapter adapter;
+    private ImagePrefetcher imagePrefetcher;
 
     @Override
     public void onCreate(Bundle savedInstanceState) {
@@ -130,6 +134,19 @@ public class SingleBrowseActivity extends AbstractDrawerActivity implements Brow
         });
     }
 
+    @Override
+    protected void onPause() {
+        super.onPause();
+        imagePrefetcher.cancelAll();
+    }
+
+    @Override
+    protected void onDestroy() {
+        imagePrefetcher.release();
+        browsePresenter.onDestroy();
+        super.onDestroy();
+    }
+
     @Override
     protected void onActivityResult(int requestCode, int resultCode, Intent data) {
         if (requestCode == DetailsActivity.REQUEST_CODE_ANIMAL && resultCode == Activity.RESULT_OK) {
@@ -142,9 +159,20 @@ public class SingleBrowseActivity extends AbstractDrawerActivity implements Brow
     private void initRecyclerView() {
         LinearLayoutManager layout = new LinearLayoutManager(this, LinearLayoutManager.HORIZONTAL, false);
         recyclerView.setLayoutManager(layout);
-        adapter = new SingleBrowseAdapter(browsePresenter.getAnimals(), browsePresenter, browsePresenter.getUserService());
+        adapter = new SingleBrowseAdapter(browsePresenter.getAnimals(), browsePresenter, browsePresenter.getUserService(),
+                browsePresenter.getImageService());
         recyclerView.setAdapter(adapter);
-        recyclerView.addOnScrollListener(new SingleBrowseRecyclerScrollListener());
+        imagePrefetcher = new ImagePrefetcher(browsePresenter.getImageService(), browsePresenter.getSystemService(),
+                browsePresenter.getAnimals());
+        recyclerView.addOnScrollListener(new SingleBrowseRecyclerScrollListener(imagePrefetcher));
+        recyclerView.addOnScrollListener(new RecyclerView.OnScrollListener() {
+            @Override
+            public void onScrolled(RecyclerView recyclerView, int dx, int dy) {
+                if (layout.findLastVisibleItemPosition() >= adapter.getItemCount() - LOAD_MORE_THRESHOLD) {
+                    browsePresenter.loadMoreAnimals();
+                }
+            }
+        });
         recyclerView.addOnLayoutChangeListener(new SingleBrowseOnLayoutChangeListener(recyclerView));
     }
 }
@@ -20,30 +20,35 @@ import android.view.LayoutInflater;
 import android.view.View;
 import android.view.ViewGroup;
 
-import java.util.List;
-
 import pl.kodujdlapolski.na4lapy.R;
-import pl.kodujdlapolski.na4lapy.model.Animal;
+import pl.kodujdlapolski.na4lapy.model.AnimalSummary;
+import pl.kodujdlapolski.na4lapy.service.image.ImageService;
 import pl.kodujdlapolski.na4lapy.service.user.UserService;
+import pl.kodujdlapolski.na4lapy.ui.browse.AdapterListUpdateCallback;
+import pl.kodujdlapolski.na4lapy.ui.browse.AnimalListUpdate;
 import pl.kodujdlapolski.na4lapy.ui.browse.BrowseContract;
 import pl.kodujdlapolski.na4lapy.ui.browse.OnBrowseElementClickedAction;
+import pl.kodujdlapolski.na4lapy.utils.IdIndexedList;
 
 public class SingleBrowseAdapter extends RecyclerView.Adapter<SingleBrowseViewHolder> implements BrowseContract.Adapter {
 
-    List<Animal> animals;
+    IdIndexedList<AnimalSummary> animals;
     OnBrowseElementClickedAction onBrowseElementClickedAction;
     UserService userService;
+    ImageService imageService;
 
-    public SingleBrowseAdapter(List<Animal> animals, OnBrowseElementClickedAction onBrowseElementClickedAction, UserService userService) {
+    public SingleBrowseAdapter(IdIndexedList<AnimalSummary> animals, OnBrowseElementClickedAction onBrowseElementClickedAction,
+                               UserService userService, ImageService imageService) {
         this.animals = animals;
         this.onBrowseElementClickedAction = onBrowseElementClickedAction;
         this.userService = userService;
+        this.imageService = imageService;
     }
 
     @Override
     public SingleBrowseViewHolder onCreateViewHolder(ViewGroup parent, int viewType) {
         View v = LayoutInflater.from(parent.getContext()).inflate(R.layout.view_holder_single_browse, parent, false);
-        return new SingleBrowseViewHolder(v, userService);
+        return new SingleBrowseViewHolder(v, userService, imageService);
     }
 
     @Override
@@ -57,12 +62,20 @@ public class SingleBrowseAdapter extends RecyclerView.Adapter<SingleBrowseViewHo
     }
 
     @Override
-    public void notifyItemChanged(Animal animal) {
-        super.notifyDataSetChanged();
+    public void notifyItemChanged(AnimalSummary animal) {
+        int position = animals.indexOfId(animal.getId());
+        if (position != -1) {
+            super.notifyItemChanged(position);
+        }
+    }
+
+    @Override
+    public void notifyItemRemoved(AnimalSummary animal, int position) {
+        super.notifyItemRemoved(position);
     }
 
     @Override
-    public void notifyItemRemoved(Animal animal) {
-        super.notifyItemRemoved(animals.indexOf(animal));
+    public void notifyListUpdated(AnimalListUpdate update) {
+        update.getDiff().dispatchTo(new AdapterListUpdateCallback(this));
     }
 }
@@ -1,15 +1,29 @@
 package pl.kodujdlapolski.na4lapy.ui.browse.single;
 
+import android.os.SystemClock;
 import android.support.v7.widget.RecyclerView;
 import android.view.View;
 
+import pl.kodujdlapolski.na4lapy.ui.browse.AbstractBrowseViewHolder;
+
 /**
  * https://github.com/lsjwzh/RecyclerViewPager/blob/master/app/src/main/java/com/lsjwzh/widget/recyclerviewpagerdeomo/SingleFlingPagerActivity.java
  */
 public class SingleBrowseRecyclerScrollListener extends RecyclerView.OnScrollListener {
 
+    private final ImagePrefetcher mImagePrefetcher;
+    private int mCenterPosition = RecyclerView.NO_POSITION;
+    private long mLastScrollTime;
+
+    public SingleBrowseRecyclerScrollListener(ImagePrefetcher imagePrefetcher) {
+        mImagePrefetcher = imagePrefetcher;
+    }
+
     @Override
     public void onScrollStateChanged(RecyclerView recyclerView, int scrollState) {
+        if (scrollState == RecyclerView.SCROLL_STATE_IDLE) {
+            mImagePrefetcher.update(mCenterPosition, 0, 0);
+        }
     }
 
     @Override
@@ -17,11 +31,16 @@ public class SingleBrowseRecyclerScrollListener extends RecyclerView.OnScrollLis
         int childCount = recyclerView.getChildCount();
         int width = recyclerView.getChildAt(0).getWidth();
         int padding = (recyclerView.getWidth() - width) / 2;
+        // the card closest to its resting place is the one in view
+        View center = null;
 
         for (int j = 0; j < childCount; j++) {
             View v = recyclerView.getChildAt(j);
             //往左 从 padding 到 -(v.getWidth()-padding) 的过程中，由大到小
             float rate = 0;
+            if (center == null || Math.abs(v.getLeft() - padding) < Math.abs(center.getLeft() - padding)) {
+                center = v;
+            }
             if (v.getLeft() <= padding) {
                 if (v.getLeft() >= padding - v.getWidth()) {
                     rate = (padding - v.getLeft()) * 1f / v.getWidth();
@@ -40,5 +59,20 @@ public class SingleBrowseRecyclerScrollListener extends RecyclerView.OnScrollLis
                 v.setScaleX(0.9f + rate * 0.1f);
             }
         }
+        if (center != null) {
+            prefetch(recyclerView, center, i);
+        }
+    }
+
+    private void prefetch(RecyclerView recyclerView, View center, int dx) {
+        AbstractBrowseViewHolder holder = (AbstractBrowseViewHolder) recyclerView.getChildViewHolder(center);
+        mImagePrefetcher.setTargetSize(holder.profilePic.getWidth(), holder.profilePic.getHeight());
+        mCenterPosition = holder.getAdapterPosition();
+
+        long now = SystemClock.uptimeMillis();
+        long elapsed = Math.max(1, now - mLastScrollTime);
+        mLastScrollTime = now;
+        float cardsPerSecond = dx * 1000f / elapsed / center.getWidth();
+        mImagePrefetcher.update(mCenterPosition, Integer.signum(dx), cardsPerSecond);
     }
 }
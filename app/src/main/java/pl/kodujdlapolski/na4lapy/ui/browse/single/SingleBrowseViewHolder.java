@@ -22,7 +22,8 @@ import android.widget.ImageView;
 
 import butterknife.BindView;
 import pl.kodujdlapolski.na4lapy.R;
-import pl.kodujdlapolski.na4lapy.model.Animal;
+import pl.kodujdlapolski.na4lapy.model.AnimalSummary;
+import pl.kodujdlapolski.na4lapy.service.image.ImageService;
 import pl.kodujdlapolski.na4lapy.service.user.UserService;
 import pl.kodujdlapolski.na4lapy.ui.browse.AbstractBrowseViewHolder;
 import pl.kodujdlapolski.na4lapy.ui.browse.OnBrowseElementClickedAction;
@@ -41,19 +42,18 @@ public class SingleBrowseViewHolder extends AbstractBrowseViewHolder {
 
     private UserService userService;
 
-    public SingleBrowseViewHolder(View itemView, UserService userService) {
-        super(itemView, userService);
+    public SingleBrowseViewHolder(View itemView, UserService userService, ImageService imageService) {
+        super(itemView, imageService);
         this.userService = userService;
     }
 
     @Override
-    public void init(Animal animal, OnBrowseElementClickedAction onBrowseElementClickedAction) {
+    public void init(AnimalSummary animal, OnBrowseElementClickedAction onBrowseElementClickedAction) {
         super.init(animal, onBrowseElementClickedAction);
-        animal.setFavourite(userService.isFavourite(animal));
-        addToFavFab.setImageResource(AnimalUtils.getAddToFavFabImage(animal));
+        addToFavFab.setImageResource(AnimalUtils.getAddToFavFabImage(userService.isFavourite(animal.getId())));
         addToFavFab.setOnClickListener(v -> {
             onBrowseElementClickedAction.favourite(animal);
-            addToFavFab.setImageResource(AnimalUtils.getAddToFavFabImage(animal));
+            addToFavFab.setImageResource(AnimalUtils.getAddToFavFabImage(userService.isFavourite(animal.getId())));
         });
         profilePic.setOnClickListener(v -> {
             onBrowseElementClickedAction.details(animal);
@@ -61,7 +61,7 @@ public class SingleBrowseViewHolder extends AbstractBrowseViewHolder {
         setAnimalAttributesIcons(animal);
     }
 
-    private void setAnimalAttributesIcons(Animal animal) {
+    private void setAnimalAttributesIcons(AnimalSummary animal) {
         if (animal.getSize() != null)
             sizeImage.setImageResource(animal.getSize().getDrawableResId());
         else {
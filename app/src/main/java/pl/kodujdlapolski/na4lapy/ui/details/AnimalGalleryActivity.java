@@ -29,25 +29,29 @@ import pl.kodujdlapolski.na4lapy.ui.AbstractSingleActivity;
 
 public class AnimalGalleryActivity extends AbstractSingleActivity {
 
-    public static final String EXTRA_GALLERY = "EXTRA_GALLERY";
+    public static final String EXTRA_ANIMAL_ID = "EXTRA_ANIMAL_ID";
     public static final String EXTRA_SELECTED_PIC = "EXTRA_SELECTED_PIC";
 
     @Getter
     @BindView(R.id.gallery_container)
     GalleryViewPager mViewPager;
 
+    private AnimalGalleryPresenter presenter;
+
     @Override
-    @SuppressWarnings("unchecked")
     protected void onCreate(Bundle savedInstanceState) {
         super.onCreate(savedInstanceState);
 
-        AnimalGalleryPresenter presenter = new AnimalGalleryPresenter(this);
-        List<Photo> gallery = presenter.getAnimalGallery();
-        Integer selectedPicNumber = presenter.getSelectedPhotoNumber();
+        presenter = new AnimalGalleryPresenter(this);
 
         setContentView(R.layout.activity_animal_gallery);
         ButterKnife.bind(this);
 
+        presenter.getAnimalGallery().subscribe(this::showGallery, t -> presenter.setOnBackPressed());
+    }
+
+    private void showGallery(List<Photo> gallery) {
+        Integer selectedPicNumber = presenter.getSelectedPhotoNumber();
         AnimalGallerySectionsPagerAdapter mAnimalGallerySectionsPagerAdapter = new AnimalGallerySectionsPagerAdapter(
                 getSupportFragmentManager(), gallery);
 
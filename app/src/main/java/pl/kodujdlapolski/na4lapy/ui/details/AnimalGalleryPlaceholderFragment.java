@@ -27,15 +27,17 @@ import android.widget.ImageView;
 import android.widget.RelativeLayout;
 import android.widget.TextView;
 
-import com.squareup.picasso.Picasso;
+import javax.inject.Inject;
 
 import butterknife.BindView;
 import butterknife.ButterKnife;
 import butterknife.OnClick;
+import pl.kodujdlapolski.na4lapy.Na4LapyApp;
 import pl.kodujdlapolski.na4lapy.R;
 import pl.kodujdlapolski.na4lapy.model.Photo;
 import pl.kodujdlapolski.na4lapy.presenter.details.AnimalGalleryContract;
 import pl.kodujdlapolski.na4lapy.presenter.details.AnimalGalleryPresenter;
+import pl.kodujdlapolski.na4lapy.service.image.ImageService;
 
 public class AnimalGalleryPlaceholderFragment extends Fragment implements AnimalGalleryContract.View{
 
@@ -43,6 +45,9 @@ public class AnimalGalleryPlaceholderFragment extends Fragment implements Animal
     private static final String ARG_PIC_POSITION = "ARG_PIC_POSITION";
     private static final String ARG_GALLERY_SIZE = "ARG_GALLERY_SIZE";
 
+    @Inject
+    ImageService imageService;
+
     private AnimalGalleryPresenter presenter;
     private Photo animalPic;
     private int galleryPosition;
@@ -79,6 +84,7 @@ public class AnimalGalleryPlaceholderFragment extends Fragment implements Animal
         View view = inflater.inflate(R.layout.fragment_animal_gallery, container, false);
         ButterKnife.bind(this, view);
         presenter = new AnimalGalleryPresenter((AnimalGalleryActivity) getActivity());
+        ((Na4LapyApp) getActivity().getApplication()).getComponent().inject(this);
         return view;
     }
 
@@ -113,7 +119,7 @@ public class AnimalGalleryPlaceholderFragment extends Fragment implements Animal
             imageView.setImageDrawable(getResources().getDrawable(R.drawable.pic_error_dog_256dp));
             return;
         }
-        Picasso.with(getContext()).load(selectedPicUrl).into(imageView);
+        imageService.loadInside(selectedPicUrl).into(imageView);
         setPhotoAuthor();
         setDifferentLayoutParamsIfApiIsJellyBean();
         setPhotoNumber(savedInstanceState);
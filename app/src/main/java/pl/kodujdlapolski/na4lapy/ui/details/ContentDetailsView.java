@@ -16,29 +16,21 @@
 package pl.kodujdlapolski.na4lapy.ui.details;
 
 import android.animation.ObjectAnimator;
-import android.content.Context;
 import android.content.Intent;
-import android.graphics.Point;
 import android.support.annotation.NonNull;
-import android.util.TypedValue;
-import android.view.Display;
+import android.support.v7.widget.GridLayoutManager;
+import android.support.v7.widget.RecyclerView;
 import android.view.View;
-import android.view.ViewGroup;
-import android.view.WindowManager;
 import android.widget.Button;
 import android.widget.ImageView;
-import android.widget.LinearLayout;
 import android.widget.TextView;
 
-import com.j256.ormlite.dao.ForeignCollection;
-import com.squareup.picasso.MemoryPolicy;
-import com.squareup.picasso.Picasso;
-
 import org.joda.time.LocalDate;
 import org.joda.time.Months;
 import org.joda.time.Years;
 
-import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
 
 import butterknife.BindView;
 import butterknife.ButterKnife;
@@ -46,13 +38,15 @@ import pl.kodujdlapolski.na4lapy.R;
 import pl.kodujdlapolski.na4lapy.model.Animal;
 import pl.kodujdlapolski.na4lapy.model.Photo;
 import pl.kodujdlapolski.na4lapy.model.type.Gender;
+import pl.kodujdlapolski.na4lapy.service.image.ImageService;
 
 //TODO utworzyć presentera dla widoku
 public class ContentDetailsView {
 
     private DetailsActivity ctx;
     private Animal animal;
-    private static final int IMAGES_IN_ROW = 3;// defined in images_single_row.xml
+    private ImageService imageService;
+    private static final int IMAGES_IN_ROW = 3;
     private static final int MAX_LINES_COLLAPSED = 5;
 
     @BindView(R.id.description)
@@ -65,8 +59,6 @@ public class ContentDetailsView {
     ImageView genderImage;
     @BindView(R.id.animal_activity_image)
     ImageView activityImage;
-    @BindView(R.id.images_container)
-    LinearLayout imagesContainer;
 
     @BindView(R.id.info_activity)
     TextView infoActivity;
@@ -89,19 +81,28 @@ public class ContentDetailsView {
     @BindView(R.id.info_vaccination)
     TextView infoVaccination;
 
-    public ContentDetailsView(DetailsActivity activity, Animal animal) {
+    public ContentDetailsView(DetailsActivity activity, Animal animal, ImageService imageService) {
         ctx = activity;
         this.animal = animal;
+        this.imageService = imageService;
     }
 
-    public View getView() {
-        View content = ctx.getLayoutInflater().inflate(R.layout.content_details, null);
-        imagesContainer = (LinearLayout) content.findViewById(R.id.images_container);
+    /**
+     * Shows the photo grid and the details below it in the container.
+     */
+    public void attachTo(RecyclerView container) {
+        View content = ctx.getLayoutInflater().inflate(R.layout.content_details, container, false);
         ButterKnife.bind(this, content);
-        initImagesContainer();
         initBasicInfoImagesAndDescription();
         initMoreInfoTable();
-        return content;
+
+        List<Photo> photos = animal.getPhotoList() != null ? animal.getPhotoList() : Collections.<Photo>emptyList();
+        PhotoGridAdapter adapter = new PhotoGridAdapter(photos, content, IMAGES_IN_ROW, getGalleryPicSize(), imageService,
+                this::openGallery);
+        GridLayoutManager layoutManager = new GridLayoutManager(ctx, IMAGES_IN_ROW);
+        layoutManager.setSpanSizeLookup(adapter.getSpanSizeLookup());
+        container.setLayoutManager(layoutManager);
+        container.setAdapter(adapter);
     }
 
     private void initMoreInfoTable() {
@@ -142,68 +143,20 @@ public class ContentDetailsView {
             genderImage.setImageResource(animal.getGender().getDrawableResId());
     }
 
-    private void initImagesContainer() {
-        ForeignCollection<Photo> photos = animal.getPhotos();
-        if (photos != null) {
-
-            ArrayList<Photo> listOfPhotos = getPhotosAsList(photos);
-            LinearLayout.LayoutParams singleRowLayoutParams = new LinearLayout.LayoutParams(ViewGroup.LayoutParams.MATCH_PARENT, ViewGroup.LayoutParams.WRAP_CONTENT, 1);
-            singleRowLayoutParams.setMargins(0, getDipFromInt(2), 0, getDipFromInt(2));
-            int restOfImagesCount = photos.size() % IMAGES_IN_ROW;
-            for (int i = 0; i < photos.size()-restOfImagesCount; i = i + IMAGES_IN_ROW) {
-                View singleRow = ctx.getLayoutInflater().inflate(R.layout.images_single_row, null);
-                singleRow.setLayoutParams(singleRowLayoutParams);
-                initImageView(singleRow, listOfPhotos, i, R.id.image_1);
-                initImageView(singleRow, listOfPhotos, i + 1, R.id.image_2);
-                initImageView(singleRow, listOfPhotos, i + 2, R.id.image_3);
-                imagesContainer.addView(singleRow);
-            }
-
-            if (restOfImagesCount >= 1) {
-                View singleRow = ctx.getLayoutInflater().inflate(R.layout.images_single_row, null);
-                singleRow.setLayoutParams(singleRowLayoutParams);
-                initImageView(singleRow, listOfPhotos, restOfImagesCount == 1 ? photos.size() - 1 : photos.size() - 2, R.id.image_1);
-                if (restOfImagesCount == 2) {
-                    initImageView(singleRow, listOfPhotos, photos.size() - 1, R.id.image_2);
-                }
-                imagesContainer.addView(singleRow);
-            }
-        }
-    }
-
-    private ArrayList<Photo> getPhotosAsList(ForeignCollection<Photo> photos) {
-        ArrayList<Photo> ret = new ArrayList<>();
-        for (Photo photo : photos) {
-            ret.add(photo);
-        }
-        return ret;
-    }
-
-    private void initImageView(View parent, ArrayList<Photo> photos, int index, int res) {
-        ImageView image1 = (ImageView) parent.findViewById(res);
-        image1.getLayoutParams().height = getGalleryPicHeight();
-        Picasso.with(ctx).load(photos.get(index).getUrl()).memoryPolicy(MemoryPolicy.NO_STORE, MemoryPolicy.NO_CACHE).into(image1);
-        image1.setOnClickListener(v -> {
-            Intent i = new Intent(ctx, AnimalGalleryActivity.class);
-            i.putExtra(AnimalGalleryActivity.EXTRA_GALLERY, photos);
-            i.putExtra(AnimalGalleryActivity.EXTRA_SELECTED_PIC, index);
-            ctx.startActivity(i);
-        });
-    }
-
-    private int getDipFromInt(int value) {
-        return (int) (value * TypedValue.applyDimension(TypedValue.COMPLEX_UNIT_DIP, 1f, ctx.getResources()
-                .getDisplayMetrics()));
+    private void openGallery(int index) {
+        Intent i = new Intent(ctx, AnimalGalleryActivity.class);
+        i.putExtra(AnimalGalleryActivity.EXTRA_ANIMAL_ID, animal.getId());
+        i.putExtra(AnimalGalleryActivity.EXTRA_SELECTED_PIC, index);
+        ctx.startActivity(i);
     }
 
-    private int getGalleryPicHeight() {
-        Display display = ((WindowManager) ctx.getSystemService(Context.WINDOW_SERVICE)).getDefaultDisplay();
-        Point size = new Point();
-        display.getSize(size);
-        int width = size.x;
-        int margin = ((int) (ctx.getResources().getDimension(R.dimen.activity_horizontal_margin))) * 4; // because of scrollview margin and inner images margin
-        int actualWidth = width - margin;
-        return actualWidth / IMAGES_IN_ROW;
+    /**
+     * Computed once per screen: the grid's share of the screen width, less the cell margins.
+     */
+    private int getGalleryPicSize() {
+        int width = ctx.getResources().getDisplayMetrics().widthPixels
+                - 2 * ctx.getResources().getDimensionPixelSize(R.dimen.activity_horizontal_margin);
+        return width / IMAGES_IN_ROW - 2 * ctx.getResources().getDimensionPixelSize(R.dimen.gallery_grid_cell_margin);
     }
 
     private void expandOrCollapseDescription() {
@@ -20,25 +20,26 @@ import android.app.Activity;
 import android.content.Context;
 import android.content.Intent;
 import android.os.Bundle;
+import android.os.SystemClock;
 import android.support.annotation.NonNull;
 import android.support.design.widget.FloatingActionButton;
 import android.support.v4.content.ContextCompat;
 import android.support.v4.view.MenuItemCompat;
-import android.support.v4.widget.NestedScrollView;
 import android.support.v7.app.AppCompatActivity;
+import android.support.v7.widget.RecyclerView;
 import android.support.v7.widget.ShareActionProvider;
 import android.support.v7.widget.Toolbar;
+import android.util.Log;
 import android.view.Menu;
 import android.view.MenuItem;
 import android.widget.ImageView;
 
-import com.squareup.picasso.MemoryPolicy;
-import com.squareup.picasso.Picasso;
-
 import org.joda.time.LocalDate;
 import org.joda.time.Months;
 import org.joda.time.Years;
 
+import java.util.Arrays;
+
 import javax.inject.Inject;
 
 import butterknife.BindView;
@@ -49,19 +50,24 @@ import jp.wasabeef.picasso.transformations.CropCircleTransformation;
 import pl.kodujdlapolski.na4lapy.Na4LapyApp;
 import pl.kodujdlapolski.na4lapy.R;
 import pl.kodujdlapolski.na4lapy.model.Animal;
+import pl.kodujdlapolski.na4lapy.service.image.DerivedImage;
+import pl.kodujdlapolski.na4lapy.service.image.ImageService;
 import pl.kodujdlapolski.na4lapy.service.repository.RepositoryService;
+import pl.kodujdlapolski.na4lapy.service.scheduler.SchedulerProvider;
 import pl.kodujdlapolski.na4lapy.service.system.SystemService;
 import pl.kodujdlapolski.na4lapy.service.user.UserService;
 import pl.kodujdlapolski.na4lapy.ui.compliance_level.ComplianceLevelDialog;
 import pl.kodujdlapolski.na4lapy.utils.AnimalUtils;
-import rx.android.schedulers.AndroidSchedulers;
-import rx.schedulers.Schedulers;
+import rx.Subscription;
 
 //TODO utworzyć presentera dla widoku
 public class DetailsActivity extends AppCompatActivity {
 
     public static final int REQUEST_CODE_ANIMAL = 1;
     public static final String EXTRA_ANIMAL_ID = "extraAnimalId";
+    // the background is blurred at half size, with half the radius it needs at full size
+    private static final int BLUR_RADIUS = 1;
+    private static final int BLUR_SAMPLING = 2;
 
     @Inject
     RepositoryService repositoryService;
@@ -69,6 +75,10 @@ public class DetailsActivity extends AppCompatActivity {
     UserService userService;
     @Inject
     SystemService systemService;
+    @Inject
+    SchedulerProvider schedulerProvider;
+    @Inject
+    ImageService imageService;
 
     @BindView(R.id.toolbar)
     Toolbar toolbar;
@@ -81,14 +91,18 @@ public class DetailsActivity extends AppCompatActivity {
     @BindView(R.id.add_to_fav_fab)
     FloatingActionButton addToFavFab;
     @BindView(R.id.details_container)
-    NestedScrollView detailsContainer;
+    RecyclerView detailsContainer;
 
     private Long id;
     private Animal animal;
+    private long openStartTime;
+    private long animalLoadTime;
+    private Subscription headerImagesSubscription;
 
     @Override
     protected void onCreate(Bundle savedInstanceState) {
         super.onCreate(savedInstanceState);
+        openStartTime = SystemClock.elapsedRealtime();
         setContentView(R.layout.activity_details);
         ButterKnife.bind(this);
         ((Na4LapyApp) getApplication()).getComponent().inject(this);
@@ -111,21 +125,20 @@ public class DetailsActivity extends AppCompatActivity {
     }
 
     private void getAnimal() {
-        repositoryService.getAnimal(id).subscribeOn(Schedulers.newThread()).observeOn(AndroidSchedulers.mainThread())
+        repositoryService.getAnimal(id).subscribeOn(schedulerProvider.databaseRead()).observeOn(schedulerProvider.mainThread())
                 .subscribe(this::onAnimalAvailable);
     }
 
     private void onAnimalAvailable(Animal downloadedAnimal) {
         animal = downloadedAnimal;
+        animalLoadTime = SystemClock.elapsedRealtime() - openStartTime;
         initContent();
-
     }
 
     private void initContent() {
         initToolbar();
         initToolbarImages();
-        ContentDetailsView contentDetailsView = new ContentDetailsView(this, animal);
-        detailsContainer.addView(contentDetailsView.getView());
+        new ContentDetailsView(this, animal, imageService).attachTo(detailsContainer);
     }
 
     private void initToolbar() {
@@ -140,38 +153,42 @@ public class DetailsActivity extends AppCompatActivity {
     }
 
     private void initToolbarImages() {
-        if (animal.getPhotos() != null && animal.getPhotos().iterator().hasNext()) {
-            String url = animal.getPhotos().iterator().next().getUrl();
-            Picasso.with(this)
-                    .load(url)
-                    .memoryPolicy(MemoryPolicy.NO_STORE, MemoryPolicy.NO_CACHE)
-                    .transform(new BlurTransformation(this, 2))
-                    .transform(new ColorFilterTransformation(ContextCompat.getColor(this, R.color.colorPrimaryDark50opacity)))
-                    .into(background);
-
-            Picasso.with(this)
-                    .load(url)
-                    .memoryPolicy(MemoryPolicy.NO_STORE, MemoryPolicy.NO_CACHE)
-                    .transform(new CropCircleTransformation())
-                    .into(profilePic);
+        if (animal.getPhotoList() != null && !animal.getPhotoList().isEmpty()) {
+            loadHeaderImages(animal.getPhotoList().get(0).getUrl());
         }
         matchingLvl.setImageLevel(userService.getPreferencesComplianceLevel(animal));
         matchingLvl.setOnClickListener(v -> {
             onComplianceLevelClick();
         });
-        animal.setFavourite(userService.isFavourite(animal));
-        addToFavFab.setImageResource(AnimalUtils.getAddToFavFabImage(animal));
+        addToFavFab.setImageResource(AnimalUtils.getAddToFavFabImage(userService.isFavourite(animal.getId())));
         addToFavFab.setOnClickListener(v -> {
-            if (Boolean.TRUE.equals(animal.getFavourite())) {
-                userService.removeFromFavourite(animal);
+            if (userService.isFavourite(animal.getId())) {
+                userService.removeFromFavourite(animal.getId());
             } else {
-                userService.addToFavourite(animal);
+                userService.addToFavourite(animal.getId());
             }
             updateAnimal();
-            addToFavFab.setImageResource(AnimalUtils.getAddToFavFabImage(animal));
+            addToFavFab.setImageResource(AnimalUtils.getAddToFavFabImage(userService.isFavourite(animal.getId())));
         });
     }
 
+    private void loadHeaderImages(String url) {
+        DerivedImage backgroundImage = new DerivedImage(getResources().getDisplayMetrics().widthPixels,
+                getResources().getDimensionPixelSize(R.dimen.app_bar_height),
+                new BlurTransformation(getApplicationContext(), BLUR_RADIUS, BLUR_SAMPLING),
+                new ColorFilterTransformation(ContextCompat.getColor(this, R.color.colorPrimaryDark50opacity)));
+        DerivedImage profileImage = new DerivedImage(profilePic.getLayoutParams().width, profilePic.getLayoutParams().height,
+                new CropCircleTransformation());
+        headerImagesSubscription = imageService.loadDerived(url, Arrays.asList(backgroundImage, profileImage))
+                .subscribeOn(schedulerProvider.network())
+                .observeOn(schedulerProvider.mainThread())
+                .subscribe(bitmaps -> {
+                    background.setImageBitmap(bitmaps.get(0));
+                    profilePic.setImageBitmap(bitmaps.get(1));
+                    imageService.recordDetailsOpen(SystemClock.elapsedRealtime() - openStartTime, animalLoadTime);
+                }, throwable -> Log.w(getClass().getSimpleName(), "Cannot load header images", throwable));
+    }
+
     private void onComplianceLevelClick() {
         if(userService.isComplianceLevelAvailable())
             ComplianceLevelDialog.showComplianceLevelInfoDialog(this);
@@ -180,12 +197,19 @@ public class DetailsActivity extends AppCompatActivity {
     }
 
     private void updateAnimal() {
-        animal.setFavourite(userService.isFavourite(animal));
         Intent returnIntent = new Intent();
         returnIntent.putExtra(EXTRA_ANIMAL_ID, id);
         setResult(Activity.RESULT_OK, returnIntent);
     }
 
+    @Override
+    protected void onDestroy() {
+        if (headerImagesSubscription != null) {
+            headerImagesSubscription.unsubscribe();
+        }
+        super.onDestroy();
+    }
+
     @Override
     public void onSaveInstanceState(Bundle outState) {
         outState.putSerializable(EXTRA_ANIMAL_ID, id);
@@ -0,0 +1,158 @@
+/*
+ *	Copyright 2017 Stowarzyszenie Na4Łapy
+ *
+ *	Licensed under the Apache License, Version 2.0 (the "License");
+ *	you may not use this file except in compliance with the License.
+ *	You may obtain a copy of the License at
+ *
+ *	http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *	Unless required by applicable law or agreed to in writing, software
+ *	distributed under the License is distributed on an "AS IS" BASIS,
+ *	WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *	See the License for the specific language governing permissions and
+ *	limitations under the License.
+ */
+package pl.kodujdlapolski.na4lapy.ui.details;
+
+import android.support.v7.widget.GridLayoutManager;
+import android.support.v7.widget.RecyclerView;
+import android.view.LayoutInflater;
+import android.view.View;
+import android.view.ViewGroup;
+import android.widget.ImageView;
+
+import com.squareup.picasso.Callback;
+
+import java.util.List;
+
+import pl.kodujdlapolski.na4lapy.R;
+import pl.kodujdlapolski.na4lapy.model.Photo;
+import pl.kodujdlapolski.na4lapy.service.image.ImageService;
+import pl.kodujdlapolski.na4lapy.utils.RequestLimiter;
+
+/**
+ * The photos of an animal as a grid of square thumbnails, followed by the rest of the details
+ * as a single full width item. Thumbnails are loaded at cell size when their cell is bound, with
+ * at most {@link #MAX_LOADS_IN_FLIGHT} loads running at a time.
+ */
+public class PhotoGridAdapter extends RecyclerView.Adapter<RecyclerView.ViewHolder> {
+
+    public interface OnPhotoClickedAction {
+        void photo(int index);
+    }
+
+    static final int MAX_LOADS_IN_FLIGHT = 6;
+    private static final int TYPE_PHOTO = 0;
+    private static final int TYPE_CONTENT = 1;
+
+    private List<Photo> photos;
+    private View content;
+    private int columns;
+    private int cellSize;
+    private ImageService imageService;
+    private OnPhotoClickedAction onPhotoClickedAction;
+    private RequestLimiter<PhotoViewHolder> requestLimiter;
+
+    public PhotoGridAdapter(List<Photo> photos, View content, int columns, int cellSize, ImageService imageService,
+                            OnPhotoClickedAction onPhotoClickedAction) {
+        this.photos = photos;
+        this.content = content;
+        this.columns = columns;
+        this.cellSize = cellSize;
+        this.imageService = imageService;
+        this.onPhotoClickedAction = onPhotoClickedAction;
+        requestLimiter = new RequestLimiter<>(MAX_LOADS_IN_FLIGHT, new RequestLimiter.Requester<PhotoViewHolder>() {
+            @Override
+            public void start(PhotoViewHolder holder, Runnable onFinished) {
+                int position = holder.getAdapterPosition();
+                if (position == RecyclerView.NO_POSITION) {
+                    onFinished.run();
+                    return;
+                }
+                imageService.load(photos.get(position).getUrl(), cellSize, cellSize)
+                        .into(holder.image, new Callback() {
+                            @Override
+                            public void onSuccess() {
+                                onFinished.run();
+                            }
+
+                            @Override
+                            public void onError() {
+                                onFinished.run();
+                            }
+                        });
+            }
+
+            @Override
+            public void cancel(PhotoViewHolder holder) {
+                imageService.cancel(holder.image);
+            }
+        });
+    }
+
+    public GridLayoutManager.SpanSizeLookup getSpanSizeLookup() {
+        return new GridLayoutManager.SpanSizeLookup() {
+            @Override
+            public int getSpanSize(int position) {
+                return getItemViewType(position) == TYPE_CONTENT ? columns : 1;
+            }
+        };
+    }
+
+    @Override
+    public int getItemViewType(int position) {
+        return position < photos.size() ? TYPE_PHOTO : TYPE_CONTENT;
+    }
+
+    @Override
+    public RecyclerView.ViewHolder onCreateViewHolder(ViewGroup parent, int viewType) {
+        if (viewType == TYPE_CONTENT) {
+            RecyclerView.ViewHolder holder = new RecyclerView.ViewHolder(content) {
+            };
+            // there is only one content view, so its holder must not end up in the pool
+            holder.setIsRecyclable(false);
+            return holder;
+        }
+        PhotoViewHolder holder = new PhotoViewHolder(LayoutInflater.from(parent.getContext())
+                .inflate(R.layout.images_grid_cell, parent, false));
+        holder.image.getLayoutParams().height = cellSize;
+        holder.image.setOnClickListener(v -> {
+            if (holder.getAdapterPosition() != RecyclerView.NO_POSITION) {
+                onPhotoClickedAction.photo(holder.getAdapterPosition());
+            }
+        });
+        return holder;
+    }
+
+    @Override
+    public void onBindViewHolder(RecyclerView.ViewHolder holder, int position) {
+        if (holder instanceof PhotoViewHolder) {
+            PhotoViewHolder photoHolder = (PhotoViewHolder) holder;
+            photoHolder.image.setImageDrawable(null);
+            requestLimiter.submit(photoHolder);
+        }
+    }
+
+    @Override
+    public void onViewRecycled(RecyclerView.ViewHolder holder) {
+        if (holder instanceof PhotoViewHolder) {
+            requestLimiter.cancel((PhotoViewHolder) holder);
+        }
+    }
+
+    @Override
+    public int getItemCount() {
+        return photos.size() + 1;
+    }
+
+    static class PhotoViewHolder extends RecyclerView.ViewHolder {
+
+        final ImageView image;
+
+        PhotoViewHolder(View itemView) {
+            super(itemView);
+            image = (ImageView) itemView.findViewById(R.id.grid_image);
+        }
+    }
+}
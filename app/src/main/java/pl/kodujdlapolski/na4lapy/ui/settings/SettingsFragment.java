@@ -18,6 +18,7 @@ package pl.kodujdlapolski.na4lapy.ui.settings;
 
 import android.content.Intent;
 import android.content.pm.PackageManager;
+import android.os.Build;
 import android.os.Bundle;
 import android.support.annotation.Nullable;
 import android.support.v4.app.Fragment;
@@ -26,18 +27,29 @@ import android.view.LayoutInflater;
 import android.view.View;
 import android.view.ViewGroup;
 import android.widget.TextView;
+import android.widget.Toast;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.util.HashMap;
+import java.util.Map;
 
 import javax.inject.Inject;
 
 import butterknife.BindView;
 import butterknife.ButterKnife;
 import butterknife.OnClick;
+import pl.kodujdlapolski.na4lapy.BuildConfig;
 import pl.kodujdlapolski.na4lapy.Na4LapyApp;
 import pl.kodujdlapolski.na4lapy.R;
 import pl.kodujdlapolski.na4lapy.presenter.settings.WebPageTypes;
+import pl.kodujdlapolski.na4lapy.service.network.NetworkStatistics;
+import pl.kodujdlapolski.na4lapy.service.system.SystemService;
 import pl.kodujdlapolski.na4lapy.service.user.UserService;
 
 public class SettingsFragment extends Fragment {
+    private static final int TAPS_TO_SHOW_DEBUG = 7;
+
     @BindView(R.id.version_name)
     TextView versionName;
 
@@ -47,9 +59,20 @@ public class SettingsFragment extends Fragment {
     @BindView(R.id.app_facebook_link)
     TextView appFacebookLink;
 
+    @BindView(R.id.debug_section)
+    View debugSection;
+
     @Inject
     UserService userService;
 
+    @Inject
+    NetworkStatistics networkStatistics;
+
+    @Inject
+    SystemService systemService;
+
+    private int versionTaps;
+
     @Override
     public void onCreate(Bundle savedInstanceState) {
         super.onCreate(savedInstanceState);
@@ -97,6 +120,45 @@ public class SettingsFragment extends Fragment {
         runWebViewActivity(WebPageTypes.OPEN_SOURCE);
     }
 
+    @SuppressWarnings("unused")
+    @OnClick(R.id.version_name)
+    void onVersionClick() {
+        if (++versionTaps == TAPS_TO_SHOW_DEBUG) {
+            debugSection.setVisibility(View.VISIBLE);
+        }
+    }
+
+    @SuppressWarnings("unused")
+    @OnClick(R.id.debug_export_network_statistics)
+    void onExportNetworkStatisticsClick() {
+        Map<String, String> context = new HashMap<>();
+        context.put("versionName", BuildConfig.VERSION_NAME);
+        context.put("versionCode", String.valueOf(BuildConfig.VERSION_CODE));
+        context.put("flavor", BuildConfig.FLAVOR);
+        context.put("device", Build.MANUFACTURER + " " + Build.MODEL);
+        context.put("sdk", String.valueOf(Build.VERSION.SDK_INT));
+        context.put("network", !systemService.isOnline() ? "offline" : systemService.isMetered() ? "metered" : "unmetered");
+        StringWriter json = new StringWriter();
+        try {
+            networkStatistics.writeJson(json, context);
+        } catch (IOException e) {
+            Toast.makeText(getActivity(), R.string.debug_network_statistics_failed, Toast.LENGTH_LONG).show();
+            return;
+        }
+        Intent intent = new Intent(Intent.ACTION_SEND);
+        intent.setType("text/plain");
+        intent.putExtra(Intent.EXTRA_SUBJECT, getString(R.string.debug_network_statistics_subject, BuildConfig.VERSION_NAME));
+        intent.putExtra(Intent.EXTRA_TEXT, json.toString());
+        startActivity(Intent.createChooser(intent, getString(R.string.debug_network_statistics_export)));
+    }
+
+    @SuppressWarnings("unused")
+    @OnClick(R.id.debug_reset_network_statistics)
+    void onResetNetworkStatisticsClick() {
+        networkStatistics.reset();
+        Toast.makeText(getActivity(), R.string.debug_network_statistics_cleared, Toast.LENGTH_SHORT).show();
+    }
+
     void runWebViewActivity(WebPageTypes type) {
         Intent i = new Intent(getActivity(), WebViewActivity.class);
         i.putExtra(WebViewActivity.EXTRA_TYPE, type);
@@ -17,14 +17,13 @@
 package pl.kodujdlapolski.na4lapy.utils;
 
 import pl.kodujdlapolski.na4lapy.R;
-import pl.kodujdlapolski.na4lapy.model.Animal;
 
 @Deprecated
 public class AnimalUtils {
 
     //TODO https://trello.com/c/MAZ8umPt
     @Deprecated
-    public static int getAddToFavFabImage(Animal animal) {
-        return Boolean.TRUE.equals(animal.getFavourite()) ? R.drawable.ic_favorite_white_24dp : R.drawable.ic_favorite_border_white_24dp;
+    public static int getAddToFavFabImage(boolean favourite) {
+        return favourite ? R.drawable.ic_favorite_white_24dp : R.drawable.ic_favorite_border_white_24dp;
     }
 }
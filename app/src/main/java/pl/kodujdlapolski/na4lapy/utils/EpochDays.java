@@ -0,0 +1,64 @@
+/*
+ *	Copyright 2017 Stowarzyszenie Na4Łapy
+ *
+ *	Licensed under the Apache License, Version 2.0 (the "License");
+ *	you may not use this file except in compliance with the License.
+ *	You may obtain a copy of the License at
+ *
+ *	http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *	Unless required by applicable law or agreed to in writing, software
+ *	distributed under the License is distributed on an "AS IS" BASIS,
+ *	WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *	See the License for the specific language governing permissions and
+ *	limitations under the License.
+ */
+package pl.kodujdlapolski.na4lapy.utils;
+
+import org.joda.time.LocalDate;
+
+/**
+ * Dates as days since 1970-01-01 in the proleptic Gregorian calendar, the form they are stored and
+ * compared in. Plain arithmetic, without the chronology lookups of Joda's own conversions.
+ */
+public final class EpochDays {
+
+    // days from 0000-03-01 to 1970-01-01
+    private static final int EPOCH_OFFSET = 719468;
+    private static final int DAYS_PER_ERA = 146097;
+
+    private EpochDays() {
+    }
+
+    public static int of(LocalDate date) {
+        return of(date.getYear(), date.getMonthOfYear(), date.getDayOfMonth());
+    }
+
+    public static int of(int year, int month, int day) {
+        // count years from March, so the leap day is the last day of the year
+        int y = month <= 2 ? year - 1 : year;
+        int era = floorDiv(y, 400);
+        int yearOfEra = y - era * 400;
+        int dayOfYear = (153 * (month > 2 ? month - 3 : month + 9) + 2) / 5 + day - 1;
+        int dayOfEra = yearOfEra * 365 + yearOfEra / 4 - yearOfEra / 100 + dayOfYear;
+        return era * DAYS_PER_ERA + dayOfEra - EPOCH_OFFSET;
+    }
+
+    public static LocalDate toLocalDate(int epochDay) {
+        int days = epochDay + EPOCH_OFFSET;
+        int era = floorDiv(days, DAYS_PER_ERA);
+        int dayOfEra = days - era * DAYS_PER_ERA;
+        int yearOfEra = (dayOfEra - dayOfEra / 1460 + dayOfEra / 36524 - dayOfEra / 146096) / 365;
+        int dayOfYear = dayOfEra - (365 * yearOfEra + yearOfEra / 4 - yearOfEra / 100);
+        int monthFromMarch = (5 * dayOfYear + 2) / 153;
+        int day = dayOfYear - (153 * monthFromMarch + 2) / 5 + 1;
+        int month = monthFromMarch < 10 ? monthFromMarch + 3 : monthFromMarch - 9;
+        int year = yearOfEra + era * 400 + (month <= 2 ? 1 : 0);
+        return new LocalDate(year, month, day);
+    }
+
+    // Math.floorDiv needs API 24
+    private static int floorDiv(int dividend, int divisor) {
+        return (dividend >= 0 ? dividend : dividend - divisor + 1) / divisor;
+    }
+}
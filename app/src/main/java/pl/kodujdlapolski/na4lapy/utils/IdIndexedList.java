@@ -0,0 +1,140 @@
+/*
+ *	Copyright 2017 Stowarzyszenie Na4Łapy
+ *
+ *	Licensed under the Apache License, Version 2.0 (the "License");
+ *	you may not use this file except in compliance with the License.
+ *	You may obtain a copy of the License at
+ *
+ *	http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *	Unless required by applicable law or agreed to in writing, software
+ *	distributed under the License is distributed on an "AS IS" BASIS,
+ *	WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *	See the License for the specific language governing permissions and
+ *	limitations under the License.
+ */
+package pl.kodujdlapolski.na4lapy.utils;
+
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.RandomAccess;
+
+import rx.functions.Func1;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * Array list that also keeps an id to position index of its items, so finding an item by id does
+ * not scan the list. Ids must be unique within the list. Not thread safe.
+ * <p>
+ * Inserts, removes and moves only lower a watermark below which the index is known to be right;
+ * the positions above it are recalculated on the next lookup that needs them, once for any number
+ * of changes in between.
+ */
+public class IdIndexedList<T> extends AbstractList<T> implements RandomAccess {
+
+    private final List<T> mItems = new ArrayList<>();
+    private final Func1<? super T, Long> mIdOf;
+    private final LongIntHashMap mPositions = new LongIntHashMap();
+    // positions below this are indexed correctly
+    private int mIndexedUpTo;
+
+    public IdIndexedList(Func1<? super T, Long> idOf) {
+        mIdOf = checkNotNull(idOf, "idOf cannot be null");
+    }
+
+    /**
+     * @return the position of the item with the id, or -1 if there is none
+     */
+    public int indexOfId(long id) {
+        int position = mPositions.get(id);
+        if (position != LongIntHashMap.NO_VALUE && position < mIndexedUpTo) {
+            return position;
+        }
+        if (mIndexedUpTo < mItems.size()) {
+            reindex();
+            return mPositions.get(id);
+        }
+        return -1;
+    }
+
+    public T getById(long id) {
+        int position = indexOfId(id);
+        return position != -1 ? mItems.get(position) : null;
+    }
+
+    public void move(int fromPosition, int toPosition) {
+        mItems.add(toPosition, mItems.remove(fromPosition));
+        mIndexedUpTo = Math.min(mIndexedUpTo, Math.min(fromPosition, toPosition));
+    }
+
+    @Override
+    public T get(int index) {
+        return mItems.get(index);
+    }
+
+    @Override
+    public int size() {
+        return mItems.size();
+    }
+
+    @Override
+    public T set(int index, T element) {
+        T previous = mItems.set(index, element);
+        long previousId = mIdOf.call(previous);
+        long id = mIdOf.call(element);
+        if (previousId != id) {
+            mPositions.remove(previousId);
+        }
+        if (index < mIndexedUpTo) {
+            mPositions.put(id, index);
+        }
+        return previous;
+    }
+
+    @Override
+    public void add(int index, T element) {
+        mItems.add(index, element);
+        if (index == mIndexedUpTo && index == mItems.size() - 1) {
+            mPositions.put(mIdOf.call(element), index);
+            mIndexedUpTo++;
+        } else {
+            mIndexedUpTo = Math.min(mIndexedUpTo, index);
+        }
+        modCount++;
+    }
+
+    @Override
+    public boolean addAll(Collection<? extends T> collection) {
+        for (T element : collection) {
+            add(mItems.size(), element);
+        }
+        return !collection.isEmpty();
+    }
+
+    @Override
+    public T remove(int index) {
+        T removed = mItems.remove(index);
+        mPositions.remove(mIdOf.call(removed));
+        mIndexedUpTo = Math.min(mIndexedUpTo, index);
+        modCount++;
+        return removed;
+    }
+
+    @Override
+    public void clear() {
+        mItems.clear();
+        mPositions.clear();
+        mIndexedUpTo = 0;
+        modCount++;
+    }
+
+    private void reindex() {
+        for (int i = mIndexedUpTo; i < mItems.size(); i++) {
+            mPositions.put(mIdOf.call(mItems.get(i)), i);
+        }
+        mIndexedUpTo = mItems.size();
+    }
+}
@@ -0,0 +1,338 @@
+/*
+ *	Copyright 2017 Stowarzyszenie Na4Łapy
+ *
+ *	Licensed under the Apache License, Version 2.0 (the "License");
+ *	you may not use this file except in compliance with the License.
+ *	You may obtain a copy of the License at
+ *
+ *	http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *	Unless required by applicable law or agreed to in writing, software
+ *	distributed under the License is distributed on an "AS IS" BASIS,
+ *	WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *	See the License for the specific language governing permissions and
+ *	limitations under the License.
+ */
+package pl.kodujdlapolski.na4lapy.utils;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import rx.functions.Func1;
+
+/**
+ * Keyed diff of two lists, reported as the insertions, removals, moves and changes that turn the
+ * old list into the new one, in the order an adapter has to apply them. Keys must be unique within
+ * a list; items with equal keys are compared with equals to detect changes.
+ * <p>
+ * Moves are kept to a minimum by leaving the longest run of items that are already in order in place,
+ * and past {@link #MAX_MOVES} the result is a reload instead.
+ * Not a general edit script like DiffUtil, which needs a newer support library than the one we use.
+ */
+public class ListDiff {
+
+    static final int MAX_MOVES = 32;
+
+    public interface Callback {
+        void onInserted(int position, int count);
+
+        void onRemoved(int position, int count);
+
+        void onMoved(int fromPosition, int toPosition);
+
+        void onChanged(int position, int count);
+
+        /**
+         * Called instead of all the other methods when the lists differ too much to be worth animating.
+         */
+        void onReloaded();
+    }
+
+    public static <T> Result calculate(List<T> oldList, List<T> newList, Func1<T, ?> keyOf) {
+        return calculate(oldList, newList, keyOf, MAX_MOVES);
+    }
+
+    /**
+     * @param maxMoves above this many moves the result asks for a reload, animating that many moves
+     *                 costs more than rebinding the visible items
+     */
+    public static <T> Result calculate(List<T> oldList, List<T> newList, Func1<T, ?> keyOf, int maxMoves) {
+        Result result = new Result();
+        Map<Object, Integer> newPositions = new HashMap<>(newList.size() * 2);
+        for (int i = 0; i < newList.size(); i++) {
+            newPositions.put(keyOf.call(newList.get(i)), i);
+        }
+
+        // removals go from the end, so the positions of the items before stay valid
+        Map<Object, T> oldItems = new HashMap<>(oldList.size() * 2);
+        for (int i = oldList.size() - 1; i >= 0; i--) {
+            Object key = keyOf.call(oldList.get(i));
+            if (newPositions.containsKey(key)) {
+                oldItems.put(key, oldList.get(i));
+            } else {
+                result.add(Operation.REMOVE, i, 0);
+            }
+        }
+
+        // the items left after the removals, in old order
+        Map<Object, Integer> survivors = new HashMap<>(oldItems.size() * 2);
+        int[] targets = new int[oldItems.size()];
+        for (T item : oldList) {
+            Object key = keyOf.call(item);
+            Integer target = newPositions.get(key);
+            if (target != null) {
+                targets[survivors.size()] = target;
+                survivors.put(key, survivors.size());
+            }
+        }
+        boolean[] staying = new boolean[targets.length];
+        for (int index : longestIncreasingRun(targets)) {
+            staying[index] = true;
+        }
+
+        // every other item is moved or inserted right after its predecessor in the new list, walking
+        // the new list in order so the predecessor is already in place. Such items end up in a chain
+        // after the closest staying item before them, so each survivor and each chain gets a fixed
+        // slot up front, and the position of an item is the number of occupied slots before it.
+        int[] chainLengths = new int[targets.length + 1];
+        int chain = 0;
+        for (int i = 0; i < newList.size(); i++) {
+            Integer survivor = survivors.get(keyOf.call(newList.get(i)));
+            if (survivor != null && staying[survivor]) {
+                chain = survivor + 1;
+            } else {
+                chainLengths[chain]++;
+            }
+        }
+        int[] survivorSlots = new int[targets.length];
+        int[] chainSlots = new int[targets.length + 1];
+        int slots = chainLengths[0];
+        for (int i = 0; i < targets.length; i++) {
+            survivorSlots[i] = slots++;
+            chainSlots[i + 1] = slots;
+            slots += chainLengths[i + 1];
+        }
+        Positions current = new Positions(slots);
+        for (int slot : survivorSlots) {
+            current.add(slot, 1);
+        }
+
+        int[] newSlots = new int[newList.size()];
+        int nextSlot = chainSlots[0];
+        int moves = 0;
+        for (int i = 0; i < newList.size(); i++) {
+            Integer survivor = survivors.get(keyOf.call(newList.get(i)));
+            if (survivor != null && staying[survivor]) {
+                newSlots[i] = survivorSlots[survivor];
+                nextSlot = chainSlots[survivor + 1];
+                continue;
+            }
+            newSlots[i] = nextSlot++;
+            int from = -1;
+            if (survivor != null) {
+                from = current.countUpTo(survivorSlots[survivor]) - 1;
+                current.add(survivorSlots[survivor], -1);
+            }
+            int to = i == 0 ? 0 : current.countUpTo(newSlots[i - 1]);
+            current.add(newSlots[i], 1);
+            if (survivor == null) {
+                result.add(Operation.INSERT, to, 0);
+            } else if (from != to) {
+                if (++moves > maxMoves) {
+                    return Result.reload();
+                }
+                result.add(Operation.MOVE, from, to);
+            }
+        }
+
+        for (int i = 0; i < newList.size(); i++) {
+            T newItem = newList.get(i);
+            T oldItem = oldItems.get(keyOf.call(newItem));
+            if (oldItem != null && !oldItem.equals(newItem)) {
+                result.add(Operation.CHANGE, i, 0);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * @return indexes of one longest strictly increasing subsequence of values, in ascending order
+     */
+    static int[] longestIncreasingRun(int[] values) {
+        int[] tails = new int[values.length];
+        int[] previous = new int[values.length];
+        int length = 0;
+        for (int i = 0; i < values.length; i++) {
+            int low = 0;
+            int high = length;
+            while (low < high) {
+                int middle = (low + high) >>> 1;
+                if (values[tails[middle]] < values[i]) {
+                    low = middle + 1;
+                } else {
+                    high = middle;
+                }
+            }
+            previous[i] = low > 0 ? tails[low - 1] : -1;
+            tails[low] = i;
+            if (low == length) {
+                length++;
+            }
+        }
+        int[] result = new int[length];
+        for (int i = length - 1, index = length > 0 ? tails[length - 1] : -1; i >= 0; i--, index = previous[index]) {
+            result[i] = index;
+        }
+        return result;
+    }
+
+    public static class Result {
+
+        private final List<Operation> mOperations = new ArrayList<>();
+        private boolean mReload;
+        private int mInserted;
+        private int mRemoved;
+        private int mMoved;
+        private int mChanged;
+
+        static Result reload() {
+            Result result = new Result();
+            result.mReload = true;
+            return result;
+        }
+
+        public void dispatchTo(Callback callback) {
+            if (mReload) {
+                callback.onReloaded();
+                return;
+            }
+            for (Operation operation : mOperations) {
+                switch (operation.type) {
+                    case Operation.INSERT:
+                        callback.onInserted(operation.position, operation.count);
+                        break;
+                    case Operation.REMOVE:
+                        callback.onRemoved(operation.position, operation.count);
+                        break;
+                    case Operation.MOVE:
+                        callback.onMoved(operation.position, operation.count);
+                        break;
+                    case Operation.CHANGE:
+                        callback.onChanged(operation.position, operation.count);
+                        break;
+                }
+            }
+        }
+
+        public int getInserted() {
+            return mInserted;
+        }
+
+        public int getRemoved() {
+            return mRemoved;
+        }
+
+        public int getMoved() {
+            return mMoved;
+        }
+
+        public int getChanged() {
+            return mChanged;
+        }
+
+        public boolean isReload() {
+            return mReload;
+        }
+
+        public boolean isEmpty() {
+            return !mReload && mOperations.isEmpty();
+        }
+
+        @Override
+        public String toString() {
+            if (mReload) {
+                return "reload";
+            }
+            return "inserted " + mInserted + ", removed " + mRemoved + ", moved " + mMoved + ", changed " + mChanged;
+        }
+
+        private void add(int type, int position, int toPosition) {
+            switch (type) {
+                case Operation.INSERT:
+                    mInserted++;
+                    break;
+                case Operation.REMOVE:
+                    mRemoved++;
+                    break;
+                case Operation.MOVE:
+                    mMoved++;
+                    mOperations.add(new Operation(type, position, toPosition));
+                    return;
+                case Operation.CHANGE:
+                    mChanged++;
+                    break;
+            }
+            Operation last = mOperations.isEmpty() ? null : mOperations.get(mOperations.size() - 1);
+            if (last != null && last.type == type) {
+                // removals arrive from the end, insertions and changes from the start
+                if (type == Operation.REMOVE && position == last.position - 1) {
+                    last.position = position;
+                    last.count++;
+                    return;
+                } else if (type != Operation.REMOVE && position == last.position + last.count) {
+                    last.count++;
+                    return;
+                }
+            }
+            mOperations.add(new Operation(type, position, 1));
+        }
+    }
+
+    /**
+     * Fenwick tree over the slots, counting the occupied ones in logarithmic time.
+     */
+    private static class Positions {
+        private final int[] mTree;
+
+        Positions(int size) {
+            mTree = new int[size + 1];
+        }
+
+        void add(int slot, int delta) {
+            for (int i = slot + 1; i < mTree.length; i += i & -i) {
+                mTree[i] += delta;
+            }
+        }
+
+        /**
+         * @return the number of occupied slots up to and including the given one
+         */
+        int countUpTo(int slot) {
+            int count = 0;
+            for (int i = slot + 1; i > 0; i -= i & -i) {
+                count += mTree[i];
+            }
+            return count;
+        }
+    }
+
+    private static class Operation {
+        static final int INSERT = 0;
+        static final int REMOVE = 1;
+        static final int MOVE = 2;
+        static final int CHANGE = 3;
+
+        final int type;
+        int position;
+        // the item count, or the target position of a move
+        int count;
+
+        Operation(int type, int position, int count) {
+            this.type = type;
+            this.position = position;
+            this.count = count;
+        }
+    }
+}
@@ -0,0 +1,172 @@
+/*
+ *	Copyright 2017 Stowarzyszenie Na4Łapy
+ *
+ *	Licensed under the Apache License, Version 2.0 (the "License");
+ *	you may not use this file except in compliance with the License.
+ *	You may obtain a copy of the License at
+ *
+ *	http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *	Unless required by applicable law or agreed to in writing, software
+ *	distributed under the License is distributed on an "AS IS" BASIS,
+ *	WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *	See the License for the specific language governing permissions and
+ *	limitations under the License.
+ */
+package pl.kodujdlapolski.na4lapy.utils;
+
+import java.util.Arrays;
+
+/**
+ * Open addressing set of primitive longs, so lookups neither box nor allocate.
+ * Not thread safe.
+ */
+public class LongHashSet {
+
+    private static final int DEFAULT_CAPACITY = 16;
+    private static final float LOAD_FACTOR = 0.5f;
+    private static final long EMPTY = 0;
+
+    private long[] mKeys;
+    private int mSize;
+    // EMPTY marks a free slot, so the key 0 is tracked separately
+    private boolean mContainsEmptyKey;
+
+    public LongHashSet() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    public LongHashSet(int expectedSize) {
+        int capacity = DEFAULT_CAPACITY;
+        while (capacity * LOAD_FACTOR < expectedSize) {
+            capacity <<= 1;
+        }
+        mKeys = new long[capacity];
+    }
+
+    public boolean contains(long key) {
+        if (key == EMPTY) {
+            return mContainsEmptyKey;
+        }
+        int mask = mKeys.length - 1;
+        for (int index = hash(key) & mask; mKeys[index] != EMPTY; index = (index + 1) & mask) {
+            if (mKeys[index] == key) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @return true if the key was not in the set yet
+     */
+    public boolean add(long key) {
+        if (key == EMPTY) {
+            if (mContainsEmptyKey) {
+                return false;
+            }
+            mContainsEmptyKey = true;
+            mSize++;
+            return true;
+        }
+        int mask = mKeys.length - 1;
+        int index = hash(key) & mask;
+        while (mKeys[index] != EMPTY) {
+            if (mKeys[index] == key) {
+                return false;
+            }
+            index = (index + 1) & mask;
+        }
+        mKeys[index] = key;
+        mSize++;
+        if (mSize > mKeys.length * LOAD_FACTOR) {
+            rehash(mKeys.length << 1);
+        }
+        return true;
+    }
+
+    /**
+     * @return true if the key was in the set
+     */
+    public boolean remove(long key) {
+        if (key == EMPTY) {
+            if (!mContainsEmptyKey) {
+                return false;
+            }
+            mContainsEmptyKey = false;
+            mSize--;
+            return true;
+        }
+        int mask = mKeys.length - 1;
+        int index = hash(key) & mask;
+        while (mKeys[index] != key) {
+            if (mKeys[index] == EMPTY) {
+                return false;
+            }
+            index = (index + 1) & mask;
+        }
+        mKeys[index] = EMPTY;
+        mSize--;
+        // shift back the rest of the probe chain so lookups never stop at the hole
+        int next = (index + 1) & mask;
+        while (mKeys[next] != EMPTY) {
+            long moved = mKeys[next];
+            int home = hash(moved) & mask;
+            if (((next - home) & mask) >= ((next - index) & mask)) {
+                mKeys[index] = moved;
+                mKeys[next] = EMPTY;
+                index = next;
+            }
+            next = (next + 1) & mask;
+        }
+        return true;
+    }
+
+    public int size() {
+        return mSize;
+    }
+
+    public boolean isEmpty() {
+        return mSize == 0;
+    }
+
+    public void clear() {
+        Arrays.fill(mKeys, EMPTY);
+        mContainsEmptyKey = false;
+        mSize = 0;
+    }
+
+    public long[] toArray() {
+        long[] result = new long[mSize];
+        int i = 0;
+        if (mContainsEmptyKey) {
+            result[i++] = EMPTY;
+        }
+        for (long key : mKeys) {
+            if (key != EMPTY) {
+                result[i++] = key;
+            }
+        }
+        return result;
+    }
+
+    private void rehash(int capacity) {
+        long[] oldKeys = mKeys;
+        mKeys = new long[capacity];
+        int mask = capacity - 1;
+        for (long key : oldKeys) {
+            if (key != EMPTY) {
+                int index = hash(key) & mask;
+                while (mKeys[index] != EMPTY) {
+                    index = (index + 1) & mask;
+                }
+                mKeys[index] = key;
+            }
+        }
+    }
+
+    private static int hash(long key) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32));
+    }
+}
@@ -0,0 +1,169 @@
+/*
+ *	Copyright 2017 Stowarzyszenie Na4Łapy
+ *
+ *	Licensed under the Apache License, Version 2.0 (the "License");
+ *	you may not use this file except in compliance with the License.
+ *	You may obtain a copy of the License at
+ *
+ *	http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *	Unless required by applicable law or agreed to in writing, software
+ *	distributed under the License is distributed on an "AS IS" BASIS,
+ *	WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *	See the License for the specific language governing permissions and
+ *	limitations under the License.
+ */
+package pl.kodujdlapolski.na4lapy.utils;
+
+import java.util.Arrays;
+
+/**
+ * Open addressing map from primitive longs to ints, the map counterpart of {@link LongHashSet}.
+ * Not thread safe.
+ */
+public class LongIntHashMap {
+
+    public static final int NO_VALUE = -1;
+
+    private static final int DEFAULT_CAPACITY = 16;
+    private static final float LOAD_FACTOR = 0.5f;
+    private static final long EMPTY = 0;
+
+    private long[] mKeys;
+    private int[] mValues;
+    private int mSize;
+    // EMPTY marks a free slot, so the key 0 is tracked separately
+    private boolean mContainsEmptyKey;
+    private int mEmptyKeyValue;
+
+    public LongIntHashMap() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    public LongIntHashMap(int expectedSize) {
+        int capacity = DEFAULT_CAPACITY;
+        while (capacity * LOAD_FACTOR < expectedSize) {
+            capacity <<= 1;
+        }
+        mKeys = new long[capacity];
+        mValues = new int[capacity];
+    }
+
+    /**
+     * @return the value of the key or {@link #NO_VALUE}
+     */
+    public int get(long key) {
+        if (key == EMPTY) {
+            return mContainsEmptyKey ? mEmptyKeyValue : NO_VALUE;
+        }
+        int mask = mKeys.length - 1;
+        for (int index = hash(key) & mask; mKeys[index] != EMPTY; index = (index + 1) & mask) {
+            if (mKeys[index] == key) {
+                return mValues[index];
+            }
+        }
+        return NO_VALUE;
+    }
+
+    public void put(long key, int value) {
+        if (key == EMPTY) {
+            if (!mContainsEmptyKey) {
+                mContainsEmptyKey = true;
+                mSize++;
+            }
+            mEmptyKeyValue = value;
+            return;
+        }
+        int mask = mKeys.length - 1;
+        int index = hash(key) & mask;
+        while (mKeys[index] != EMPTY) {
+            if (mKeys[index] == key) {
+                mValues[index] = value;
+                return;
+            }
+            index = (index + 1) & mask;
+        }
+        mKeys[index] = key;
+        mValues[index] = value;
+        mSize++;
+        if (mSize > mKeys.length * LOAD_FACTOR) {
+            rehash(mKeys.length << 1);
+        }
+    }
+
+    /**
+     * @return the value the key had or {@link #NO_VALUE}
+     */
+    public int remove(long key) {
+        if (key == EMPTY) {
+            if (!mContainsEmptyKey) {
+                return NO_VALUE;
+            }
+            mContainsEmptyKey = false;
+            mSize--;
+            return mEmptyKeyValue;
+        }
+        int mask = mKeys.length - 1;
+        int index = hash(key) & mask;
+        while (mKeys[index] != key) {
+            if (mKeys[index] == EMPTY) {
+                return NO_VALUE;
+            }
+            index = (index + 1) & mask;
+        }
+        int value = mValues[index];
+        mKeys[index] = EMPTY;
+        mSize--;
+        // shift back the rest of the probe chain so lookups never stop at the hole
+        int next = (index + 1) & mask;
+        while (mKeys[next] != EMPTY) {
+            long moved = mKeys[next];
+            int home = hash(moved) & mask;
+            if (((next - home) & mask) >= ((next - index) & mask)) {
+                mKeys[index] = moved;
+                mValues[index] = mValues[next];
+                mKeys[next] = EMPTY;
+                index = next;
+            }
+            next = (next + 1) & mask;
+        }
+        return value;
+    }
+
+    public int size() {
+        return mSize;
+    }
+
+    public boolean isEmpty() {
+        return mSize == 0;
+    }
+
+    public void clear() {
+        Arrays.fill(mKeys, EMPTY);
+        mContainsEmptyKey = false;
+        mSize = 0;
+    }
+
+    private void rehash(int capacity) {
+        long[] oldKeys = mKeys;
+        int[] oldValues = mValues;
+        mKeys = new long[capacity];
+        mValues = new int[capacity];
+        int mask = capacity - 1;
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] != EMPTY) {
+                int index = hash(oldKeys[i]) & mask;
+                while (mKeys[index] != EMPTY) {
+                    index = (index + 1) & mask;
+                }
+                mKeys[index] = oldKeys[i];
+                mValues[index] = oldValues[i];
+            }
+        }
+    }
+
+    private static int hash(long key) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32));
+    }
+}
@@ -0,0 +1,85 @@
+/*
+ *	Copyright 2017 Stowarzyszenie Na4Łapy
+ *
+ *	Licensed under the Apache License, Version 2.0 (the "License");
+ *	you may not use this file except in compliance with the License.
+ *	You may obtain a copy of the License at
+ *
+ *	http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *	Unless required by applicable law or agreed to in writing, software
+ *	distributed under the License is distributed on an "AS IS" BASIS,
+ *	WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *	See the License for the specific language governing permissions and
+ *	limitations under the License.
+ */
+package pl.kodujdlapolski.na4lapy.utils;
+
+import java.util.ArrayDeque;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Runs at most a fixed number of requests at a time and queues the rest in submission order.
+ * Requests are keyed by the slot they load into, e.g. a view holder, so submitting again for a
+ * slot replaces its queued or running request. Not thread safe; meant for the main thread.
+ */
+public class RequestLimiter<K> {
+
+    public interface Requester<K> {
+        /**
+         * Starts the request for the slot; onFinished must be run once it succeeds or fails.
+         */
+        void start(K slot, Runnable onFinished);
+
+        void cancel(K slot);
+    }
+
+    private final int mMaxInFlight;
+    private final Requester<K> mRequester;
+    private final ArrayDeque<K> mQueue = new ArrayDeque<>();
+    // slot -> token of its running request, so late callbacks of replaced requests are ignored
+    private final Map<K, Object> mInFlight = new HashMap<>();
+
+    public RequestLimiter(int maxInFlight, Requester<K> requester) {
+        mMaxInFlight = maxInFlight;
+        mRequester = requester;
+    }
+
+    public void submit(K slot) {
+        cancel(slot);
+        mQueue.add(slot);
+        startQueued();
+    }
+
+    public void cancel(K slot) {
+        if (mInFlight.remove(slot) != null) {
+            mRequester.cancel(slot);
+            startQueued();
+        } else {
+            mQueue.remove(slot);
+        }
+    }
+
+    public int getInFlight() {
+        return mInFlight.size();
+    }
+
+    public int getQueued() {
+        return mQueue.size();
+    }
+
+    private void startQueued() {
+        while (mInFlight.size() < mMaxInFlight && !mQueue.isEmpty()) {
+            K slot = mQueue.poll();
+            Object token = new Object();
+            mInFlight.put(slot, token);
+            mRequester.start(slot, () -> {
+                if (mInFlight.get(slot) == token) {
+                    mInFlight.remove(slot);
+                    startQueued();
+                }
+            });
+        }
+    }
+}
@@ -0,0 +1,60 @@
+/*
+ *	Copyright 2017 Stowarzyszenie Na4Łapy
+ *
+ *	Licensed under the Apache License, Version 2.0 (the "License");
+ *	you may not use this file except in compliance with the License.
+ *	You may obtain a copy of the License at
+ *
+ *	http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *	Unless required by applicable law or agreed to in writing, software
+ *	distributed under the License is distributed on an "AS IS" BASIS,
+ *	WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *	See the License for the specific language governing permissions and
+ *	limitations under the License.
+ */
+package pl.kodujdlapolski.na4lapy.utils;
+
+import android.support.annotation.Nullable;
+
+import org.joda.time.LocalDate;
+
+import pl.kodujdlapolski.na4lapy.model.type.ActivityAnimal;
+import pl.kodujdlapolski.na4lapy.model.type.Gender;
+import pl.kodujdlapolski.na4lapy.model.type.Size;
+import pl.kodujdlapolski.na4lapy.model.type.Species;
+
+/**
+ * The attributes preferences are scored on, packed into one word: one bit per enum value, null sets
+ * none, and the birth date as an epoch day in the high half.
+ */
+public final class ScoringKey {
+
+    public static final int SPECIES_SHIFT = 0;
+    public static final int GENDER_SHIFT = 3;
+    public static final int SIZE_SHIFT = 6;
+    public static final int ACTIVITY_SHIFT = 10;
+    public static final int HAS_BIRTH_DATE = 1 << 13;
+    // keeps a packed key from ever being 0, which callers can use for "not packed yet"
+    private static final int PACKED = 1 << 14;
+
+    private ScoringKey() {
+    }
+
+    public static long pack(@Nullable Species species, @Nullable Gender gender, @Nullable Size size,
+                            @Nullable ActivityAnimal activity, @Nullable LocalDate birthDate) {
+        int attributes = PACKED
+                | bit(species, SPECIES_SHIFT)
+                | bit(gender, GENDER_SHIFT)
+                | bit(size, SIZE_SHIFT)
+                | bit(activity, ACTIVITY_SHIFT);
+        if (birthDate == null) {
+            return attributes;
+        }
+        return (long) EpochDays.of(birthDate) << 32 | (attributes | HAS_BIRTH_DATE);
+    }
+
+    public static int bit(@Nullable Enum<?> value, int shift) {
+        return value != null ? 1 << (shift + value.ordinal()) : 0;
+    }
+}
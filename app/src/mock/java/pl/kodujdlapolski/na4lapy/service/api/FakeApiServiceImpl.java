@@ -1,21 +1,14 @@
 package pl.kodujdlapolski.na4lapy.service.api;
 
-import android.util.Log;
-
-import com.j256.ormlite.android.AndroidConnectionSource;
-import com.j256.ormlite.dao.Dao;
-import com.j256.ormlite.dao.DaoManager;
-import com.j256.ormlite.support.ConnectionSource;
-
 import org.joda.time.LocalDate;
 
-import java.sql.SQLException;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Random;
 
 import javax.inject.Inject;
 
+import pl.kodujdlapolski.na4lapy.service.api.model.ConditionalResponse;
 import pl.kodujdlapolski.na4lapy.service.api.model.PagedAnimalListDto;
 import pl.kodujdlapolski.na4lapy.model.Animal;
 import pl.kodujdlapolski.na4lapy.model.Photo;
@@ -27,12 +20,12 @@ import pl.kodujdlapolski.na4lapy.model.type.Species;
 import pl.kodujdlapolski.na4lapy.model.type.Sterilization;
 import pl.kodujdlapolski.na4lapy.model.type.Training;
 import pl.kodujdlapolski.na4lapy.model.type.Vaccination;
-import pl.kodujdlapolski.na4lapy.service.repository.database.DatabaseHelper;
+import pl.kodujdlapolski.na4lapy.service.network.HttpCacheStatistics;
 import rx.Observable;
 
 public class FakeApiServiceImpl implements ApiService {
 
-    private DatabaseHelper mDatabaseHelper;
+    private static final int CATALOGUE_SIZE = 30;
 
     private Random random;
     private Shelter shelter;
@@ -55,8 +48,7 @@ public class FakeApiServiceImpl implements ApiService {
     private String photoGalleryAuthor = "Łapą w Obiektyw";
 
     @Inject
-    public FakeApiServiceImpl(DatabaseHelper databaseHelper) {
-        mDatabaseHelper = databaseHelper;
+    public FakeApiServiceImpl() {
         random = new Random(System.currentTimeMillis());
 
         shelter = new Shelter();
@@ -86,25 +78,31 @@ public class FakeApiServiceImpl implements ApiService {
         return Observable.just(shelter);
     }
 
+    @Override
+    public Observable<ConditionalResponse<Shelter>> getShelter(String etag, String lastModified) {
+        return Observable.just(ConditionalResponse.modified(shelter, null, null, 0));
+    }
+
     @Override
     public Observable<List<Animal>> getAnimalList() {
         List<Animal> animals = new ArrayList<>();
-        for (int i = 0; i < 30; i++) {
+        for (int i = 0; i < CATALOGUE_SIZE; i++) {
             animals.add(generateAnimal((long) i));
         }
         return Observable.just(animals);
     }
 
     @Override
-    public Observable<PagedAnimalListDto> getAnimalList(int page, int size) {
+    public Observable<ConditionalResponse<PagedAnimalListDto>> getAnimalList(int page, int size, String etag, String lastModified) {
         List<Animal> animals = new ArrayList<>();
-        for (int i = 0; i < size; i++) {
+        int first = (page - 1) * size;
+        for (int i = first; i < Math.min(first + size, CATALOGUE_SIZE); i++) {
             animals.add(generateAnimal((long) i));
         }
         PagedAnimalListDto dto = new PagedAnimalListDto();
         dto.setData(animals);
-        dto.setTotal(animals.size());
-        return Observable.just(dto);
+        dto.setTotal(CATALOGUE_SIZE);
+        return Observable.just(ConditionalResponse.modified(dto, null, null, 0));
     }
 
     @Override
@@ -112,6 +110,11 @@ public class FakeApiServiceImpl implements ApiService {
         return Observable.just(generateAnimal(id));
     }
 
+    @Override
+    public HttpCacheStatistics.Snapshot getCacheStatistics() {
+        return new HttpCacheStatistics().snapshot();
+    }
+
     private Animal generateAnimal(Long id) {
         Animal animal = new Animal();
         animal.setId(id);
@@ -128,30 +131,22 @@ public class FakeApiServiceImpl implements ApiService {
         animal.setSterilization(Sterilization.values()[random.nextInt(Sterilization.values().length)]);
         animal.setChipId("CHIP_ID_" + id);
         animal.setVaccination(Vaccination.values()[random.nextInt(Vaccination.values().length)]);
-        animal.setFavourite(random.nextBoolean());
         animal.setDescription("„Witam,\n" +
                 "W schronisku jestem od 2011 roku. Trafiłem tutaj jako ok. półroczne, całkowicie dzikie szczenię złapane na ul.Orłowskiej. Pierwszą pracę ze mną podjęła  Julita i powoli robiłem postępy. Niedawno dołączyła do tej współpracy Monika i moja socjalizacja poczyniła spore postępy. Już chodzę w szelkach i wychodzę na smyczy na krótkie spacery. Tan ostatni na sesję zdjęciową był już naprawdę nie lada wyczynem. Nie sądzę, żebym tak od razu znalazł dom, ale chciałem pokazać, że taka praca u podstaw realizowana min. przez wolontariuszy potrafi przynieść niesamowite efekty, chociaż czasem jak w moim przypadku jest to rozciągnięte w czasie. 30 marca, chyba po raz pierwszy miałem okazję  przebywać w pomieszczeniach zamkniętych (sala dydaktyczna). Owszem związany był z tym spory stres, ale jeszcze pól roku temu byłoby to zupełnie nierealne. Przede mną jeszcze długa droga, ale postaram się Was informować na bieżącą o czynionych postępach i być może przyjdzie dzień, w którym pojadę do nowego domu.” Pozdrawiam, Kokos.");
-        try {
-            generateAnimalPhotoGallery(animal);
-        } catch (SQLException e) {
-            Log.w("n4l", e);
-        }
+        generateAnimalPhotoGallery(animal);
         return animal;
     }
 
-    private void generateAnimalPhotoGallery(Animal animal) throws SQLException {
-        ConnectionSource connectionSource = new AndroidConnectionSource(mDatabaseHelper);
-        Dao<Animal, Long> dao = DaoManager.createDao(connectionSource, Animal.class);
-        dao.assignEmptyForeignCollection(animal, "photos");
-
+    private void generateAnimalPhotoGallery(Animal animal) {
         String[] gallery = random.nextBoolean() ? photoGallery1 : photoGallery2;
-        if (animal.getPhotos() != null) {
-            for (String aPicturesSample1 : gallery) {
-                Photo photo = new Photo();
-                photo.setUrl(aPicturesSample1);
-                photo.setAuthor(photoGalleryAuthor);
-                animal.getPhotos().add(photo);
-            }
+        List<Photo> photos = new ArrayList<>();
+        for (String aPicturesSample1 : gallery) {
+            Photo photo = new Photo();
+            photo.setUrl(aPicturesSample1);
+            photo.setAuthor(photoGalleryAuthor);
+            photo.setAnimal(animal);
+            photos.add(photo);
         }
+        animal.setPhotoList(photos);
     }
 }
@@ -8,6 +8,7 @@ import java.util.Random;
 
 import pl.kodujdlapolski.na4lapy.model.Animal;
 import pl.kodujdlapolski.na4lapy.model.UserPreferences;
+import rx.Observable;
 
 public class FakeUserService implements UserService {
 
@@ -34,26 +35,46 @@ public class FakeUserService implements UserService {
         return random.nextInt(6);
     }
 
+    @Override
+    public String getPreferencesComplianceLevelSql() {
+        return "RANDOM()";
+    }
+
     @Override
     public boolean isComplianceLevelAvailable() {
         return true;
     }
 
     @Override
-    public void addToFavourite(Animal animal) {
+    public Observable<UserPreferences> getUserPreferencesPublisher() {
+        return Observable.empty();
+    }
+
+    @Override
+    public void addToFavourite(Long animalId) {
 
     }
 
     @Override
-    public void removeFromFavourite(Animal animal) {
+    public void removeFromFavourite(Long animalId) {
 
     }
 
     @Override
-    public boolean isFavourite(Animal animal) {
+    public boolean isFavourite(Long animalId) {
         return false;
     }
 
+    @Override
+    public Observable<Void> flushFavourites() {
+        return Observable.just(null);
+    }
+
+    @Override
+    public Observable<Void> whenFavouritesLoaded() {
+        return Observable.just(null);
+    }
+
     @Override
     public List<Animal> sortByUserPreferences(List<Animal> animals) {
         return new ArrayList<>();
@@ -23,7 +23,12 @@ import javax.inject.Singleton;
 import dagger.Module;
 import dagger.Provides;
 import okhttp3.HttpUrl;
+import okhttp3.OkHttpClient;
 import pl.kodujdlapolski.na4lapy.BuildConfig;
+import pl.kodujdlapolski.na4lapy.service.network.CacheInterceptor;
+import pl.kodujdlapolski.na4lapy.service.network.NetworkStatistics;
+import pl.kodujdlapolski.na4lapy.service.network.NetworkTimingInterceptor;
+import pl.kodujdlapolski.na4lapy.service.system.SystemService;
 import retrofit2.Retrofit;
 import retrofit2.adapter.rxjava.RxJavaCallAdapterFactory;
 import retrofit2.converter.gson.GsonConverterFactory;
@@ -33,8 +38,8 @@ public class ApiModule {
 
     @Singleton
     @Provides
-    public ApiService provideApiService(Api api) {
-        return new ApiServiceImpl(api);
+    public ApiService provideApiService(Api api, Gson gson, NetworkStatistics networkStatistics) {
+        return new ApiServiceImpl(api, gson, networkStatistics);
     }
 
     @Singleton
@@ -46,9 +51,13 @@ public class ApiModule {
     @Singleton
     @Provides
     @Named("api")
-    public Retrofit provideRetrofit(HttpUrl baseUrl, Gson gson) {
+    public Retrofit provideRetrofit(HttpUrl baseUrl, Gson gson, OkHttpClient client, SystemService systemService,
+                                    NetworkStatistics networkStatistics, NetworkTimingInterceptor timingInterceptor) {
         return new Retrofit.Builder()
                 .baseUrl(baseUrl)
+                .client(new CacheInterceptor(systemService, networkStatistics)
+                        .install(timingInterceptor.install(client.newBuilder()))
+                        .build())
                 .addConverterFactory(GsonConverterFactory.create(gson))
                 .addCallAdapterFactory(RxJavaCallAdapterFactory.create())
                 .build();
@@ -20,13 +20,23 @@ import javax.inject.Singleton;
 import dagger.Module;
 import dagger.Provides;
 import pl.kodujdlapolski.na4lapy.service.preferences.PreferencesService;
+import pl.kodujdlapolski.na4lapy.service.repository.database.DatabaseRepository;
+import pl.kodujdlapolski.na4lapy.service.scheduler.SchedulerProvider;
 
 @Module
 public class UserModule {
 
     @Singleton
     @Provides
-    public UserService provideUserService(PreferencesService preferencesService) {
-        return new UserServiceImpl(preferencesService);
+    public UserService provideUserService(PreferencesService preferencesService, FavouriteStore favouriteStore) {
+        return new UserServiceImpl(preferencesService, favouriteStore);
+    }
+
+    @Singleton
+    @Provides
+    public FavouriteStore provideFavouriteStore(
+            DatabaseRepository databaseRepository, PreferencesService preferencesService,
+            SchedulerProvider schedulerProvider) {
+        return new FavouriteStore(databaseRepository, preferencesService, schedulerProvider.databaseWrite());
     }
 }
@@ -0,0 +1,101 @@
+/*
+ *	Copyright 2017 Stowarzyszenie Na4Łapy
+ *
+ *	Licensed under the Apache License, Version 2.0 (the "License");
+ *	you may not use this file except in compliance with the License.
+ *	You may obtain a copy of the License at
+ *
+ *	http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *	Unless required by applicable law or agreed to in writing, software
+ *	distributed under the License is distributed on an "AS IS" BASIS,
+ *	WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *	See the License for the specific language governing permissions and
+ *	limitations under the License.
+ */
+package pl.kodujdlapolski.na4lapy.service.api;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+
+import org.joda.time.LocalDate;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.List;
+
+import pl.kodujdlapolski.na4lapy.model.Animal;
+import pl.kodujdlapolski.na4lapy.model.Photo;
+import pl.kodujdlapolski.na4lapy.model.type.Gender;
+import pl.kodujdlapolski.na4lapy.model.type.Species;
+import pl.kodujdlapolski.na4lapy.service.api.model.PagedAnimalListDto;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+public class AnimalTypeAdapterFactoryTest {
+
+    private static final String ANIMAL_JSON = "{\"id\":7,\"name\":\"Kokos\",\"race\":\"mieszaniec\","
+            + "\"birthDate\":\"2011-03-30\",\"admittanceDate\":null,\"species\":\"DOG\",\"gender\":\"MALE\","
+            + "\"favourite\":true,\"unknown\":{\"nested\":[1,2,3]},"
+            + "\"shelter\":{\"id\":1,\"name\":\"Promyk\"},"
+            + "\"photos\":[{\"id\":70,\"url\":\"http://a/1.jpg\",\"author\":\"A\"},{\"id\":71,\"url\":\"http://a/2.jpg\"}]}";
+
+    private Gson gson;
+
+    @Before
+    public void setUp() throws Exception {
+        gson = new GsonBuilder()
+                .registerTypeAdapter(LocalDate.class, new LocalDateTypeAdapter())
+                .registerTypeAdapterFactory(new AnimalTypeAdapterFactory())
+                .create();
+    }
+
+    @Test
+    public void testReadAnimal() throws Exception {
+        // when
+        Animal animal = gson.fromJson(ANIMAL_JSON, Animal.class);
+
+        // then
+        assertEquals(Long.valueOf(7), animal.getId());
+        assertEquals("Kokos", animal.getName());
+        assertEquals(new LocalDate(2011, 3, 30), animal.getBirthDate());
+        assertNull(animal.getAdmittanceDate());
+        assertEquals(Species.DOG, animal.getSpecies());
+        assertEquals(Gender.MALE, animal.getGender());
+        assertEquals("Promyk", animal.getShelter().getName());
+        List<Photo> photos = animal.getPhotoList();
+        assertEquals(2, photos.size());
+        assertEquals("http://a/1.jpg", photos.get(0).getUrl());
+        assertEquals(Long.valueOf(71), photos.get(1).getId());
+        assertSame(animal, photos.get(1).getAnimal());
+    }
+
+    @Test
+    public void testReadPagedAnimalList() throws Exception {
+        // given
+        String json = "{\"current_page\":1,\"total\":12,\"data\":[" + ANIMAL_JSON + "," + ANIMAL_JSON + "]}";
+
+        // when
+        PagedAnimalListDto dto = gson.fromJson(json, PagedAnimalListDto.class);
+
+        // then
+        assertEquals(12, dto.getTotal());
+        assertEquals(2, dto.getData().size());
+        assertEquals(2, dto.getData().get(1).getPhotoList().size());
+    }
+
+    @Test
+    public void testWriteAndReadAnimal() throws Exception {
+        // given
+        Animal animal = gson.fromJson(ANIMAL_JSON, Animal.class);
+
+        // when
+        Animal result = gson.fromJson(gson.toJson(animal), Animal.class);
+
+        // then
+        assertEquals(animal, result);
+        assertEquals(animal.getPhotoList().size(), result.getPhotoList().size());
+    }
+}
@@ -0,0 +1,59 @@
+/*
+ *	Copyright 2017 Stowarzyszenie Na4Łapy
+ *
+ *	Licensed under the Apache License, Version 2.0 (the "License");
+ *	you may not use this file except in compliance with the License.
+ *	You may obtain a copy of the License at
+ *
+ *	http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *	Unless required by applicable law or agreed to in writing, software
+ *	distributed under the License is distributed on an "AS IS" BASIS,
+ *	WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *	See the License for the specific language governing permissions and
+ *	limitations under the License.
+ */
+package pl.kodujdlapolski.na4lapy.service.api;
+
+import com.google.gson.JsonSyntaxException;
+
+import org.joda.time.LocalDate;
+import org.joda.time.format.DateTimeFormat;
+import org.joda.time.format.DateTimeFormatter;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+public class LocalDateTypeAdapterTest {
+
+    private static final DateTimeFormatter JODA_FORMATTER = DateTimeFormat.forPattern("yyyy-MM-dd");
+
+    @Test
+    public void testParseAndFormatShouldMatchJoda() throws Exception {
+        for (LocalDate date = new LocalDate(1990, 1, 1); date.getYear() < 2030; date = date.plusDays(1)) {
+            String text = JODA_FORMATTER.print(date);
+            assertEquals(text, LocalDateTypeAdapter.format(date));
+            assertEquals(date, LocalDateTypeAdapter.parse(text));
+        }
+    }
+
+    @Test
+    public void testParseShouldAcceptUnpaddedFields() throws Exception {
+        assertEquals(new LocalDate(2011, 3, 5), LocalDateTypeAdapter.parse("2011-3-5"));
+    }
+
+    @Test(expected = JsonSyntaxException.class)
+    public void testParseShouldRejectMissingDay() throws Exception {
+        LocalDateTypeAdapter.parse("2011-03");
+    }
+
+    @Test(expected = JsonSyntaxException.class)
+    public void testParseShouldRejectTrailingCharacters() throws Exception {
+        LocalDateTypeAdapter.parse("2011-03-30T10:00");
+    }
+
+    @Test(expected = JsonSyntaxException.class)
+    public void testParseShouldRejectImpossibleDate() throws Exception {
+        LocalDateTypeAdapter.parse("2017-02-29");
+    }
+}
@@ -0,0 +1,73 @@
+/*
+ *	Copyright 2017 Stowarzyszenie Na4Łapy
+ *
+ *	Licensed under the Apache License, Version 2.0 (the "License");
+ *	you may not use this file except in compliance with the License.
+ *	You may obtain a copy of the License at
+ *
+ *	http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *	Unless required by applicable law or agreed to in writing, software
+ *	distributed under the License is distributed on an "AS IS" BASIS,
+ *	WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *	See the License for the specific language governing permissions and
+ *	limitations under the License.
+ */
+package pl.kodujdlapolski.na4lapy.service.image;
+
+import android.graphics.Bitmap;
+
+import com.squareup.picasso.Transformation;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+
+public class DerivedImageTest {
+
+    private static final String URL = "http://example.com/photo.jpg";
+
+    @Test
+    public void testKeyContainsSizeAndChainInOrder() throws Exception {
+        // given
+        DerivedImage derivedImage = new DerivedImage(1080, 750, new NamedTransformation("blur"),
+                new NamedTransformation("filter"));
+
+        // when
+        String key = derivedImage.key(URL);
+
+        // then
+        assertEquals(URL + "#1080x750|blur|filter", key);
+    }
+
+    @Test
+    public void testDifferentChainsHaveDifferentKeys() throws Exception {
+        // given
+        DerivedImage first = new DerivedImage(300, 300, new NamedTransformation("blur"), new NamedTransformation("filter"));
+        DerivedImage second = new DerivedImage(300, 300, new NamedTransformation("filter"), new NamedTransformation("blur"));
+
+        // then
+        assertNotEquals(first.key(URL), second.key(URL));
+        assertNotEquals(first.key(URL), new DerivedImage(300, 300).key(URL));
+    }
+
+    private static class NamedTransformation implements Transformation {
+
+        private final String mName;
+
+        NamedTransformation(String name) {
+            mName = name;
+        }
+
+        @Override
+        public Bitmap transform(Bitmap source) {
+            return source;
+        }
+
+        @Override
+        public String key() {
+            return mName;
+        }
+    }
+}
@@ -0,0 +1,37 @@
+/*
+ *	Copyright 2017 Stowarzyszenie Na4Łapy
+ *
+ *	Licensed under the Apache License, Version 2.0 (the "License");
+ *	you may not use this file except in compliance with the License.
+ *	You may obtain a copy of the License at
+ *
+ *	http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *	Unless required by applicable law or agreed to in writing, software
+ *	distributed under the License is distributed on an "AS IS" BASIS,
+ *	WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *	See the License for the specific language governing permissions and
+ *	limitations under the License.
+ */
+package pl.kodujdlapolski.na4lapy.service.image;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+public class ImageCodecTest {
+
+    @Test
+    public void testSampleSizeKeepsBothSidesAboveTarget() throws Exception {
+        assertEquals(4, ImageCodec.sampleSize(2048, 1536, 400, 300));
+        assertEquals(2, ImageCodec.sampleSize(2048, 1536, 400, 500));
+        assertEquals(1, ImageCodec.sampleSize(800, 600, 800, 600));
+        assertEquals(1, ImageCodec.sampleSize(300, 200, 400, 300));
+    }
+
+    @Test
+    public void testSampleSizeWithOneSideOnly() throws Exception {
+        assertEquals(8, ImageCodec.sampleSize(2048, 1536, 200, 0));
+        assertEquals(1, ImageCodec.sampleSize(2048, 1536, 0, 0));
+    }
+}
@@ -0,0 +1,80 @@
+/*
+ *	Copyright 2017 Stowarzyszenie Na4Łapy
+ *
+ *	Licensed under the Apache License, Version 2.0 (the "License");
+ *	you may not use this file except in compliance with the License.
+ *	You may obtain a copy of the License at
+ *
+ *	http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *	Unless required by applicable law or agreed to in writing, software
+ *	distributed under the License is distributed on an "AS IS" BASIS,
+ *	WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *	See the License for the specific language governing permissions and
+ *	limitations under the License.
+ */
+package pl.kodujdlapolski.na4lapy.service.image;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+
+import okhttp3.OkHttpClient;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okio.Buffer;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+public class ImageDownloaderTest {
+
+    private MockWebServer server;
+    private ImageStatistics imageStatistics;
+    private ImageDownloader imageDownloader;
+
+    @Before
+    public void setUp() throws Exception {
+        server = new MockWebServer();
+        server.start();
+        imageStatistics = new ImageStatistics();
+        imageDownloader = new ImageDownloader(new OkHttpClient(), imageStatistics);
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        server.shutdown();
+    }
+
+    @Test
+    public void testDownloadCountsNetworkBytes() throws Exception {
+        // given
+        server.enqueue(new MockResponse().setBody(new Buffer().write(new byte[1500])));
+
+        // when
+        byte[] data = imageDownloader.download(server.url("/photo.jpg").toString());
+
+        // then
+        assertEquals(1500, data.length);
+        ImageStatistics.Snapshot snapshot = imageStatistics.snapshot(0, 0, 0);
+        assertEquals(1, snapshot.getNetworkRequests());
+        assertEquals(1500, snapshot.getNetworkBytes());
+    }
+
+    @Test
+    public void testErrorResponseThrows() throws Exception {
+        // given
+        server.enqueue(new MockResponse().setResponseCode(404));
+
+        // when
+        try {
+            imageDownloader.download(server.url("/missing.jpg").toString());
+            fail();
+        } catch (IOException e) {
+            // then
+            assertEquals(0, imageStatistics.snapshot(0, 0, 0).getNetworkRequests());
+        }
+    }
+}
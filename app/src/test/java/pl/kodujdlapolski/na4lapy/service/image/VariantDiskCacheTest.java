@@ -0,0 +1,124 @@
+/*
+ *	Copyright 2017 Stowarzyszenie Na4Łapy
+ *
+ *	Licensed under the Apache License, Version 2.0 (the "License");
+ *	you may not use this file except in compliance with the License.
+ *	You may obtain a copy of the License at
+ *
+ *	http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *	Unless required by applicable law or agreed to in writing, software
+ *	distributed under the License is distributed on an "AS IS" BASIS,
+ *	WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *	See the License for the specific language governing permissions and
+ *	limitations under the License.
+ */
+package pl.kodujdlapolski.na4lapy.service.image;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+
+public class VariantDiskCacheTest {
+
+    private static final String URL = "http://example.com/photo.jpg";
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private File directory;
+    private VariantDiskCache variantDiskCache;
+
+    @Before
+    public void setUp() throws Exception {
+        directory = new File(folder.getRoot(), "variants");
+        variantDiskCache = new VariantDiskCache(directory, 10);
+    }
+
+    @Test
+    public void testPutAndGet() throws Exception {
+        // given
+        byte[] data = {1, 2, 3};
+
+        // when
+        variantDiskCache.put(VariantDiskCache.key(URL, 100, 50), data);
+
+        // then
+        assertArrayEquals(data, variantDiskCache.get(VariantDiskCache.key(URL, 100, 50)));
+        assertNull(variantDiskCache.get(VariantDiskCache.key(URL, 200, 100)));
+        assertEquals(3, variantDiskCache.size());
+    }
+
+    @Test
+    public void testKeyDependsOnTargetSize() throws Exception {
+        assertNotEquals(VariantDiskCache.key(URL, 100, 50), VariantDiskCache.key(URL, 50, 100));
+    }
+
+    @Test
+    public void testLeastRecentlyUsedIsEvicted() throws Exception {
+        // given
+        variantDiskCache.put("first", new byte[4]);
+        variantDiskCache.put("second", new byte[4]);
+        variantDiskCache.get("first");
+
+        // when
+        variantDiskCache.put("third", new byte[4]);
+
+        // then
+        assertNotNull(variantDiskCache.get("first"));
+        assertNull(variantDiskCache.get("second"));
+        assertNotNull(variantDiskCache.get("third"));
+        assertEquals(8, variantDiskCache.size());
+        assertEquals(2, directory.list().length);
+    }
+
+    @Test
+    public void testTooLargeEntryIsNotStored() throws Exception {
+        // when
+        variantDiskCache.put("large", new byte[11]);
+
+        // then
+        assertNull(variantDiskCache.get("large"));
+        assertEquals(0, variantDiskCache.size());
+    }
+
+    @Test
+    public void testEntriesSurviveRestart() throws Exception {
+        // given
+        variantDiskCache.put("first", new byte[]{7});
+        new File(directory, "partial.tmp").createNewFile();
+
+        // when
+        VariantDiskCache reopened = new VariantDiskCache(directory, 10);
+
+        // then
+        assertArrayEquals(new byte[]{7}, reopened.get("first"));
+        assertEquals(1, reopened.size());
+        assertEquals(1, directory.list().length);
+    }
+
+    @Test
+    public void testMissingFileIsDropped() throws Exception {
+        // given
+        variantDiskCache.put("first", new byte[]{7});
+        for (File file : directory.listFiles()) {
+            file.delete();
+        }
+
+        // when
+        byte[] data = variantDiskCache.get("first");
+
+        // then
+        assertNull(data);
+        assertEquals(0, variantDiskCache.size());
+    }
+}
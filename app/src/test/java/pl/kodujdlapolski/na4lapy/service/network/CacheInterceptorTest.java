@@ -0,0 +1,197 @@
+/*
+ *	Copyright 2017 Stowarzyszenie Na4Łapy
+ *
+ *	Licensed under the Apache License, Version 2.0 (the "License");
+ *	you may not use this file except in compliance with the License.
+ *	You may obtain a copy of the License at
+ *
+ *	http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *	Unless required by applicable law or agreed to in writing, software
+ *	distributed under the License is distributed on an "AS IS" BASIS,
+ *	WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *	See the License for the specific language governing permissions and
+ *	limitations under the License.
+ */
+package pl.kodujdlapolski.na4lapy.service.network;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.io.IOException;
+
+import okhttp3.Cache;
+import okhttp3.OkHttpClient;
+import okhttp3.Request;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import pl.kodujdlapolski.na4lapy.service.system.SystemService;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.mockito.Mockito.when;
+
+public class CacheInterceptorTest {
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    @Mock
+    private SystemService systemService;
+
+    private MockWebServer server;
+    private NetworkStatistics statistics;
+    private OkHttpClient client;
+
+    @Before
+    public void setUp() throws Exception {
+        MockitoAnnotations.initMocks(this);
+        when(systemService.isOnline()).thenReturn(true);
+        server = new MockWebServer();
+        server.start();
+        statistics = new NetworkStatistics();
+        client = new CacheInterceptor(systemService, statistics)
+                .install(new OkHttpClient.Builder().cache(new Cache(temporaryFolder.newFolder(), 1024 * 1024)))
+                .build();
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        server.shutdown();
+    }
+
+    @Test
+    public void testCachePreferredRequestShouldBeServedFromCache() throws Exception {
+        // given
+        server.enqueue(new MockResponse().setBody("shelter"));
+        read(cachePreferred("/shelters/1"));
+
+        // when
+        String body = read(cachePreferred("/shelters/1"));
+
+        // then
+        assertEquals("shelter", body);
+        assertEquals(1, server.getRequestCount());
+        assertNull(server.takeRequest().getHeader(CacheInterceptor.HEADER_CACHE_PREFERRED));
+        HttpCacheStatistics.Snapshot snapshot = statistics.forEndpoint(template("/shelters/{id}")).getCacheStatistics().snapshot();
+        assertEquals(1, snapshot.getCacheHits());
+        assertEquals(1, snapshot.getNetworkResponses());
+        assertEquals(0.5, snapshot.getHitRatio(), 0);
+    }
+
+    @Test
+    public void testCachePreferredResponseShouldBeCachedWhateverTheServerSays() throws Exception {
+        // given
+        server.enqueue(new MockResponse().setBody("shelter").addHeader("Cache-Control", "no-cache").addHeader("Pragma", "no-cache"));
+        read(cachePreferred("/shelters/1"));
+
+        // when
+        String body = read(cachePreferred("/shelters/1"));
+
+        // then
+        assertEquals("shelter", body);
+        assertEquals(1, server.getRequestCount());
+    }
+
+    @Test
+    public void testFailedCachePreferredResponseShouldNotBeCached() throws Exception {
+        // given
+        server.enqueue(new MockResponse().setResponseCode(500));
+        server.enqueue(new MockResponse().setBody("shelter"));
+        client.newCall(cachePreferred("/shelters/1")).execute().close();
+
+        // when
+        String body = read(cachePreferred("/shelters/1"));
+
+        // then
+        assertEquals("shelter", body);
+        assertEquals(2, server.getRequestCount());
+    }
+
+    @Test
+    public void testCachePreferredRequestShouldGoToNetworkOnceTooStale() throws Exception {
+        // given
+        server.enqueue(new MockResponse().setBody("old").addHeader("Date", "Sun, 01 Jan 2017 10:00:00 GMT"));
+        server.enqueue(new MockResponse().setBody("new"));
+        read(cachePreferred("/animals/1"));
+
+        // when
+        String body = read(cachePreferred("/animals/1"));
+
+        // then
+        assertEquals("new", body);
+        assertEquals(2, server.getRequestCount());
+    }
+
+    @Test
+    public void testOfflineRequestShouldUseCacheAtAnyAge() throws Exception {
+        // given
+        server.enqueue(new MockResponse().setBody("old").addHeader("Date", "Sun, 01 Jan 2017 10:00:00 GMT"));
+        read(cachePreferred("/animals/1"));
+        when(systemService.isOnline()).thenReturn(false);
+
+        // when
+        String cached = read(cachePreferred("/animals/1"));
+
+        // then
+        assertEquals("old", cached);
+        assertEquals(1, server.getRequestCount());
+        assertEquals(1, statistics.getCacheStatistics().getCacheHits());
+    }
+
+    @Test
+    public void testOfflineRequestMissingFromCacheShouldFailWithIOException() throws Exception {
+        // given
+        when(systemService.isOnline()).thenReturn(false);
+
+        // when
+        IOException failure = null;
+        try {
+            read(cachePreferred("/animals/2"));
+        } catch (IOException e) {
+            failure = e;
+        }
+
+        // then
+        assertNotNull(failure);
+        assertEquals(0, server.getRequestCount());
+        assertEquals(1, statistics.getCacheStatistics().getUnsatisfied());
+    }
+
+    @Test
+    public void testPlainRequestShouldFollowServerCacheHeadersAndNotBeRecorded() throws Exception {
+        // given
+        server.enqueue(new MockResponse().setBody("first"));
+        server.enqueue(new MockResponse().setBody("second"));
+        read(new Request.Builder().url(server.url("/shelters/1")).build());
+
+        // when
+        String body = read(new Request.Builder().url(server.url("/shelters/1")).build());
+
+        // then
+        assertEquals("second", body);
+        assertEquals(0, statistics.getCacheStatistics().getRequests());
+    }
+
+    private Request cachePreferred(String path) {
+        return new Request.Builder()
+                .url(server.url(path))
+                .header(CacheInterceptor.HEADER_CACHE_PREFERRED, "true")
+                .build();
+    }
+
+    private String template(String path) {
+        return "GET " + server.getHostName() + path;
+    }
+
+    // the body has to be read for the response to be stored in the cache
+    private String read(Request request) throws Exception {
+        return client.newCall(request).execute().body().string();
+    }
+}
@@ -0,0 +1,129 @@
+/*
+ *	Copyright 2017 Stowarzyszenie Na4Łapy
+ *
+ *	Licensed under the Apache License, Version 2.0 (the "License");
+ *	you may not use this file except in compliance with the License.
+ *	You may obtain a copy of the License at
+ *
+ *	http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *	Unless required by applicable law or agreed to in writing, software
+ *	distributed under the License is distributed on an "AS IS" BASIS,
+ *	WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *	See the License for the specific language governing permissions and
+ *	limitations under the License.
+ */
+package pl.kodujdlapolski.na4lapy.service.network;
+
+import org.junit.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class HistogramTest {
+
+    @Test
+    public void testBucketsShouldCoverEveryValueWithoutGaps() {
+        for (int bucket = 0; bucket < 247; bucket++) {
+            // given
+            long lower = Histogram.lowerBoundOf(bucket);
+            long nextLower = Histogram.lowerBoundOf(bucket + 1);
+
+            // then
+            assertTrue(nextLower > lower);
+            assertEquals(bucket, Histogram.bucketOf(lower));
+            assertEquals(bucket, Histogram.bucketOf(nextLower - 1));
+        }
+        assertEquals(247, Histogram.bucketOf(Long.MAX_VALUE));
+    }
+
+    @Test
+    public void testPercentileShouldBeWithinAQuarterOfTheValue() {
+        // given
+        Histogram histogram = new Histogram();
+        for (long value = 1; value <= 1000; value++) {
+            histogram.record(value);
+        }
+
+        // when
+        Histogram.Snapshot snapshot = histogram.snapshot();
+
+        // then
+        assertEquals(1000, snapshot.getCount());
+        assertEquals(500500, snapshot.getSum());
+        assertEquals(1000, snapshot.getMax());
+        assertEquals(500.5, snapshot.getMean(), 0.001);
+        assertTrue(snapshot.getPercentile(50) >= 500 && snapshot.getPercentile(50) < 625);
+        assertTrue(snapshot.getPercentile(90) >= 900 && snapshot.getPercentile(90) < 1125);
+        assertEquals(1000, snapshot.getPercentile(100));
+    }
+
+    @Test
+    public void testNegativeValuesShouldBeRecordedAsZero() {
+        // given
+        Histogram histogram = new Histogram();
+
+        // when
+        histogram.record(-5);
+
+        // then
+        Histogram.Snapshot snapshot = histogram.snapshot();
+        assertEquals(1, snapshot.getCount());
+        assertEquals(0, snapshot.getSum());
+        assertEquals(0, snapshot.getPercentile(99));
+    }
+
+    @Test
+    public void testConcurrentRecordsShouldNotBeLost() throws Exception {
+        // given
+        Histogram histogram = new Histogram();
+        int threads = 8;
+        int perThread = 10000;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+
+        // when
+        for (int t = 0; t < threads; t++) {
+            long offset = t;
+            executor.execute(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                for (int i = 0; i < perThread; i++) {
+                    histogram.record(i + offset);
+                }
+            });
+        }
+        start.countDown();
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+
+        // then
+        Histogram.Snapshot snapshot = histogram.snapshot();
+        assertEquals(threads * perThread, snapshot.getCount());
+        assertEquals(perThread - 1 + threads - 1, snapshot.getMax());
+    }
+
+    @Test
+    public void testResetShouldClearEverything() {
+        // given
+        Histogram histogram = new Histogram();
+        histogram.record(42);
+
+        // when
+        histogram.reset();
+
+        // then
+        Histogram.Snapshot snapshot = histogram.snapshot();
+        assertEquals(0, snapshot.getCount());
+        assertEquals(0, snapshot.getMax());
+        assertEquals(0, snapshot.getPercentile(50));
+    }
+}
@@ -0,0 +1,123 @@
+/*
+ *	Copyright 2017 Stowarzyszenie Na4Łapy
+ *
+ *	Licensed under the Apache License, Version 2.0 (the "License");
+ *	you may not use this file except in compliance with the License.
+ *	You may obtain a copy of the License at
+ *
+ *	http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *	Unless required by applicable law or agreed to in writing, software
+ *	distributed under the License is distributed on an "AS IS" BASIS,
+ *	WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *	See the License for the specific language governing permissions and
+ *	limitations under the License.
+ */
+package pl.kodujdlapolski.na4lapy.service.network;
+
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+
+import org.junit.Test;
+
+import java.io.StringWriter;
+import java.util.Collections;
+
+import okhttp3.Protocol;
+import okhttp3.Request;
+import okhttp3.Response;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+public class NetworkStatisticsTest {
+
+    @Test
+    public void testTemplateShouldReplaceNumericSegmentsAndDropTheQuery() {
+        // given
+        Request request = new Request.Builder()
+                .url("https://na4lapy.org/api/animals/123/photos/main.jpg?page=2")
+                .build();
+
+        // when
+        String template = NetworkStatistics.templateOf(request);
+
+        // then
+        assertEquals("GET na4lapy.org/api/animals/{id}/photos/main.jpg", template);
+    }
+
+    @Test
+    public void testEndpointsBeyondTheLimitShouldShareOneEntry() {
+        // given
+        NetworkStatistics statistics = new NetworkStatistics();
+        for (int i = 0; i < NetworkStatistics.MAX_ENDPOINTS; i++) {
+            statistics.forEndpoint("GET host/" + i + "a");
+        }
+
+        // when
+        EndpointStatistics overflow = statistics.forEndpoint("GET host/more");
+
+        // then
+        assertSame(statistics.forEndpoint(NetworkStatistics.OTHER_ENDPOINTS), overflow);
+        assertSame(overflow, statistics.forEndpoint("GET host/even-more"));
+        assertEquals(NetworkStatistics.MAX_ENDPOINTS + 1, statistics.getEndpoints().size());
+    }
+
+    @Test
+    public void testJsonShouldHoldContextAndEveryEndpoint() throws Exception {
+        // given
+        NetworkStatistics statistics = new NetworkStatistics();
+        EndpointStatistics endpoint = statistics.forEndpoint("GET host/animals");
+        endpoint.getTotalMicros().record(1500);
+        endpoint.getTotalMicros().record(2500);
+        StringWriter out = new StringWriter();
+
+        // when
+        statistics.writeJson(out, Collections.singletonMap("versionName", "1.0.3"));
+
+        // then
+        JsonObject json = new JsonParser().parse(out.toString()).getAsJsonObject();
+        assertEquals("1.0.3", json.getAsJsonObject("context").get("versionName").getAsString());
+        JsonObject total = json.getAsJsonObject("endpoints").getAsJsonObject("GET host/animals").getAsJsonObject("totalMicros");
+        assertEquals(2, total.get("count").getAsLong());
+        assertEquals(2000, total.get("mean").getAsDouble(), 0);
+        assertEquals(2500, total.get("max").getAsLong());
+        assertEquals(2, total.getAsJsonArray("buckets").size());
+    }
+
+    @Test
+    public void testResetShouldKeepEndpointsButClearTheirNumbers() {
+        // given
+        NetworkStatistics statistics = new NetworkStatistics();
+        statistics.forEndpoint("GET host/animals").getTotalMicros().record(10);
+
+        // when
+        statistics.reset();
+
+        // then
+        assertEquals(0, statistics.forEndpoint("GET host/animals").getTotalMicros().snapshot().getCount());
+    }
+
+    @Test
+    public void testCacheStatisticsShouldAddUpEndpointsAndResetWithThem() {
+        // given
+        NetworkStatistics statistics = new NetworkStatistics();
+        Request request = new Request.Builder().url("https://na4lapy.org/api/shelters/1").build();
+        Response response = new Response.Builder()
+                .request(request)
+                .protocol(Protocol.HTTP_1_1)
+                .code(200)
+                .networkResponse(new Response.Builder().request(request).protocol(Protocol.HTTP_1_1).code(200).build())
+                .build();
+        statistics.forEndpoint("GET host/shelters/{id}").getCacheStatistics().record(response);
+        statistics.forEndpoint("GET host/animals/{id}").getCacheStatistics().record(response);
+
+        // when
+        long before = statistics.getCacheStatistics().getNetworkResponses();
+        statistics.reset();
+
+        // then
+        assertEquals(2, before);
+        assertEquals(0, statistics.getCacheStatistics().getRequests());
+    }
+}
@@ -0,0 +1,154 @@
+/*
+ *	Copyright 2017 Stowarzyszenie Na4Łapy
+ *
+ *	Licensed under the Apache License, Version 2.0 (the "License");
+ *	you may not use this file except in compliance with the License.
+ *	You may obtain a copy of the License at
+ *
+ *	http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *	Unless required by applicable law or agreed to in writing, software
+ *	distributed under the License is distributed on an "AS IS" BASIS,
+ *	WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *	See the License for the specific language governing permissions and
+ *	limitations under the License.
+ */
+package pl.kodujdlapolski.na4lapy.service.network;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+
+import okhttp3.Cache;
+import okhttp3.OkHttpClient;
+import okhttp3.Request;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+public class NetworkTimingInterceptorTest {
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    private MockWebServer server;
+    private NetworkStatistics statistics;
+    private OkHttpClient client;
+
+    @Before
+    public void setUp() throws Exception {
+        server = new MockWebServer();
+        server.start();
+        statistics = new NetworkStatistics();
+        client = new NetworkTimingInterceptor(statistics).install(new OkHttpClient.Builder())
+                .cache(new Cache(temporaryFolder.newFolder(), 1024 * 1024))
+                .build();
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        server.shutdown();
+    }
+
+    @Test
+    public void testShouldTimeEveryPhaseOfANewConnection() throws Exception {
+        // given
+        server.enqueue(new MockResponse().setBody("shelter"));
+
+        // when
+        read("/shelters/1");
+
+        // then
+        EndpointStatistics endpoint = statistics.forEndpoint(template("/shelters/{id}"));
+        assertEquals(1, endpoint.getDnsMicros().snapshot().getCount());
+        assertEquals(1, endpoint.getConnectMicros().snapshot().getCount());
+        assertEquals(1, endpoint.getTimeToFirstByteMicros().snapshot().getCount());
+        assertEquals(1, endpoint.getBodyReadMicros().snapshot().getCount());
+        assertEquals(1, endpoint.getTotalMicros().snapshot().getCount());
+        assertEquals(7, endpoint.getResponseBytes().snapshot().getMax());
+        assertEquals(0, endpoint.getReusedConnections());
+    }
+
+    @Test
+    public void testPooledConnectionShouldSkipDnsAndConnect() throws Exception {
+        // given
+        server.enqueue(new MockResponse().setBody("first"));
+        server.enqueue(new MockResponse().setBody("second"));
+
+        // when
+        read("/animals/1");
+        read("/animals/2");
+
+        // then
+        EndpointStatistics endpoint = statistics.forEndpoint(template("/animals/{id}"));
+        assertEquals(1, endpoint.getDnsMicros().snapshot().getCount());
+        assertEquals(1, endpoint.getConnectMicros().snapshot().getCount());
+        assertEquals(2, endpoint.getTimeToFirstByteMicros().snapshot().getCount());
+        assertEquals(1, endpoint.getReusedConnections());
+        assertEquals(1, statistics.getEndpoints().size());
+    }
+
+    @Test
+    public void testCacheHitShouldOnlyRecordBodyAndTotal() throws Exception {
+        // given
+        server.enqueue(new MockResponse().setBody("shelter").addHeader("Cache-Control", "max-age=60"));
+        read("/shelters/1");
+
+        // when
+        String body = read("/shelters/1");
+
+        // then
+        assertEquals("shelter", body);
+        EndpointStatistics endpoint = statistics.forEndpoint(template("/shelters/{id}"));
+        assertEquals(1, endpoint.getTimeToFirstByteMicros().snapshot().getCount());
+        assertEquals(2, endpoint.getTotalMicros().snapshot().getCount());
+        assertEquals(2, endpoint.getBodyReadMicros().snapshot().getCount());
+    }
+
+    @Test
+    public void testClosingAnUnreadBodyShouldStillRecordTheCall() throws Exception {
+        // given
+        server.enqueue(new MockResponse().setBody("not read"));
+
+        // when
+        client.newCall(new Request.Builder().url(server.url("/animals")).build()).execute().body().close();
+
+        // then
+        EndpointStatistics endpoint = statistics.forEndpoint(template("/animals"));
+        assertEquals(1, endpoint.getTotalMicros().snapshot().getCount());
+        assertEquals(0, endpoint.getResponseBytes().snapshot().getMax());
+    }
+
+    @Test
+    public void testFailedCallShouldBeCounted() throws Exception {
+        // given
+        String url = server.url("/animals").toString();
+        server.shutdown();
+
+        // when
+        try {
+            client.newBuilder().retryOnConnectionFailure(false).build()
+                    .newCall(new Request.Builder().url(url).build()).execute();
+            fail();
+        } catch (IOException expected) {
+            // then
+            EndpointStatistics endpoint = statistics.forEndpoint(template("/animals"));
+            assertEquals(1, endpoint.getFailures());
+            assertEquals(0, endpoint.getTotalMicros().snapshot().getCount());
+        }
+    }
+
+    private String template(String path) {
+        return "GET " + server.getHostName() + path;
+    }
+
+    private String read(String path) throws Exception {
+        return client.newCall(new Request.Builder().url(server.url(path)).build()).execute().body().string();
+    }
+}
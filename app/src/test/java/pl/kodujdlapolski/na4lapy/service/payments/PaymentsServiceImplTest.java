@@ -15,11 +15,11 @@
  */
 package pl.kodujdlapolski.na4lapy.service.payments;
 
+import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.mockito.ArgumentCaptor;
 import org.mockito.Captor;
-import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.runners.MockitoJUnitRunner;
 
@@ -29,7 +29,9 @@ import pl.kodujdlapolski.na4lapy.service.payments.model.Customer;
 import pl.kodujdlapolski.na4lapy.service.payments.model.Payment;
 import pl.kodujdlapolski.na4lapy.service.payments.model.PaymentResponse;
 import pl.kodujdlapolski.na4lapy.service.payments.model.Sale;
+import pl.kodujdlapolski.na4lapy.service.scheduler.ImmediateSchedulerProvider;
 import rx.Observable;
+import rx.observers.TestSubscriber;
 
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
@@ -40,15 +42,16 @@ public class PaymentsServiceImplTest {
     @Mock
     private PayLaneApi payLaneApi;
 
-    @Mock
-    private Observable<PaymentResponse> observable;
-
     @Captor
     private ArgumentCaptor<Payment> paymentCaptor;
 
-    @InjectMocks
     private PaymentsServiceImpl paymentsService;
 
+    @Before
+    public void setUp() throws Exception {
+        paymentsService = new PaymentsServiceImpl(payLaneApi, new ImmediateSchedulerProvider());
+    }
+
     @Test
     public void testInitBankTransfer() throws Exception {
         // given
@@ -59,12 +62,16 @@ public class PaymentsServiceImplTest {
         Payment payment = new Payment();
         payment.setSale(sale);
         payment.setCustomer(customer);
-        when(payLaneApi.bankTransfer(payment)).thenReturn(observable);
+        PaymentResponse response = new PaymentResponse();
+        when(payLaneApi.bankTransfer(payment)).thenReturn(Observable.just(response));
 
         // when
         Observable<PaymentResponse> result = paymentsService.initBankTransfer(payment);
 
         // then
         verify(payLaneApi).bankTransfer(payment);
+        TestSubscriber<PaymentResponse> testSubscriber = new TestSubscriber<>();
+        result.subscribe(testSubscriber);
+        testSubscriber.assertValue(response);
     }
 }
\ No newline at end of file
@@ -0,0 +1,109 @@
+/*
+ *	Copyright 2017 Stowarzyszenie Na4Łapy
+ *
+ *	Licensed under the Apache License, Version 2.0 (the "License");
+ *	you may not use this file except in compliance with the License.
+ *	You may obtain a copy of the License at
+ *
+ *	http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *	Unless required by applicable law or agreed to in writing, software
+ *	distributed under the License is distributed on an "AS IS" BASIS,
+ *	WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *	See the License for the specific language governing permissions and
+ *	limitations under the License.
+ */
+package pl.kodujdlapolski.na4lapy.service.repository;
+
+import org.joda.time.LocalDate;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.Statement;
+
+import pl.kodujdlapolski.na4lapy.model.AnimalSummary;
+import pl.kodujdlapolski.na4lapy.model.type.ActivityAnimal;
+import pl.kodujdlapolski.na4lapy.model.type.Gender;
+import pl.kodujdlapolski.na4lapy.model.type.Size;
+import pl.kodujdlapolski.na4lapy.model.type.Species;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+public class AnimalSummaryMapperTest {
+
+    private Connection connection;
+    private AnimalSummaryMapper mapper;
+
+    @Before
+    public void setUp() throws Exception {
+        connection = DriverManager.getConnection("jdbc:sqlite::memory:");
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("CREATE TABLE `animals` (`id` BIGINT PRIMARY KEY, `name` VARCHAR, `description` VARCHAR, "
+                    + "`chipId` VARCHAR, `birthEpochDay` INTEGER, `species` VARCHAR, `gender` VARCHAR, `size` VARCHAR, "
+                    + "`activity` VARCHAR, `complianceLevel` INTEGER, `firstPhotoUrl` VARCHAR)");
+        }
+        mapper = new AnimalSummaryMapper();
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        connection.close();
+    }
+
+    @Test
+    public void testMapRowShouldReadProjectedColumns() throws Exception {
+        // given
+        execute("INSERT INTO `animals` VALUES (7, 'Burek', 'long description', '123', 15403, 'DOG', 'MALE', "
+                + "'LARGE', 'HIGH', 4, 'http://example.com/7.jpg')");
+
+        // when
+        AnimalSummary result = selectSummary(7L);
+
+        // then
+        assertEquals(new AnimalSummary(7L, "Burek", new LocalDate(2012, 3, 4), Species.DOG, Gender.MALE, Size.LARGE,
+                ActivityAnimal.HIGH, 4, "http://example.com/7.jpg"), result);
+    }
+
+    @Test
+    public void testMapRowShouldAcceptNullColumns() throws Exception {
+        // given
+        execute("INSERT INTO `animals` (`id`) VALUES (8)");
+
+        // when
+        AnimalSummary result = selectSummary(8L);
+
+        // then
+        assertEquals(Long.valueOf(8L), result.getId());
+        assertNull(result.getBirthDate());
+        assertNull(result.getSpecies());
+        assertNull(result.getFirstPhotoUrl());
+        assertEquals(0, result.getComplianceLevel());
+    }
+
+    private void execute(String sql) throws Exception {
+        try (Statement statement = connection.createStatement()) {
+            statement.execute(sql);
+        }
+    }
+
+    private AnimalSummary selectSummary(Long id) throws Exception {
+        StringBuilder sql = new StringBuilder("SELECT ");
+        for (int i = 0; i < AnimalSummaryMapper.COLUMNS.length; i++) {
+            sql.append(i > 0 ? ", `" : "`").append(AnimalSummaryMapper.COLUMNS[i]).append('`');
+        }
+        sql.append(" FROM `animals` WHERE `id` = ").append(id);
+        try (Statement statement = connection.createStatement(); ResultSet resultSet = statement.executeQuery(sql.toString())) {
+            resultSet.next();
+            String[] row = new String[AnimalSummaryMapper.COLUMNS.length];
+            for (int i = 0; i < row.length; i++) {
+                row[i] = resultSet.getString(i + 1);
+            }
+            return mapper.mapRow(AnimalSummaryMapper.COLUMNS, row);
+        }
+    }
+}
@@ -0,0 +1,126 @@
+/*
+ *	Copyright 2017 Stowarzyszenie Na4Łapy
+ *
+ *	Licensed under the Apache License, Version 2.0 (the "License");
+ *	you may not use this file except in compliance with the License.
+ *	You may obtain a copy of the License at
+ *
+ *	http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *	Unless required by applicable law or agreed to in writing, software
+ *	distributed under the License is distributed on an "AS IS" BASIS,
+ *	WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *	See the License for the specific language governing permissions and
+ *	limitations under the License.
+ */
+package pl.kodujdlapolski.na4lapy.service.repository;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.runners.MockitoJUnitRunner;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+
+import pl.kodujdlapolski.na4lapy.model.Animal;
+import pl.kodujdlapolski.na4lapy.service.preferences.PreferencesService;
+import pl.kodujdlapolski.na4lapy.service.repository.database.DatabaseRepository;
+import pl.kodujdlapolski.na4lapy.service.repository.model.ComplianceLevelReport;
+import pl.kodujdlapolski.na4lapy.service.user.UserService;
+import rx.Subscription;
+import rx.subscriptions.Subscriptions;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@RunWith(MockitoJUnitRunner.class)
+public class ComplianceLevelUpdaterTest {
+
+    private static final String LEVEL_SQL = "(CASE WHEN `species` = 'DOG' THEN 1 ELSE 0 END)";
+
+    @Mock
+    private DatabaseRepository databaseRepository;
+
+    @Mock
+    private PreferencesService preferencesService;
+
+    @Mock
+    private UserService userService;
+
+    private ComplianceLevelUpdater updater;
+    private String updateChunk;
+
+    @Before
+    public void setUp() throws Exception {
+        when(userService.getPreferencesComplianceLevelSql()).thenReturn(LEVEL_SQL);
+        when(databaseRepository.callInTransaction(any(Callable.class))).thenAnswer(invocation ->
+                ((Callable) invocation.getArguments()[0]).call());
+        updater = new ComplianceLevelUpdater(databaseRepository, preferencesService, userService);
+        updateChunk = ComplianceLevelUpdater.getUpdateChunkStatement(LEVEL_SQL);
+    }
+
+    @Test
+    public void testUpdateShouldRecomputeEveryRowWhenPreferencesChanged() throws Exception {
+        // given
+        when(preferencesService.getComplianceLevelSql()).thenReturn("0");
+        when(databaseRepository.updateRaw(updateChunk, Animal.class))
+                .thenReturn(ComplianceLevelUpdater.CHUNK_SIZE, ComplianceLevelUpdater.CHUNK_SIZE, 20);
+
+        // when
+        ComplianceLevelReport report = updater.update(Subscriptions.empty());
+
+        // then
+        InOrder inOrder = inOrder(databaseRepository, preferencesService);
+        inOrder.verify(databaseRepository).updateRaw(ComplianceLevelUpdater.CLEAR_LEVELS, Animal.class);
+        inOrder.verify(databaseRepository, times(3)).updateRaw(updateChunk, Animal.class);
+        inOrder.verify(preferencesService).setComplianceLevelSql(LEVEL_SQL);
+        assertTrue(report.isFullRecompute());
+        assertEquals(ComplianceLevelUpdater.CHUNK_SIZE * 2 + 20, report.getRowsUpdated());
+    }
+
+    @Test
+    public void testUpdateShouldOnlyScoreNewRowsWhenPreferencesUnchanged() throws Exception {
+        // given
+        when(preferencesService.getComplianceLevelSql()).thenReturn(LEVEL_SQL);
+        when(databaseRepository.updateRaw(updateChunk, Animal.class)).thenReturn(3);
+
+        // when
+        ComplianceLevelReport report = updater.update(Subscriptions.empty());
+
+        // then
+        verify(databaseRepository, never()).updateRaw(ComplianceLevelUpdater.CLEAR_LEVELS, Animal.class);
+        verify(preferencesService, never()).setComplianceLevelSql(anyString());
+        assertFalse(report.isFullRecompute());
+        assertEquals(3, report.getRowsUpdated());
+    }
+
+    @Test(expected = CancellationException.class)
+    public void testUpdateShouldStopWhenCancelled() throws Exception {
+        // given
+        Subscription subscription = Subscriptions.empty();
+        when(databaseRepository.updateRaw(updateChunk, Animal.class)).thenAnswer(invocation -> {
+            subscription.unsubscribe();
+            return ComplianceLevelUpdater.CHUNK_SIZE;
+        });
+
+        // when
+        try {
+            updater.update(subscription);
+        } finally {
+            // then
+            verify(databaseRepository, times(1)).updateRaw(updateChunk, Animal.class);
+            verify(preferencesService, never()).setComplianceLevelSql(anyString());
+        }
+    }
+}
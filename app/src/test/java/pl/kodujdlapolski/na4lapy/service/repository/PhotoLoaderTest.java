@@ -0,0 +1,116 @@
+/*
+ *	Copyright 2017 Stowarzyszenie Na4Łapy
+ *
+ *	Licensed under the Apache License, Version 2.0 (the "License");
+ *	you may not use this file except in compliance with the License.
+ *	You may obtain a copy of the License at
+ *
+ *	http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *	Unless required by applicable law or agreed to in writing, software
+ *	distributed under the License is distributed on an "AS IS" BASIS,
+ *	WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *	See the License for the specific language governing permissions and
+ *	limitations under the License.
+ */
+package pl.kodujdlapolski.na4lapy.service.repository;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.runners.MockitoJUnitRunner;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+
+import pl.kodujdlapolski.na4lapy.model.Animal;
+import pl.kodujdlapolski.na4lapy.model.Photo;
+import pl.kodujdlapolski.na4lapy.service.repository.database.DatabaseRepository;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Matchers.anyCollectionOf;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyZeroInteractions;
+import static org.mockito.Mockito.when;
+
+@RunWith(MockitoJUnitRunner.class)
+public class PhotoLoaderTest {
+
+    @Mock
+    private DatabaseRepository databaseRepository;
+
+    private PhotoLoader photoLoader;
+
+    @Before
+    public void setUp() throws Exception {
+        photoLoader = new PhotoLoader(databaseRepository);
+    }
+
+    @Test
+    public void testAttachPhotosShouldLoadWholePageInOneQuery() throws Exception {
+        // given
+        Animal first = createAnimal(1L);
+        Animal second = createAnimal(2L);
+        Animal third = createAnimal(3L);
+        List photos = Arrays.asList(createPhoto(10L, 1L), createPhoto(20L, 2L), createPhoto(11L, 1L));
+        when(databaseRepository.findAllByForeignIds(anyCollectionOf(Long.class), eq(Photo.COLUMN_NAME_ANIMAL_ID),
+                eq(PhotoLoader.ORDER_BY_INSERTION), eq(Photo.class))).thenReturn(photos);
+
+        // when
+        photoLoader.attachPhotos(Arrays.asList(first, second, third));
+
+        // then
+        verify(databaseRepository, times(1)).findAllByForeignIds(anyCollectionOf(Long.class), anyString(), anyString(), eq(Photo.class));
+        assertEquals(2, first.getPhotoList().size());
+        assertEquals(Long.valueOf(10L), first.getPhotoList().get(0).getId());
+        assertEquals(Long.valueOf(11L), first.getPhotoList().get(1).getId());
+        assertEquals(1, second.getPhotoList().size());
+        assertTrue(third.getPhotoList().isEmpty());
+    }
+
+    @Test
+    public void testAttachPhotosShouldQueryEveryAnimalId() throws Exception {
+        // given
+        when(databaseRepository.findAllByForeignIds(anyCollectionOf(Long.class), anyString(), anyString(), eq(Photo.class)))
+                .thenAnswer(invocation -> {
+                    Collection<Long> ids = (Collection<Long>) invocation.getArguments()[0];
+                    assertEquals(2, ids.size());
+                    assertTrue(ids.contains(1L) && ids.contains(2L));
+                    return Arrays.asList();
+                });
+
+        // when
+        photoLoader.attachPhotos(Arrays.asList(createAnimal(1L), createAnimal(2L)));
+
+        // then
+        verify(databaseRepository).findAllByForeignIds(anyCollectionOf(Long.class), anyString(), anyString(), eq(Photo.class));
+    }
+
+    @Test
+    public void testAttachPhotosShouldSkipEmptyPage() throws Exception {
+        // when
+        photoLoader.attachPhotos(Arrays.asList());
+
+        // then
+        verifyZeroInteractions(databaseRepository);
+    }
+
+    private static Animal createAnimal(Long id) {
+        Animal animal = new Animal();
+        animal.setId(id);
+        return animal;
+    }
+
+    private static Photo createPhoto(Long id, Long animalId) {
+        Photo photo = new Photo();
+        photo.setId(id);
+        photo.setAnimal(createAnimal(animalId));
+        return photo;
+    }
+}
@@ -24,9 +24,12 @@ import org.mockito.runners.MockitoJUnitRunner;
 import pl.kodujdlapolski.na4lapy.service.api.ApiService;
 import pl.kodujdlapolski.na4lapy.service.preferences.PreferencesService;
 import pl.kodujdlapolski.na4lapy.service.repository.database.DatabaseRepository;
+import pl.kodujdlapolski.na4lapy.service.scheduler.ImmediateSchedulerProvider;
 import pl.kodujdlapolski.na4lapy.service.user.UserService;
+import rx.Observable;
 
 import static org.junit.Assert.assertNotNull;
+import static org.mockito.Mockito.when;
 
 @RunWith(MockitoJUnitRunner.class)
 public class RepositoryModuleTest {
@@ -43,17 +46,22 @@ public class RepositoryModuleTest {
     @Mock
     private PreferencesService preferencesService;
 
+    @Mock
+    private SyncIdStore syncIdStore;
+
     private RepositoryModule repositoryModule;
 
     @Before
     public void setUp() throws Exception {
         repositoryModule = new RepositoryModule();
+        when(userService.getUserPreferencesPublisher()).thenReturn(Observable.empty());
     }
 
     @Test
     public void testProvideRepositoryService() throws Exception {
         // when
-        RepositoryService result = repositoryModule.provideRepositoryService(apiService, databaseRepository, preferencesService, userService);
+        RepositoryService result = repositoryModule.provideRepositoryService(apiService, databaseRepository, preferencesService, syncIdStore, userService,
+                new ImmediateSchedulerProvider());
 
         // then
         assertNotNull(result);
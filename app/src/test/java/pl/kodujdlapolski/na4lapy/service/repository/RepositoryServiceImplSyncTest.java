@@ -0,0 +1,552 @@
+/*
+ *	Copyright 2017 Stowarzyszenie Na4Łapy
+ *
+ *	Licensed under the Apache License, Version 2.0 (the "License");
+ *	you may not use this file except in compliance with the License.
+ *	You may obtain a copy of the License at
+ *
+ *	http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *	Unless required by applicable law or agreed to in writing, software
+ *	distributed under the License is distributed on an "AS IS" BASIS,
+ *	WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *	See the License for the specific language governing permissions and
+ *	limitations under the License.
+ */
+package pl.kodujdlapolski.na4lapy.service.repository;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.j256.ormlite.dao.RawRowMapper;
+
+import org.joda.time.LocalDate;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.runners.MockitoJUnitRunner;
+
+import java.net.HttpURLConnection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.Callable;
+
+import okhttp3.Cache;
+import okhttp3.HttpUrl;
+import okhttp3.OkHttpClient;
+import okhttp3.mockwebserver.Dispatcher;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+import pl.kodujdlapolski.na4lapy.model.Animal;
+import pl.kodujdlapolski.na4lapy.model.AnimalSummary;
+import pl.kodujdlapolski.na4lapy.model.BaseEntity;
+import pl.kodujdlapolski.na4lapy.model.Photo;
+import pl.kodujdlapolski.na4lapy.model.Shelter;
+import pl.kodujdlapolski.na4lapy.service.api.Api;
+import pl.kodujdlapolski.na4lapy.service.api.AnimalTypeAdapterFactory;
+import pl.kodujdlapolski.na4lapy.service.api.ApiServiceImpl;
+import pl.kodujdlapolski.na4lapy.service.api.LocalDateTypeAdapter;
+import pl.kodujdlapolski.na4lapy.service.network.CacheInterceptor;
+import pl.kodujdlapolski.na4lapy.service.network.NetworkStatistics;
+import pl.kodujdlapolski.na4lapy.service.preferences.PreferencesService;
+import pl.kodujdlapolski.na4lapy.service.repository.database.DatabaseRepository;
+import pl.kodujdlapolski.na4lapy.service.repository.database.QueryStatistics;
+import pl.kodujdlapolski.na4lapy.service.repository.model.SyncReport;
+import pl.kodujdlapolski.na4lapy.service.repository.model.SyncState;
+import pl.kodujdlapolski.na4lapy.service.scheduler.ImmediateSchedulerProvider;
+import pl.kodujdlapolski.na4lapy.service.system.SystemService;
+import pl.kodujdlapolski.na4lapy.service.user.UserService;
+import retrofit2.Retrofit;
+import retrofit2.adapter.rxjava.RxJavaCallAdapterFactory;
+import retrofit2.converter.gson.GsonConverterFactory;
+import rx.Observable;
+import rx.observers.TestSubscriber;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.when;
+
+/**
+ * Runs the incremental animal sync end to end against a local HTTP server that honours
+ * If-None-Match, with an in-memory database behind the repository and the HTTP cache in front of it.
+ */
+@RunWith(MockitoJUnitRunner.class)
+public class RepositoryServiceImplSyncTest {
+
+    private static final int CATALOGUE_SIZE = RepositoryServiceImpl.PAGE_SIZE * 2 + 20;
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Mock
+    private PreferencesService preferencesService;
+
+    @Mock
+    private UserService userService;
+
+    @Mock
+    private SystemService systemService;
+
+    private MockWebServer server;
+    private TreeMap<Long, String> catalogue = new TreeMap<>();
+    private InMemoryDatabaseRepository databaseRepository = new InMemoryDatabaseRepository();
+    private RepositoryServiceImpl repositoryService;
+
+    @Before
+    public void setUp() throws Exception {
+        for (long id = 0; id < CATALOGUE_SIZE; id++) {
+            catalogue.put(id, createAnimalJson(id, "Animal_" + id));
+        }
+        server = new MockWebServer();
+        server.setDispatcher(new CatalogueDispatcher());
+        server.start();
+
+        Gson gson = new GsonBuilder()
+                .registerTypeAdapter(LocalDate.class, new LocalDateTypeAdapter())
+                .registerTypeAdapterFactory(new AnimalTypeAdapterFactory())
+                .create();
+        when(systemService.isOnline()).thenReturn(true);
+        OkHttpClient client = new CacheInterceptor(systemService, new NetworkStatistics())
+                .install(new OkHttpClient.Builder().cache(new Cache(folder.newFolder(), 1024 * 1024)))
+                .build();
+        Api api = new Retrofit.Builder()
+                .baseUrl(server.url("/"))
+                .client(client)
+                .addConverterFactory(GsonConverterFactory.create(gson))
+                .addCallAdapterFactory(RxJavaCallAdapterFactory.create())
+                .build()
+                .create(Api.class);
+
+        Map<String, SyncState> syncStates = new HashMap<>();
+        when(preferencesService.getSyncState(anyString())).thenAnswer(invocation -> syncStates.get(invocation.getArguments()[0]));
+        doAnswer(invocation -> {
+            String resource = (String) invocation.getArguments()[0];
+            SyncState state = (SyncState) invocation.getArguments()[1];
+            if (state == null) {
+                syncStates.remove(resource);
+            } else {
+                syncStates.put(resource, state);
+            }
+            return null;
+        }).when(preferencesService).setSyncState(anyString(), any(SyncState.class));
+        when(userService.getPreferencesComplianceLevelSql()).thenReturn("0");
+        when(userService.getUserPreferencesPublisher()).thenReturn(Observable.empty());
+
+        repositoryService = new RepositoryServiceImpl(new ApiServiceImpl(api, gson, new NetworkStatistics()), databaseRepository, preferencesService,
+                new SyncIdStore(folder.getRoot()), userService, new ImmediateSchedulerProvider());
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        server.shutdown();
+    }
+
+    @Test
+    public void testSecondSyncOfUnchangedCatalogueWritesNothing() throws Exception {
+        // when
+        SyncReport first = synchronize();
+        SyncReport second = synchronize();
+
+        // then
+        assertEquals(3, first.getRequests());
+        assertEquals(0, first.getNotModified());
+        assertEquals(CATALOGUE_SIZE * 2, first.getRowsWritten());
+        assertEquals(3, second.getNotModified());
+        assertEquals(0, second.getRowsWritten());
+        assertEquals(0, second.getRowsDeleted());
+        assertTrue(first.getBodyBytes() > 0);
+        assertEquals(0, second.getBodyBytes());
+        assertEquals(CATALOGUE_SIZE, databaseRepository.count(Animal.class));
+    }
+
+    @Test
+    public void testSyncWritesOnlyChangedRowsAndDeletesRemovedAnimals() throws Exception {
+        // given
+        synchronize();
+        catalogue.put(5L, createAnimalJson(5L, "Renamed"));
+        catalogue.remove(110L);
+
+        // when
+        SyncReport report = synchronize();
+
+        // then
+        assertEquals(3, report.getRequests());
+        // the removal changes "total" on every page, so no page is 304 and content hashes decide
+        assertEquals(0, report.getNotModified());
+        assertEquals(2, report.getRowsWritten());
+        assertEquals(3, report.getRowsDeleted());
+        assertEquals(CATALOGUE_SIZE - 1, databaseRepository.count(Animal.class));
+        assertEquals(CATALOGUE_SIZE - 1, databaseRepository.count(Photo.class));
+        assertNull(databaseRepository.findOneById(110L, Animal.class));
+        assertEquals("Renamed", databaseRepository.<Animal>findOneById(5L, Animal.class).getName());
+    }
+
+    @Test
+    public void testFailedSyncDoesNotDeleteAnything() throws Exception {
+        // given
+        synchronize();
+        catalogue.remove(0L);
+        server.setDispatcher(new Dispatcher() {
+            @Override
+            public MockResponse dispatch(RecordedRequest request) {
+                return new MockResponse().setResponseCode(HttpURLConnection.HTTP_INTERNAL_ERROR);
+            }
+        });
+
+        // when
+        TestSubscriber<List<AnimalSummary>> testSubscriber = new TestSubscriber<>();
+        repositoryService.getAnimalSummaries().subscribe(testSubscriber);
+        testSubscriber.awaitTerminalEvent();
+
+        // then
+        assertFalse(testSubscriber.getOnErrorEvents().isEmpty());
+        assertNotNull(databaseRepository.findOneById(0L, Animal.class));
+    }
+
+    @Test
+    public void testEveryPageIsWrittenInItsOwnTransaction() throws Exception {
+        // when
+        synchronize();
+
+        // then
+        // three pages and the deletion of removed animals
+        assertEquals(4, databaseRepository.getTransactions());
+        assertEquals(0, databaseRepository.getWritesOutsideTransaction());
+    }
+
+    @Test
+    public void testFailedPageLeavesNothingOnDisk() throws Exception {
+        // given
+        databaseRepository.failWritesOf(Photo.class);
+
+        // when
+        SyncReport report = synchronize();
+
+        // then
+        assertEquals(0, report.getRowsWritten());
+        assertEquals(0, databaseRepository.count(Animal.class));
+        assertFalse(new SyncIdStore(folder.getRoot()).contains(AnimalSync.getPageResource(1, RepositoryServiceImpl.PAGE_SIZE)));
+    }
+
+    @Test
+    public void testFailedPhotoWriteIsRepairedByNextSync() throws Exception {
+        // given
+        databaseRepository.failWritesOf(Photo.class);
+        synchronize();
+        databaseRepository.failWritesOf(null);
+
+        // when
+        SyncReport report = synchronize();
+
+        // then
+        assertEquals(CATALOGUE_SIZE * 2, report.getRowsWritten());
+        assertEquals(CATALOGUE_SIZE, databaseRepository.count(Animal.class));
+        assertEquals(CATALOGUE_SIZE, databaseRepository.count(Photo.class));
+    }
+
+    @Test
+    public void testShelterNotSynchronizedYetIsServedFromHttpCacheOffline() throws Exception {
+        // given
+        repositoryService.getShelter(1L).toBlocking().first();
+        int requests = server.getRequestCount();
+        when(systemService.isOnline()).thenReturn(false);
+
+        // when
+        Shelter shelter = repositoryService.getShelter(1L).toBlocking().first();
+
+        // then
+        assertEquals("Schronisko", shelter.getName());
+        assertEquals(requests, server.getRequestCount());
+    }
+
+    @Test
+    public void testAnimalNotSynchronizedYetIsServedFromHttpCacheOffline() throws Exception {
+        // given
+        repositoryService.getAnimal(7L).toBlocking().first();
+        when(systemService.isOnline()).thenReturn(false);
+
+        // when
+        Animal animal = repositoryService.getAnimal(7L).toBlocking().first();
+
+        // then
+        assertEquals("Animal_7", animal.getName());
+        assertEquals(1, server.getRequestCount());
+        assertNull(databaseRepository.findOneById(7L, Animal.class));
+    }
+
+    private SyncReport synchronize() {
+        TestSubscriber<SyncReport> reportSubscriber = new TestSubscriber<>();
+        repositoryService.getSyncReports().first().subscribe(reportSubscriber);
+        TestSubscriber<List<AnimalSummary>> testSubscriber = new TestSubscriber<>();
+        repositoryService.getAnimalSummaries().subscribe(testSubscriber);
+        testSubscriber.awaitTerminalEvent();
+        testSubscriber.assertNoErrors();
+        reportSubscriber.assertValueCount(1);
+        return reportSubscriber.getOnNextEvents().get(0);
+    }
+
+    private static String createAnimalJson(long id, String name) {
+        return "{\"id\":" + id + ",\"name\":\"" + name + "\",\"species\":\"DOG\",\"birthDate\":\"2012-01-01\","
+                + "\"description\":\"W schronisku jestem od 2011 roku.\","
+                + "\"photos\":[{\"id\":" + (id * 10 + name.length()) + ",\"url\":\"http://a/" + id + ".jpg\"}]}";
+    }
+
+    private class CatalogueDispatcher extends Dispatcher {
+        @Override
+        public MockResponse dispatch(RecordedRequest request) {
+            HttpUrl url = server.url(request.getPath());
+            if (url.pathSegments().get(0).equals("shelters")) {
+                return new MockResponse().setBody("{\"id\":1,\"name\":\"Schronisko\"}");
+            }
+            if (url.pathSegments().size() > 1) {
+                return new MockResponse().setBody(catalogue.get(Long.parseLong(url.pathSegments().get(1))));
+            }
+            int page = Integer.parseInt(url.queryParameter("page"));
+            int size = Integer.parseInt(url.queryParameter("size"));
+            List<String> animals = new ArrayList<>(catalogue.values());
+            int from = Math.min((page - 1) * size, animals.size());
+            StringBuilder body = new StringBuilder("{\"total\":").append(animals.size()).append(",\"data\":[");
+            for (int i = from; i < Math.min(from + size, animals.size()); i++) {
+                body.append(i > from ? "," : "").append(animals.get(i));
+            }
+            body.append("]}");
+            String etag = "\"" + Integer.toHexString(body.toString().hashCode()) + "\"";
+            if (etag.equals(request.getHeader(Api.HEADER_IF_NONE_MATCH))) {
+                return new MockResponse().setResponseCode(HttpURLConnection.HTTP_NOT_MODIFIED).setHeader(Api.HEADER_ETAG, etag);
+            }
+            return new MockResponse().setHeader(Api.HEADER_ETAG, etag).setBody(body.toString());
+        }
+    }
+
+    private static class InMemoryDatabaseRepository implements DatabaseRepository {
+
+        private final Map<Class, Map<Long, Object>> mTables = new HashMap<>();
+        private long mNextPhotoId = 1_000_000;
+        private Class mFailingClass;
+        private int mTransactionDepth;
+        private boolean mWrittenInTransaction;
+        // transactions that wrote anything, the compliance level updates only run raw statements
+        private int mTransactions;
+        private int mWritesOutsideTransaction;
+
+        synchronized int count(Class clazz) {
+            return table(clazz).size();
+        }
+
+        synchronized void failWritesOf(Class clazz) {
+            mFailingClass = clazz;
+        }
+
+        synchronized int getTransactions() {
+            return mTransactions;
+        }
+
+        synchronized int getWritesOutsideTransaction() {
+            return mWritesOutsideTransaction;
+        }
+
+        private void recordWrite() {
+            if (mTransactionDepth == 0) {
+                mWritesOutsideTransaction++;
+            } else {
+                mWrittenInTransaction = true;
+            }
+        }
+
+        private Map<Long, Object> table(Class clazz) {
+            Map<Long, Object> table = mTables.get(clazz);
+            if (table == null) {
+                table = new TreeMap<>();
+                mTables.put(clazz, table);
+            }
+            return table;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public synchronized <T> T findOneById(Long id, Class clazz) {
+            return (T) table(clazz).get(id);
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public synchronized <T> List<T> findAll(Class clazz) {
+            return new ArrayList<>((Collection<T>) table(clazz).values());
+        }
+
+        @Override
+        public <T1, T2> List<T1> findAllByForeignId(Long id, Class sourceClass, Class foreignClass) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public <T> List<T> findAllByFields(Map<String, Object> fieldValues, Class clazz) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public synchronized <T> List<T> findAllByIdList(List<Long> idList, Class clazz) {
+            List<T> result = new ArrayList<>();
+            for (Long id : idList) {
+                if (table(clazz).containsKey(id)) {
+                    result.add((T) table(clazz).get(id));
+                }
+            }
+            return result;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public synchronized <T> List<T> findAllByForeignIds(Collection<Long> foreignIds, String foreignColumnName,
+                                                            String orderByRaw, Class clazz) {
+            List<T> result = new ArrayList<>();
+            for (Object entity : table(clazz).values()) {
+                Photo photo = (Photo) entity;
+                if (photo.getAnimal() != null && foreignIds.contains(photo.getAnimal().getId())) {
+                    result.add((T) photo);
+                }
+            }
+            return result;
+        }
+
+        private <T> List<T> findAllWithIdIn(Class idSourceClass, Class clazz) {
+            return findAllByIdList(findAllIds(idSourceClass), clazz);
+        }
+
+        @SuppressWarnings("unchecked")
+        private <T> List<T> findPage(long offset, long limit, Class clazz) {
+            List<T> all = new ArrayList<>((Collection<T>) table(clazz).values());
+            return new ArrayList<>(all.subList((int) Math.min(offset, all.size()), (int) Math.min(offset + limit, all.size())));
+        }
+
+        @Override
+        public synchronized <R> R findColumnsById(Long id, String[] columns, RawRowMapper<R> mapper, Class clazz) {
+            return summarize((Animal) findOneById(id, clazz));
+        }
+
+        @Override
+        public synchronized <R> List<R> findColumnsWithIdIn(Class idSourceClass, String[] columns, RawRowMapper<R> mapper,
+                                                            String orderByRaw, Class clazz) {
+            return summarize(findAllWithIdIn(idSourceClass, clazz));
+        }
+
+        @Override
+        public synchronized <R> List<R> findColumnsPageOrderedBy(String[] columns, RawRowMapper<R> mapper, String orderByRaw,
+                                                                 long offset, long limit, Class clazz) {
+            return summarize(findPage(offset, limit, clazz));
+        }
+
+        @SuppressWarnings("unchecked")
+        private static <R> R summarize(Animal animal) {
+            return animal != null ? (R) AnimalSummary.of(animal, 0) : null;
+        }
+
+        private static <R> List<R> summarize(List<Animal> animals) {
+            List<R> result = new ArrayList<>();
+            for (Animal animal : animals) {
+                result.add(summarize(animal));
+            }
+            return result;
+        }
+
+        @Override
+        public synchronized <T> int save(T entity) throws SQLException {
+            recordWrite();
+            if (entity.getClass() == mFailingClass) {
+                throw new SQLException("Cannot write " + mFailingClass.getSimpleName());
+            }
+            BaseEntity baseEntity = (BaseEntity) entity;
+            if (baseEntity.getId() == null) {
+                baseEntity.setId(mNextPhotoId++);
+            }
+            table(entity.getClass()).put(baseEntity.getId(), entity);
+            return 1;
+        }
+
+        @Override
+        public synchronized <T> int saveAll(List<T> entities) throws SQLException {
+            for (T entity : entities) {
+                save(entity);
+            }
+            return entities.size();
+        }
+
+        @Override
+        public synchronized List<Long> findAllIds(Class clazz) {
+            return new ArrayList<>(table(clazz).keySet());
+        }
+
+        @Override
+        public synchronized int deleteByIds(Collection<Long> ids, Class clazz) {
+            recordWrite();
+            int count = 0;
+            for (Long id : ids) {
+                if (table(clazz).remove(id) != null) {
+                    count++;
+                }
+            }
+            return count;
+        }
+
+        @Override
+        public synchronized int deleteByForeignIds(Collection<Long> foreignIds, String foreignColumnName, Class clazz) {
+            recordWrite();
+            int count = 0;
+            for (Object photo : new ArrayList<>(table(clazz).values())) {
+                if (foreignIds.contains(((Photo) photo).getAnimal().getId())) {
+                    table(clazz).remove(((Photo) photo).getId());
+                    count++;
+                }
+            }
+            return count;
+        }
+
+        @Override
+        public int updateRaw(String statement, Class clazz, String... arguments) {
+            return 0;
+        }
+
+        @Override
+        public synchronized <V> V callInTransaction(Callable<V> callable) throws SQLException {
+            Map<Class, Map<Long, Object>> committed = new HashMap<>();
+            for (Map.Entry<Class, Map<Long, Object>> entry : mTables.entrySet()) {
+                committed.put(entry.getKey(), new TreeMap<>(entry.getValue()));
+            }
+            mWrittenInTransaction = false;
+            mTransactionDepth++;
+            try {
+                return callable.call();
+            } catch (Exception e) {
+                mTables.clear();
+                mTables.putAll(committed);
+                throw e instanceof SQLException ? (SQLException) e : new SQLException(e);
+            } finally {
+                mTransactionDepth--;
+                if (mWrittenInTransaction) {
+                    mTransactions++;
+                }
+            }
+        }
+
+        @Override
+        public QueryStatistics getQueryStatistics() {
+            return new QueryStatistics();
+        }
+    }
+}
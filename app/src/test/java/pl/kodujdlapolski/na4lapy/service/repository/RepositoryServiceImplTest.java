@@ -16,32 +16,55 @@
 package pl.kodujdlapolski.na4lapy.service.repository;
 
 import com.google.common.collect.Lists;
-import com.google.common.collect.Maps;
 
 import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
-import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.runners.MockitoJUnitRunner;
 
 import java.sql.SQLException;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
-import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import pl.kodujdlapolski.na4lapy.model.Animal;
+import pl.kodujdlapolski.na4lapy.model.AnimalSummary;
+import pl.kodujdlapolski.na4lapy.model.Favourite;
+import pl.kodujdlapolski.na4lapy.model.Photo;
 import pl.kodujdlapolski.na4lapy.model.Shelter;
+import pl.kodujdlapolski.na4lapy.model.UserPreferences;
 import pl.kodujdlapolski.na4lapy.service.api.ApiService;
+import pl.kodujdlapolski.na4lapy.service.api.model.ConditionalResponse;
+import pl.kodujdlapolski.na4lapy.service.api.model.PagedAnimalListDto;
 import pl.kodujdlapolski.na4lapy.service.preferences.PreferencesService;
 import pl.kodujdlapolski.na4lapy.service.repository.database.DatabaseRepository;
+import pl.kodujdlapolski.na4lapy.service.repository.model.AnimalSyncProgress;
+import pl.kodujdlapolski.na4lapy.service.repository.model.ComplianceLevelReport;
+import pl.kodujdlapolski.na4lapy.service.scheduler.ImmediateSchedulerProvider;
 import pl.kodujdlapolski.na4lapy.service.user.UserService;
 import rx.Observable;
 import rx.observers.TestSubscriber;
+import rx.subjects.PublishSubject;
+import rx.subjects.Subject;
+import rx.subscriptions.CompositeSubscription;
 
 import static com.google.common.base.Verify.verifyNotNull;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
 import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyInt;
+import static org.mockito.Matchers.anyListOf;
+import static org.mockito.Matchers.anyLong;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.verifyNoMoreInteractions;
 import static org.mockito.Mockito.when;
@@ -58,10 +81,12 @@ public class RepositoryServiceImplTest {
     @Mock
     private PreferencesService preferencesService;
 
+    @Mock
+    private SyncIdStore syncIdStore;
+
     @Mock
     private UserService userService;
 
-    @InjectMocks
     private RepositoryServiceImpl repositoryService;
 
     private Long animalId = 60L, shelterId = 61L;
@@ -70,7 +95,13 @@ public class RepositoryServiceImplTest {
 
     @Before
     public void setUp() throws Exception {
-        repositoryService = new RepositoryServiceImpl(apiService, databaseRepository, preferencesService, userService);
+        when(userService.getUserPreferencesPublisher()).thenReturn(Observable.empty());
+        when(userService.getPreferencesComplianceLevelSql()).thenReturn("0");
+        when(userService.flushFavourites()).thenReturn(Observable.just(null));
+        when(databaseRepository.callInTransaction(any(Callable.class))).thenAnswer(invocation ->
+                ((Callable) invocation.getArguments()[0]).call());
+        repositoryService = new RepositoryServiceImpl(apiService, databaseRepository, preferencesService, syncIdStore, userService,
+                new ImmediateSchedulerProvider());
 
         animal = new Animal();
         animal.setId(animalId);
@@ -94,6 +125,8 @@ public class RepositoryServiceImplTest {
         testSubscriber.assertNoErrors();
         testSubscriber.assertReceivedOnNext(Arrays.asList(animal));
         verify(databaseRepository).findOneById(animalId, Animal.class);
+        verify(databaseRepository).findAllByForeignIds(Collections.singleton(animalId), Photo.COLUMN_NAME_ANIMAL_ID,
+                PhotoLoader.ORDER_BY_INSERTION, Photo.class);
     }
 
     @Test
@@ -112,6 +145,44 @@ public class RepositoryServiceImplTest {
         verify(databaseRepository).findOneById(animalId, Animal.class);
     }
 
+    @Test
+    public void testGetAnimalSummary() throws Exception {
+        // given
+        AnimalSummary summary = AnimalSummary.of(animal, 3);
+        when(databaseRepository.findColumnsById(eq(animalId), eq(AnimalSummaryMapper.COLUMNS),
+                any(AnimalSummaryMapper.class), eq(Animal.class))).thenReturn(summary);
+
+        // when
+        Observable<AnimalSummary> result = repositoryService.getAnimalSummary(animalId);
+
+        // then
+        verifyNotNull(result);
+        TestSubscriber<AnimalSummary> testSubscriber = new TestSubscriber<>();
+        result.subscribe(testSubscriber);
+        testSubscriber.assertNoErrors();
+        testSubscriber.assertReceivedOnNext(Arrays.asList(summary));
+        verify(databaseRepository, never()).findOneById(animalId, Animal.class);
+    }
+
+    @Test
+    public void testGetPhotos() throws Exception {
+        // given
+        List photos = Lists.newArrayList(new Photo());
+        when(databaseRepository.findAllByForeignIds(Collections.singletonList(animalId), Photo.COLUMN_NAME_ANIMAL_ID,
+                PhotoLoader.ORDER_BY_INSERTION, Photo.class)).thenReturn(photos);
+
+        // when
+        Observable<List<Photo>> result = repositoryService.getPhotos(animalId);
+
+        // then
+        verifyNotNull(result);
+        TestSubscriber<List<Photo>> testSubscriber = new TestSubscriber<>();
+        result.subscribe(testSubscriber);
+        testSubscriber.assertNoErrors();
+        testSubscriber.assertReceivedOnNext(Arrays.asList(photos));
+        verify(databaseRepository, never()).findOneById(animalId, Animal.class);
+    }
+
     @Test
     public void testGetAnimalsByShelterId() throws Exception {
         // given
@@ -147,115 +218,167 @@ public class RepositoryServiceImplTest {
     }
 
     @Test
-    public void testGetAnimals() throws Exception {
+    public void testGetAnimalSummaries() throws Exception {
         // given
         ArrayList animals = Lists.newArrayList(animal);
-        when(databaseRepository.findAll(Animal.class)).thenReturn(animals);
-        when(apiService.getAnimalList()).thenReturn(Observable.empty());
+        when(databaseRepository.findColumnsPageOrderedBy(eq(AnimalSummaryMapper.COLUMNS), any(AnimalSummaryMapper.class), anyString(), anyLong(), anyLong(), eq(Animal.class))).thenReturn(animals);
+        when(apiService.getAnimalList(anyInt(), anyInt(), anyString(), anyString())).thenReturn(Observable.empty());
 
         // when
-        Observable<List<Animal>> result = repositoryService.getAnimals();
+        Observable<List<AnimalSummary>> result = repositoryService.getAnimalSummaries();
 
         // then
         verifyNotNull(result);
-        TestSubscriber<List<Animal>> testSubscriber = new TestSubscriber<>();
+        TestSubscriber<List<AnimalSummary>> testSubscriber = new TestSubscriber<>();
         result.subscribe(testSubscriber);
         testSubscriber.assertNoErrors();
-        verify(databaseRepository).findAll(Animal.class);
+        verify(databaseRepository).findColumnsPageOrderedBy(eq(AnimalSummaryMapper.COLUMNS), any(AnimalSummaryMapper.class), anyString(), eq(0L), eq((long) RepositoryServiceImpl.BROWSE_PAGE_SIZE), eq(Animal.class));
     }
 
 
     @Test
-    public void testGetAnimalsShouldReturnSqlException() throws Exception {
+    public void testGetAnimalSummariesShouldReturnSqlException() throws Exception {
         // given
-        when(databaseRepository.findAll(Animal.class)).thenThrow(new SQLException());
-        when(apiService.getAnimalList()).thenReturn(Observable.empty());
+        when(databaseRepository.findColumnsPageOrderedBy(eq(AnimalSummaryMapper.COLUMNS), any(AnimalSummaryMapper.class), anyString(), anyLong(), anyLong(), eq(Animal.class))).thenThrow(new SQLException());
+        when(apiService.getAnimalList(anyInt(), anyInt(), anyString(), anyString())).thenReturn(Observable.empty());
 
         // when
-        Observable<List<Animal>> result = repositoryService.getAnimals();
+        Observable<List<AnimalSummary>> result = repositoryService.getAnimalSummaries();
 
         // then
         verifyNotNull(result);
-        TestSubscriber<List<Animal>> testSubscriber = new TestSubscriber<>();
+        TestSubscriber<List<AnimalSummary>> testSubscriber = new TestSubscriber<>();
         result.subscribe(testSubscriber);
         testSubscriber.assertError(SQLException.class);
-        verify(databaseRepository).findAll(Animal.class);
+        verify(databaseRepository).findColumnsPageOrderedBy(eq(AnimalSummaryMapper.COLUMNS), any(AnimalSummaryMapper.class), anyString(), eq(0L), eq((long) RepositoryServiceImpl.BROWSE_PAGE_SIZE), eq(Animal.class));
     }
 
     @Test
-    public void testGetAnimalsByFavourite() throws Exception {
+    public void testGetAnimalSummariesShouldSynchronizePageByPage() throws Exception {
         // given
-        Map<String, Object> favouriteField = Maps.newHashMap();
-        favouriteField.put(Animal.COLUMN_NAME_FAVOURITE, true);
-        List animals = Lists.newArrayList(animal);
-        when(databaseRepository.findAllByFields(favouriteField, Animal.class)).thenReturn(animals);
+        int total = RepositoryServiceImpl.PAGE_SIZE * 2 + 1;
+        when(databaseRepository.findColumnsPageOrderedBy(eq(AnimalSummaryMapper.COLUMNS), any(AnimalSummaryMapper.class), anyString(), anyLong(), anyLong(), eq(Animal.class))).thenReturn(new ArrayList());
+        when(databaseRepository.saveAll(anyListOf(Animal.class))).thenAnswer(invocation -> ((List) invocation.getArguments()[0]).size());
+        when(apiService.getAnimalList(anyInt(), anyInt(), anyString(), anyString())).thenAnswer(invocation ->
+                Observable.just(createPage((Integer) invocation.getArguments()[0], total)));
+        TestSubscriber<AnimalSyncProgress> progressSubscriber = new TestSubscriber<>();
+        repositoryService.getAnimalsSyncProgress().subscribe(progressSubscriber);
 
         // when
-        Observable<List<Animal>> result = repositoryService.getAnimalsByFavourite();
+        TestSubscriber<List<AnimalSummary>> testSubscriber = new TestSubscriber<>();
+        repositoryService.getAnimalSummaries().subscribe(testSubscriber);
+        testSubscriber.awaitTerminalEvent();
 
         // then
-        verifyNotNull(result);
-        TestSubscriber<List<Animal>> testSubscriber = new TestSubscriber<>();
-        result.subscribe(testSubscriber);
         testSubscriber.assertNoErrors();
+        testSubscriber.assertValueCount(2);
+        progressSubscriber.assertValueCount(3);
+        List<AnimalSyncProgress> progress = progressSubscriber.getOnNextEvents();
+        assertEquals(1, progress.get(0).getPage());
+        assertTrue(progress.get(2).isCompleted());
+        assertEquals(total, progress.get(2).getSynchronizedCount());
+        verify(apiService).getAnimalList(1, RepositoryServiceImpl.PAGE_SIZE, null, null);
+        verify(apiService).getAnimalList(2, RepositoryServiceImpl.PAGE_SIZE, null, null);
+        verify(apiService).getAnimalList(3, RepositoryServiceImpl.PAGE_SIZE, null, null);
+        verify(databaseRepository, times(6)).saveAll(anyListOf(Animal.class));
+        verify(databaseRepository, times(2)).findColumnsPageOrderedBy(eq(AnimalSummaryMapper.COLUMNS), any(AnimalSummaryMapper.class), anyString(), eq(0L), eq((long) RepositoryServiceImpl.BROWSE_PAGE_SIZE), eq(Animal.class));
     }
 
     @Test
-    public void testGetAnimalsByFavouriteShouldReturnSqlException() throws Exception {
+    public void testGetAnimalSummariesShouldKeepPagesInFlightBounded() throws Exception {
         // given
-        Map<String, Object> favouriteField = Maps.newHashMap();
-        favouriteField.put(Animal.COLUMN_NAME_FAVOURITE, true);
-        when(databaseRepository.findAllByFields(favouriteField, Animal.class)).thenThrow(new SQLException());
+        when(databaseRepository.findColumnsPageOrderedBy(eq(AnimalSummaryMapper.COLUMNS), any(AnimalSummaryMapper.class), anyString(), anyLong(), anyLong(), eq(Animal.class))).thenReturn(new ArrayList());
 
         // when
-        Observable<List<Animal>> result = repositoryService.getAnimalsByFavourite();
+        int smallCatalogue = synchronizeAndCountMaxPagesInFlight(RepositoryServiceImpl.PAGE_SIZE * 10);
+        int largeCatalogue = synchronizeAndCountMaxPagesInFlight(RepositoryServiceImpl.PAGE_SIZE * 200);
 
         // then
-        verifyNotNull(result);
-        TestSubscriber<List<Animal>> testSubscriber = new TestSubscriber<>();
-        result.subscribe(testSubscriber);
+        assertTrue(smallCatalogue <= RepositoryServiceImpl.MAX_CONCURRENT_PAGES + 1);
+        assertTrue(largeCatalogue <= RepositoryServiceImpl.MAX_CONCURRENT_PAGES + 1);
+        // progress observers of screens that were torn down must not stay attached to the singleton
+        assertFalse(((Subject<?, ?>) repositoryService.getAnimalsSyncProgress()).hasObservers());
+    }
+
+    private int synchronizeAndCountMaxPagesInFlight(int total) {
+        AtomicInteger inFlight = new AtomicInteger();
+        AtomicInteger maxInFlight = new AtomicInteger();
+        when(apiService.getAnimalList(anyInt(), anyInt(), anyString(), anyString())).thenAnswer(invocation -> {
+            int page = (Integer) invocation.getArguments()[0];
+            return Observable.defer(() -> {
+                int current = inFlight.incrementAndGet();
+                synchronized (maxInFlight) {
+                    maxInFlight.set(Math.max(maxInFlight.get(), current));
+                }
+                return Observable.just(createPage(page, total));
+            }).delay(1, TimeUnit.MILLISECONDS).doOnNext(dto -> inFlight.decrementAndGet());
+        });
+        // one progress observer per browse screen created while the sync runs, as on rotation
+        CompositeSubscription screens = new CompositeSubscription();
+        for (int i = 0; i < 3; i++) {
+            screens.add(repositoryService.getAnimalsSyncProgress().subscribe(progress -> { }));
+        }
+        TestSubscriber<List<AnimalSummary>> testSubscriber = new TestSubscriber<>();
+        repositoryService.getAnimalSummaries().subscribe(testSubscriber);
+        testSubscriber.awaitTerminalEvent();
+        testSubscriber.assertNoErrors();
+        screens.unsubscribe();
+        return maxInFlight.get();
+    }
+
+    private ConditionalResponse<PagedAnimalListDto> createPage(int page, int total) {
+        List<Animal> animals = new ArrayList<>();
+        int first = (page - 1) * RepositoryServiceImpl.PAGE_SIZE;
+        for (int i = first; i < Math.min(first + RepositoryServiceImpl.PAGE_SIZE, total); i++) {
+            Animal pageAnimal = new Animal();
+            pageAnimal.setId((long) i);
+            animals.add(pageAnimal);
+        }
+        PagedAnimalListDto dto = new PagedAnimalListDto();
+        dto.setData(animals);
+        dto.setTotal(total);
+        return ConditionalResponse.modified(dto, null, null, 0);
     }
 
     @Test
-    public void testSetFavourite() throws Exception {
+    public void testGetFavouriteAnimalSummaries() throws Exception {
         // given
-        when(databaseRepository.findOneById(animalId, Animal.class)).thenReturn(animal);
+        List animals = Lists.newArrayList(animal);
+        when(databaseRepository.findColumnsWithIdIn(eq(Favourite.class), eq(AnimalSummaryMapper.COLUMNS),
+                any(AnimalSummaryMapper.class), eq(RepositoryServiceImpl.ORDER_BY_COMPLIANCE_LEVEL), eq(Animal.class)))
+                .thenReturn(animals);
 
         // when
-        Observable<Long> result = repositoryService.setFavourite(animalId, true);
+        Observable<List<AnimalSummary>> result = repositoryService.getFavouriteAnimalSummaries();
 
         // then
         verifyNotNull(result);
-        TestSubscriber<Long> testSubscriber = new TestSubscriber<>();
+        TestSubscriber<List<AnimalSummary>> testSubscriber = new TestSubscriber<>();
         result.subscribe(testSubscriber);
         testSubscriber.assertNoErrors();
-        testSubscriber.assertReceivedOnNext(Arrays.asList(animalId));
-        verify(databaseRepository).findOneById(animalId, Animal.class);
-        verify(databaseRepository).save(any(Animal.class));
     }
 
     @Test
-    public void testSetFavouriteShouldReturnSqlException() throws Exception {
+    public void testGetFavouriteAnimalSummariesShouldReturnSqlException() throws Exception {
         // given
-        when(databaseRepository.findOneById(animalId, Animal.class)).thenThrow(new SQLException());
+        when(databaseRepository.findColumnsWithIdIn(eq(Favourite.class), eq(AnimalSummaryMapper.COLUMNS),
+                any(AnimalSummaryMapper.class), eq(RepositoryServiceImpl.ORDER_BY_COMPLIANCE_LEVEL), eq(Animal.class)))
+                .thenThrow(new SQLException());
 
         // when
-        Observable<Long> result = repositoryService.setFavourite(animalId, true);
+        Observable<List<AnimalSummary>> result = repositoryService.getFavouriteAnimalSummaries();
 
         // then
         verifyNotNull(result);
-        TestSubscriber<Long> testSubscriber = new TestSubscriber<>();
+        TestSubscriber<List<AnimalSummary>> testSubscriber = new TestSubscriber<>();
         result.subscribe(testSubscriber);
-        testSubscriber.assertError(SQLException.class);
-        verify(databaseRepository).findOneById(animalId, Animal.class);
-        verifyNoMoreInteractions(databaseRepository);
     }
 
     @Test
     public void testGetShelter() throws Exception {
         // given
         when(databaseRepository.findOneById(shelterId, Shelter.class)).thenReturn(shelter);
-        when(apiService.getShelter()).thenReturn(Observable.just(shelter));
+        when(apiService.getShelter(anyString(), anyString())).thenReturn(Observable.just(ConditionalResponse.modified(shelter, null, null, 0)));
 
         // when
         Observable<Shelter> result = repositoryService.getShelter(shelterId);
@@ -269,11 +392,37 @@ public class RepositoryServiceImplTest {
         verify(databaseRepository).findOneById(shelterId, Shelter.class);
     }
 
+    @Test
+    public void testGetShelterCoalescesConcurrentSynchronization() throws Exception {
+        // given
+        PublishSubject<ConditionalResponse<Shelter>> response = PublishSubject.create();
+        when(databaseRepository.findOneById(shelterId, Shelter.class)).thenReturn(shelter);
+        when(apiService.getShelter(anyString(), anyString())).thenReturn(response);
+        TestSubscriber<Shelter> firstSubscriber = new TestSubscriber<>();
+        TestSubscriber<Shelter> secondSubscriber = new TestSubscriber<>();
+
+        // when
+        repositoryService.getShelter(shelterId).subscribe(firstSubscriber);
+        repositoryService.getShelter(shelterId).subscribe(secondSubscriber);
+        response.onNext(ConditionalResponse.modified(shelter, null, null, 0));
+        response.onCompleted();
+
+        // then
+        firstSubscriber.assertReceivedOnNext(Arrays.asList(shelter, shelter));
+        secondSubscriber.assertReceivedOnNext(Arrays.asList(shelter, shelter));
+        verify(apiService).getShelter(anyString(), anyString());
+        verify(databaseRepository).save(shelter);
+        RequestCoalescer.Counts counts = repositoryService.getRequestCoalescingStatistics()
+                .get(RepositoryServiceImpl.RESOURCE_SHELTER);
+        assertEquals(1, counts.getStarted());
+        assertEquals(1, counts.getCoalesced());
+    }
+
     @Test
     public void testGetShelterShouldReturnSqlException() throws Exception {
         // given
         when(databaseRepository.findOneById(shelterId, Shelter.class)).thenThrow(new SQLException());
-        when(apiService.getShelter()).thenReturn(Observable.just(shelter));
+        when(apiService.getShelter(anyString(), anyString())).thenReturn(Observable.just(ConditionalResponse.modified(shelter, null, null, 0)));
 
         // when
         Observable<Shelter> result = repositoryService.getShelter(shelterId);
@@ -319,4 +468,40 @@ public class RepositoryServiceImplTest {
         testSubscriber.assertError(SQLException.class);
         verify(databaseRepository).findAll(Shelter.class);
     }
-}
\ No newline at end of file
+
+    @Test
+    public void testPreferenceChangeRecomputesComplianceLevels() throws Exception {
+        // given
+        PublishSubject<UserPreferences> preferences = PublishSubject.create();
+        when(userService.getUserPreferencesPublisher()).thenReturn(preferences);
+        TestSubscriber<ComplianceLevelReport> reports = new TestSubscriber<>();
+        repositoryService.getComplianceLevelReports().subscribe(reports);
+        repositoryService.refreshComplianceLevelsOnPreferenceChange();
+
+        // when
+        preferences.onNext(new UserPreferences());
+
+        // then
+        reports.assertValueCount(1);
+        assertTrue(reports.getOnNextEvents().get(0).isFullRecompute());
+        verify(preferencesService).setComplianceLevelSql("0");
+    }
+
+    @Test
+    public void testPreferenceChangeIsIgnoredAfterUnsubscribe() throws Exception {
+        // given
+        PublishSubject<UserPreferences> preferences = PublishSubject.create();
+        when(userService.getUserPreferencesPublisher()).thenReturn(preferences);
+        TestSubscriber<ComplianceLevelReport> reports = new TestSubscriber<>();
+        repositoryService.getComplianceLevelReports().subscribe(reports);
+
+        // when
+        repositoryService.refreshComplianceLevelsOnPreferenceChange().unsubscribe();
+        preferences.onNext(new UserPreferences());
+
+        // then
+        assertFalse(preferences.hasObservers());
+        reports.assertNoValues();
+        verify(databaseRepository, never()).updateRaw(anyString(), eq(Animal.class));
+    }
+}
@@ -0,0 +1,121 @@
+/*
+ *	Copyright 2017 Stowarzyszenie Na4Łapy
+ *
+ *	Licensed under the Apache License, Version 2.0 (the "License");
+ *	you may not use this file except in compliance with the License.
+ *	You may obtain a copy of the License at
+ *
+ *	http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *	Unless required by applicable law or agreed to in writing, software
+ *	distributed under the License is distributed on an "AS IS" BASIS,
+ *	WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *	See the License for the specific language governing permissions and
+ *	limitations under the License.
+ */
+package pl.kodujdlapolski.na4lapy.service.repository;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import rx.Observable;
+import rx.observers.TestSubscriber;
+import rx.subjects.PublishSubject;
+
+import static org.junit.Assert.assertEquals;
+
+public class RequestCoalescerTest {
+
+    private static final String KEY = "resource";
+
+    private RequestCoalescer requestCoalescer;
+    private PublishSubject<Integer> upstream;
+    private AtomicInteger upstreamCalls;
+
+    @Before
+    public void setUp() throws Exception {
+        requestCoalescer = new RequestCoalescer();
+        upstream = PublishSubject.create();
+        upstreamCalls = new AtomicInteger();
+    }
+
+    @Test
+    public void testConcurrentSubscribersShareOneUpstream() throws Exception {
+        // given
+        Observable<Integer> first = requestCoalescer.coalesce(KEY, this::createUpstream);
+        Observable<Integer> second = requestCoalescer.coalesce(KEY, this::createUpstream);
+        TestSubscriber<Integer> firstSubscriber = new TestSubscriber<>();
+        TestSubscriber<Integer> secondSubscriber = new TestSubscriber<>();
+
+        // when
+        first.subscribe(firstSubscriber);
+        upstream.onNext(1);
+        second.subscribe(secondSubscriber);
+        upstream.onNext(2);
+        upstream.onCompleted();
+
+        // then
+        assertEquals(1, upstreamCalls.get());
+        firstSubscriber.assertReceivedOnNext(Arrays.asList(1, 2));
+        secondSubscriber.assertReceivedOnNext(Arrays.asList(1, 2));
+        secondSubscriber.assertCompleted();
+        assertEquals(1, requestCoalescer.snapshot().get(KEY).getStarted());
+        assertEquals(1, requestCoalescer.snapshot().get(KEY).getCoalesced());
+    }
+
+    @Test
+    public void testSubscriberAfterTerminationStartsNewUpstream() throws Exception {
+        // given
+        requestCoalescer.coalesce(KEY, this::createUpstream).subscribe(new TestSubscriber<>());
+        upstream.onCompleted();
+        upstream = PublishSubject.create();
+
+        // when
+        TestSubscriber<Integer> testSubscriber = new TestSubscriber<>();
+        requestCoalescer.coalesce(KEY, this::createUpstream).subscribe(testSubscriber);
+        upstream.onNext(3);
+        upstream.onCompleted();
+
+        // then
+        assertEquals(2, upstreamCalls.get());
+        testSubscriber.assertReceivedOnNext(Arrays.asList(3));
+        assertEquals(2, requestCoalescer.snapshot().get(KEY).getStarted());
+        assertEquals(0, requestCoalescer.snapshot().get(KEY).getCoalesced());
+    }
+
+    @Test
+    public void testErrorIsSharedAndNotCached() throws Exception {
+        // given
+        TestSubscriber<Integer> firstSubscriber = new TestSubscriber<>();
+        TestSubscriber<Integer> secondSubscriber = new TestSubscriber<>();
+        requestCoalescer.coalesce(KEY, this::createUpstream).subscribe(firstSubscriber);
+        requestCoalescer.coalesce(KEY, this::createUpstream).subscribe(secondSubscriber);
+
+        // when
+        upstream.onError(new IllegalStateException());
+        requestCoalescer.coalesce(KEY, this::createUpstream).subscribe(new TestSubscriber<>());
+
+        // then
+        firstSubscriber.assertError(IllegalStateException.class);
+        secondSubscriber.assertError(IllegalStateException.class);
+        assertEquals(2, upstreamCalls.get());
+    }
+
+    @Test
+    public void testDifferentKeysDoNotShare() throws Exception {
+        // when
+        requestCoalescer.coalesce(KEY, this::createUpstream).subscribe(new TestSubscriber<>());
+        requestCoalescer.coalesce("other", this::createUpstream).subscribe(new TestSubscriber<>());
+
+        // then
+        assertEquals(2, upstreamCalls.get());
+    }
+
+    private Observable<Integer> createUpstream() {
+        upstreamCalls.incrementAndGet();
+        return upstream;
+    }
+}
@@ -0,0 +1,69 @@
+/*
+ *	Copyright 2017 Stowarzyszenie Na4Łapy
+ *
+ *	Licensed under the Apache License, Version 2.0 (the "License");
+ *	you may not use this file except in compliance with the License.
+ *	You may obtain a copy of the License at
+ *
+ *	http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *	Unless required by applicable law or agreed to in writing, software
+ *	distributed under the License is distributed on an "AS IS" BASIS,
+ *	WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *	See the License for the specific language governing permissions and
+ *	limitations under the License.
+ */
+package pl.kodujdlapolski.na4lapy.service.repository;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class SyncIdStoreTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private SyncIdStore syncIdStore;
+
+    @Before
+    public void setUp() throws Exception {
+        syncIdStore = new SyncIdStore(new File(folder.getRoot(), "sync"));
+    }
+
+    @Test
+    public void testWriteAndReadKeepsOrder() throws Exception {
+        // when
+        syncIdStore.write(AnimalSync.getPageResource(1, 100), Arrays.asList(5L, 1L, Long.MAX_VALUE));
+        syncIdStore.write(AnimalSync.getPageResource(2, 100), Collections.emptyList());
+
+        // then
+        assertEquals(Arrays.asList(5L, 1L, Long.MAX_VALUE), syncIdStore.read(AnimalSync.getPageResource(1, 100)));
+        assertEquals(Collections.emptyList(), syncIdStore.read(AnimalSync.getPageResource(2, 100)));
+        assertTrue(syncIdStore.contains(AnimalSync.getPageResource(2, 100)));
+    }
+
+    @Test
+    public void testRemovedOrMissingResourceHasNoIds() throws Exception {
+        // given
+        syncIdStore.write(AnimalSync.getPageResource(1, 100), Arrays.asList(1L, 2L));
+
+        // when
+        syncIdStore.remove(AnimalSync.getPageResource(1, 100));
+
+        // then
+        assertFalse(syncIdStore.contains(AnimalSync.getPageResource(1, 100)));
+        assertNull(syncIdStore.read(AnimalSync.getPageResource(1, 100)));
+        assertNull(syncIdStore.read(AnimalSync.getPageResource(3, 100)));
+    }
+}
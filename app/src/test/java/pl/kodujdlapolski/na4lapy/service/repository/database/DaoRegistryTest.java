@@ -0,0 +1,72 @@
+/*
+ *	Copyright 2017 Stowarzyszenie Na4Łapy
+ *
+ *	Licensed under the Apache License, Version 2.0 (the "License");
+ *	you may not use this file except in compliance with the License.
+ *	You may obtain a copy of the License at
+ *
+ *	http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *	Unless required by applicable law or agreed to in writing, software
+ *	distributed under the License is distributed on an "AS IS" BASIS,
+ *	WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *	See the License for the specific language governing permissions and
+ *	limitations under the License.
+ */
+package pl.kodujdlapolski.na4lapy.service.repository.database;
+
+import com.j256.ormlite.dao.Dao;
+import com.j256.ormlite.dao.DaoManager;
+import com.j256.ormlite.support.ConnectionSource;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.powermock.core.classloader.annotations.PrepareForTest;
+import org.powermock.modules.junit4.PowerMockRunner;
+
+import pl.kodujdlapolski.na4lapy.model.Animal;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.times;
+import static org.powermock.api.mockito.PowerMockito.mockStatic;
+import static org.powermock.api.mockito.PowerMockito.verifyStatic;
+
+@RunWith(PowerMockRunner.class)
+@PrepareForTest({DaoManager.class})
+public class DaoRegistryTest {
+
+    @Mock
+    private ConnectionSource connectionSource;
+
+    @Mock
+    private Dao<Object, Long> dao;
+
+    private DaoRegistry daoRegistry;
+
+    @Before
+    public void setUp() throws Exception {
+        daoRegistry = new DaoRegistry(connectionSource);
+        mockStatic(DaoManager.class);
+    }
+
+    @Test
+    public void testGetDaoShouldCreateDaoOnlyOnce() throws Exception {
+        // given
+        Class clazz = Animal.class;
+        given(DaoManager.createDao(connectionSource, clazz)).willReturn(dao);
+
+        // when
+        Dao<Object, Long> first = daoRegistry.getDao(clazz);
+        Dao<Object, Long> second = daoRegistry.getDao(clazz);
+
+        // then
+        verifyStatic(times(1));
+        DaoManager.createDao(connectionSource, clazz);
+        assertNotNull(first);
+        assertEquals(first, second);
+    }
+}
@@ -0,0 +1,208 @@
+/*
+ *	Copyright 2017 Stowarzyszenie Na4Łapy
+ *
+ *	Licensed under the Apache License, Version 2.0 (the "License");
+ *	you may not use this file except in compliance with the License.
+ *	You may obtain a copy of the License at
+ *
+ *	http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *	Unless required by applicable law or agreed to in writing, software
+ *	distributed under the License is distributed on an "AS IS" BASIS,
+ *	WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *	See the License for the specific language governing permissions and
+ *	limitations under the License.
+ */
+package pl.kodujdlapolski.na4lapy.service.repository.database;
+
+import android.database.sqlite.SQLiteDatabase;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.powermock.core.classloader.annotations.PrepareForTest;
+import org.powermock.modules.junit4.PowerMockRunner;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+@RunWith(PowerMockRunner.class)
+@PrepareForTest({SQLiteDatabase.class})
+public class DatabaseMigrationsTest {
+
+    @Mock
+    private SQLiteDatabase database;
+
+    @Test
+    public void testGetMigrationsShouldReturnStepsInOrder() {
+        // given
+        DatabaseMigration second = new DatabaseMigration(2);
+        DatabaseMigration third = new DatabaseMigration(3);
+        DatabaseMigration fourth = new DatabaseMigration(4);
+
+        // when
+        List<DatabaseMigration> result = DatabaseMigrations.getMigrations(Arrays.asList(second, third, fourth), 1, 3);
+
+        // then
+        assertEquals(Arrays.asList(second, third), result);
+    }
+
+    @Test
+    public void testGetMigrationsShouldReturnNullWhenPathHasGap() {
+        // given
+        List<DatabaseMigration> migrations = Arrays.asList(new DatabaseMigration(2), new DatabaseMigration(4));
+
+        // when
+        List<DatabaseMigration> result = DatabaseMigrations.getMigrations(migrations, 1, 4);
+
+        // then
+        assertNull(result);
+    }
+
+    @Test
+    public void testGetMigrationsShouldReturnNullForUnknownOldVersion() {
+        // when
+        List<DatabaseMigration> result = DatabaseMigrations.getMigrations(0, 3);
+
+        // then
+        assertNull(result);
+    }
+
+    @Test
+    public void testAllMigrationsShouldFormContinuousPathFromFirstVersion() {
+        // given
+        List<DatabaseMigration> all = DatabaseMigrations.getAll();
+        int latest = all.get(all.size() - 1).getVersion();
+
+        // when
+        List<DatabaseMigration> result = DatabaseMigrations.getMigrations(1, latest);
+
+        // then
+        assertEquals(all, result);
+        assertTrue(DatabaseMigrations.getMigrations(latest, latest).isEmpty());
+    }
+
+    @Test
+    public void testMigrateShouldExecuteStatementsInOrder() {
+        // given
+        DatabaseMigration migration = new DatabaseMigration(2, "first", "second");
+
+        // when
+        migration.migrate(database);
+
+        // then
+        InOrder inOrder = inOrder(database);
+        inOrder.verify(database).execSQL("first");
+        inOrder.verify(database).execSQL("second");
+    }
+
+    @Test
+    public void testIndexMigrationShouldCreateEveryIndex() {
+        // given
+        DatabaseMigration migration = DatabaseMigrations.getMigrations(2, 3).get(0);
+
+        // when
+        migration.migrate(database);
+
+        // then
+        verify(database, times(7)).execSQL(anyString());
+        verify(database).execSQL("CREATE INDEX IF NOT EXISTS `photos_animal_id_idx` ON `photos` ( `animal_id` )");
+    }
+
+    @Test
+    public void testEpochDayMigrationShouldConvertDateColumns() throws Exception {
+        // given
+        try (Connection connection = DriverManager.getConnection("jdbc:sqlite::memory:");
+             Statement statement = connection.createStatement()) {
+            statement.execute("CREATE TABLE `animals` (`id` BIGINT PRIMARY KEY, `birthDate` VARCHAR, `admittanceDate` VARCHAR)");
+            statement.execute("INSERT INTO `animals` VALUES (1, '2012-03-04', NULL), (2, NULL, '2016-02-29'), "
+                    + "(3, 'unknown', '1969-12-31')");
+            doAnswer(invocation -> statement.execute((String) invocation.getArguments()[0])).when(database).execSQL(anyString());
+
+            // when
+            DatabaseMigrations.getMigrations(6, 7).get(0).migrate(database);
+
+            // then
+            try (ResultSet resultSet = statement.executeQuery("SELECT `birthEpochDay`, `admittanceEpochDay`, `birthDate`, "
+                    + "`admittanceDate` FROM `animals` ORDER BY `id`")) {
+                assertRow(resultSet, 15403, null);
+                assertRow(resultSet, null, 16860);
+                assertRow(resultSet, null, -1);
+            }
+        }
+    }
+
+    @Test
+    public void testFavouriteColumnMigrationShouldRebuildAnimalsWithoutIt() throws Exception {
+        // given
+        try (Connection connection = DriverManager.getConnection("jdbc:sqlite::memory:");
+             Statement statement = connection.createStatement()) {
+            statement.execute("CREATE TABLE `animals` (`shelter_id` BIGINT , `name` VARCHAR , `race` VARCHAR ,"
+                    + " `description` VARCHAR , `chipId` VARCHAR , `birthDate` VARCHAR , `admittanceDate` VARCHAR ,"
+                    + " `sterilization` VARCHAR , `species` VARCHAR , `gender` VARCHAR , `size` VARCHAR , `activity` VARCHAR ,"
+                    + " `vaccination` VARCHAR , `training` VARCHAR , `favourite` BOOLEAN , `id` BIGINT , `contentHash` BIGINT ,"
+                    + " `complianceLevel` INTEGER , `firstPhotoUrl` VARCHAR , `birthEpochDay` INTEGER ,"
+                    + " `admittanceEpochDay` INTEGER , PRIMARY KEY (`id`) )");
+            statement.execute("CREATE INDEX `animals_favourite_idx` ON `animals` ( `favourite` )");
+            statement.execute("INSERT INTO `animals` (`id`, `shelter_id`, `name`, `species`, `favourite`, `complianceLevel`,"
+                    + " `birthEpochDay`) VALUES (7, 1, 'Kokos', 'DOG', 1, 5, 15403)");
+            doAnswer(invocation -> statement.execute((String) invocation.getArguments()[0])).when(database).execSQL(anyString());
+
+            // when
+            DatabaseMigrations.getMigrations(7, 8).get(0).migrate(database);
+
+            // then
+            try (ResultSet resultSet = statement.executeQuery("SELECT `id`, `shelter_id`, `name`, `species`,"
+                    + " `complianceLevel`, `birthEpochDay` FROM `animals`")) {
+                assertTrue(resultSet.next());
+                assertEquals(7, resultSet.getLong(1));
+                assertEquals(1, resultSet.getLong(2));
+                assertEquals("Kokos", resultSet.getString(3));
+                assertEquals("DOG", resultSet.getString(4));
+                assertEquals(5, resultSet.getInt(5));
+                assertEquals(15403, resultSet.getInt(6));
+            }
+            List<String> columns = new ArrayList<>();
+            try (ResultSet resultSet = statement.executeQuery("PRAGMA table_info(`animals`)")) {
+                while (resultSet.next()) {
+                    columns.add(resultSet.getString("name"));
+                }
+            }
+            assertFalse(columns.contains("favourite"));
+            assertFalse(columns.contains("birthDate"));
+            List<String> indexes = new ArrayList<>();
+            try (ResultSet resultSet = statement.executeQuery("SELECT `name` FROM `sqlite_master` WHERE `type` = 'index'"
+                    + " AND `tbl_name` = 'animals' AND `sql` IS NOT NULL")) {
+                while (resultSet.next()) {
+                    indexes.add(resultSet.getString(1));
+                }
+            }
+            assertEquals(6, indexes.size());
+            assertFalse(indexes.contains(DatabaseMigrations.INDEX_ANIMALS_FAVOURITE));
+        }
+    }
+
+    private static void assertRow(ResultSet resultSet, Integer birthEpochDay, Integer admittanceEpochDay) throws Exception {
+        assertTrue(resultSet.next());
+        assertEquals(birthEpochDay, resultSet.getObject(1));
+        assertEquals(admittanceEpochDay, resultSet.getObject(2));
+        assertNull(resultSet.getObject(3));
+        assertNull(resultSet.getObject(4));
+    }
+}
@@ -17,13 +17,17 @@ package pl.kodujdlapolski.na4lapy.service.repository.database;
 
 import android.app.Application;
 
+import com.j256.ormlite.support.ConnectionSource;
+
 import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.mockito.Mock;
 import org.mockito.runners.MockitoJUnitRunner;
 
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
+import static org.mockito.Mockito.when;
 
 @RunWith(MockitoJUnitRunner.class)
 public class DatabaseModuleTest {
@@ -31,6 +35,12 @@ public class DatabaseModuleTest {
     @Mock
     private DatabaseHelper databaseHelper;
 
+    @Mock
+    private DaoRegistry daoRegistry;
+
+    @Mock
+    private ConnectionSource connectionSource;
+
     @Mock
     private Application application;
 
@@ -44,10 +54,32 @@ public class DatabaseModuleTest {
     @Test
     public void testProvideDatabaseRepository() throws Exception {
         // when
-        DatabaseRepository result = databaseModule.provideDatabaseRepository(databaseHelper);
+        DatabaseRepository result = databaseModule.provideDatabaseRepository(daoRegistry, new QueryStatistics());
+
+        // then
+        assertNotNull(result);
+    }
+
+    @Test
+    public void testProvideConnectionSource() throws Exception {
+        // given
+        when(databaseHelper.getConnectionSource()).thenReturn(connectionSource);
+
+        // when
+        ConnectionSource result = databaseModule.provideConnectionSource(databaseHelper);
+
+        // then
+        assertEquals(connectionSource, result);
+    }
+
+    @Test
+    public void testProvideDaoRegistry() throws Exception {
+        // when
+        DaoRegistry result = databaseModule.provideDaoRegistry(connectionSource);
 
         // then
         assertNotNull(result);
+        assertEquals(connectionSource, result.getConnectionSource());
     }
 
     @Test
@@ -18,10 +18,11 @@ package pl.kodujdlapolski.na4lapy.service.repository.database;
 import com.google.common.collect.Lists;
 import com.google.common.collect.Maps;
 import com.j256.ormlite.dao.Dao;
-import com.j256.ormlite.dao.DaoManager;
+import com.j256.ormlite.dao.GenericRawResults;
+import com.j256.ormlite.dao.RawRowMapper;
+import com.j256.ormlite.stmt.DeleteBuilder;
 import com.j256.ormlite.stmt.QueryBuilder;
 import com.j256.ormlite.stmt.Where;
-import com.j256.ormlite.support.ConnectionSource;
 
 import org.junit.Before;
 import org.junit.Test;
@@ -30,9 +31,8 @@ import org.mockito.ArgumentCaptor;
 import org.mockito.Captor;
 import org.mockito.Mock;
 import org.mockito.invocation.InvocationOnMock;
+import org.mockito.runners.MockitoJUnitRunner;
 import org.mockito.stubbing.Answer;
-import org.powermock.core.classloader.annotations.PrepareForTest;
-import org.powermock.modules.junit4.PowerMockRunner;
 
 import java.util.List;
 import java.util.Map;
@@ -44,23 +44,19 @@ import pl.kodujdlapolski.na4lapy.model.Shelter;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
-import static org.mockito.BDDMockito.given;
+import static org.junit.Assert.assertTrue;
 import static org.mockito.Matchers.any;
-import static org.mockito.Mockito.doReturn;
-import static org.mockito.Mockito.spy;
+import static org.mockito.Matchers.anyLong;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.verifyZeroInteractions;
 import static org.mockito.Mockito.when;
-import static org.powermock.api.mockito.PowerMockito.mockStatic;
-import static org.powermock.api.mockito.PowerMockito.verifyStatic;
 
-@RunWith(PowerMockRunner.class)
-@PrepareForTest({DaoManager.class})
+@RunWith(MockitoJUnitRunner.class)
 public class DatabaseRepositoryImplTest {
 
     @Mock
-    private DatabaseHelper databaseHelper;
+    private DaoRegistry daoRegistry;
 
     @Mock
     private Dao<Object, Long> dao;
@@ -72,7 +68,13 @@ public class DatabaseRepositoryImplTest {
     private Where<Object, Long> where;
 
     @Mock
-    private ConnectionSource connectionSource;
+    private DeleteBuilder<Object, Long> deleteBuilder;
+
+    @Mock
+    private RawRowMapper<String> rawRowMapper;
+
+    @Mock
+    private GenericRawResults<String> rawResults;
 
     @Captor
     private ArgumentCaptor<Callable<Void>> argumentCaptor;
@@ -81,8 +83,8 @@ public class DatabaseRepositoryImplTest {
 
     @Before
     public void setUp() throws Exception {
-        databaseRepository = new DatabaseRepositoryImpl(databaseHelper);
-        mockStatic(DaoManager.class);
+        databaseRepository = new DatabaseRepositoryImpl(daoRegistry, new QueryStatistics());
+        when(daoRegistry.getDao(any(Class.class))).thenReturn(dao);
     }
 
     @Test
@@ -92,12 +94,10 @@ public class DatabaseRepositoryImplTest {
         Animal animal = new Animal();
         animal.setId(id);
 
-        DatabaseRepositoryImpl spied = spy(databaseRepository);
-        doReturn(dao).when(spied).getDao(any(Class.class), any(ConnectionSource.class));
         when(dao.queryForId(id)).thenReturn(animal);
 
         // when
-        BaseEntity result = spied.findOneById(id, animal.getClass());
+        BaseEntity result = databaseRepository.findOneById(id, animal.getClass());
 
         // then
         verify(dao).queryForId(id);
@@ -112,12 +112,10 @@ public class DatabaseRepositoryImplTest {
         Class clazz = Animal.class;
         List list = Lists.newArrayList(new Animal());
 
-        DatabaseRepositoryImpl spied = spy(databaseRepository);
-        doReturn(dao).when(spied).getDao(any(Class.class), any(ConnectionSource.class));
         when(dao.queryForAll()).thenReturn(list);
 
         // when
-        List<? extends BaseEntity> result = spied.findAll(clazz);
+        List<? extends BaseEntity> result = databaseRepository.findAll(clazz);
 
         // then
         verify(dao).queryForAll();
@@ -134,15 +132,13 @@ public class DatabaseRepositoryImplTest {
         Long foreignId = 123L;
         List list = Lists.newArrayList(new Animal());
 
-        DatabaseRepositoryImpl spied = spy(databaseRepository);
-        doReturn(dao).when(spied).getDao(any(Class.class), any(ConnectionSource.class));
         when(dao.queryBuilder()).thenReturn(queryBuilder);
         when(queryBuilder.where()).thenReturn(where);
         when(queryBuilder.join(any(QueryBuilder.class))).thenReturn(queryBuilder);
         when(queryBuilder.query()).thenReturn(list);
 
         // when
-        List<? extends BaseEntity> result = spied.findAllByForeignId(foreignId, sourceClass, foreignClass);
+        List<? extends BaseEntity> result = databaseRepository.findAllByForeignId(foreignId, sourceClass, foreignClass);
 
         // then
         verify(dao, times(2)).queryBuilder();
@@ -157,12 +153,10 @@ public class DatabaseRepositoryImplTest {
         List list = Lists.newArrayList(new Animal());
         Map<String, Object> map = Maps.newHashMap();
 
-        DatabaseRepositoryImpl spied = spy(databaseRepository);
-        doReturn(dao).when(spied).getDao(any(Class.class), any(ConnectionSource.class));
         when(dao.queryForFieldValues(map)).thenReturn(list);
 
         // when
-        List<? extends BaseEntity> result = spied.findAllByFields(map, Animal.class);
+        List<? extends BaseEntity> result = databaseRepository.findAllByFields(map, Animal.class);
 
         // then
         verify(dao).queryForFieldValues(map);
@@ -170,18 +164,58 @@ public class DatabaseRepositoryImplTest {
         assertEquals(list.size(), result.size());
     }
 
+    @Test
+    public void testFindColumnsPageOrderedBy() throws Exception {
+        // given
+        String[] columns = {BaseEntity.COLUMN_NAME_ID, Animal.COLUMN_NAME_NAME};
+        String orderBy = "`id` ASC";
+        String statement = "SELECT `id`, `name` FROM `animals` ORDER BY `id` ASC LIMIT 60,30";
+        List<String> list = Lists.newArrayList("1");
+
+        when(dao.queryBuilder()).thenReturn(queryBuilder);
+        when(queryBuilder.selectColumns(columns)).thenReturn(queryBuilder);
+        when(queryBuilder.orderByRaw(orderBy)).thenReturn(queryBuilder);
+        when(queryBuilder.offset(anyLong())).thenReturn(queryBuilder);
+        when(queryBuilder.limit(anyLong())).thenReturn(queryBuilder);
+        when(queryBuilder.prepareStatementString()).thenReturn(statement);
+        when(dao.queryRaw(statement, rawRowMapper)).thenReturn(rawResults);
+        when(rawResults.getResults()).thenReturn(list);
+
+        // when
+        List<String> result = databaseRepository.findColumnsPageOrderedBy(columns, rawRowMapper, orderBy, 60, 30, Animal.class);
+
+        // then
+        verify(queryBuilder).selectColumns(columns);
+        verify(queryBuilder).offset(60L);
+        verify(queryBuilder).limit(30L);
+        verify(dao).queryRaw(statement, rawRowMapper);
+        assertEquals(list, result);
+    }
+
+    @Test
+    public void testUpdateRaw() throws Exception {
+        // given
+        String statement = "UPDATE `animals` SET `complianceLevel` = NULL";
+        when(dao.updateRaw(statement)).thenReturn(7);
+
+        // when
+        int result = databaseRepository.updateRaw(statement, Animal.class);
+
+        // then
+        verify(dao).updateRaw(statement);
+        assertEquals(7, result);
+    }
+
     @Test
     public void testSave() throws Exception {
         // given
         Animal animal = new Animal();
         Dao.CreateOrUpdateStatus status = new Dao.CreateOrUpdateStatus(true, false, 1);
 
-        DatabaseRepositoryImpl spied = spy(databaseRepository);
-        doReturn(dao).when(spied).getDao(any(Class.class), any(ConnectionSource.class));
         when(dao.createOrUpdate(animal)).thenReturn(status);
 
         // when
-        int result =  spied.save(animal);
+        int result =  databaseRepository.save(animal);
 
         // then
         verify(dao).createOrUpdate(animal);
@@ -194,8 +228,6 @@ public class DatabaseRepositoryImplTest {
         List<Animal> animals = Lists.newArrayList(new Animal(), new Animal(), new Animal());
         Dao.CreateOrUpdateStatus status = new Dao.CreateOrUpdateStatus(true, false, 1);
 
-        DatabaseRepositoryImpl spied = spy(databaseRepository);
-        doReturn(dao).when(spied).getDao(any(Class.class), any(ConnectionSource.class));
         when(dao.createOrUpdate(any(Animal.class))).thenReturn(status);
         when(dao.callBatchTasks(any(Callable.class))).thenAnswer(new Answer<Object>() {
             @Override
@@ -206,7 +238,7 @@ public class DatabaseRepositoryImplTest {
         });
 
         // when
-        int result = spied.saveAll(animals);
+        int result = databaseRepository.saveAll(animals);
 
         // then
         verify(dao, times(animals.size())).createOrUpdate(any(Animal.class));
@@ -218,11 +250,9 @@ public class DatabaseRepositoryImplTest {
     public void testSaveAllShouldReturnZero() throws Exception {
         // given
         List<Animal> list = Lists.newArrayList();
-        DatabaseRepositoryImpl spied = spy(databaseRepository);
-        doReturn(dao).when(spied).getDao(any(Class.class), any(ConnectionSource.class));
 
         // when
-        int result = spied.saveAll(list);
+        int result = databaseRepository.saveAll(list);
 
         // then
         assertEquals(list.size(), result);
@@ -230,16 +260,49 @@ public class DatabaseRepositoryImplTest {
     }
 
     @Test
-    public void testGetDao() throws Exception {
+    public void testFindOneByIdShouldRecordTiming() throws Exception {
         // given
-        Class clazz = Animal.class;
-        given(DaoManager.createDao(connectionSource, clazz)).willReturn(dao);
+        Long id = 1L;
+        when(dao.queryForId(id)).thenReturn(new Animal());
 
         // when
-        Dao<Object, Long> result = databaseRepository.getDao(clazz, connectionSource);
+        databaseRepository.findOneById(id, Animal.class);
+        databaseRepository.findOneById(id, Animal.class);
 
         // then
-        verifyStatic();
-        assertNotNull(result);
+        QueryStatistics.Timing timing = databaseRepository.getQueryStatistics().snapshot()
+                .get(DatabaseRepositoryImpl.QUERY_FIND_ONE_BY_ID);
+        assertNotNull(timing);
+        assertEquals(2, timing.getCount());
+        assertTrue(timing.getMaxNanos() <= timing.getTotalNanos());
+    }
+
+    @Test
+    public void testDeleteByIdsSplitsLargeInClauses() throws Exception {
+        // given
+        List<Long> ids = Lists.newArrayList();
+        for (long id = 0; id < 1200; id++) {
+            ids.add(id);
+        }
+        when(dao.deleteBuilder()).thenReturn(deleteBuilder);
+        when(deleteBuilder.where()).thenReturn(where);
+        when(deleteBuilder.delete()).thenReturn(500, 500, 200);
+
+        // when
+        int result = databaseRepository.deleteByIds(ids, Animal.class);
+
+        // then
+        assertEquals(ids.size(), result);
+        verify(deleteBuilder, times(3)).delete();
+    }
+
+    @Test
+    public void testDeleteByIdsWithEmptyList() throws Exception {
+        // when
+        int result = databaseRepository.deleteByIds(Lists.newArrayList(), Animal.class);
+
+        // then
+        assertEquals(0, result);
+        verifyZeroInteractions(dao);
     }
-}
\ No newline at end of file
+}
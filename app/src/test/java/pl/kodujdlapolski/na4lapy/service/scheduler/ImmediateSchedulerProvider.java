@@ -0,0 +1,58 @@
+/*
+ *	Copyright 2017 Stowarzyszenie Na4Łapy
+ *
+ *	Licensed under the Apache License, Version 2.0 (the "License");
+ *	you may not use this file except in compliance with the License.
+ *	You may obtain a copy of the License at
+ *
+ *	http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *	Unless required by applicable law or agreed to in writing, software
+ *	distributed under the License is distributed on an "AS IS" BASIS,
+ *	WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *	See the License for the specific language governing permissions and
+ *	limitations under the License.
+ */
+package pl.kodujdlapolski.na4lapy.service.scheduler;
+
+import java.util.Collections;
+import java.util.List;
+
+import rx.Scheduler;
+import rx.schedulers.Schedulers;
+
+/**
+ * Runs everything on the calling thread, so tests can subscribe and assert without waiting.
+ */
+public class ImmediateSchedulerProvider implements SchedulerProvider {
+
+    @Override
+    public Scheduler network() {
+        return Schedulers.immediate();
+    }
+
+    @Override
+    public Scheduler databaseWrite() {
+        return Schedulers.immediate();
+    }
+
+    @Override
+    public Scheduler databaseRead() {
+        return Schedulers.immediate();
+    }
+
+    @Override
+    public Scheduler computation() {
+        return Schedulers.immediate();
+    }
+
+    @Override
+    public Scheduler mainThread() {
+        return Schedulers.immediate();
+    }
+
+    @Override
+    public List<SchedulerStatistics> getStatistics() {
+        return Collections.emptyList();
+    }
+}
@@ -0,0 +1,101 @@
+/*
+ *	Copyright 2017 Stowarzyszenie Na4Łapy
+ *
+ *	Licensed under the Apache License, Version 2.0 (the "License");
+ *	you may not use this file except in compliance with the License.
+ *	You may obtain a copy of the License at
+ *
+ *	http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *	Unless required by applicable law or agreed to in writing, software
+ *	distributed under the License is distributed on an "AS IS" BASIS,
+ *	WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *	See the License for the specific language governing permissions and
+ *	limitations under the License.
+ */
+package pl.kodujdlapolski.na4lapy.service.scheduler;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import rx.Scheduler;
+import rx.schedulers.Schedulers;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class InstrumentedExecutorTest {
+
+    private InstrumentedExecutor executor;
+
+    @Before
+    public void setUp() throws Exception {
+        executor = new InstrumentedExecutor("test", 1);
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        executor.shutdownNow();
+    }
+
+    @Test
+    public void testRecordsQueueDepthAndTimings() throws Exception {
+        // given
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch done = new CountDownLatch(3);
+        Scheduler.Worker worker = Schedulers.from(executor).createWorker();
+
+        // when
+        worker.schedule(() -> {
+            await(release);
+            done.countDown();
+        });
+        worker.schedule(done::countDown);
+        Scheduler.Worker otherWorker = Schedulers.from(executor).createWorker();
+        otherWorker.schedule(done::countDown);
+        Thread.sleep(20);
+        release.countDown();
+        assertTrue(done.await(5, TimeUnit.SECONDS));
+        executor.shutdown();
+        executor.awaitTermination(5, TimeUnit.SECONDS);
+
+        // then
+        SchedulerStatistics statistics = executor.getStatistics();
+        assertEquals("test", statistics.getName());
+        assertEquals(1, statistics.getThreads());
+        assertEquals(0, statistics.getQueueDepth());
+        assertTrue(statistics.getMaxQueueDepth() >= 1);
+        assertTrue(statistics.getCompletedTasks() >= 2);
+        assertTrue(statistics.getMaxRunMicros() >= TimeUnit.MILLISECONDS.toMicros(20));
+        assertTrue(statistics.getMaxWaitMicros() >= TimeUnit.MILLISECONDS.toMicros(20));
+    }
+
+    @Test
+    public void testThreadsAreNamedAfterThePool() throws Exception {
+        // given
+        String[] threadName = new String[1];
+        CountDownLatch done = new CountDownLatch(1);
+
+        // when
+        executor.execute(() -> {
+            threadName[0] = Thread.currentThread().getName();
+            done.countDown();
+        });
+
+        // then
+        assertTrue(done.await(5, TimeUnit.SECONDS));
+        assertEquals("na4lapy-test-1", threadName[0]);
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,268 @@
+/*
+ *	Copyright 2017 Stowarzyszenie Na4Łapy
+ *
+ *	Licensed under the Apache License, Version 2.0 (the "License");
+ *	you may not use this file except in compliance with the License.
+ *	You may obtain a copy of the License at
+ *
+ *	http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *	Unless required by applicable law or agreed to in writing, software
+ *	distributed under the License is distributed on an "AS IS" BASIS,
+ *	WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *	See the License for the specific language governing permissions and
+ *	limitations under the License.
+ */
+package pl.kodujdlapolski.na4lapy.service.user;
+
+import org.joda.time.LocalDate;
+import org.joda.time.Years;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.runners.MockitoJUnitRunner;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import pl.kodujdlapolski.na4lapy.model.Animal;
+import pl.kodujdlapolski.na4lapy.model.UserPreferences;
+import pl.kodujdlapolski.na4lapy.model.type.ActivityAnimal;
+import pl.kodujdlapolski.na4lapy.model.type.Gender;
+import pl.kodujdlapolski.na4lapy.model.type.Size;
+import pl.kodujdlapolski.na4lapy.model.type.Species;
+import pl.kodujdlapolski.na4lapy.service.preferences.PreferencesService;
+import pl.kodujdlapolski.na4lapy.service.repository.database.LocalDatePersister;
+
+import static org.junit.Assert.assertEquals;
+import static org.mockito.Mockito.when;
+
+@RunWith(MockitoJUnitRunner.class)
+public class ComplianceLevelSqlTest {
+
+    private static final int DATASETS = 200;
+    private static final int ANIMALS = 150;
+
+    @Mock
+    private PreferencesService preferencesService;
+
+    @Mock
+    private FavouriteStore favouriteStore;
+
+    private Connection connection;
+    private Random random;
+
+    @Before
+    public void setUp() throws Exception {
+        connection = DriverManager.getConnection("jdbc:sqlite::memory:");
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("CREATE TABLE `animals` (`id` BIGINT PRIMARY KEY, `species` VARCHAR, `gender` VARCHAR, "
+                    + "`size` VARCHAR, `activity` VARCHAR, `birthEpochDay` INTEGER)");
+        }
+        random = new Random(20170101);
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        connection.close();
+    }
+
+    @Test
+    public void testSqlOrderingShouldMatchJavaSortForRandomDatasets() throws Exception {
+        for (int dataset = 0; dataset < DATASETS; dataset++) {
+            // given
+            LocalDate today = LocalDate.now();
+            UserPreferences preferences = randomPreferences();
+            List<Animal> animals = randomAnimals(today);
+            UserServiceImpl userService = createUserService(preferences);
+            insert(animals);
+
+            // when
+            List<Long> sqlOrder = querySqlOrder(ComplianceLevelSql.build(preferences, today));
+            List<Animal> javaSorted = userService.sortByUserPreferences(new ArrayList<>(animals));
+
+            // then
+            assertEquals("dataset " + dataset, ids(javaSorted), sqlOrder);
+        }
+    }
+
+    @Test
+    public void testSqlScoreShouldMatchJavaScoreOnAnyDay() throws Exception {
+        for (int dataset = 0; dataset < DATASETS; dataset++) {
+            // given
+            LocalDate today = randomToday();
+            UserPreferences preferences = randomPreferences();
+            List<Animal> animals = randomAnimals(today);
+            ComplianceScorer complianceScorer = ComplianceScorer.compile(preferences, today);
+            insert(animals);
+
+            // when
+            Map<Long, Integer> sqlScores = querySqlScores(ComplianceLevelSql.build(preferences, today));
+
+            // then
+            for (Animal animal : animals) {
+                assertEquals("dataset " + dataset + ", today " + today + ", animal " + animal.getBirthDate(),
+                        (Integer) complianceScorer.score(animal.getScoringKey()), sqlScores.get(animal.getId()));
+            }
+        }
+    }
+
+    @Test
+    public void testSqlScoreShouldBeZeroWithoutPreferences() throws Exception {
+        // given
+        LocalDate today = LocalDate.now();
+        insert(randomAnimals(today));
+
+        // when
+        Map<Long, Integer> sqlScores = querySqlScores(ComplianceLevelSql.build(null, today));
+
+        // then
+        for (Integer score : sqlScores.values()) {
+            assertEquals(Integer.valueOf(0), score);
+        }
+    }
+
+    @Test
+    public void testBirthDateBoundsShouldMatchYearsBetween() throws Exception {
+        for (int i = 0; i < 1000; i++) {
+            // given
+            LocalDate today = randomToday();
+            int age = random.nextInt(22);
+
+            // when
+            LocalDate latest = ComplianceLevelSql.getLatestBirthDate(today, age);
+            LocalDate earliest = ComplianceLevelSql.getEarliestBirthDate(today, age);
+
+            // then
+            assertEquals(true, Years.yearsBetween(latest, today).getYears() >= age);
+            assertEquals(true, Years.yearsBetween(latest.plusDays(1), today).getYears() < age);
+            assertEquals(true, Years.yearsBetween(earliest, today).getYears() <= age);
+            assertEquals(true, Years.yearsBetween(earliest.minusDays(1), today).getYears() > age);
+        }
+    }
+
+    private UserServiceImpl createUserService(UserPreferences preferences) {
+        when(preferencesService.getUserPreferences()).thenReturn(preferences);
+        return new UserServiceImpl(preferencesService, favouriteStore);
+    }
+
+    private void insert(List<Animal> animals) throws Exception {
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("DELETE FROM `animals`");
+        }
+        try (PreparedStatement statement = connection.prepareStatement(
+                "INSERT INTO `animals` (`id`, `species`, `gender`, `size`, `activity`, `birthEpochDay`) VALUES (?, ?, ?, ?, ?, ?)")) {
+            for (Animal animal : animals) {
+                statement.setLong(1, animal.getId());
+                statement.setString(2, name(animal.getSpecies()));
+                statement.setString(3, name(animal.getGender()));
+                statement.setString(4, name(animal.getSize()));
+                statement.setString(5, name(animal.getActivity()));
+                statement.setObject(6, LocalDatePersister.getSingleton().javaToSqlArg(null, animal.getBirthDate()));
+                statement.executeUpdate();
+            }
+        }
+    }
+
+    private List<Long> querySqlOrder(String score) throws Exception {
+        List<Long> result = new ArrayList<>();
+        try (Statement statement = connection.createStatement();
+             ResultSet resultSet = statement.executeQuery("SELECT `id` FROM `animals` ORDER BY " + score + " DESC, `id` ASC")) {
+            while (resultSet.next()) {
+                result.add(resultSet.getLong(1));
+            }
+        }
+        return result;
+    }
+
+    private Map<Long, Integer> querySqlScores(String score) throws Exception {
+        Map<Long, Integer> result = new HashMap<>();
+        try (Statement statement = connection.createStatement();
+             ResultSet resultSet = statement.executeQuery("SELECT `id`, " + score + " FROM `animals`")) {
+            while (resultSet.next()) {
+                result.put(resultSet.getLong(1), resultSet.getInt(2));
+            }
+        }
+        return result;
+    }
+
+    private List<Animal> randomAnimals(LocalDate today) {
+        List<Animal> animals = new ArrayList<>();
+        for (long id = 0; id < ANIMALS; id++) {
+            Animal animal = new Animal();
+            animal.setId(id);
+            animal.setSpecies(randomValue(Species.values()));
+            animal.setGender(randomValue(Gender.values()));
+            animal.setSize(randomValue(Size.values()));
+            animal.setActivity(randomValue(ActivityAnimal.values()));
+            animal.setBirthDate(randomBirthDate(today));
+            animals.add(animal);
+        }
+        return animals;
+    }
+
+    // dates cluster around birthdays so that the age boundaries are hit often
+    private LocalDate randomBirthDate(LocalDate today) {
+        switch (random.nextInt(4)) {
+            case 0:
+                return null;
+            case 1:
+                return today.minusDays(random.nextInt(25 * 366));
+            default:
+                return today.minusYears(random.nextInt(23)).plusDays(random.nextInt(5) - 2);
+        }
+    }
+
+    private LocalDate randomToday() {
+        if (random.nextBoolean()) {
+            LocalDate leapDay = new LocalDate(2000 + 4 * random.nextInt(10), 2, 29);
+            return leapDay.plusDays(random.nextInt(3) - 1).plusYears(random.nextInt(2));
+        }
+        return new LocalDate(2000, 1, 1).plusDays(random.nextInt(30 * 365));
+    }
+
+    private UserPreferences randomPreferences() {
+        UserPreferences preferences = new UserPreferences();
+        preferences.setTypeDog(random.nextBoolean());
+        preferences.setTypeCat(random.nextBoolean());
+        preferences.setTypeOther(random.nextBoolean());
+        preferences.setGenderMan(random.nextBoolean());
+        preferences.setGenderWoman(random.nextBoolean());
+        preferences.setSizeSmall(random.nextBoolean());
+        preferences.setSizeMedium(random.nextBoolean());
+        preferences.setSizeLarge(random.nextBoolean());
+        preferences.setActivityLow(random.nextBoolean());
+        preferences.setActivityHigh(random.nextBoolean());
+        int ageMin = random.nextInt(21);
+        preferences.setAgeMin(ageMin);
+        preferences.setAgeMax(random.nextInt(10) == 0 ? random.nextInt(21) : ageMin + random.nextInt(21 - ageMin));
+        return preferences;
+    }
+
+    private <T> T randomValue(T[] values) {
+        int index = random.nextInt(values.length + 1);
+        return index == values.length ? null : values[index];
+    }
+
+    private static String name(Enum<?> value) {
+        return value == null ? null : value.name();
+    }
+
+    private static List<Long> ids(List<Animal> animals) {
+        List<Long> result = new ArrayList<>();
+        for (Animal animal : animals) {
+            result.add(animal.getId());
+        }
+        return result;
+    }
+}
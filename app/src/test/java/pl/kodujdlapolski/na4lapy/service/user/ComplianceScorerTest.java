@@ -0,0 +1,204 @@
+/*
+ *	Copyright 2017 Stowarzyszenie Na4Łapy
+ *
+ *	Licensed under the Apache License, Version 2.0 (the "License");
+ *	you may not use this file except in compliance with the License.
+ *	You may obtain a copy of the License at
+ *
+ *	http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *	Unless required by applicable law or agreed to in writing, software
+ *	distributed under the License is distributed on an "AS IS" BASIS,
+ *	WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *	See the License for the specific language governing permissions and
+ *	limitations under the License.
+ */
+package pl.kodujdlapolski.na4lapy.service.user;
+
+import org.joda.time.LocalDate;
+import org.joda.time.Years;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import pl.kodujdlapolski.na4lapy.model.Animal;
+import pl.kodujdlapolski.na4lapy.model.UserPreferences;
+import pl.kodujdlapolski.na4lapy.model.type.ActivityAnimal;
+import pl.kodujdlapolski.na4lapy.model.type.Gender;
+import pl.kodujdlapolski.na4lapy.model.type.Size;
+import pl.kodujdlapolski.na4lapy.model.type.Species;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class ComplianceScorerTest {
+
+    private static final LocalDate TODAY = new LocalDate(2017, 3, 1);
+
+    @Test
+    public void testMatchesPreviousScoringForAllAttributeCombinations() throws Exception {
+        // given
+        List<Animal> animals = new ArrayList<>();
+        LocalDate[] birthDates = {null, TODAY.minusYears(3), TODAY.minusYears(30)};
+        for (Species species : withNull(Species.values())) {
+            for (Gender gender : withNull(Gender.values())) {
+                for (Size size : withNull(Size.values())) {
+                    for (ActivityAnimal activity : withNull(ActivityAnimal.values())) {
+                        for (LocalDate birthDate : birthDates) {
+                            animals.add(animal(species, gender, size, activity, birthDate));
+                        }
+                    }
+                }
+            }
+        }
+
+        // when
+        for (int flags = 0; flags < 1 << 12; flags++) {
+            UserPreferences preferences = preferences(flags, 1, 10);
+            ComplianceScorer complianceScorer = ComplianceScorer.compile(preferences, TODAY);
+
+            // then
+            for (Animal animal : animals) {
+                assertEquals(preferences + " " + animal, previousScore(preferences, animal, TODAY),
+                        complianceScorer.score(animal.getScoringKey()));
+            }
+        }
+    }
+
+    @Test
+    public void testMatchesPreviousScoringForAllAgesAroundBirthdays() throws Exception {
+        // given
+        LocalDate[] days = {TODAY, new LocalDate(2016, 2, 28), new LocalDate(2016, 2, 29), new LocalDate(2017, 2, 28),
+                new LocalDate(2016, 12, 31)};
+        UserPreferences preferences = preferences(1, 0, 0);
+
+        for (LocalDate today : days) {
+            for (int ageMin = 0; ageMin <= 21; ageMin += 3) {
+                for (int ageMax = ageMin - 1; ageMax <= 21; ageMax += 2) {
+                    preferences.setAgeMin(ageMin);
+                    preferences.setAgeMax(ageMax);
+
+                    // when
+                    ComplianceScorer complianceScorer = ComplianceScorer.compile(preferences, today);
+
+                    // then
+                    for (LocalDate birthDate = today.minusYears(24); !birthDate.isAfter(today.plusDays(3));
+                         birthDate = birthDate.plusDays(1)) {
+                        Animal animal = animal(Species.DOG, null, null, null, birthDate);
+                        assertEquals(today + " " + ageMin + "-" + ageMax + " " + birthDate,
+                                previousScore(preferences, animal, today), complianceScorer.score(animal.getScoringKey()));
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testChangedAttributeRepacksAnimal() throws Exception {
+        // given
+        UserPreferences preferences = preferences(1, 0, 20);
+        ComplianceScorer complianceScorer = ComplianceScorer.compile(preferences, TODAY);
+        Animal animal = animal(Species.CAT, null, null, null, null);
+        assertEquals(0, complianceScorer.score(animal.getScoringKey()));
+
+        // when
+        animal.setSpecies(Species.DOG);
+
+        // then
+        assertEquals(1, complianceScorer.score(animal.getScoringKey()));
+    }
+
+    @Test
+    public void testValidOnlyOnItsDay() throws Exception {
+        // when
+        ComplianceScorer complianceScorer = ComplianceScorer.compile(new UserPreferences(), TODAY);
+
+        // then
+        assertTrue(complianceScorer.isValidAt(TODAY.toDateTimeAtStartOfDay().getMillis()));
+        assertTrue(complianceScorer.isValidAt(TODAY.plusDays(1).toDateTimeAtStartOfDay().getMillis() - 1));
+        assertFalse(complianceScorer.isValidAt(TODAY.plusDays(1).toDateTimeAtStartOfDay().getMillis()));
+        assertFalse(complianceScorer.isValidAt(TODAY.toDateTimeAtStartOfDay().getMillis() - 1));
+    }
+
+    /**
+     * The chain of checks UserServiceImpl used before the scorer.
+     */
+    private static int previousScore(UserPreferences preferences, Animal animal, LocalDate today) {
+        int result = 0;
+
+        if ((preferences.isTypeDog() && Species.DOG.equals(animal.getSpecies())) ||
+                (preferences.isTypeCat() && Species.CAT.equals(animal.getSpecies())) ||
+                (preferences.isTypeOther() && Species.OTHER.equals(animal.getSpecies()))) {
+            ++result;
+        } else {
+            return 0;
+        }
+
+        if ((preferences.isGenderMan() && preferences.isGenderWoman() && Gender.UNKNOWN.equals(animal.getGender())) ||
+                (preferences.isGenderMan() && Gender.MALE.equals(animal.getGender())) ||
+                (preferences.isGenderWoman() && Gender.FEMALE.equals(animal.getGender()))) {
+            ++result;
+        }
+
+        if (animal.getBirthDate() != null) {
+            int age = Years.yearsBetween(animal.getBirthDate(), today).getYears();
+            if (age >= preferences.getAgeMin() && age <= preferences.getAgeMax()) {
+                ++result;
+            }
+        }
+
+        if ((preferences.isSizeSmall() && preferences.isSizeMedium() && preferences.isSizeLarge() && Size.UNKNOWN.equals(animal.getSize())) ||
+                (preferences.isSizeSmall() && Size.SMALL.equals(animal.getSize())) ||
+                (preferences.isSizeMedium() && Size.MEDIUM.equals(animal.getSize())) ||
+                (preferences.isSizeLarge() && Size.LARGE.equals(animal.getSize()))) {
+            ++result;
+        }
+
+        if ((preferences.isActivityLow() && preferences.isActivityHigh() && ActivityAnimal.UNKNOWN.equals(animal.getActivity())) ||
+                (preferences.isActivityLow() && ActivityAnimal.LOW.equals(animal.getActivity())) ||
+                (preferences.isActivityHigh() && ActivityAnimal.HIGH.equals(animal.getActivity()))) {
+            ++result;
+        }
+
+        return result;
+    }
+
+    private static UserPreferences preferences(int flags, int ageMin, int ageMax) {
+        UserPreferences preferences = new UserPreferences();
+        preferences.setTypeDog((flags & 1) != 0);
+        preferences.setTypeCat((flags & 1 << 1) != 0);
+        preferences.setTypeOther((flags & 1 << 2) != 0);
+        preferences.setGenderMan((flags & 1 << 3) != 0);
+        preferences.setGenderWoman((flags & 1 << 4) != 0);
+        preferences.setSizeSmall((flags & 1 << 5) != 0);
+        preferences.setSizeMedium((flags & 1 << 6) != 0);
+        preferences.setSizeLarge((flags & 1 << 7) != 0);
+        preferences.setActivityLow((flags & 1 << 8) != 0);
+        preferences.setActivityHigh((flags & 1 << 9) != 0);
+        // the remaining two bits only repeat combinations with another age range
+        preferences.setAgeMin(ageMin + ((flags >> 10) & 1));
+        preferences.setAgeMax(ageMax + ((flags >> 11) & 1));
+        return preferences;
+    }
+
+    private static Animal animal(Species species, Gender gender, Size size, ActivityAnimal activity, LocalDate birthDate) {
+        Animal animal = new Animal();
+        animal.setSpecies(species);
+        animal.setGender(gender);
+        animal.setSize(size);
+        animal.setActivity(activity);
+        animal.setBirthDate(birthDate);
+        return animal;
+    }
+
+    private static <E> List<E> withNull(E[] values) {
+        List<E> result = new ArrayList<>();
+        result.add(null);
+        for (E value : values) {
+            result.add(value);
+        }
+        return result;
+    }
+}
@@ -0,0 +1,179 @@
+/*
+ *	Copyright 2017 Stowarzyszenie Na4Łapy
+ *
+ *	Licensed under the Apache License, Version 2.0 (the "License");
+ *	you may not use this file except in compliance with the License.
+ *	You may obtain a copy of the License at
+ *
+ *	http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *	Unless required by applicable law or agreed to in writing, software
+ *	distributed under the License is distributed on an "AS IS" BASIS,
+ *	WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *	See the License for the specific language governing permissions and
+ *	limitations under the License.
+ */
+package pl.kodujdlapolski.na4lapy.service.user;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.runners.MockitoJUnitRunner;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import pl.kodujdlapolski.na4lapy.model.Favourite;
+import pl.kodujdlapolski.na4lapy.service.preferences.PreferencesService;
+import pl.kodujdlapolski.na4lapy.service.repository.database.DatabaseRepository;
+import rx.observers.TestSubscriber;
+import rx.schedulers.TestScheduler;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyListOf;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@RunWith(MockitoJUnitRunner.class)
+public class FavouriteStoreTest {
+
+    @Mock
+    private DatabaseRepository databaseRepository;
+
+    @Mock
+    private PreferencesService preferencesService;
+
+    private TestScheduler writeScheduler;
+
+    @Before
+    public void setUp() throws Exception {
+        writeScheduler = new TestScheduler();
+        when(preferencesService.getLegacyFavouriteList()).thenReturn(Collections.emptyList());
+        when(databaseRepository.findAllIds(Favourite.class)).thenReturn(Arrays.asList(1L, 2L));
+    }
+
+    @Test
+    public void testContainsLoadsFavouritesFromDatabase() throws Exception {
+        // given
+        FavouriteStore store = new FavouriteStore(databaseRepository, preferencesService, writeScheduler);
+        TestSubscriber<Void> loaded = new TestSubscriber<>();
+        store.whenLoaded().subscribe(loaded);
+
+        // when
+        writeScheduler.triggerActions();
+
+        // then
+        assertTrue(store.contains(1L));
+        assertFalse(store.contains(3L));
+        loaded.assertValueCount(1);
+        loaded.assertCompleted();
+        verify(preferencesService, never()).removeLegacyFavouriteList();
+    }
+
+    @Test
+    public void testContainsNeverReadsTheDatabaseBeforeTheLoad() throws Exception {
+        // given
+        FavouriteStore store = new FavouriteStore(databaseRepository, preferencesService, writeScheduler);
+        TestSubscriber<Void> loaded = new TestSubscriber<>();
+        store.whenLoaded().subscribe(loaded);
+
+        // when
+        boolean first = store.contains(1L);
+
+        // then
+        assertFalse(first);
+        loaded.assertNoValues();
+        verify(databaseRepository, never()).findAllIds(Favourite.class);
+        verify(preferencesService, never()).getLegacyFavouriteList();
+    }
+
+    @Test
+    public void testChangesBeforeTheLoadAreKeptAfterIt() throws Exception {
+        // given
+        FavouriteStore store = new FavouriteStore(databaseRepository, preferencesService, writeScheduler);
+
+        // when
+        store.add(3L);
+        store.remove(1L);
+        writeScheduler.triggerActions();
+
+        // then
+        assertFalse(store.contains(1L));
+        assertTrue(store.contains(2L));
+        assertTrue(store.contains(3L));
+        verify(databaseRepository).save(new Favourite(3L));
+        verify(databaseRepository).deleteByIds(Collections.singletonList(1L), Favourite.class);
+    }
+
+    @Test
+    public void testLegacyFavouritesAreMigratedOnce() throws Exception {
+        // given
+        when(preferencesService.getLegacyFavouriteList()).thenReturn(Arrays.asList(5L, 6L));
+        FavouriteStore store = new FavouriteStore(databaseRepository, preferencesService, writeScheduler);
+
+        // when
+        writeScheduler.triggerActions();
+        store.contains(5L);
+
+        // then
+        verify(databaseRepository).saveAll(Arrays.asList(new Favourite(5L), new Favourite(6L)));
+        verify(preferencesService).removeLegacyFavouriteList();
+        verify(databaseRepository).findAllIds(Favourite.class);
+    }
+
+    @Test
+    public void testAddIsVisibleBeforeItIsWritten() throws Exception {
+        // given
+        FavouriteStore store = new FavouriteStore(databaseRepository, preferencesService, writeScheduler);
+
+        // when
+        store.add(3L);
+
+        // then
+        assertTrue(store.contains(3L));
+        verify(databaseRepository, never()).save(any());
+        writeScheduler.triggerActions();
+        verify(databaseRepository).save(new Favourite(3L));
+    }
+
+    @Test
+    public void testRemoveIsWrittenBehind() throws Exception {
+        // given
+        FavouriteStore store = new FavouriteStore(databaseRepository, preferencesService, writeScheduler);
+        writeScheduler.triggerActions();
+
+        // when
+        store.remove(1L);
+        store.remove(3L);
+
+        // then
+        assertFalse(store.contains(1L));
+        writeScheduler.triggerActions();
+        List<Long> removed = Collections.singletonList(1L);
+        verify(databaseRepository).deleteByIds(removed, Favourite.class);
+        verify(databaseRepository, never()).deleteByIds(Collections.singletonList(3L), Favourite.class);
+    }
+
+    @Test
+    public void testFlushCompletesAfterPendingWrites() throws Exception {
+        // given
+        FavouriteStore store = new FavouriteStore(databaseRepository, preferencesService, writeScheduler);
+        store.add(3L);
+        TestSubscriber<Void> testSubscriber = new TestSubscriber<>();
+
+        // when
+        store.flush().subscribe(testSubscriber);
+
+        // then
+        testSubscriber.assertNotCompleted();
+        writeScheduler.triggerActions();
+        testSubscriber.assertCompleted();
+        verify(databaseRepository).save(new Favourite(3L));
+        verify(databaseRepository, never()).deleteByIds(anyListOf(Long.class), any(Class.class));
+    }
+}
@@ -31,6 +31,9 @@ public class UserModuleTest {
     @Mock
     private PreferencesService preferencesService;
 
+    @Mock
+    private FavouriteStore favouriteStore;
+
     private UserModule userModule;
 
     @Before
@@ -41,7 +44,7 @@ public class UserModuleTest {
     @Test
     public void testProvideRepositoryService() throws Exception {
         // when
-        UserService result = userModule.provideUserService(preferencesService);
+        UserService result = userModule.provideUserService(preferencesService, favouriteStore);
 
         // then
         assertNotNull(result);
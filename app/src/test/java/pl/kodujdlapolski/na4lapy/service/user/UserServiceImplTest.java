@@ -30,9 +30,13 @@ import pl.kodujdlapolski.na4lapy.model.type.Gender;
 import pl.kodujdlapolski.na4lapy.model.type.Size;
 import pl.kodujdlapolski.na4lapy.model.type.Species;
 import pl.kodujdlapolski.na4lapy.service.preferences.PreferencesService;
+import rx.observers.TestSubscriber;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyZeroInteractions;
 import static org.mockito.Mockito.when;
 
 @RunWith(MockitoJUnitRunner.class)
@@ -41,12 +45,15 @@ public class UserServiceImplTest {
     @Mock
     private PreferencesService preferencesService;
 
+    @Mock
+    private FavouriteStore favouriteStore;
+
     @InjectMocks
     private UserServiceImpl userService;
 
     @Before
     public void setUp() throws Exception {
-        userService = new UserServiceImpl(preferencesService);
+        userService = new UserServiceImpl(preferencesService, favouriteStore);
     }
 
     @Test
@@ -61,6 +68,20 @@ public class UserServiceImplTest {
         verify(preferencesService).setUserPreferences(userPreferences);
     }
 
+    @Test
+    public void testSaveCurrentUserPreferencesShouldPublishChange() throws Exception {
+        // given
+        UserPreferences userPreferences = new UserPreferences();
+        TestSubscriber<UserPreferences> testSubscriber = new TestSubscriber<>();
+        userService.getUserPreferencesPublisher().subscribe(testSubscriber);
+
+        // when
+        userService.saveCurrentUserPreferences(userPreferences);
+
+        // then
+        testSubscriber.assertValue(userPreferences);
+    }
+
     @Test
     public void testLoadCurrentUserPreferences() throws Exception {
         // given
@@ -91,7 +112,7 @@ public class UserServiceImplTest {
         userPreferences.setSizeLarge(true);
         userPreferences.setActivityHigh(true);
         when(preferencesService.getUserPreferences()).thenReturn(userPreferences);
-        userService = new UserServiceImpl(preferencesService);
+        userService = new UserServiceImpl(preferencesService, favouriteStore);
 
         // when
         int result = userService.getPreferencesComplianceLevel(animal);
@@ -111,4 +132,37 @@ public class UserServiceImplTest {
         // then
         assertEquals(0, result);
     }
-}
\ No newline at end of file
+
+    @Test
+    public void testIsFavourite() throws Exception {
+        // given
+        when(favouriteStore.contains(7L)).thenReturn(true);
+
+        // when
+        boolean result = userService.isFavourite(7L);
+
+        // then
+        assertTrue(result);
+    }
+
+    @Test
+    public void testIsFavouriteShouldReturnFalseWithoutId() throws Exception {
+        // when
+        boolean result = userService.isFavourite(null);
+
+        // then
+        assertFalse(result);
+        verifyZeroInteractions(favouriteStore);
+    }
+
+    @Test
+    public void testAddAndRemoveFavourite() throws Exception {
+        // when
+        userService.addToFavourite(7L);
+        userService.removeFromFavourite(7L);
+
+        // then
+        verify(favouriteStore).add(7L);
+        verify(favouriteStore).remove(7L);
+    }
+}
@@ -0,0 +1,50 @@
+/*
+ *	Copyright 2017 Stowarzyszenie Na4Łapy
+ *
+ *	Licensed under the Apache License, Version 2.0 (the "License");
+ *	you may not use this file except in compliance with the License.
+ *	You may obtain a copy of the License at
+ *
+ *	http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *	Unless required by applicable law or agreed to in writing, software
+ *	distributed under the License is distributed on an "AS IS" BASIS,
+ *	WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *	See the License for the specific language governing permissions and
+ *	limitations under the License.
+ */
+package pl.kodujdlapolski.na4lapy.ui.browse;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+
+import pl.kodujdlapolski.na4lapy.model.AnimalSummary;
+import pl.kodujdlapolski.na4lapy.model.type.Species;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class AnimalListUpdateTest {
+
+    @Test
+    public void testPageDiffsOnlyCoverAnimalsOfTheirSpecies() throws Exception {
+        // given
+        AnimalSummary dog = animal(1, Species.DOG), cat = animal(2, Species.CAT), newDog = animal(3, Species.DOG);
+
+        // when
+        AnimalListUpdate update = AnimalListUpdate.calculate(Arrays.asList(dog, cat), Arrays.asList(newDog, dog));
+
+        // then
+        assertSame(update.getDiff(), update.getPageDiffs().get(PageTypes.ALL));
+        assertEquals(1, update.getPageDiffs().get(PageTypes.DOGS).getInserted());
+        assertEquals(0, update.getPageDiffs().get(PageTypes.DOGS).getRemoved());
+        assertEquals(1, update.getPageDiffs().get(PageTypes.CATS).getRemoved());
+        assertTrue(update.getPageDiffs().get(PageTypes.OTHER).isEmpty());
+    }
+
+    private static AnimalSummary animal(long id, Species species) {
+        return new AnimalSummary(id, "Animal " + id, null, species, null, null, null, 0, null);
+    }
+}
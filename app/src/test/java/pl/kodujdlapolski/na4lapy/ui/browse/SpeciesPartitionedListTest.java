@@ -0,0 +1,141 @@
+/*
+ *	Copyright 2017 Stowarzyszenie Na4Łapy
+ *
+ *	Licensed under the Apache License, Version 2.0 (the "License");
+ *	you may not use this file except in compliance with the License.
+ *	You may obtain a copy of the License at
+ *
+ *	http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *	Unless required by applicable law or agreed to in writing, software
+ *	distributed under the License is distributed on an "AS IS" BASIS,
+ *	WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *	See the License for the specific language governing permissions and
+ *	limitations under the License.
+ */
+package pl.kodujdlapolski.na4lapy.ui.browse;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import pl.kodujdlapolski.na4lapy.model.AnimalSummary;
+import pl.kodujdlapolski.na4lapy.model.type.Species;
+
+import static org.junit.Assert.assertEquals;
+
+public class SpeciesPartitionedListTest {
+
+    @Test
+    public void testPagesShowAnimalsOfTheirSpeciesInOrder() throws Exception {
+        // given
+        SpeciesPartitionedList list = new SpeciesPartitionedList();
+
+        // when
+        list.addAll(Arrays.asList(animal(1, Species.DOG), animal(2, Species.CAT), animal(3, Species.DOG), animal(4, null)));
+
+        // then
+        assertEquals(4, list.getPage(PageTypes.ALL).size());
+        assertEquals(Arrays.asList(animal(1, Species.DOG), animal(3, Species.DOG)), list.getPage(PageTypes.DOGS));
+        assertEquals(Arrays.asList(animal(2, Species.CAT)), list.getPage(PageTypes.CATS));
+        assertEquals(0, list.getPage(PageTypes.OTHER).size());
+    }
+
+    @Test
+    public void testPagesFollowRemoveAndSpeciesChange() throws Exception {
+        // given
+        SpeciesPartitionedList list = new SpeciesPartitionedList();
+        list.addAll(Arrays.asList(animal(1, Species.DOG), animal(2, Species.CAT), animal(3, Species.DOG)));
+
+        // when
+        list.remove(0);
+        list.set(0, animal(2, Species.DOG));
+
+        // then
+        assertEquals(Arrays.asList(animal(2, Species.DOG), animal(3, Species.DOG)), list.getPage(PageTypes.DOGS));
+        assertEquals(0, list.getPage(PageTypes.CATS).size());
+    }
+
+    @Test
+    public void testPagePositionOfShouldMapListIndexBeforeAndAfterRemove() throws Exception {
+        // given
+        SpeciesPartitionedList list = new SpeciesPartitionedList();
+        list.addAll(Arrays.asList(animal(1, Species.DOG), animal(2, Species.CAT), animal(3, Species.DOG), animal(4, Species.DOG)));
+
+        // when
+        int beforeRemove = list.pagePositionOf(2, PageTypes.DOGS);
+        list.remove(2);
+        int afterRemove = list.pagePositionOf(2, PageTypes.DOGS);
+
+        // then
+        assertEquals(1, beforeRemove);
+        assertEquals(1, afterRemove);
+        assertEquals(2, list.pagePositionOf(2, PageTypes.ALL));
+        assertEquals(0, list.pagePositionOf(1, PageTypes.CATS));
+    }
+
+    @Test
+    public void testPagesMatchFilteredListAfterRandomChanges() throws Exception {
+        // given
+        Random random = new Random(15);
+        SpeciesPartitionedList list = new SpeciesPartitionedList();
+        List<AnimalSummary> expected = new ArrayList<>();
+        long nextId = 0;
+
+        for (int i = 0; i < 5000; i++) {
+            // when
+            int operation = random.nextInt(5);
+            if (operation == 0 && !expected.isEmpty()) {
+                int index = random.nextInt(expected.size());
+                expected.remove(index);
+                list.remove(index);
+            } else if (operation == 1) {
+                int index = random.nextInt(expected.size() + 1);
+                AnimalSummary animal = animal(nextId++, randomSpecies(random));
+                expected.add(index, animal);
+                list.add(index, animal);
+            } else if (operation == 2 && !expected.isEmpty()) {
+                int index = random.nextInt(expected.size());
+                AnimalSummary animal = animal(expected.get(index).getId(), randomSpecies(random));
+                expected.set(index, animal);
+                list.set(index, animal);
+            } else if (operation == 3 && expected.size() > 1) {
+                int from = random.nextInt(expected.size());
+                int to = random.nextInt(expected.size());
+                expected.add(to, expected.remove(from));
+                list.move(from, to);
+            } else {
+                AnimalSummary animal = animal(nextId++, randomSpecies(random));
+                expected.add(animal);
+                list.add(animal);
+            }
+
+            // then
+            for (PageTypes type : PageTypes.values()) {
+                assertEquals(filter(expected, type), list.getPage(type));
+            }
+        }
+    }
+
+    private static List<AnimalSummary> filter(List<AnimalSummary> animals, PageTypes type) {
+        List<AnimalSummary> result = new ArrayList<>();
+        for (AnimalSummary animal : animals) {
+            if (type.specie == null || type.specie == animal.getSpecies()) {
+                result.add(animal);
+            }
+        }
+        return result;
+    }
+
+    private static Species randomSpecies(Random random) {
+        int index = random.nextInt(Species.values().length + 1);
+        return index < Species.values().length ? Species.values()[index] : null;
+    }
+
+    private static AnimalSummary animal(long id, Species species) {
+        return new AnimalSummary(id, "Animal " + id, null, species, null, null, null, 0, null);
+    }
+}
@@ -0,0 +1,227 @@
+/*
+ *	Copyright 2017 Stowarzyszenie Na4Łapy
+ *
+ *	Licensed under the Apache License, Version 2.0 (the "License");
+ *	you may not use this file except in compliance with the License.
+ *	You may obtain a copy of the License at
+ *
+ *	http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *	Unless required by applicable law or agreed to in writing, software
+ *	distributed under the License is distributed on an "AS IS" BASIS,
+ *	WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *	See the License for the specific language governing permissions and
+ *	limitations under the License.
+ */
+package pl.kodujdlapolski.na4lapy.ui.browse.single;
+
+import com.squareup.picasso.Callback;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.runners.MockitoJUnitRunner;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import pl.kodujdlapolski.na4lapy.model.AnimalSummary;
+import pl.kodujdlapolski.na4lapy.service.image.ImageService;
+import pl.kodujdlapolski.na4lapy.service.image.ImageStatistics;
+import pl.kodujdlapolski.na4lapy.service.network.Histogram;
+import pl.kodujdlapolski.na4lapy.service.system.SystemService;
+import rx.subjects.PublishSubject;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@RunWith(MockitoJUnitRunner.class)
+public class ImagePrefetcherTest {
+
+    private static final int WIDTH = 480;
+    private static final int HEIGHT = 360;
+
+    @Mock
+    private ImageService imageService;
+    @Mock
+    private SystemService systemService;
+    private PublishSubject<Boolean> networkStatusPublisher = PublishSubject.create();
+    private ImagePrefetcher imagePrefetcher;
+
+    @Before
+    public void setUp() throws Exception {
+        List<AnimalSummary> animals = new ArrayList<>();
+        for (long id = 0; id < 20; id++) {
+            animals.add(new AnimalSummary(id, "animal " + id, null, null, null, null, null, 0, url(id)));
+        }
+        when(systemService.isOnline()).thenReturn(true);
+        when(systemService.getNetworkStatusPublisher()).thenReturn(networkStatusPublisher);
+        when(imageService.getStatistics()).thenReturn(statistics(0));
+        imagePrefetcher = new ImagePrefetcher(imageService, systemService, animals);
+        imagePrefetcher.setTargetSize(WIDTH, HEIGHT);
+    }
+
+    @Test
+    public void testPrefetchesCardsAheadInSwipeDirection() throws Exception {
+        // when
+        imagePrefetcher.update(5, 1, 0);
+
+        // then
+        verifyPrefetched(url(6));
+        verifyPrefetched(url(7));
+        verify(imageService, never()).prefetch(eq(url(4)), eq(WIDTH), eq(HEIGHT), any(), any(Callback.class));
+        assertEquals(ImagePrefetcher.MIN_LOOK_AHEAD, imagePrefetcher.getIssued());
+    }
+
+    @Test
+    public void testFastSwipeWidensWindow() throws Exception {
+        // when
+        imagePrefetcher.update(10, -1, -6);
+
+        // then
+        for (int i = 5; i < 10; i++) {
+            verifyPrefetched(url(i));
+        }
+        assertEquals(5, imagePrefetcher.getIssued());
+        assertEquals(ImagePrefetcher.MAX_LOOK_AHEAD, ImagePrefetcher.lookAhead(100));
+    }
+
+    @Test
+    public void testPrefetchesLeavingWindowAreCancelled() throws Exception {
+        // given
+        ArgumentCaptor<Object> tags = ArgumentCaptor.forClass(Object.class);
+        imagePrefetcher.update(5, 1, 0);
+        verify(imageService, times(2)).prefetch(anyString(), eq(WIDTH), eq(HEIGHT), tags.capture(), any(Callback.class));
+
+        // when
+        imagePrefetcher.update(5, -1, 0);
+
+        // then
+        for (Object tag : tags.getAllValues()) {
+            verify(imageService).cancelPrefetch(tag);
+        }
+        verifyPrefetched(url(4));
+        verifyPrefetched(url(3));
+        assertEquals(2, imagePrefetcher.getCancelled());
+    }
+
+    @Test
+    public void testFinishedPrefetchIsNeitherCancelledNorRepeated() throws Exception {
+        // given
+        ArgumentCaptor<Callback> callback = ArgumentCaptor.forClass(Callback.class);
+        imagePrefetcher.update(5, 1, 0);
+        verify(imageService).prefetch(eq(url(6)), eq(WIDTH), eq(HEIGHT), any(), callback.capture());
+        callback.getValue().onSuccess();
+
+        // when
+        imagePrefetcher.update(6, 1, 0);
+        imagePrefetcher.update(15, 1, 0);
+
+        // then
+        verifyPrefetched(url(6));
+        verifyPrefetched(url(8));
+        assertEquals(5, imagePrefetcher.getIssued());
+        assertEquals(2, imagePrefetcher.getCancelled());
+    }
+
+    @Test
+    public void testFailedPrefetchIsRepeated() throws Exception {
+        // given
+        ArgumentCaptor<Callback> callback = ArgumentCaptor.forClass(Callback.class);
+        imagePrefetcher.update(5, 1, 0);
+        verify(imageService).prefetch(eq(url(6)), eq(WIDTH), eq(HEIGHT), any(), callback.capture());
+        callback.getValue().onError();
+
+        // when
+        imagePrefetcher.update(6, 1, 0);
+        imagePrefetcher.update(5, 1, 0);
+
+        // then
+        verify(imageService, times(2)).prefetch(eq(url(6)), eq(WIDTH), eq(HEIGHT), any(), any(Callback.class));
+    }
+
+    @Test
+    public void testSettledCardWarmsBothNeighbours() throws Exception {
+        // when
+        imagePrefetcher.update(5, 0, 0);
+
+        // then
+        verifyPrefetched(url(4));
+        verifyPrefetched(url(6));
+    }
+
+    @Test
+    public void testMeteredNetworkPrefetchesOneCardWithinBudget() throws Exception {
+        // given
+        when(systemService.isMetered()).thenReturn(true);
+
+        // when
+        imagePrefetcher.update(5, 1, 10);
+        when(imageService.getStatistics()).thenReturn(statistics(ImagePrefetcher.METERED_BUDGET_BYTES));
+        imagePrefetcher.update(6, 1, 10);
+
+        // then
+        verifyPrefetched(url(6));
+        verify(imageService, never()).prefetch(eq(url(7)), eq(WIDTH), eq(HEIGHT), any(), any(Callback.class));
+        assertEquals(1, imagePrefetcher.getIssued());
+    }
+
+    @Test
+    public void testMeteredBudgetStartsOverOnNetworkChange() throws Exception {
+        // given
+        when(systemService.isMetered()).thenReturn(true);
+        imagePrefetcher.update(5, 1, 0);
+        when(imageService.getStatistics()).thenReturn(statistics(ImagePrefetcher.METERED_BUDGET_BYTES));
+
+        // when
+        networkStatusPublisher.onNext(true);
+        imagePrefetcher.update(6, 1, 0);
+
+        // then
+        verifyPrefetched(url(7));
+        assertEquals(2, imagePrefetcher.getIssued());
+    }
+
+    @Test
+    public void testReleaseStopsFollowingNetworkStatus() throws Exception {
+        // when
+        imagePrefetcher.release();
+
+        // then
+        assertFalse(networkStatusPublisher.hasObservers());
+    }
+
+    @Test
+    public void testNothingIsPrefetchedOffline() throws Exception {
+        // given
+        when(systemService.isOnline()).thenReturn(false);
+
+        // when
+        imagePrefetcher.update(5, 1, 0);
+
+        // then
+        assertEquals(0, imagePrefetcher.getIssued());
+    }
+
+    private void verifyPrefetched(String url) {
+        verify(imageService).prefetch(eq(url), eq(WIDTH), eq(HEIGHT), any(), any(Callback.class));
+    }
+
+    private static String url(long id) {
+        return "http://example.com/" + id + ".jpg";
+    }
+
+    private static ImageStatistics.Snapshot statistics(long networkBytes) {
+        return new ImageStatistics.Snapshot(0, 0, 0, 0, 0, 0, networkBytes, 0, 0, 0,
+                new Histogram().snapshot(), new Histogram().snapshot());
+    }
+}
@@ -0,0 +1,49 @@
+/*
+ *	Copyright 2017 Stowarzyszenie Na4Łapy
+ *
+ *	Licensed under the Apache License, Version 2.0 (the "License");
+ *	you may not use this file except in compliance with the License.
+ *	You may obtain a copy of the License at
+ *
+ *	http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *	Unless required by applicable law or agreed to in writing, software
+ *	distributed under the License is distributed on an "AS IS" BASIS,
+ *	WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *	See the License for the specific language governing permissions and
+ *	limitations under the License.
+ */
+package pl.kodujdlapolski.na4lapy.utils;
+
+import org.joda.time.Days;
+import org.joda.time.LocalDate;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+public class EpochDaysTest {
+
+    private static final LocalDate EPOCH = new LocalDate(1970, 1, 1);
+
+    @Test
+    public void testOfShouldCountDaysFromEpoch() throws Exception {
+        for (LocalDate date = new LocalDate(1600, 1, 1); date.getYear() < 2100; date = date.plusDays(1)) {
+            assertEquals(date.toString(), Days.daysBetween(EPOCH, date).getDays(), EpochDays.of(date));
+        }
+    }
+
+    @Test
+    public void testToLocalDateShouldInvertOf() throws Exception {
+        for (int epochDay = -150000; epochDay < 50000; epochDay++) {
+            assertEquals(epochDay, EpochDays.of(EpochDays.toLocalDate(epochDay)));
+        }
+    }
+
+    @Test
+    public void testKnownDates() throws Exception {
+        assertEquals(0, EpochDays.of(1970, 1, 1));
+        assertEquals(-1, EpochDays.of(1969, 12, 31));
+        assertEquals(11016, EpochDays.of(2000, 2, 29));
+        assertEquals(new LocalDate(2016, 2, 29), EpochDays.toLocalDate(16860));
+    }
+}
@@ -0,0 +1,108 @@
+/*
+ *	Copyright 2017 Stowarzyszenie Na4Łapy
+ *
+ *	Licensed under the Apache License, Version 2.0 (the "License");
+ *	you may not use this file except in compliance with the License.
+ *	You may obtain a copy of the License at
+ *
+ *	http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *	Unless required by applicable law or agreed to in writing, software
+ *	distributed under the License is distributed on an "AS IS" BASIS,
+ *	WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *	See the License for the specific language governing permissions and
+ *	limitations under the License.
+ */
+package pl.kodujdlapolski.na4lapy.utils;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+public class IdIndexedListTest {
+
+    @Test
+    public void testIndexOfIdFollowsRemoveAndInsert() throws Exception {
+        // given
+        IdIndexedList<Long> list = new IdIndexedList<>(id -> id);
+        list.addAll(Arrays.asList(10L, 20L, 30L, 40L));
+
+        // when
+        list.remove(1);
+        list.add(0, 50L);
+
+        // then
+        assertEquals(0, list.indexOfId(50L));
+        assertEquals(1, list.indexOfId(10L));
+        assertEquals(-1, list.indexOfId(20L));
+        assertEquals(2, list.indexOfId(30L));
+        assertEquals(3, list.indexOfId(40L));
+        assertNull(list.getById(20L));
+    }
+
+    @Test
+    public void testMove() throws Exception {
+        // given
+        IdIndexedList<Long> list = new IdIndexedList<>(id -> id);
+        list.addAll(Arrays.asList(1L, 2L, 3L));
+
+        // when
+        list.move(0, 2);
+
+        // then
+        assertEquals(Arrays.asList(2L, 3L, 1L), list);
+        assertEquals(2, list.indexOfId(1L));
+        assertEquals(0, list.indexOfId(2L));
+    }
+
+    @Test
+    public void testBehavesLikeArrayList() throws Exception {
+        // given
+        Random random = new Random(14);
+        IdIndexedList<Long> list = new IdIndexedList<>(id -> id);
+        List<Long> expected = new ArrayList<>();
+        long nextId = 0;
+
+        // when
+        for (int i = 0; i < 20000; i++) {
+            int operation = random.nextInt(6);
+            if (operation == 0 && !expected.isEmpty()) {
+                int index = random.nextInt(expected.size());
+                assertEquals(expected.remove(index), list.remove(index));
+            } else if (operation == 1) {
+                int index = random.nextInt(expected.size() + 1);
+                expected.add(index, nextId);
+                list.add(index, nextId++);
+            } else if (operation == 2 && !expected.isEmpty()) {
+                int index = random.nextInt(expected.size());
+                expected.set(index, nextId);
+                list.set(index, nextId++);
+            } else if (operation == 3 && expected.size() > 1) {
+                int from = random.nextInt(expected.size());
+                int to = random.nextInt(expected.size());
+                expected.add(to, expected.remove(from));
+                list.move(from, to);
+            } else if (operation == 4 && random.nextInt(50) == 0) {
+                expected.clear();
+                list.clear();
+            } else {
+                expected.add(nextId);
+                list.add(nextId++);
+            }
+            long id = random.nextInt((int) nextId + 1);
+            assertEquals(expected.indexOf(id), list.indexOfId(id));
+        }
+
+        // then
+        assertEquals(expected, list);
+        for (int i = 0; i < expected.size(); i++) {
+            assertEquals(i, list.indexOfId(expected.get(i)));
+        }
+    }
+}
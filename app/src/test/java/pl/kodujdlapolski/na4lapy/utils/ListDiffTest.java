@@ -0,0 +1,287 @@
+/*
+ *	Copyright 2017 Stowarzyszenie Na4Łapy
+ *
+ *	Licensed under the Apache License, Version 2.0 (the "License");
+ *	you may not use this file except in compliance with the License.
+ *	You may obtain a copy of the License at
+ *
+ *	http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *	Unless required by applicable law or agreed to in writing, software
+ *	distributed under the License is distributed on an "AS IS" BASIS,
+ *	WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *	See the License for the specific language governing permissions and
+ *	limitations under the License.
+ */
+package pl.kodujdlapolski.na4lapy.utils;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class ListDiffTest {
+
+    private static final int DATASETS = 500;
+
+    @Test
+    public void testIdenticalListsShouldProduceNoOperations() throws Exception {
+        // given
+        List<String> list = Arrays.asList("1:a", "2:a", "3:a");
+
+        // when
+        ListDiff.Result result = ListDiff.calculate(list, new ArrayList<>(list), ListDiffTest::key);
+
+        // then
+        assertTrue(result.isEmpty());
+    }
+
+    @Test
+    public void testMovingFirstItemToEndShouldBeOneMove() throws Exception {
+        // when
+        ListDiff.Result result = ListDiff.calculate(Arrays.asList("1:a", "2:a", "3:a", "4:a"),
+                Arrays.asList("2:a", "3:a", "4:a", "1:a"), ListDiffTest::key);
+
+        // then
+        assertEquals(1, result.getMoved());
+        assertEquals(0, result.getInserted() + result.getRemoved() + result.getChanged());
+    }
+
+    @Test
+    public void testRefreshWithOneChangedItemShouldChangeOnlyThatItem() throws Exception {
+        // given
+        List<String> cached = new ArrayList<>();
+        for (int i = 0; i < 30; i++) {
+            cached.add(i + ":a");
+        }
+        List<String> fresh = new ArrayList<>(cached);
+        fresh.set(7, "7:b");
+
+        // when
+        ListDiff.Result result = ListDiff.calculate(cached, fresh, ListDiffTest::key);
+
+        // then
+        assertEquals(1, result.getChanged());
+        assertEquals(0, result.getInserted() + result.getRemoved() + result.getMoved());
+    }
+
+    @Test
+    public void testConsecutiveOperationsShouldBeMergedIntoRanges() throws Exception {
+        // given
+        List<int[]> inserted = new ArrayList<>();
+        List<int[]> removed = new ArrayList<>();
+
+        // when
+        ListDiff.calculate(Arrays.asList("1:a", "2:a", "3:a", "4:a"), Arrays.asList("1:a", "5:a", "6:a", "7:a"), ListDiffTest::key)
+                .dispatchTo(new RecordingCallback(inserted, removed));
+
+        // then
+        assertEquals(1, removed.size());
+        assertArrayEquals(new int[]{1, 3}, removed.get(0));
+        assertEquals(1, inserted.size());
+        assertArrayEquals(new int[]{1, 3}, inserted.get(0));
+    }
+
+    @Test
+    public void testApplyingOperationsShouldTurnOldListIntoNewForRandomDatasets() throws Exception {
+        Random random = new Random(20170101);
+        for (int dataset = 0; dataset < DATASETS; dataset++) {
+            // given
+            List<String> oldList = randomList(random, random.nextInt(40));
+            List<String> newList = mutate(random, oldList);
+
+            // when
+            ListDiff.Result result = ListDiff.calculate(oldList, newList, ListDiffTest::key, Integer.MAX_VALUE);
+            List<String> applied = new ArrayList<>(oldList);
+            Set<Integer> changed = new HashSet<>();
+            result.dispatchTo(new ApplyingCallback(applied, changed));
+
+            // then
+            assertEquals("dataset " + dataset, newList.size(), applied.size());
+            for (int i = 0; i < newList.size(); i++) {
+                String item = applied.get(i);
+                if (item == null) {
+                    assertFalse("dataset " + dataset, containsKey(oldList, key(newList.get(i))));
+                } else {
+                    assertEquals("dataset " + dataset, key(newList.get(i)), key(item));
+                    assertEquals("dataset " + dataset, !item.equals(newList.get(i)), changed.contains(i));
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testReversedListShouldBeTurnedIntoNewOneWithOneMovePerItem() throws Exception {
+        // given
+        List<String> oldList = randomList(new Random(20170101), 2000);
+        List<String> newList = new ArrayList<>(oldList);
+        Collections.reverse(newList);
+
+        // when
+        ListDiff.Result result = ListDiff.calculate(oldList, newList, ListDiffTest::key, Integer.MAX_VALUE);
+        List<String> applied = new ArrayList<>(oldList);
+        result.dispatchTo(new ApplyingCallback(applied, new HashSet<>()));
+
+        // then
+        assertEquals(newList.size() - 1, result.getMoved());
+        assertEquals(newList, applied);
+    }
+
+    @Test
+    public void testReorderBeyondMaxMovesShouldReload() throws Exception {
+        // given
+        List<String> oldList = randomList(new Random(20170101), 100);
+        List<String> newList = new ArrayList<>(oldList);
+        Collections.reverse(newList);
+        List<int[]> inserted = new ArrayList<>();
+        List<int[]> removed = new ArrayList<>();
+        RecordingCallback callback = new RecordingCallback(inserted, removed);
+
+        // when
+        ListDiff.Result result = ListDiff.calculate(oldList, newList, ListDiffTest::key);
+        result.dispatchTo(callback);
+
+        // then
+        assertTrue(result.isReload());
+        assertTrue(callback.reloaded);
+        assertTrue(inserted.isEmpty());
+        assertTrue(removed.isEmpty());
+    }
+
+    @Test
+    public void testLongestIncreasingRun() throws Exception {
+        // when
+        int[] result = ListDiff.longestIncreasingRun(new int[]{3, 0, 1, 5, 2, 4});
+
+        // then
+        assertArrayEquals(new int[]{1, 2, 4, 5}, result);
+        assertEquals(0, ListDiff.longestIncreasingRun(new int[0]).length);
+    }
+
+    private static String key(String item) {
+        return item.substring(0, item.indexOf(':'));
+    }
+
+    private static boolean containsKey(List<String> list, String key) {
+        for (String item : list) {
+            if (key(item).equals(key)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static List<String> randomList(Random random, int size) {
+        List<String> list = new ArrayList<>();
+        for (int i = 0; i < size; i++) {
+            list.add(i + ":" + random.nextInt(3));
+        }
+        return list;
+    }
+
+    private static List<String> mutate(Random random, List<String> list) {
+        List<String> result = new ArrayList<>();
+        for (String item : list) {
+            if (random.nextInt(5) > 0) {
+                result.add(random.nextInt(4) > 0 ? item : key(item) + ":" + (random.nextInt(3) + 3));
+            }
+        }
+        int inserts = random.nextInt(10);
+        for (int i = 0; i < inserts; i++) {
+            result.add(random.nextInt(result.size() + 1), (100 + i) + ":n");
+        }
+        if (random.nextBoolean() && result.size() > 1) {
+            int from = random.nextInt(result.size());
+            result.add(random.nextInt(result.size()), result.remove(from));
+        }
+        if (random.nextInt(10) == 0) {
+            Collections.shuffle(result, random);
+        }
+        return result;
+    }
+
+    private static class ApplyingCallback implements ListDiff.Callback {
+        private final List<String> mList;
+        private final Set<Integer> mChanged;
+
+        ApplyingCallback(List<String> list, Set<Integer> changed) {
+            mList = list;
+            mChanged = changed;
+        }
+
+        @Override
+        public void onInserted(int position, int count) {
+            for (int i = 0; i < count; i++) {
+                mList.add(position, null);
+            }
+        }
+
+        @Override
+        public void onRemoved(int position, int count) {
+            for (int i = 0; i < count; i++) {
+                mList.remove(position);
+            }
+        }
+
+        @Override
+        public void onMoved(int fromPosition, int toPosition) {
+            mList.add(toPosition, mList.remove(fromPosition));
+        }
+
+        @Override
+        public void onChanged(int position, int count) {
+            for (int i = position; i < position + count; i++) {
+                mChanged.add(i);
+            }
+        }
+
+        @Override
+        public void onReloaded() {
+            throw new AssertionError("reload instead of operations");
+        }
+    }
+
+    private static class RecordingCallback implements ListDiff.Callback {
+        private final List<int[]> mInserted;
+        private final List<int[]> mRemoved;
+        boolean reloaded;
+
+        RecordingCallback(List<int[]> inserted, List<int[]> removed) {
+            mInserted = inserted;
+            mRemoved = removed;
+        }
+
+        @Override
+        public void onInserted(int position, int count) {
+            mInserted.add(new int[]{position, count});
+        }
+
+        @Override
+        public void onRemoved(int position, int count) {
+            mRemoved.add(new int[]{position, count});
+        }
+
+        @Override
+        public void onMoved(int fromPosition, int toPosition) {
+        }
+
+        @Override
+        public void onChanged(int position, int count) {
+        }
+
+        @Override
+        public void onReloaded() {
+            reloaded = true;
+        }
+    }
+}
@@ -0,0 +1,134 @@
+/*
+ *	Copyright 2017 Stowarzyszenie Na4Łapy
+ *
+ *	Licensed under the Apache License, Version 2.0 (the "License");
+ *	you may not use this file except in compliance with the License.
+ *	You may obtain a copy of the License at
+ *
+ *	http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *	Unless required by applicable law or agreed to in writing, software
+ *	distributed under the License is distributed on an "AS IS" BASIS,
+ *	WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *	See the License for the specific language governing permissions and
+ *	limitations under the License.
+ */
+package pl.kodujdlapolski.na4lapy.utils;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class LongHashSetTest {
+
+    @Test
+    public void testAddContainsRemove() throws Exception {
+        // given
+        LongHashSet set = new LongHashSet();
+
+        // when
+        boolean added = set.add(42L);
+        boolean addedAgain = set.add(42L);
+
+        // then
+        assertTrue(added);
+        assertFalse(addedAgain);
+        assertTrue(set.contains(42L));
+        assertEquals(1, set.size());
+        assertTrue(set.remove(42L));
+        assertFalse(set.remove(42L));
+        assertFalse(set.contains(42L));
+        assertTrue(set.isEmpty());
+    }
+
+    @Test
+    public void testZeroKey() throws Exception {
+        // given
+        LongHashSet set = new LongHashSet();
+
+        // when
+        set.add(0L);
+
+        // then
+        assertTrue(set.contains(0L));
+        assertEquals(1, set.size());
+        assertArrayEquals(new long[]{0L}, set.toArray());
+        assertTrue(set.remove(0L));
+        assertFalse(set.contains(0L));
+        assertEquals(0, set.size());
+    }
+
+    @Test
+    public void testRemoveKeepsCollidingKeysReachable() throws Exception {
+        // given
+        LongHashSet set = new LongHashSet();
+        for (long key = 1; key <= 1000; key++) {
+            set.add(key);
+        }
+
+        // when
+        for (long key = 1; key <= 1000; key += 2) {
+            set.remove(key);
+        }
+
+        // then
+        assertEquals(500, set.size());
+        for (long key = 1; key <= 1000; key++) {
+            assertEquals(key % 2 == 0, set.contains(key));
+        }
+    }
+
+    @Test
+    public void testBehavesLikeHashSet() throws Exception {
+        // given
+        Random random = new Random(8);
+        LongHashSet set = new LongHashSet();
+        Set<Long> expected = new HashSet<>();
+
+        // when
+        for (int i = 0; i < 100000; i++) {
+            long key = random.nextInt(2000) - 1000;
+            if (random.nextInt(3) == 0) {
+                assertEquals(expected.remove(key), set.remove(key));
+            } else {
+                assertEquals(expected.add(key), set.add(key));
+            }
+        }
+
+        // then
+        assertEquals(expected.size(), set.size());
+        long[] keys = set.toArray();
+        Arrays.sort(keys);
+        long[] expectedKeys = new long[expected.size()];
+        int index = 0;
+        for (Long key : expected) {
+            expectedKeys[index++] = key;
+        }
+        Arrays.sort(expectedKeys);
+        assertArrayEquals(expectedKeys, keys);
+    }
+
+    @Test
+    public void testClear() throws Exception {
+        // given
+        LongHashSet set = new LongHashSet();
+        set.add(0L);
+        set.add(5L);
+
+        // when
+        set.clear();
+
+        // then
+        assertTrue(set.isEmpty());
+        assertFalse(set.contains(0L));
+        assertFalse(set.contains(5L));
+    }
+}
@@ -0,0 +1,89 @@
+/*
+ *	Copyright 2017 Stowarzyszenie Na4Łapy
+ *
+ *	Licensed under the Apache License, Version 2.0 (the "License");
+ *	you may not use this file except in compliance with the License.
+ *	You may obtain a copy of the License at
+ *
+ *	http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *	Unless required by applicable law or agreed to in writing, software
+ *	distributed under the License is distributed on an "AS IS" BASIS,
+ *	WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *	See the License for the specific language governing permissions and
+ *	limitations under the License.
+ */
+package pl.kodujdlapolski.na4lapy.utils;
+
+import org.junit.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class LongIntHashMapTest {
+
+    @Test
+    public void testPutGetRemove() throws Exception {
+        // given
+        LongIntHashMap map = new LongIntHashMap();
+
+        // when
+        map.put(42L, 1);
+        map.put(42L, 2);
+
+        // then
+        assertEquals(2, map.get(42L));
+        assertEquals(1, map.size());
+        assertEquals(2, map.remove(42L));
+        assertEquals(LongIntHashMap.NO_VALUE, map.remove(42L));
+        assertEquals(LongIntHashMap.NO_VALUE, map.get(42L));
+        assertTrue(map.isEmpty());
+    }
+
+    @Test
+    public void testZeroKey() throws Exception {
+        // given
+        LongIntHashMap map = new LongIntHashMap();
+
+        // when
+        map.put(0L, 7);
+
+        // then
+        assertEquals(7, map.get(0L));
+        assertEquals(1, map.size());
+        assertEquals(7, map.remove(0L));
+        assertEquals(LongIntHashMap.NO_VALUE, map.get(0L));
+        assertEquals(0, map.size());
+    }
+
+    @Test
+    public void testBehavesLikeHashMap() throws Exception {
+        // given
+        Random random = new Random(8);
+        LongIntHashMap map = new LongIntHashMap();
+        Map<Long, Integer> expected = new HashMap<>();
+
+        // when
+        for (int i = 0; i < 100000; i++) {
+            long key = random.nextInt(2000) - 1000;
+            if (random.nextInt(3) == 0) {
+                Integer removed = expected.remove(key);
+                assertEquals(removed != null ? removed : LongIntHashMap.NO_VALUE, map.remove(key));
+            } else {
+                expected.put(key, i);
+                map.put(key, i);
+            }
+        }
+
+        // then
+        assertEquals(expected.size(), map.size());
+        for (long key = -1000; key < 1000; key++) {
+            Integer value = expected.get(key);
+            assertEquals(value != null ? value : LongIntHashMap.NO_VALUE, map.get(key));
+        }
+    }
+}
@@ -0,0 +1,143 @@
+/*
+ *	Copyright 2017 Stowarzyszenie Na4Łapy
+ *
+ *	Licensed under the Apache License, Version 2.0 (the "License");
+ *	you may not use this file except in compliance with the License.
+ *	You may obtain a copy of the License at
+ *
+ *	http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *	Unless required by applicable law or agreed to in writing, software
+ *	distributed under the License is distributed on an "AS IS" BASIS,
+ *	WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *	See the License for the specific language governing permissions and
+ *	limitations under the License.
+ */
+package pl.kodujdlapolski.na4lapy.utils;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+
+public class RequestLimiterTest {
+
+    private Map<String, Runnable> running;
+    private List<String> started;
+    private List<String> cancelled;
+    private RequestLimiter<String> requestLimiter;
+
+    @Before
+    public void setUp() throws Exception {
+        running = new HashMap<>();
+        started = new ArrayList<>();
+        cancelled = new ArrayList<>();
+        requestLimiter = new RequestLimiter<>(2, new RequestLimiter.Requester<String>() {
+            @Override
+            public void start(String slot, Runnable onFinished) {
+                started.add(slot);
+                running.put(slot, onFinished);
+            }
+
+            @Override
+            public void cancel(String slot) {
+                cancelled.add(slot);
+                running.remove(slot);
+            }
+        });
+    }
+
+    @Test
+    public void testRequestsAboveLimitAreQueued() throws Exception {
+        // when
+        requestLimiter.submit("a");
+        requestLimiter.submit("b");
+        requestLimiter.submit("c");
+
+        // then
+        assertEquals(2, requestLimiter.getInFlight());
+        assertEquals(1, requestLimiter.getQueued());
+        assertEquals(2, started.size());
+    }
+
+    @Test
+    public void testFinishedRequestStartsNextInOrder() throws Exception {
+        // given
+        requestLimiter.submit("a");
+        requestLimiter.submit("b");
+        requestLimiter.submit("c");
+        requestLimiter.submit("d");
+
+        // when
+        running.get("b").run();
+
+        // then
+        assertEquals("c", started.get(2));
+        assertEquals(2, requestLimiter.getInFlight());
+        assertEquals(1, requestLimiter.getQueued());
+    }
+
+    @Test
+    public void testResubmittedSlotReplacesRunningRequest() throws Exception {
+        // given
+        requestLimiter.submit("a");
+        requestLimiter.submit("b");
+        Runnable replaced = running.get("a");
+
+        // when
+        requestLimiter.submit("a");
+        replaced.run();
+
+        // then
+        assertEquals(1, cancelled.size());
+        assertEquals(3, started.size());
+        assertEquals(2, requestLimiter.getInFlight());
+    }
+
+    @Test
+    public void testCancelledQueuedRequestNeverStarts() throws Exception {
+        // given
+        requestLimiter.submit("a");
+        requestLimiter.submit("b");
+        requestLimiter.submit("c");
+
+        // when
+        requestLimiter.cancel("c");
+        running.get("a").run();
+
+        // then
+        assertEquals(2, started.size());
+        assertEquals(0, cancelled.size());
+        assertEquals(1, requestLimiter.getInFlight());
+    }
+
+    @Test
+    public void testRequestFinishingSynchronouslyFreesItsPlace() throws Exception {
+        // given
+        RequestLimiter<String> immediate = new RequestLimiter<>(1, new RequestLimiter.Requester<String>() {
+            @Override
+            public void start(String slot, Runnable onFinished) {
+                started.add(slot);
+                onFinished.run();
+            }
+
+            @Override
+            public void cancel(String slot) {
+            }
+        });
+
+        // when
+        for (int i = 0; i < 100; i++) {
+            immediate.submit("slot " + i);
+        }
+
+        // then
+        assertEquals(100, started.size());
+        assertEquals(0, immediate.getInFlight());
+    }
+}
@@ -0,0 +1,100 @@
+/*
+ *	Copyright 2017 Stowarzyszenie Na4Łapy
+ *
+ *	Licensed under the Apache License, Version 2.0 (the "License");
+ *	you may not use this file except in compliance with the License.
+ *	You may obtain a copy of the License at
+ *
+ *	http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *	Unless required by applicable law or agreed to in writing, software
+ *	distributed under the License is distributed on an "AS IS" BASIS,
+ *	WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *	See the License for the specific language governing permissions and
+ *	limitations under the License.
+ */
+package pl.kodujdlapolski.na4lapy.benchmark;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.JsonDeserializationContext;
+import com.google.gson.JsonDeserializer;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonParseException;
+
+import org.joda.time.LocalDate;
+import org.joda.time.format.DateTimeFormat;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.List;
+
+import pl.kodujdlapolski.na4lapy.model.Animal;
+import pl.kodujdlapolski.na4lapy.model.Photo;
+import pl.kodujdlapolski.na4lapy.service.api.model.PagedAnimalListDto;
+
+/**
+ * Parses an api page of animals with the Gson instance the app injects, photos included, and with
+ * the tree based deserializer the streaming adapters replaced as the baseline. The old deserializer
+ * also opened a database per animal, which cannot run on the JVM, so the baseline is the cheapest
+ * version of it.
+ */
+@State(Scope.Thread)
+public class AnimalJsonBenchmark {
+
+    @Param({"100", "10000", "100000"})
+    int size;
+
+    private Gson mGson;
+    private Gson mTreeGson;
+    private String mJson;
+
+    @Setup
+    public void setUp() {
+        mGson = Catalogue.gson();
+        mTreeGson = new GsonBuilder()
+                .registerTypeAdapter(LocalDate.class, new TreeLocalDateDeserializer())
+                .registerTypeAdapter(Animal.class, new TreeAnimalDeserializer())
+                .create();
+        mJson = Catalogue.json(Catalogue.animals(size));
+    }
+
+    @Benchmark
+    public PagedAnimalListDto parseAnimals() {
+        return mGson.fromJson(mJson, PagedAnimalListDto.class);
+    }
+
+    @Benchmark
+    public PagedAnimalListDto parseAnimalsWithTreeDeserializer() {
+        return mTreeGson.fromJson(mJson, PagedAnimalListDto.class);
+    }
+
+    private static class TreeLocalDateDeserializer implements JsonDeserializer<LocalDate> {
+        @Override
+        public LocalDate deserialize(JsonElement json, Type typeOfT, JsonDeserializationContext context) throws JsonParseException {
+            return DateTimeFormat.forPattern("yyyy-MM-dd").parseLocalDate(json.getAsString());
+        }
+    }
+
+    private static class TreeAnimalDeserializer implements JsonDeserializer<Animal> {
+        @Override
+        public Animal deserialize(JsonElement json, Type typeOfT, JsonDeserializationContext context) throws JsonParseException {
+            Gson gson = new GsonBuilder().registerTypeAdapter(LocalDate.class, new TreeLocalDateDeserializer()).create();
+            Animal animal = gson.fromJson(json, Animal.class);
+            List<Photo> photos = new ArrayList<>();
+            JsonElement jsonPhotos = json.getAsJsonObject().get("photos");
+            if (jsonPhotos != null && jsonPhotos.isJsonArray()) {
+                for (JsonElement singleJsonPhoto : jsonPhotos.getAsJsonArray()) {
+                    photos.add(gson.fromJson(singleJsonPhoto, Photo.class));
+                }
+            }
+            animal.setPhotoList(photos);
+            return animal;
+        }
+    }
+}
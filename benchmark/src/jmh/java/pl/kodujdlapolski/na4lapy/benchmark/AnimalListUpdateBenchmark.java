@@ -0,0 +1,60 @@
+/*
+ *	Copyright 2017 Stowarzyszenie Na4Łapy
+ *
+ *	Licensed under the Apache License, Version 2.0 (the "License");
+ *	you may not use this file except in compliance with the License.
+ *	You may obtain a copy of the License at
+ *
+ *	http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *	Unless required by applicable law or agreed to in writing, software
+ *	distributed under the License is distributed on an "AS IS" BASIS,
+ *	WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *	See the License for the specific language governing permissions and
+ *	limitations under the License.
+ */
+package pl.kodujdlapolski.na4lapy.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import pl.kodujdlapolski.na4lapy.model.AnimalSummary;
+import pl.kodujdlapolski.na4lapy.ui.browse.AnimalListUpdate;
+
+/**
+ * The whole list and per tab diffs the browse screen calculates for every list update.
+ */
+@State(Scope.Thread)
+public class AnimalListUpdateBenchmark {
+
+    @Param({"100", "10000", "100000"})
+    int size;
+
+    private List<AnimalSummary> mOldAnimals;
+    private List<AnimalSummary> mNewAnimals;
+
+    @Setup
+    public void setUp() {
+        List<AnimalSummary> animals = Catalogue.summaries(Catalogue.animals(size + size / 10));
+        mOldAnimals = new ArrayList<>(animals.subList(0, size));
+        // every tenth animal is adopted and as many new ones arrive
+        mNewAnimals = new ArrayList<>();
+        for (int i = 0; i < size; i++) {
+            if (i % 10 != 0) {
+                mNewAnimals.add(mOldAnimals.get(i));
+            }
+        }
+        mNewAnimals.addAll(animals.subList(size, animals.size()));
+    }
+
+    @Benchmark
+    public AnimalListUpdate calculate() {
+        return AnimalListUpdate.calculate(mOldAnimals, mNewAnimals);
+    }
+}
@@ -0,0 +1,119 @@
+/*
+ *	Copyright 2017 Stowarzyszenie Na4Łapy
+ *
+ *	Licensed under the Apache License, Version 2.0 (the "License");
+ *	you may not use this file except in compliance with the License.
+ *	You may obtain a copy of the License at
+ *
+ *	http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *	Unless required by applicable law or agreed to in writing, software
+ *	distributed under the License is distributed on an "AS IS" BASIS,
+ *	WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *	See the License for the specific language governing permissions and
+ *	limitations under the License.
+ */
+package pl.kodujdlapolski.na4lapy.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import pl.kodujdlapolski.na4lapy.model.Animal;
+import pl.kodujdlapolski.na4lapy.model.AnimalSummary;
+import pl.kodujdlapolski.na4lapy.model.type.ActivityAnimal;
+import pl.kodujdlapolski.na4lapy.model.type.Gender;
+import pl.kodujdlapolski.na4lapy.model.type.Size;
+import pl.kodujdlapolski.na4lapy.model.type.Species;
+import pl.kodujdlapolski.na4lapy.model.type.Sterilization;
+import pl.kodujdlapolski.na4lapy.model.type.Training;
+import pl.kodujdlapolski.na4lapy.model.type.Vaccination;
+import pl.kodujdlapolski.na4lapy.service.repository.AnimalSummaryMapper;
+import pl.kodujdlapolski.na4lapy.utils.EpochDays;
+
+/**
+ * Materialising the browse list from database rows: every column into full animals, as the list
+ * used to be loaded, and the summary columns through {@link AnimalSummaryMapper}. The rows are
+ * prepared up front and every column is copied, the way a cursor hands out a fresh string per read,
+ * so the gc profiler shows what each row costs.
+ */
+@State(Scope.Thread)
+public class AnimalSummaryBenchmark {
+
+    @Param({"100", "10000", "100000"})
+    int size;
+
+    private final AnimalSummaryMapper mMapper = new AnimalSummaryMapper();
+    private final List<String[]> mAnimalRows = new ArrayList<>();
+    private final List<String[]> mSummaryRows = new ArrayList<>();
+
+    @Setup
+    public void setUp() {
+        for (Animal animal : Catalogue.animals(size)) {
+            String firstPhotoUrl = animal.getPhotoList().get(0).getUrl();
+            mAnimalRows.add(new String[]{
+                    String.valueOf(animal.getId()), animal.getName(), animal.getRace(), animal.getDescription(),
+                    animal.getChipId(), epochDays(animal), String.valueOf(EpochDays.of(animal.getAdmittanceDate())),
+                    animal.getSterilization().name(), animal.getSpecies().name(), animal.getGender().name(),
+                    animal.getSize().name(), animal.getActivity().name(), animal.getVaccination().name(),
+                    animal.getTraining().name(), String.valueOf(animal.getId() * 31), "0", firstPhotoUrl});
+            mSummaryRows.add(new String[]{
+                    String.valueOf(animal.getId()), animal.getName(), epochDays(animal), animal.getSpecies().name(),
+                    animal.getGender().name(), animal.getSize().name(), animal.getActivity().name(), "0", firstPhotoUrl});
+        }
+    }
+
+    @Benchmark
+    public List<Animal> loadAnimals() {
+        List<Animal> animals = new ArrayList<>(mAnimalRows.size());
+        for (String[] row : mAnimalRows) {
+            Animal animal = new Animal();
+            animal.setId(Long.valueOf(read(row[0])));
+            animal.setName(read(row[1]));
+            animal.setRace(read(row[2]));
+            animal.setDescription(read(row[3]));
+            animal.setChipId(read(row[4]));
+            animal.setBirthDate(row[5] != null ? EpochDays.toLocalDate(Integer.parseInt(read(row[5]))) : null);
+            animal.setAdmittanceDate(EpochDays.toLocalDate(Integer.parseInt(read(row[6]))));
+            animal.setSterilization(Sterilization.valueOf(read(row[7])));
+            animal.setSpecies(Species.valueOf(read(row[8])));
+            animal.setGender(Gender.valueOf(read(row[9])));
+            animal.setSize(Size.valueOf(read(row[10])));
+            animal.setActivity(ActivityAnimal.valueOf(read(row[11])));
+            animal.setVaccination(Vaccination.valueOf(read(row[12])));
+            animal.setTraining(Training.valueOf(read(row[13])));
+            animal.setContentHash(Long.valueOf(read(row[14])));
+            animal.setComplianceLevel(Integer.valueOf(read(row[15])));
+            animal.setFirstPhotoUrl(read(row[16]));
+            animals.add(animal);
+        }
+        return animals;
+    }
+
+    @Benchmark
+    public List<AnimalSummary> loadSummaries() {
+        List<AnimalSummary> summaries = new ArrayList<>(mSummaryRows.size());
+        String[] columns = new String[AnimalSummaryMapper.COLUMNS.length];
+        for (String[] row : mSummaryRows) {
+            for (int i = 0; i < columns.length; i++) {
+                columns[i] = read(row[i]);
+            }
+            summaries.add(mMapper.mapRow(AnimalSummaryMapper.COLUMNS, columns));
+        }
+        return summaries;
+    }
+
+    private static String epochDays(Animal animal) {
+        return animal.getBirthDate() != null ? String.valueOf(EpochDays.of(animal.getBirthDate())) : null;
+    }
+
+    @SuppressWarnings("RedundantStringConstructorCall")
+    private static String read(String column) {
+        return column != null ? new String(column) : null;
+    }
+}
@@ -0,0 +1,165 @@
+/*
+ *	Copyright 2017 Stowarzyszenie Na4Łapy
+ *
+ *	Licensed under the Apache License, Version 2.0 (the "License");
+ *	you may not use this file except in compliance with the License.
+ *	You may obtain a copy of the License at
+ *
+ *	http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *	Unless required by applicable law or agreed to in writing, software
+ *	distributed under the License is distributed on an "AS IS" BASIS,
+ *	WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *	See the License for the specific language governing permissions and
+ *	limitations under the License.
+ */
+package pl.kodujdlapolski.na4lapy.benchmark;
+
+import com.google.gson.Gson;
+
+import org.joda.time.LocalDate;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import pl.kodujdlapolski.na4lapy.Na4LapyModule;
+import pl.kodujdlapolski.na4lapy.model.Animal;
+import pl.kodujdlapolski.na4lapy.model.AnimalSummary;
+import pl.kodujdlapolski.na4lapy.model.Photo;
+import pl.kodujdlapolski.na4lapy.model.UserPreferences;
+import pl.kodujdlapolski.na4lapy.model.type.ActivityAnimal;
+import pl.kodujdlapolski.na4lapy.model.type.Gender;
+import pl.kodujdlapolski.na4lapy.model.type.Size;
+import pl.kodujdlapolski.na4lapy.model.type.Species;
+import pl.kodujdlapolski.na4lapy.model.type.Sterilization;
+import pl.kodujdlapolski.na4lapy.model.type.Training;
+import pl.kodujdlapolski.na4lapy.model.type.Vaccination;
+import pl.kodujdlapolski.na4lapy.service.api.model.PagedAnimalListDto;
+
+/**
+ * Synthetic shelter catalogue. The same size always gives the same animals, so results of different
+ * commits are measured on identical data. Attribute frequencies roughly follow the production api:
+ * mostly dogs and cats, some attributes unknown or missing.
+ */
+class Catalogue {
+
+    static final LocalDate TODAY = new LocalDate(2017, 3, 1);
+    private static final long SEED = 4L;
+    private static final String[] NAMES = {"Azor", "Burek", "Mruczek", "Luna", "Reksio", "Filemon", "Kropka", "Puszek"};
+
+    private Catalogue() {
+    }
+
+    static List<Animal> animals(int count) {
+        Random random = new Random(SEED);
+        List<Animal> animals = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            long id = i + 1;
+            Animal animal = new Animal();
+            animal.setId(id);
+            animal.setName(NAMES[random.nextInt(NAMES.length)] + " " + id);
+            animal.setRace("mieszaniec");
+            animal.setDescription(description(random));
+            animal.setChipId(random.nextInt(10) < 3 ? null : Long.toString(616093900000000L + id));
+            animal.setBirthDate(random.nextInt(10) == 0 ? null : TODAY.minusDays(random.nextInt(18 * 365)));
+            animal.setAdmittanceDate(TODAY.minusDays(random.nextInt(3 * 365)));
+            animal.setSpecies(pick(random, new int[]{50, 35, 15}, Species.values()));
+            animal.setGender(pick(random, new int[]{45, 45, 10}, Gender.MALE, Gender.FEMALE, Gender.UNKNOWN));
+            animal.setSize(pick(random, new int[]{30, 35, 25, 10}, Size.SMALL, Size.MEDIUM, Size.LARGE, Size.UNKNOWN));
+            animal.setActivity(pick(random, new int[]{45, 45, 10}, ActivityAnimal.LOW, ActivityAnimal.HIGH, ActivityAnimal.UNKNOWN));
+            animal.setSterilization(Sterilization.values()[random.nextInt(Sterilization.values().length)]);
+            animal.setVaccination(Vaccination.values()[random.nextInt(Vaccination.values().length)]);
+            animal.setTraining(Training.values()[random.nextInt(Training.values().length)]);
+            animal.setPhotoList(photos(random, animal));
+            animals.add(animal);
+        }
+        return animals;
+    }
+
+    static List<AnimalSummary> summaries(List<Animal> animals) {
+        List<AnimalSummary> summaries = new ArrayList<>(animals.size());
+        for (Animal animal : animals) {
+            summaries.add(AnimalSummary.of(animal, 0));
+        }
+        return summaries;
+    }
+
+    /**
+     * @return the animals as one page of the api, in the order the api sends them
+     */
+    static String json(List<Animal> animals) {
+        PagedAnimalListDto page = new PagedAnimalListDto();
+        page.setData(animals);
+        page.setTotal(animals.size());
+        return gson().toJson(page);
+    }
+
+    static Gson gson() {
+        return new Na4LapyModule(null).provideGson();
+    }
+
+    static UserPreferences preferences() {
+        UserPreferences preferences = new UserPreferences();
+        preferences.setTypeDog(true);
+        preferences.setGenderWoman(true);
+        preferences.setAgeMin(1);
+        preferences.setAgeMax(8);
+        preferences.setSizeSmall(true);
+        preferences.setSizeMedium(true);
+        preferences.setActivityLow(true);
+        return preferences;
+    }
+
+    /**
+     * @return every {@code step}-th id of the catalogue, shuffled
+     */
+    static List<Long> ids(int count, int step) {
+        List<Long> ids = new ArrayList<>(count / step + 1);
+        for (long id = 1; id <= count; id += step) {
+            ids.add(id);
+        }
+        Collections.shuffle(ids, new Random(SEED));
+        return ids;
+    }
+
+    private static List<Photo> photos(Random random, Animal animal) {
+        int count = 1 + random.nextInt(3);
+        List<Photo> photos = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            Photo photo = new Photo();
+            photo.setId(animal.getId() * 4 + i);
+            photo.setUrl("http://na4lapy.kodujdlapolski.pl/photos/" + animal.getId() + "_" + i + ".jpg");
+            photo.setAuthor(random.nextBoolean() ? "Schronisko" : null);
+            photo.setAnimal(animal);
+            photos.add(photo);
+        }
+        return photos;
+    }
+
+    private static String description(Random random) {
+        StringBuilder description = new StringBuilder();
+        int words = 20 + random.nextInt(80);
+        for (int i = 0; i < words; i++) {
+            description.append(i == 0 ? "" : " ").append(NAMES[random.nextInt(NAMES.length)].toLowerCase());
+        }
+        return description.toString();
+    }
+
+    @SafeVarargs
+    private static <E> E pick(Random random, int[] weights, E... values) {
+        int total = 0;
+        for (int weight : weights) {
+            total += weight;
+        }
+        int roll = random.nextInt(total);
+        for (int i = 0; i < weights.length; i++) {
+            roll -= weights[i];
+            if (roll < 0) {
+                return values[i];
+            }
+        }
+        return values[values.length - 1];
+    }
+}
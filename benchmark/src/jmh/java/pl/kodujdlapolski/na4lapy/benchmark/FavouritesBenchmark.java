@@ -0,0 +1,98 @@
+/*
+ *	Copyright 2017 Stowarzyszenie Na4Łapy
+ *
+ *	Licensed under the Apache License, Version 2.0 (the "License");
+ *	you may not use this file except in compliance with the License.
+ *	You may obtain a copy of the License at
+ *
+ *	http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *	Unless required by applicable law or agreed to in writing, software
+ *	distributed under the License is distributed on an "AS IS" BASIS,
+ *	WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *	See the License for the specific language governing permissions and
+ *	limitations under the License.
+ */
+package pl.kodujdlapolski.na4lapy.benchmark;
+
+import android.content.SharedPreferences;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.sql.SQLException;
+import java.util.List;
+
+import pl.kodujdlapolski.na4lapy.model.Favourite;
+import pl.kodujdlapolski.na4lapy.service.preferences.PreferencesService;
+import pl.kodujdlapolski.na4lapy.service.preferences.PreferencesServiceImpl;
+import pl.kodujdlapolski.na4lapy.service.repository.database.DatabaseRepository;
+import pl.kodujdlapolski.na4lapy.service.user.FavouriteStore;
+import rx.schedulers.Schedulers;
+
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.mockito.Mockito.withSettings;
+
+/**
+ * Favourite handling with a third of the catalogue marked as favourite: the lookups of the bind path,
+ * toggling from the details screen and reading the list kept in preferences by older versions.
+ * The database is a stub, so only the in memory part is measured.
+ */
+@State(Scope.Thread)
+public class FavouritesBenchmark {
+
+    @Param({"100", "10000", "100000"})
+    int size;
+
+    private FavouriteStore mFavouriteStore;
+    private PreferencesService mPreferencesService;
+    private long mToggledId;
+
+    @Setup
+    public void setUp() throws SQLException {
+        List<Long> favourites = Catalogue.ids(size, 3);
+
+        // stub only mocks do not record invocations, which would otherwise pile up over the run
+        DatabaseRepository databaseRepository = mock(DatabaseRepository.class, withSettings().stubOnly());
+        when(databaseRepository.findAllIds(Favourite.class)).thenReturn(favourites);
+        SharedPreferences sharedPreferences = mock(SharedPreferences.class, withSettings().stubOnly());
+        when(sharedPreferences.getString(anyString(), any())).thenReturn(null);
+        when(sharedPreferences.getString(eq(PreferencesService.KEY_USER_FAVOURITES), any()))
+                .thenReturn(Catalogue.gson().toJson(favourites));
+        mPreferencesService = new PreferencesServiceImpl(sharedPreferences, Catalogue.gson());
+
+        PreferencesService noLegacyFavourites = mock(PreferencesService.class, withSettings().stubOnly());
+        mFavouriteStore = new FavouriteStore(databaseRepository, noLegacyFavourites, Schedulers.immediate());
+        mToggledId = size + 1;
+    }
+
+    @Benchmark
+    public int contains() {
+        int found = 0;
+        for (long id = 1; id <= size; id++) {
+            if (mFavouriteStore.contains(id)) {
+                found++;
+            }
+        }
+        return found;
+    }
+
+    @Benchmark
+    public boolean toggle() {
+        mFavouriteStore.add(mToggledId);
+        mFavouriteStore.remove(mToggledId);
+        return mFavouriteStore.contains(mToggledId);
+    }
+
+    @Benchmark
+    public List<Long> readLegacyFavourites() {
+        return mPreferencesService.getLegacyFavouriteList();
+    }
+}
@@ -0,0 +1,100 @@
+/*
+ *	Copyright 2017 Stowarzyszenie Na4Łapy
+ *
+ *	Licensed under the Apache License, Version 2.0 (the "License");
+ *	you may not use this file except in compliance with the License.
+ *	You may obtain a copy of the License at
+ *
+ *	http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *	Unless required by applicable law or agreed to in writing, software
+ *	distributed under the License is distributed on an "AS IS" BASIS,
+ *	WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *	See the License for the specific language governing permissions and
+ *	limitations under the License.
+ */
+package pl.kodujdlapolski.na4lapy.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import pl.kodujdlapolski.na4lapy.model.AnimalSummary;
+import pl.kodujdlapolski.na4lapy.model.type.Species;
+import pl.kodujdlapolski.na4lapy.utils.IdIndexedList;
+
+/**
+ * A favourite toggle finding the animal in the browse list and in every species page, once with a
+ * full scan of each list, as the browse screen used to, and once through the id index.
+ */
+@State(Scope.Thread)
+public class IdIndexedListBenchmark {
+
+    @Param({"100", "10000", "100000"})
+    int size;
+
+    private final List<List<AnimalSummary>> mScannedLists = new ArrayList<>();
+    private final List<IdIndexedList<AnimalSummary>> mIndexedLists = new ArrayList<>();
+    private long mToggle;
+
+    @Setup
+    public void setUp() {
+        List<AnimalSummary> all = Catalogue.summaries(Catalogue.animals(size));
+        mScannedLists.add(all);
+        for (Species species : Species.values()) {
+            List<AnimalSummary> page = new ArrayList<>();
+            for (AnimalSummary animal : all) {
+                if (animal.getSpecies() == species) {
+                    page.add(animal);
+                }
+            }
+            mScannedLists.add(page);
+        }
+        for (List<AnimalSummary> list : mScannedLists) {
+            IdIndexedList<AnimalSummary> indexed = new IdIndexedList<>(AnimalSummary::getId);
+            indexed.addAll(list);
+            mIndexedLists.add(indexed);
+        }
+    }
+
+    @Benchmark
+    public int toggleWithScan() {
+        Long id = nextId();
+        int found = 0;
+        for (List<AnimalSummary> list : mScannedLists) {
+            for (int i = 0; i < list.size(); i++) {
+                if (list.get(i).getId().equals(id)) {
+                    list.set(i, list.get(i));
+                    found++;
+                    break;
+                }
+            }
+        }
+        return found;
+    }
+
+    @Benchmark
+    public int toggleWithIndex() {
+        long id = nextId();
+        int found = 0;
+        for (IdIndexedList<AnimalSummary> list : mIndexedLists) {
+            int index = list.indexOfId(id);
+            if (index != -1) {
+                list.set(index, list.get(index));
+                found++;
+            }
+        }
+        return found;
+    }
+
+    // steps through the catalogue, so scans do not always stop at the same place
+    private long nextId() {
+        mToggle = (mToggle + 7) % size;
+        return mToggle + 1;
+    }
+}
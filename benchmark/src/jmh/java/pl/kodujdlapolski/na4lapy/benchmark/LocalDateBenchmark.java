@@ -0,0 +1,91 @@
+/*
+ *	Copyright 2017 Stowarzyszenie Na4Łapy
+ *
+ *	Licensed under the Apache License, Version 2.0 (the "License");
+ *	you may not use this file except in compliance with the License.
+ *	You may obtain a copy of the License at
+ *
+ *	http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *	Unless required by applicable law or agreed to in writing, software
+ *	distributed under the License is distributed on an "AS IS" BASIS,
+ *	WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *	See the License for the specific language governing permissions and
+ *	limitations under the License.
+ */
+package pl.kodujdlapolski.na4lapy.benchmark;
+
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+
+import org.joda.time.LocalDate;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.List;
+
+import pl.kodujdlapolski.na4lapy.model.Animal;
+import pl.kodujdlapolski.na4lapy.service.api.LocalDateTypeAdapter;
+import pl.kodujdlapolski.na4lapy.service.repository.database.LocalDatePersister;
+
+/**
+ * Date conversions of one catalogue: reading the api strings and the database round trip.
+ */
+@State(Scope.Thread)
+public class LocalDateBenchmark {
+
+    @Param({"100", "10000", "100000"})
+    int size;
+
+    private final TypeAdapter<LocalDate> mTypeAdapter = new LocalDateTypeAdapter();
+    private final LocalDatePersister mPersister = LocalDatePersister.getSingleton();
+    private String mJson;
+    private List<LocalDate> mDates;
+    private List<Object> mSqlArgs;
+
+    @Setup
+    public void setUp() {
+        mDates = new ArrayList<>(size);
+        for (Animal animal : Catalogue.animals(size)) {
+            mDates.add(animal.getAdmittanceDate());
+        }
+        mSqlArgs = new ArrayList<>(size);
+        StringBuilder json = new StringBuilder("[");
+        for (LocalDate date : mDates) {
+            mSqlArgs.add(mPersister.javaToSqlArg(null, date));
+            json.append(json.length() > 1 ? ",\"" : "\"").append(date).append('"');
+        }
+        mJson = json.append(']').toString();
+    }
+
+    @Benchmark
+    public void readJson(Blackhole blackhole) throws IOException {
+        JsonReader in = new JsonReader(new StringReader(mJson));
+        in.beginArray();
+        while (in.hasNext()) {
+            blackhole.consume(mTypeAdapter.read(in));
+        }
+        in.endArray();
+    }
+
+    @Benchmark
+    public void toSqlArg(Blackhole blackhole) {
+        for (LocalDate date : mDates) {
+            blackhole.consume(mPersister.javaToSqlArg(null, date));
+        }
+    }
+
+    @Benchmark
+    public void fromSqlArg(Blackhole blackhole) {
+        for (Object sqlArg : mSqlArgs) {
+            blackhole.consume(mPersister.sqlArgToJava(null, sqlArg, 0));
+        }
+    }
+}
@@ -0,0 +1,61 @@
+/*
+ *	Copyright 2017 Stowarzyszenie Na4Łapy
+ *
+ *	Licensed under the Apache License, Version 2.0 (the "License");
+ *	you may not use this file except in compliance with the License.
+ *	You may obtain a copy of the License at
+ *
+ *	http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *	Unless required by applicable law or agreed to in writing, software
+ *	distributed under the License is distributed on an "AS IS" BASIS,
+ *	WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *	See the License for the specific language governing permissions and
+ *	limitations under the License.
+ */
+package pl.kodujdlapolski.na4lapy.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import pl.kodujdlapolski.na4lapy.model.Animal;
+import pl.kodujdlapolski.na4lapy.service.preferences.PreferencesService;
+import pl.kodujdlapolski.na4lapy.service.user.UserServiceImpl;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.mockito.Mockito.withSettings;
+
+@State(Scope.Thread)
+public class SortByUserPreferencesBenchmark {
+
+    @Param({"100", "10000", "100000"})
+    int size;
+
+    private UserServiceImpl mUserService;
+    private List<Animal> mAnimals;
+    private List<Animal> mSorted;
+
+    @Setup
+    public void setUp() {
+        PreferencesService preferencesService = mock(PreferencesService.class, withSettings().stubOnly());
+        when(preferencesService.getUserPreferences()).thenReturn(Catalogue.preferences());
+        mUserService = new UserServiceImpl(preferencesService, null);
+        mAnimals = Catalogue.animals(size);
+        mSorted = new ArrayList<>(size);
+    }
+
+    @Benchmark
+    public List<Animal> sortByUserPreferences() {
+        // the sort works in place, so every run starts again from the api order
+        mSorted.clear();
+        mSorted.addAll(mAnimals);
+        return mUserService.sortByUserPreferences(mSorted);
+    }
+}